@@ -10,6 +10,12 @@ import javax.swing.*;
  */
 public class Main {
 
+    /** Ring size used when the asynchronous bus is enabled. */
+    private static final int ASYNC_BUS_CAPACITY = 1 << 14;
+
+    /** Most recent transient events (highlights) a late listener gets after the replay snapshot. */
+    private static final int REPLAY_TAIL_LENGTH = 512;
+
     /** Convenience holder bundling together module metadata and root panel. */
     public interface MainModule {
         String name();
@@ -24,18 +30,28 @@ public class Main {
      */
     public static void main(String[] args) {
         boolean headless = false;
+        boolean bench = false;
+        boolean analyze = false;
         if (args != null) {
             for (String arg : args) {
                 if ("--headless".equalsIgnoreCase(arg)) {
                     headless = true;
-                    break;
+                } else if ("--bench".equalsIgnoreCase(arg)) {
+                    bench = true;
+                } else if ("--analyze".equalsIgnoreCase(arg)) {
+                    analyze = true;
                 }
             }
         }
 
+        if (bench) {
+            System.exit(main.java.edu.tue.dsvis.bench.BenchRunner.run(args, System.out));
+        }
+        if (analyze) {
+            System.exit(main.java.edu.tue.dsvis.analysis.ComplexityAnalyzer.run(args, System.out));
+        }
         if (headless) {
-            runHeadlessDemo();
-            return;
+            System.exit(main.java.edu.tue.dsvis.headless.HeadlessRunner.run(args, System.out));
         }
 
         // Ensure system look and feel for native appearance
@@ -45,19 +61,16 @@ public class Main {
         }
 
         // Bootstrap runtime objects
-        main.java.edu.tue.dsvis.core.event.EventBus bus = main.java.edu.tue.dsvis.core.event.EventBus.getGlobal();
-        Timeline timeline = new Timeline(60);
-
-        // Instantiate the arrays module
-        main.java.edu.tue.dsvis.modules.arrays.ArraysModule arrays = new main.java.edu.tue.dsvis.modules.arrays.ArraysModule(bus, timeline);
-
-        javax.swing.SwingUtilities.invokeLater(() -> new main.java.edu.tue.dsvis.gui.MainFrame(arrays));
-    }
+        // -Ddsvis.asyncBus=true decouples models from listeners via a ring buffer
+        main.java.edu.tue.dsvis.core.event.EventBus bus = Boolean.getBoolean("dsvis.asyncBus")
+                ? new main.java.edu.tue.dsvis.core.event.AsyncEventBus(ASYNC_BUS_CAPACITY)
+                : main.java.edu.tue.dsvis.core.event.EventBus.getGlobal();
+        if (!(bus instanceof main.java.edu.tue.dsvis.core.event.AsyncEventBus)) {
+            // Lets panels toggled on mid-run (recursion tree) catch up
+            bus.enableReplay(REPLAY_TAIL_LENGTH);
+        }
 
-    /**
-     * Placeholder headless demo when running with --headless flag.
-     */
-    private static void runHeadlessDemo() {
-        System.out.println("Running DS-Vis in headless demo mode. (No GUI)\nTODO: implement JUnit demo.");
+        // The frame opens the arrays module in its own scope of the bus
+        javax.swing.SwingUtilities.invokeLater(() -> new main.java.edu.tue.dsvis.gui.MainFrame(bus));
     }
 } 
\ No newline at end of file
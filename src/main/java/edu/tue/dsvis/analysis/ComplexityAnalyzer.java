@@ -0,0 +1,338 @@
+package main.java.edu.tue.dsvis.analysis;
+
+import main.java.edu.tue.dsvis.core.animation.ManualClock;
+import main.java.edu.tue.dsvis.core.animation.ManualScheduler;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.OperationCounter;
+import main.java.edu.tue.dsvis.modules.arrays.model.SortModels;
+import main.java.edu.tue.dsvis.modules.heaps.HeapModel;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+/**
+ * Measures how a model scales: {@code --analyze --algo NAME [--from N]
+ * [--to N] [--factor F] [--shapes random,sorted,reversed,few-unique,nearly-sorted]
+ * [--warmup N] [--repeats N] [--threads N] [--seed S] [--expect n|nlogn|n2]
+ * [--list]}.
+ *
+ * <p>The model runs for every input size {@code from, from * factor, ...}
+ * up to {@code to} and every {@link InputShape}, each size and shape as one
+ * task on a {@link ForkJoinPool}. Runs use a bus without listeners, so
+ * nothing is rendered and the models skip optional events; frames are
+ * still produced. All tasks first run the model {@code warmup} times
+ * untimed; then each runs it {@code repeats} times timed and keeps the
+ * median wall-clock time and the {@link OperationCounter} of the last run
+ * (the counts are deterministic). Tasks on other workers compete for caches
+ * and cores, so times are noisier than {@code --bench} results; counted
+ * operations are exact.</p>
+ *
+ * <p>Operations (weighted by the model's cost model) and time are then
+ * fitted per shape against n, n log n and n² plus a constant
+ * ({@link CurveFit}). {@code --expect} turns the sweep into a regression
+ * check: it fails if the operation count of some shape grows faster than
+ * the expected model.</p>
+ */
+public final class ComplexityAnalyzer {
+
+    /** What is fitted. */
+    public enum Metric { OPERATIONS, TIME }
+
+    /**
+     * One sweep, over at least three sizes: through two points every
+     * two-parameter fit is exact, so no model would fit best.
+     *
+     * @param factor  ratio of consecutive sizes, at least 2
+     * @param warmup  untimed runs per size and shape
+     * @param repeats timed runs per size and shape; the median counts
+     */
+    public record Config(String algorithm, int from, int to, int factor, List<InputShape> shapes,
+                         int warmup, int repeats, long seed) {
+        public Config {
+            Objects.requireNonNull(algorithm, "algorithm");
+            if (from < 2 || to < from) throw new IllegalArgumentException("sizes must satisfy 2 <= from <= to");
+            if (factor < 2) throw new IllegalArgumentException("factor must be at least 2");
+            if ((long) from * factor * factor > to) {
+                throw new IllegalArgumentException("need at least three sizes: to >= from * factor^2");
+            }
+            if (shapes.isEmpty()) throw new IllegalArgumentException("no input shapes");
+            if (warmup < 0 || repeats < 1) throw new IllegalArgumentException("bad warmup or repeats");
+            shapes = List.copyOf(shapes);
+        }
+
+        /** @return {@code from, from * factor, ...} up to {@code to} */
+        public int[] sizes() {
+            List<Integer> out = new ArrayList<>();
+            for (long n = from; n <= to; n *= factor) out.add((int) n);
+            return out.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /** Measurement of one size and shape. */
+    public record Sample(InputShape shape, int n, long reads, long writes, long compares, long swaps,
+                         long cost, long nanos) {
+
+        double value(Metric metric) {
+            return metric == Metric.OPERATIONS ? cost : nanos;
+        }
+    }
+
+    /** Fits of one metric over the sizes of one shape. */
+    public record Curve(InputShape shape, Metric metric, CurveFit.Exponent exponent, List<CurveFit.Fit> fits) {
+
+        /** @return the fit with the smallest relative error */
+        public CurveFit.Fit best() {
+            return fits.get(0);
+        }
+    }
+
+    public record Report(Config config, List<Sample> samples, List<Curve> curves) {}
+
+    private static final Map<String, BiFunction<Model.ModelContext, int[], Model>> ALGORITHMS;
+    private static final Map<String, Integer> DEFAULT_MAX = new LinkedHashMap<>();
+
+    static {
+        Map<String, BiFunction<Model.ModelContext, int[], Model>> m = new LinkedHashMap<>(SortModels.all());
+        m.put("Heap Build (bottom-up)", (ctx, input) -> new HeapModel(ctx).prepareBuild(input, true));
+        m.put("Heap Build (incremental)", (ctx, input) -> new HeapModel(ctx).prepareBuild(input, false));
+        ALGORITHMS = Collections.unmodifiableMap(m);
+        // Where one run of the slowest shape stays well below a second
+        DEFAULT_MAX.put("Insertion Sort", 2_048);
+        DEFAULT_MAX.put("Heap Build (bottom-up)", HeapModel.MAX_HEAP_CAPACITY);
+        DEFAULT_MAX.put("Heap Build (incremental)", HeapModel.MAX_HEAP_CAPACITY);
+    }
+
+    private final ForkJoinPool pool;
+
+    public ComplexityAnalyzer(ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /** @return the models a sweep can run, by display name */
+    public static Map<String, BiFunction<Model.ModelContext, int[], Model>> algorithms() {
+        return ALGORITHMS;
+    }
+
+    /** Runs the sweep of {@code config} with the model registered under its algorithm name. */
+    public Report analyze(Config config) {
+        BiFunction<Model.ModelContext, int[], Model> factory = ALGORITHMS.get(config.algorithm());
+        if (factory == null) throw new IllegalArgumentException("unknown algorithm " + config.algorithm());
+        return analyze(config, factory);
+    }
+
+    /**
+     * Runs the sweep with {@code factory}, which receives a fresh copy of the
+     * input for every run.
+     *
+     * @throws IllegalStateException if a run failed
+     */
+    public Report analyze(Config config, BiFunction<Model.ModelContext, int[], Model> factory) {
+        // Warm up everything first, so small sizes are not timed before the
+        // large ones have compiled the model's code
+        List<Callable<Sample>> warmups = new ArrayList<>();
+        List<Callable<Sample>> tasks = new ArrayList<>();
+        for (InputShape shape : config.shapes()) {
+            for (int n : config.sizes()) {
+                int[] input = shape.generate(n, config.seed() + n);
+                warmups.add(() -> {
+                    for (int i = 0; i < config.warmup(); i++) runOnce(factory, input, null);
+                    return null;
+                });
+                tasks.add(() -> measure(config, factory, shape, input));
+            }
+        }
+        List<Sample> samples = new ArrayList<>();
+        try {
+            for (Future<Sample> f : pool.invokeAll(warmups)) f.get();
+            for (Future<Sample> f : pool.invokeAll(tasks)) samples.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(config.algorithm() + " failed: " + e.getCause(), e.getCause());
+        }
+
+        List<Curve> curves = new ArrayList<>();
+        for (InputShape shape : config.shapes()) {
+            List<Sample> own = samples.stream().filter(s -> s.shape() == shape).toList();
+            double[] n = own.stream().mapToDouble(Sample::n).toArray();
+            for (Metric metric : Metric.values()) {
+                double[] y = own.stream().mapToDouble(s -> s.value(metric)).toArray();
+                if (Arrays.stream(y).noneMatch(v -> v > 0)) continue; // e.g. a model that counts nothing
+                curves.add(new Curve(shape, metric, CurveFit.exponent(n, y), CurveFit.fitAll(n, y)));
+            }
+        }
+        return new Report(config, samples, curves);
+    }
+
+    /** One task: the timed runs of one size and shape. */
+    private static Sample measure(Config config, BiFunction<Model.ModelContext, int[], Model> factory,
+                                  InputShape shape, int[] input) {
+        long[] nanos = new long[config.repeats()];
+        OperationCounter ops = null;
+        for (int i = 0; i < nanos.length; i++) {
+            long[] time = new long[1];
+            ops = runOnce(factory, input, time);
+            nanos[i] = time[0];
+        }
+        Arrays.sort(nanos);
+        return new Sample(shape, input.length, ops.getReads(), ops.getWrites(), ops.getCompares(), ops.getSwaps(),
+                ops.getCost(), nanos[nanos.length / 2]);
+    }
+
+    /** Runs a fresh model on a copy of {@code input}; stores the time of {@code run()} in {@code time[0]}. */
+    private static OperationCounter runOnce(BiFunction<Model.ModelContext, int[], Model> factory, int[] input,
+                                            long[] time) {
+        ManualClock clock = new ManualClock();
+        Timeline timeline = new Timeline(60, clock, new ManualScheduler(clock));
+        try {
+            Model model = factory.apply(new Model.ModelContext(new EventBus(), timeline), input.clone());
+            long t0 = System.nanoTime();
+            model.run();
+            long t1 = System.nanoTime();
+            if (time != null) time[0] = t1 - t0;
+            return model.getOperations();
+        } finally {
+            timeline.reset(); // drops spill files
+        }
+    }
+
+    // Command line
+
+    /** @return process exit code: 0 on success, 1 if {@code --expect} failed or a run failed, 2 on bad arguments */
+    public static int run(String[] args, PrintStream out) {
+        Config config;
+        GrowthModel expect = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        try {
+            String algo = null;
+            int from = 16;
+            int to = -1;
+            int factor = 2;
+            List<InputShape> shapes = List.of(InputShape.values());
+            int warmup = 3;
+            int repeats = 5;
+            long seed = 42;
+            for (int i = 0; i < args.length; i++) {
+                String a = args[i];
+                switch (a.toLowerCase(Locale.ROOT)) {
+                    case "--analyze" -> { }
+                    case "--algo" -> algo = value(args, ++i, a);
+                    case "--from" -> from = intValue(args, ++i, a, 2);
+                    case "--to" -> to = intValue(args, ++i, a, 2);
+                    case "--factor" -> factor = intValue(args, ++i, a, 2);
+                    case "--shapes" -> shapes = Arrays.stream(value(args, ++i, a).split(","))
+                            .map(InputShape::fromLabel).distinct().toList();
+                    case "--warmup" -> warmup = intValue(args, ++i, a, 0);
+                    case "--repeats" -> repeats = intValue(args, ++i, a, 1);
+                    case "--threads" -> threads = intValue(args, ++i, a, 1);
+                    case "--seed" -> seed = Long.parseLong(value(args, ++i, a));
+                    case "--expect" -> expect = GrowthModel.fromLabel(value(args, ++i, a));
+                    case "--list" -> {
+                        ALGORITHMS.keySet().forEach(out::println);
+                        return 0;
+                    }
+                    default -> throw new IllegalArgumentException("unknown option " + a);
+                }
+            }
+            if (algo == null) throw new IllegalArgumentException("--algo is required");
+            if (!ALGORITHMS.containsKey(algo)) throw new IllegalArgumentException("unknown algorithm " + algo);
+            if (to < 0) to = Math.max(from, DEFAULT_MAX.getOrDefault(algo, 65_536));
+            config = new Config(algo, from, to, factor, shapes, warmup, repeats, seed);
+        } catch (IllegalArgumentException e) {
+            out.println("error: " + e.getMessage());
+            out.println("usage: --analyze --algo NAME [--from N] [--to N] [--factor F]"
+                    + " [--shapes random,sorted,reversed,few-unique,nearly-sorted] [--warmup N] [--repeats N]"
+                    + " [--threads N] [--seed S] [--expect n|nlogn|n2] [--list]");
+            out.println("algorithms: " + String.join(", ", ALGORITHMS.keySet()));
+            return 2;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Report report;
+        try {
+            report = new ComplexityAnalyzer(pool).analyze(config);
+        } catch (IllegalStateException e) {
+            out.println("error: " + e.getMessage());
+            return 1;
+        } finally {
+            pool.shutdown();
+        }
+        print(report, threads, out);
+        return expect == null || check(report, expect, out) ? 0 : 1;
+    }
+
+    /** @return {@code false} if a faster-growing model fits some shape's operations better */
+    private static boolean check(Report report, GrowthModel expect, PrintStream out) {
+        boolean ok = true;
+        for (Curve c : report.curves()) {
+            if (c.metric() != Metric.OPERATIONS) continue;
+            GrowthModel best = c.best().model();
+            if (best.compareTo(expect) > 0) {
+                out.printf("FAIL  %s operations grow like %s, expected at most %s%n",
+                        c.shape().label(), best.label(), expect.label());
+                ok = false;
+            }
+        }
+        if (ok) out.printf("ok    operations grow at most like %s%n", expect.label());
+        return ok;
+    }
+
+    private static void print(Report report, int threads, PrintStream out) {
+        Config c = report.config();
+        out.printf("algorithm  %s, n = %d..%d (x%d), warmup %d, repeats %d, %d threads%n", c.algorithm(),
+                c.from(), c.sizes()[c.sizes().length - 1], c.factor(), c.warmup(), c.repeats(), threads);
+        out.printf("%n%-13s %9s %12s %12s %12s %12s %14s %12s%n",
+                "shape", "n", "reads", "writes", "compares", "swaps", "cost", "time ms");
+        for (Sample s : report.samples()) {
+            out.printf(Locale.ROOT, "%-13s %9d %12d %12d %12d %12d %14d %12.3f%n", s.shape().label(), s.n(),
+                    s.reads(), s.writes(), s.compares(), s.swaps(), s.cost(), s.nanos() / 1e6);
+        }
+        out.printf("%nfits, 95%% confidence; coefficient c of a + c * f(n) and rms relative error%n");
+        out.printf("%-13s %-10s %-22s", "shape", "metric", "exponent");
+        for (GrowthModel m : GrowthModel.values()) out.printf(" %-30s", m.label());
+        out.printf(" best%n");
+        for (Curve cv : report.curves()) {
+            CurveFit.Exponent e = cv.exponent();
+            out.printf(Locale.ROOT, "%-13s %-10s %-22s", cv.shape().label(),
+                    cv.metric() == Metric.OPERATIONS ? "ops" : "time ns",
+                    String.format(Locale.ROOT, "%.2f [%.2f, %.2f]", e.value(), e.low(), e.high()));
+            for (GrowthModel m : GrowthModel.values()) {
+                CurveFit.Fit f = cv.fits().stream().filter(x -> x.model() == m).findFirst().orElseThrow();
+                out.printf(Locale.ROOT, " %-30s", String.format(Locale.ROOT, "%.3g +- %.2g  %5.1f%%",
+                        f.coefficient(), (f.high() - f.low()) / 2, 100 * f.relativeError()));
+            }
+            out.printf(" %s%n", cv.best().model().label());
+        }
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static int intValue(String[] args, int i, String option, int min) {
+        int v;
+        try {
+            v = Integer.parseInt(value(args, i, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs an integer");
+        }
+        if (v < min) throw new IllegalArgumentException(option + " must be at least " + min);
+        return v;
+    }
+}
@@ -0,0 +1,132 @@
+package main.java.edu.tue.dsvis.analysis;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Least-squares fits of measurements {@code y} over input sizes {@code n},
+ * with 95% confidence intervals from Student's t distribution.
+ *
+ * <p>Each {@link GrowthModel} is fitted as {@code y = a + c * f(n)} on
+ * relative residuals, so the large sizes of a geometric sweep do not drown
+ * out the small ones; the model with the smallest relative error explains
+ * the data best. The empirical exponent is the slope of {@code log y} over
+ * {@code log n}, which also exposes growth between the candidates, such as
+ * {@code n^1.58}.</p>
+ */
+public final class CurveFit {
+
+    /** Two-sided 95% quantiles of Student's t for 1 to 30 degrees of freedom. */
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042};
+
+    /**
+     * {@code y = intercept + coefficient * f(n)}.
+     *
+     * @param low           lower end of the coefficient's 95% interval
+     * @param high          upper end; NaN bounds below three points
+     * @param relativeError root mean square of {@code (y - fit) / y}
+     */
+    public record Fit(GrowthModel model, double intercept, double coefficient, double low, double high,
+                      double relativeError) {}
+
+    /** {@code y ~ n^value}, with its 95% interval; NaN bounds below three points. */
+    public record Exponent(double value, double low, double high) {}
+
+    private CurveFit() {
+    }
+
+    /**
+     * @return a fit for every {@link GrowthModel}, best (smallest relative
+     *         error) first; through two points every fit is exact, so the
+     *         order only means something from three points on
+     */
+    public static List<Fit> fitAll(double[] n, double[] y) {
+        List<Fit> fits = new ArrayList<>();
+        for (GrowthModel m : GrowthModel.values()) fits.add(fit(m, n, y));
+        fits.sort(Comparator.comparingDouble(Fit::relativeError));
+        return fits;
+    }
+
+    /**
+     * Weighted least squares of {@code y = a + c * f(n)} with weights
+     * {@code 1 / y^2}, i.e. on relative residuals. The intercept absorbs
+     * fixed per-run overhead that would otherwise dominate the small sizes.
+     *
+     * @throws IllegalArgumentException with fewer than two points with {@code y > 0}
+     */
+    public static Fit fit(GrowthModel model, double[] n, double[] y) {
+        double s0 = 0, s1 = 0, s2 = 0, sy = 0, sfy = 0;
+        int k = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (!(y[i] > 0)) continue; // relative error undefined
+            double w = 1 / (y[i] * y[i]);
+            double f = model.apply(n[i]);
+            s0 += w;
+            s1 += w * f;
+            s2 += w * f * f;
+            sy += w * y[i];
+            sfy += w * f * y[i];
+            k++;
+        }
+        if (k < 2) throw new IllegalArgumentException("need two positive measurements");
+        double det = s0 * s2 - s1 * s1;
+        double c = (s0 * sfy - s1 * sy) / det;
+        double a = (s2 * sy - s1 * sfy) / det;
+        double sse = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (!(y[i] > 0)) continue;
+            double e = (y[i] - a - c * model.apply(n[i])) / y[i];
+            sse += e * e;
+        }
+        double half = Double.NaN;
+        if (k > 2) half = t975(k - 2) * Math.sqrt(sse / (k - 2) * s0 / det);
+        return new Fit(model, a, c, c - half, c + half, Math.sqrt(sse / k));
+    }
+
+    /** Ordinary least squares of {@code log y} on {@code log n}; points with {@code y <= 0} are skipped. */
+    public static Exponent exponent(double[] n, double[] y) {
+        int k = 0;
+        double sx = 0;
+        double sz = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (!(y[i] > 0)) continue;
+            sx += Math.log(n[i]);
+            sz += Math.log(y[i]);
+            k++;
+        }
+        if (k < 2) return new Exponent(Double.NaN, Double.NaN, Double.NaN);
+        double mx = sx / k;
+        double mz = sz / k;
+        double sxx = 0;
+        double sxz = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (!(y[i] > 0)) continue;
+            double dx = Math.log(n[i]) - mx;
+            sxx += dx * dx;
+            sxz += dx * (Math.log(y[i]) - mz);
+        }
+        double b = sxz / sxx;
+        if (k < 3) return new Exponent(b, Double.NaN, Double.NaN);
+        double sse = 0;
+        for (int i = 0; i < n.length; i++) {
+            if (!(y[i] > 0)) continue;
+            double e = Math.log(y[i]) - mz - b * (Math.log(n[i]) - mx);
+            sse += e * e;
+        }
+        double half = t975(k - 2) * Math.sqrt(sse / (k - 2) / sxx);
+        return new Exponent(b, b - half, b + half);
+    }
+
+    /** @return the 97.5% quantile of Student's t with {@code df} degrees of freedom */
+    static double t975(int df) {
+        if (df < 1) throw new IllegalArgumentException("df must be positive");
+        if (df <= T_975.length) return T_975[df - 1];
+        if (df <= 60) return 2.000;
+        if (df <= 120) return 1.980;
+        return 1.960;
+    }
+}
@@ -0,0 +1,41 @@
+package main.java.edu.tue.dsvis.analysis;
+
+import java.util.Locale;
+
+/** Candidate growth functions a size sweep is fitted against, slowest first. */
+public enum GrowthModel {
+
+    LINEAR("n"),
+    N_LOG_N("n log n"),
+    QUADRATIC("n^2");
+
+    private final String label;
+
+    GrowthModel(String label) {
+        this.label = label;
+    }
+
+    /** @return f(n); logarithms are base 2 */
+    public double apply(double n) {
+        return switch (this) {
+            case LINEAR -> n;
+            case N_LOG_N -> n * Math.log(n) / Math.log(2);
+            case QUADRATIC -> n * n;
+        };
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /** Accepts the label or a compact spelling: {@code n}, {@code nlogn}, {@code n2}. */
+    public static GrowthModel fromLabel(String label) {
+        String l = label.toLowerCase(Locale.ROOT).replace(" ", "").replace("^", "");
+        return switch (l) {
+            case "n" -> LINEAR;
+            case "nlogn" -> N_LOG_N;
+            case "n2" -> QUADRATIC;
+            default -> throw new IllegalArgumentException("unknown growth model " + label);
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package main.java.edu.tue.dsvis.analysis;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Arrangements of the input for a size sweep; best, worst and typical cases
+ * of the array algorithms differ mostly in these.
+ */
+public enum InputShape {
+
+    /** Uniform values in {@code [0, max(1000, n))}. */
+    RANDOM,
+    /** {@link #RANDOM} values in ascending order. */
+    SORTED,
+    /** {@link #RANDOM} values in descending order. */
+    REVERSED,
+    /** Uniform values in {@code [0, 8)}: many duplicates. */
+    FEW_UNIQUE,
+    /** {@link #SORTED}, then one random swap per hundred elements: long natural runs. */
+    NEARLY_SORTED;
+
+    private static final int FEW = 8;
+
+    /** @return a new array of {@code n} elements; the same for the same seed */
+    public int[] generate(int n, long seed) {
+        Random random = new Random(seed);
+        if (this == FEW_UNIQUE) return random.ints(n, 0, FEW).toArray();
+        int[] a = random.ints(n, 0, Math.max(1000, n)).toArray();
+        if (this != RANDOM) Arrays.sort(a);
+        if (this == REVERSED) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) swap(a, i, j);
+        }
+        if (this == NEARLY_SORTED && n > 1) {
+            for (int k = Math.max(1, n / 100); k > 0; k--) swap(a, random.nextInt(n), random.nextInt(n));
+        }
+        return a;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /** @return the command-line spelling, e.g. {@code few-unique} */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /** @throws IllegalArgumentException for an unknown label */
+    public static InputShape fromLabel(String label) {
+        for (InputShape s : values()) {
+            if (s.label().equalsIgnoreCase(label.trim())) return s;
+        }
+        throw new IllegalArgumentException("unknown input shape " + label);
+    }
+}
@@ -0,0 +1,304 @@
+package main.java.edu.tue.dsvis.bench;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Runs a benchmark suite: {@code --bench [--suite core|render]
+ * [--only REGEX] [--warmup N] [--iterations N] [--time MS] [--max-param N]
+ * [--csv FILE] [--compare FILE] [--list]}. The {@code core} suite is
+ * {@link Benchmarks}, {@code render} is {@link RenderBenchmarks}; the latter
+ * reports milliseconds and paints per second and forces
+ * {@code java.awt.headless=true} unless the property is set.
+ *
+ * <p>Each benchmark is measured per parameter value in warm-up and
+ * measurement iterations of {@code --time} milliseconds, like JMH's
+ * iteration mode. Within an iteration the runner repeats untimed
+ * {@link Benchmark.Case#setUp()} and timed
+ * {@link Benchmark.Case#invoke(Blackhole)} calls. Reported per operation
+ * are the mean time with its standard deviation across iterations, the
+ * bytes allocated by the benchmark thread during {@code invoke} (the
+ * counterpart of JMH's {@code gc.alloc.rate.norm}), the allocation rate,
+ * and the number and duration of collections during the measurement.</p>
+ *
+ * <p>{@code --csv} saves the results; {@code --compare} reads a saved file,
+ * e.g. from the previous commit, and adds the change in time and
+ * allocation per operation. Run on an otherwise idle machine with a fixed
+ * heap ({@code -Xms}/{@code -Xmx}) for comparable numbers.</p>
+ */
+public final class BenchRunner {
+
+    private static final String CSV_HEADER =
+            "benchmark,param,value,ns_per_op,ns_error,ops_per_s,bytes_per_op,alloc_mb_per_s,gc_count,gc_ms";
+
+    /** Options after parsing. */
+    record Options(String suite, Pattern only, int warmup, int iterations, long timeMillis, int maxParam,
+                   Path csv, Path compare, boolean list) {}
+
+    /** Aggregated measurement of one benchmark at one parameter value. */
+    record Result(String benchmark, String param, int value, double nsPerOp, double nsError,
+                  double bytesPerOp, double allocMbPerSec, long gcCount, long gcMillis) {
+
+        double opsPerSec() {
+            return nsPerOp > 0 ? 1e9 / nsPerOp : 0;
+        }
+
+        String key() {
+            return benchmark + ":" + value;
+        }
+    }
+
+    private BenchRunner() {
+    }
+
+    /** @return process exit code: 0 on success, 2 on bad arguments, 1 on I/O errors */
+    public static int run(String[] args, PrintStream out) {
+        Options options;
+        try {
+            options = parse(args);
+        } catch (IllegalArgumentException e) {
+            out.println("error: " + e.getMessage());
+            out.println("usage: --bench [--suite core|render] [--only REGEX] [--warmup N] [--iterations N]"
+                    + " [--time MS] [--max-param N] [--csv FILE] [--compare FILE] [--list]");
+            return 2;
+        }
+        boolean render = options.suite().equals("render");
+        if (render && System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true"); // before any AWT class initialises
+        }
+        List<Benchmark> suite = new ArrayList<>();
+        for (Benchmark b : render ? RenderBenchmarks.all() : Benchmarks.all()) {
+            if (options.only() == null || options.only().matcher(b.name()).find()) suite.add(b);
+        }
+        if (options.list()) {
+            for (Benchmark b : suite) out.println(b.name() + "  " + b.param() + "=" + join(b.params()));
+            return 0;
+        }
+
+        Map<String, Result> baseline;
+        try {
+            baseline = options.compare() != null ? readCsv(options.compare()) : Map.of();
+        } catch (IOException e) {
+            out.println("error: cannot read " + options.compare() + ": " + e.getMessage());
+            return 1;
+        }
+
+        // Paints are reported in ms and paints (frames) per second
+        double scale = render ? 1e6 : 1;
+        String op = render ? "paint" : "op";
+        out.printf("%-32s %10s %14s %12s %12s %12s %12s %6s %8s%s%n", "benchmark", "param",
+                (render ? "ms/" : "ns/") + op, "+- stddev", op + "s/s", "B/" + op, "MB/s alloc", "gc", "gc ms",
+                baseline.isEmpty() ? "" : "   d time     d B/" + op);
+        List<Result> results = new ArrayList<>();
+        for (Benchmark b : suite) {
+            for (int value : b.params()) {
+                if (value > options.maxParam()) continue;
+                Result r = measure(b, value, options);
+                results.add(r);
+                out.printf(Locale.ROOT, "%-32s %10s %14.3f %12.3f %12.1f %12.1f %12.1f %6d %8d%s%n", r.benchmark(),
+                        r.param() + "=" + r.value(), r.nsPerOp() / scale, r.nsError() / scale, r.opsPerSec(),
+                        r.bytesPerOp(), r.allocMbPerSec(), r.gcCount(), r.gcMillis(), delta(r, baseline.get(r.key())));
+            }
+        }
+
+        if (options.csv() != null) {
+            try {
+                writeCsv(options.csv(), results);
+            } catch (IOException e) {
+                out.println("error: cannot write " + options.csv() + ": " + e.getMessage());
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    // Measurement
+
+    static Result measure(Benchmark benchmark, int value, Options options) {
+        Benchmark.Case c = benchmark.cases().apply(value);
+        Blackhole bh = new Blackhole();
+        for (int i = 0; i < options.warmup(); i++) iteration(c, bh, options.timeMillis());
+
+        System.gc(); // start measuring from a clean heap
+        List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+        long gcCount0 = gcCount(gcs);
+        long gcTime0 = gcTime(gcs);
+        double[] nsPerOp = new double[options.iterations()];
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < nsPerOp.length; i++) {
+            long[] it = iteration(c, bh, options.timeMillis());
+            nsPerOp[i] = (double) it[1] / it[0];
+            ops += it[0];
+            nanos += it[1];
+            bytes = bytes < 0 || it[2] < 0 ? -1 : bytes + it[2];
+        }
+
+        double mean = 0;
+        for (double v : nsPerOp) mean += v;
+        mean /= nsPerOp.length;
+        double var = 0;
+        for (double v : nsPerOp) var += (v - mean) * (v - mean);
+        double stddev = nsPerOp.length > 1 ? Math.sqrt(var / (nsPerOp.length - 1)) : 0;
+        double bytesPerOp = bytes < 0 ? Double.NaN : (double) bytes / ops;
+        double mbPerSec = bytes < 0 ? Double.NaN : bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+        return new Result(benchmark.name(), benchmark.param(), value, mean, stddev, bytesPerOp, mbPerSec,
+                gcCount(gcs) - gcCount0, gcTime(gcs) - gcTime0);
+    }
+
+    /**
+     * Invokes {@code c} until {@code millis} have passed (at least once).
+     *
+     * @return {operations, timed nanos, allocated bytes or -1}
+     */
+    private static long[] iteration(Benchmark.Case c, Blackhole bh, long millis) {
+        long end = System.nanoTime() + millis * 1_000_000L;
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        do {
+            c.setUp();
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            ops += c.invoke(bh);
+            long t1 = System.nanoTime();
+            long a1 = allocatedBytes();
+            bh.publish();
+            nanos += t1 - t0;
+            bytes = a0 < 0 ? -1 : bytes + (a1 - a0);
+        } while (System.nanoTime() < end);
+        return new long[]{Math.max(1, ops), nanos, bytes};
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long gcCount(List<GarbageCollectorMXBean> gcs) {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : gcs) sum += Math.max(0, gc.getCollectionCount());
+        return sum;
+    }
+
+    private static long gcTime(List<GarbageCollectorMXBean> gcs) {
+        long sum = 0;
+        for (GarbageCollectorMXBean gc : gcs) sum += Math.max(0, gc.getCollectionTime());
+        return sum;
+    }
+
+    // Results
+
+    private static String delta(Result now, Result before) {
+        if (before == null) return "";
+        return String.format(Locale.ROOT, "   %+7.1f%%  %+7.1f", 100 * (now.nsPerOp() / before.nsPerOp() - 1),
+                now.bytesPerOp() - before.bytesPerOp());
+    }
+
+    private static void writeCsv(Path file, List<Result> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        lines.add(CSV_HEADER);
+        for (Result r : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.1f,%.2f,%.2f,%d,%d", r.benchmark(), r.param(),
+                    r.value(), r.nsPerOp(), r.nsError(), r.opsPerSec(), r.bytesPerOp(), r.allocMbPerSec(),
+                    r.gcCount(), r.gcMillis()));
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+
+    static Map<String, Result> readCsv(Path file) throws IOException {
+        Map<String, Result> out = new HashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#") || line.equals(CSV_HEADER)) continue;
+            String[] f = line.split(",");
+            if (f.length < 10) throw new IOException("malformed line: " + line);
+            try {
+                Result r = new Result(f[0], f[1], Integer.parseInt(f[2]), Double.parseDouble(f[3]),
+                        Double.parseDouble(f[4]), Double.parseDouble(f[6]), Double.parseDouble(f[7]),
+                        Long.parseLong(f[8]), Long.parseLong(f[9]));
+                out.put(r.key(), r);
+            } catch (NumberFormatException e) {
+                throw new IOException("malformed line: " + line, e);
+            }
+        }
+        return out;
+    }
+
+    // Arguments
+
+    static Options parse(String[] args) {
+        String suite = "core";
+        Pattern only = null;
+        int warmup = 3;
+        int iterations = 5;
+        long time = 500;
+        int maxParam = Integer.MAX_VALUE;
+        Path csv = null;
+        Path compare = null;
+        boolean list = false;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a.toLowerCase(Locale.ROOT)) {
+                case "--bench" -> { }
+                case "--suite" -> {
+                    suite = value(args, ++i, a);
+                    if (!suite.equals("core") && !suite.equals("render")) {
+                        throw new IllegalArgumentException("--suite must be core or render");
+                    }
+                }
+                case "--only" -> only = Pattern.compile(value(args, ++i, a));
+                case "--warmup" -> warmup = intValue(args, ++i, a, 0);
+                case "--iterations" -> iterations = intValue(args, ++i, a, 1);
+                case "--time" -> time = intValue(args, ++i, a, 1);
+                case "--max-param" -> maxParam = intValue(args, ++i, a, 1);
+                case "--csv" -> csv = Path.of(value(args, ++i, a));
+                case "--compare" -> compare = Path.of(value(args, ++i, a));
+                case "--list" -> list = true;
+                default -> throw new IllegalArgumentException("unknown option " + a);
+            }
+        }
+        return new Options(suite, only, warmup, iterations, time, maxParam, csv, compare, list);
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static int intValue(String[] args, int i, String option, int min) {
+        int v;
+        try {
+            v = Integer.parseInt(value(args, i, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs an integer");
+        }
+        if (v < min) throw new IllegalArgumentException(option + " must be at least " + min);
+        return v;
+    }
+
+    private static String join(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int v : values) sb.append(sb.length() == 0 ? "" : ",").append(v);
+        return sb.toString();
+    }
+}
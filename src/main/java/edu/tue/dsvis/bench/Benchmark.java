@@ -0,0 +1,35 @@
+package main.java.edu.tue.dsvis.bench;
+
+import java.util.function.IntFunction;
+
+/**
+ * One benchmark: a name, the parameter values it runs at (listener count,
+ * input size, ...) and a factory producing a fresh {@link Case} per value.
+ *
+ * @param name   stable identifier, used as the key when comparing results
+ * @param param  what {@code params} stand for, e.g. {@code "n"}
+ * @param params parameter values, each measured separately
+ * @param cases  creates the fixture for one parameter value
+ */
+public record Benchmark(String name, String param, int[] params, IntFunction<Case> cases) {
+
+    /**
+     * Fixture of one benchmark at one parameter value. The runner calls
+     * {@link #setUp()} before every invocation, outside the timed region, and
+     * then {@link #invoke(Blackhole)}, which is timed.
+     */
+    public abstract static class Case {
+
+        /** Prepares the next invocation (fresh input, model, timeline). */
+        public void setUp() {
+        }
+
+        /**
+         * The measured work.
+         *
+         * @return operations performed, so the runner can report per-op
+         *         figures for bodies that loop internally
+         */
+        public abstract long invoke(Blackhole bh);
+    }
+}
@@ -0,0 +1,315 @@
+package main.java.edu.tue.dsvis.bench;
+
+import main.java.edu.tue.dsvis.core.animation.Frame;
+import main.java.edu.tue.dsvis.core.animation.ManualClock;
+import main.java.edu.tue.dsvis.core.animation.ManualScheduler;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.OperationCounter;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
+import main.java.edu.tue.dsvis.modules.arrays.model.BinarySearchModel;
+import main.java.edu.tue.dsvis.modules.arrays.model.LinearSearchModel;
+import main.java.edu.tue.dsvis.modules.arrays.model.SortModels;
+import main.java.edu.tue.dsvis.modules.heaps.HeapModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * The benchmark suite: the event path ({@link EventBus#post}, {@link Event}),
+ * the timeline ({@link Timeline#addFrame}, {@link Timeline#addOp}, ticking)
+ * the {@code run()} cost of every model and the counting overhead of
+ * {@link TrackedIntArray}.
+ *
+ * <p>Names are the keys of saved results, so renaming a benchmark breaks
+ * comparison with older runs. Inputs come from a fixed seed.</p>
+ */
+final class Benchmarks {
+
+    /** Operations per invocation of the micro benchmarks. */
+    static final int BATCH = 1024;
+
+    private static final long SEED = 42;
+
+    /** Sizes for models that are O(n log n) or better. */
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private Benchmarks() {
+    }
+
+    static List<Benchmark> all() {
+        List<Benchmark> out = new ArrayList<>();
+        eventPath(out);
+        timeline(out);
+        models(out);
+        trackedArray(out);
+        return Collections.unmodifiableList(out);
+    }
+
+    // Event path
+
+    private static void eventPath(List<Benchmark> out) {
+        out.add(new Benchmark("eventbus.post", "listeners", new int[]{1, 4, 16}, listeners -> {
+            EventBus bus = busWith(listeners);
+            Event event = Event.swap(3, 7);
+            return new Benchmark.Case() {
+                @Override
+                public long invoke(Blackhole bh) {
+                    for (int i = 0; i < BATCH; i++) bus.post(event);
+                    return BATCH;
+                }
+            };
+        }));
+        out.add(new Benchmark("event.new", "indices", new int[]{1, 2}, indices -> new Benchmark.Case() {
+            @Override
+            public long invoke(Blackhole bh) {
+                for (int i = 0; i < BATCH; i++) bh.consume(indices == 1 ? Event.compare(i) : Event.swap(i, i + 1));
+                return BATCH;
+            }
+        }));
+        out.add(new Benchmark("event.getIndices", "indices", new int[]{1, 2}, indices -> {
+            Event event = indices == 1 ? Event.compare(5) : Event.swap(5, 6);
+            return new Benchmark.Case() {
+                @Override
+                public long invoke(Blackhole bh) {
+                    for (int i = 0; i < BATCH; i++) bh.consume(event.getIndices());
+                    return BATCH;
+                }
+            };
+        }));
+    }
+
+    /** A bus with {@code n} listeners on SWAP that only count. */
+    private static EventBus busWith(int n) {
+        EventBus bus = new EventBus();
+        int[] seen = new int[1];
+        for (int i = 0; i < n; i++) bus.register(e -> seen[0]++, Event.EventType.SWAP);
+        return bus;
+    }
+
+    // Timeline
+
+    private static void timeline(List<Benchmark> out) {
+        int[] frames = {1_000, 10_000, 100_000, 1_000_000};
+        out.add(new Benchmark("timeline.addFrame", "frames", frames, n -> new TimelineCase() {
+            @Override
+            public long invoke(Blackhole bh) {
+                Runnable noop = () -> { };
+                for (int i = 0; i < n; i++) timeline.addFrame(new Frame(noop, 0));
+                return n;
+            }
+        }));
+        out.add(new Benchmark("timeline.addOp", "frames", frames, n -> new TimelineCase() {
+            @Override
+            public long invoke(Blackhole bh) {
+                for (int i = 0; i < n; i++) timeline.addOp(tag, 1, i, i + 1, 0, false);
+                return n;
+            }
+        }));
+        out.add(new Benchmark("timeline.tick", "frames", frames, n -> new TimelineCase() {
+            @Override
+            public void setUp() {
+                super.setUp();
+                for (int i = 0; i < n; i++) timeline.addOp(tag, 1, i, i + 1, 0, false);
+            }
+
+            @Override
+            public long invoke(Blackhole bh) {
+                timeline.start();
+                scheduler.advance(Long.MAX_VALUE); // returns once the log is played
+                bh.consume(timeline.getPosition());
+                return n;
+            }
+        }));
+    }
+
+    /** Fresh manually driven timeline with one counting dispatcher per invocation. */
+    private abstract static class TimelineCase extends Benchmark.Case {
+        Timeline timeline;
+        ManualScheduler scheduler;
+        int tag;
+        long dispatched;
+
+        @Override
+        public void setUp() {
+            if (timeline != null) timeline.reset(); // drops spill files as well
+            ManualClock clock = new ManualClock();
+            scheduler = new ManualScheduler(clock);
+            timeline = new Timeline(60, clock, scheduler);
+            tag = timeline.registerDispatcher((op, a, b) -> dispatched += a);
+        }
+    }
+
+    // Models
+
+    private static void models(List<Benchmark> out) {
+        SortModels.all().forEach((name, factory) ->
+                out.add(model(name, sizesFor(name), factory)));
+        out.add(model("Linear Search", SIZES,
+                (ctx, input) -> new LinearSearchModel(input, input[input.length / 2], ctx)));
+        out.add(model("Binary Search", SIZES, (ctx, input) -> {
+            Arrays.sort(input); // untimed: factories run in setUp
+            return new BinarySearchModel(input, input[input.length / 2], ctx);
+        }));
+        // The heap holds at most MAX_HEAP_CAPACITY keys; larger inputs are truncated
+        int[] heapSizes = {10, 100, HeapModel.MAX_HEAP_CAPACITY};
+        out.add(heap("heap.buildBottomUp", heapSizes, HeapModel::buildBottomUp));
+        out.add(heap("heap.buildIncremental", heapSizes, HeapModel::buildIncremental));
+    }
+
+    /** Quadratic models stop where one invocation would take seconds. */
+    private static int[] sizesFor(String name) {
+        return switch (name) {
+            case "Insertion Sort" -> new int[]{10, 100, 1_000, 10_000};
+            default -> SIZES;
+        };
+    }
+
+    private static Benchmark model(String name, int[] sizes,
+                                   BiFunction<Model.ModelContext, int[], Model> factory) {
+        return new Benchmark("model." + slug(name), "n", sizes, n -> new ModelCase(n) {
+            Model model;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                model = factory.apply(context, input.clone());
+            }
+
+            @Override
+            public long invoke(Blackhole bh) {
+                model.run();
+                bh.consume(timeline.getLength());
+                return 1;
+            }
+        });
+    }
+
+    private static Benchmark heap(String name, int[] sizes, BiConsumer<HeapModel, int[]> build) {
+        return new Benchmark(name, "n", sizes, n -> new ModelCase(n) {
+            HeapModel heap;
+
+            @Override
+            public void setUp() {
+                super.setUp();
+                heap = new HeapModel(context);
+            }
+
+            @Override
+            public long invoke(Blackhole bh) {
+                build.accept(heap, input);
+                bh.consume(timeline.getLength());
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Seeded input and a fresh bus and timeline per invocation, so the tape
+     * and frame log start empty every time. The bus has no listeners: this
+     * measures producing frames, not playing them.
+     */
+    private abstract static class ModelCase extends Benchmark.Case {
+        final int[] input;
+        Timeline timeline;
+        Model.ModelContext context;
+
+        ModelCase(int n) {
+            input = new Random(SEED).ints(n, 0, Math.max(1000, n)).toArray();
+        }
+
+        @Override
+        public void setUp() {
+            if (timeline != null) timeline.reset();
+            ManualClock clock = new ManualClock();
+            timeline = new Timeline(60, clock, new ManualScheduler(clock));
+            context = new Model.ModelContext(new EventBus(), timeline);
+        }
+    }
+
+    // Tracked array
+
+    /**
+     * The same insertion sort on a plain {@code int[]} and on a silent
+     * {@link TrackedIntArray}, counting every access or counting in locals
+     * once per pass; the ratios are the price of counting.
+     */
+    private static void trackedArray(List<Benchmark> out) {
+        int[] sizes = {100, 1_000, 10_000};
+        out.add(new Benchmark("array.raw", "n", sizes, n -> new ArrayCase(n) {
+            @Override
+            public long invoke(Blackhole bh) {
+                int[] a = input.clone();
+                for (int j = 1; j < a.length; j++) {
+                    int key = a[j];
+                    int i = j - 1;
+                    while (i >= 0 && a[i] > key) {
+                        a[i + 1] = a[i];
+                        i--;
+                    }
+                    a[i + 1] = key;
+                }
+                bh.consume(a[0]);
+                return 1;
+            }
+        }));
+        out.add(new Benchmark("array.tracked", "n", sizes, n -> new ArrayCase(n) {
+            @Override
+            public long invoke(Blackhole bh) {
+                OperationCounter ops = new OperationCounter();
+                TrackedIntArray a = new TrackedIntArray(input.clone(), ops);
+                for (int j = 1; j < a.length(); j++) {
+                    int key = a.get(j);
+                    int i = j - 1;
+                    while (i >= 0 && a.compareTo(i, key) > 0) {
+                        a.set(i + 1, a.get(i));
+                        i--;
+                    }
+                    a.set(i + 1, key);
+                }
+                bh.consume(ops.getCost());
+                return 1;
+            }
+        }));
+        out.add(new Benchmark("array.counted", "n", sizes, n -> new ArrayCase(n) {
+            @Override
+            public long invoke(Blackhole bh) {
+                OperationCounter ops = new OperationCounter();
+                TrackedIntArray a = new TrackedIntArray(input.clone(), ops);
+                for (int j = 1; j < a.length(); j++) {
+                    int key = a.peek(j);
+                    int i = j - 1;
+                    while (i >= 0 && a.peek(i) > key) {
+                        a.poke(i + 1, a.peek(i));
+                        i--;
+                    }
+                    a.poke(i + 1, key);
+                    int shifts = j - 1 - i;
+                    a.count(1 + shifts, 1 + shifts, i >= 0 ? shifts + 1 : shifts, 0);
+                }
+                bh.consume(ops.getCost());
+                return 1;
+            }
+        }));
+    }
+
+    private abstract static class ArrayCase extends Benchmark.Case {
+        final int[] input;
+
+        ArrayCase(int n) {
+            input = new Random(SEED).ints(n, 0, Math.max(1000, n)).toArray();
+        }
+    }
+
+    private static String slug(String name) {
+        return name.toLowerCase(Locale.ROOT).replace(' ', '-');
+    }
+}
@@ -0,0 +1,32 @@
+package main.java.edu.tue.dsvis.bench;
+
+/**
+ * Sink for benchmark results, so the JIT cannot prove a computation unused
+ * and drop it. Values are folded into a field that is published through a
+ * volatile write once per invocation.
+ */
+public final class Blackhole {
+
+    private int acc;
+    private Object last;
+    private volatile int published;
+
+    public void consume(int v) {
+        acc = acc * 31 + v;
+    }
+
+    public void consume(long v) {
+        acc = acc * 31 + (int) (v ^ (v >>> 32));
+    }
+
+    public void consume(Object o) {
+        last = o;
+        acc = acc * 31 + System.identityHashCode(o);
+    }
+
+    /** Called by the runner after each invocation. */
+    void publish() {
+        published = acc;
+        last = null;
+    }
+}
@@ -0,0 +1,193 @@
+package main.java.edu.tue.dsvis.bench;
+
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.widgets.ArrayStrip;
+import main.java.edu.tue.dsvis.widgets.HeapArrayStrip;
+import main.java.edu.tue.dsvis.widgets.HeapTreePanel;
+import main.java.edu.tue.dsvis.widgets.RecursionTreePanel;
+
+import javax.swing.JComponent;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Paint benchmarks for the widgets, selected with {@code --suite render}.
+ *
+ * <p>Every widget is laid out at its preferred size (at least the viewport)
+ * and painted into an offscreen viewport-sized {@link BufferedImage} clipped
+ * to its top-left corner, which is what a scroll pane showing the start of
+ * the data asks for. Each widget runs in a plain state and in a
+ * highlight-heavy one (every element flashed, extra labels on), whose
+ * highlights are renewed in the untimed set-up so they never expire
+ * mid-run.</p>
+ */
+final class RenderBenchmarks {
+
+    static final int VIEW_W = 1280;
+    static final int VIEW_H = 720;
+
+    private static final long SEED = 42;
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private RenderBenchmarks() {
+    }
+
+    static List<Benchmark> all() {
+        List<Benchmark> out = new ArrayList<>();
+        out.add(paint("paint.arrayStrip", n -> new PaintCase(new ArrayStrip(), n) {
+            @Override
+            void populate() {
+                ((ArrayStrip) widget).setData(data);
+            }
+        }));
+        out.add(paint("paint.arrayStrip.highlighted", n -> new PaintCase(new ArrayStrip(), n) {
+            @Override
+            void populate() {
+                ArrayStrip strip = (ArrayStrip) widget;
+                strip.setData(data);
+                strip.setSearchWindow(n / 4, n / 2);
+            }
+
+            @Override
+            void highlight() {
+                ((ArrayStrip) widget).flashRange(0, n - 1);
+            }
+        }));
+        out.add(paint("paint.heapArrayStrip", n -> new PaintCase(new HeapArrayStrip(), n) {
+            @Override
+            void populate() {
+                ((HeapArrayStrip) widget).setData(data);
+            }
+        }));
+        out.add(paint("paint.heapArrayStrip.highlighted", n -> new PaintCase(new HeapArrayStrip(), n) {
+            @Override
+            void populate() {
+                HeapArrayStrip strip = (HeapArrayStrip) widget;
+                strip.setData(data);
+                strip.setShowParent(true);
+                strip.rankToggle();
+            }
+
+            @Override
+            void highlight() {
+                ((HeapArrayStrip) widget).flashRange(0, n - 1);
+            }
+        }));
+        out.add(paint("paint.heapTree", n -> new PaintCase(new HeapTreePanel(new EventBus()), n) {
+            @Override
+            void populate() {
+                ((HeapTreePanel) widget).setHeap(data);
+            }
+        }));
+        out.add(paint("paint.heapTree.highlighted", n -> new PaintCase(new HeapTreePanel(new EventBus()), n) {
+            @Override
+            void populate() {
+                ((HeapTreePanel) widget).setHeap(data);
+            }
+
+            @Override
+            void highlight() {
+                HeapTreePanel tree = (HeapTreePanel) widget;
+                for (int i = 0; i < n; i++) tree.highlight(i);
+            }
+        }));
+        out.add(paint("paint.recursionTree", n -> new PaintCase(new RecursionTreePanel(), n) {
+            @Override
+            void populate() {
+                ((RecursionTreePanel) widget).restore(recursionTree(n, false));
+            }
+        }));
+        out.add(paint("paint.recursionTree.highlighted", n -> new PaintCase(new RecursionTreePanel(), n) {
+            @Override
+            void populate() {
+                RecursionTreePanel tree = (RecursionTreePanel) widget;
+                tree.restore(recursionTree(n, true));
+                tree.bindArray(data); // node labels show the live slices
+            }
+        }));
+        return Collections.unmodifiableList(out);
+    }
+
+    private static Benchmark paint(String name, IntFunction<Benchmark.Case> cases) {
+        return new Benchmark(name, "n", SIZES, cases);
+    }
+
+    /**
+     * The merge-sort recursion over {@code [0, n-1]} in the preorder triple
+     * format of {@link RecursionTreePanel#snapshot()}, built directly because
+     * replaying SPLIT events costs a tree search per split.
+     */
+    static int[] recursionTree(int n, boolean completed) {
+        int[] out = new int[3 * (2 * n - 1)];
+        int[] at = {0};
+        split(0, n - 1, completed, out, at);
+        return out;
+    }
+
+    private static void split(int l, int r, boolean completed, int[] out, int[] at) {
+        int i = at[0];
+        at[0] += 3;
+        out[i] = l;
+        out[i + 1] = r;
+        out[i + 2] = (completed ? 1 : 0) | (l < r ? 2 : 0);
+        if (l < r) {
+            int mid = (l + r) / 2;
+            split(l, mid, completed, out, at);
+            split(mid + 1, r, completed, out, at);
+        }
+    }
+
+    /**
+     * One widget with {@code n} seeded values. {@link #populate()} runs once;
+     * {@link #highlight()} before every paint.
+     */
+    private abstract static class PaintCase extends Benchmark.Case {
+        final JComponent widget;
+        final int n;
+        final int[] data;
+        private final BufferedImage image = new BufferedImage(VIEW_W, VIEW_H, BufferedImage.TYPE_INT_ARGB);
+        private boolean populated;
+
+        PaintCase(JComponent widget, int n) {
+            this.widget = widget;
+            this.n = n;
+            this.data = new Random(SEED).ints(n, 0, 1000).toArray();
+            widget.setDoubleBuffered(false); // paint straight into the image
+        }
+
+        abstract void populate();
+
+        void highlight() {
+        }
+
+        @Override
+        public void setUp() {
+            if (!populated) {
+                populate();
+                Dimension pref = widget.getPreferredSize();
+                widget.setSize(Math.max(VIEW_W, pref.width), Math.max(VIEW_H, pref.height));
+                populated = true;
+            }
+            highlight();
+        }
+
+        @Override
+        public long invoke(Blackhole bh) {
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setClip(0, 0, VIEW_W, VIEW_H);
+                widget.paint(g);
+            } finally {
+                g.dispose();
+            }
+            bh.consume(image.getRGB(VIEW_W / 2, VIEW_H / 2));
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * State holder (usually a view) whose state a {@link Timeline} can capture
+ * at checkpoints and restore when seeking backwards.
+ *
+ * <p>Frame tasks are replayed on top of a restored checkpoint, so everything
+ * a frame mutates must be covered by {@link #capture()}. Transient effects
+ * such as flash highlights may be left out.</p>
+ */
+public interface Checkpointable {
+
+    /**
+     * @return an immutable snapshot of the current state; must not share
+     *         mutable structures with the live object
+     */
+    Object capture();
+
+    /** Restores a state previously returned by {@link #capture()}. */
+    void restore(Object state);
+
+    /**
+     * Approximate heap footprint of {@code state} in bytes, used to keep all
+     * checkpoints within the timeline's budget.
+     */
+    default long sizeOf(Object state) {
+        return 64;
+    }
+}
@@ -0,0 +1,18 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * Monotonic time source used for playback pacing.
+ *
+ * <p>{@link #SYSTEM} reads {@link System#nanoTime()}; {@link ManualClock}
+ * only moves when told to, which makes playback deterministic in tests and
+ * headless runs.</p>
+ */
+@FunctionalInterface
+public interface Clock {
+
+    /** Clock backed by {@link System#nanoTime()}. */
+    Clock SYSTEM = System::nanoTime;
+
+    /** @return current time in nanoseconds; only differences are meaningful */
+    long nanoTime();
+}
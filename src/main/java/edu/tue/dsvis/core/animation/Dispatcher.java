@@ -0,0 +1,16 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * Interprets opcode frames added through
+ * {@link Timeline#addOp(int, int, int, int, int, boolean)}.
+ *
+ * <p>A dispatcher is registered once per timeline run and referenced by a
+ * small tag from every frame it owns, so frames need no captured state of
+ * their own. Opcodes are defined by the dispatcher (1-255; 0 is reserved).</p>
+ */
+@FunctionalInterface
+public interface Dispatcher {
+
+    /** Executes one frame on the playback thread. */
+    void dispatch(int opcode, int a, int b);
+}
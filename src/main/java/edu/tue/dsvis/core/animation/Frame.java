@@ -8,6 +8,12 @@ import java.util.Objects;
  * <p>A {@code Frame} encapsulates a {@link Runnable} that mutates the UI and an
  * associated preferred display duration in milliseconds.</p>
  *
+ * <p>Frames are either state frames (the default) or {@linkplain #isVisual()
+ * visual} frames. A visual frame only draws a transient effect such as a
+ * compare flash and leaves no lasting state behind, so the
+ * {@link Timeline} may skip it entirely when it has to compress playback;
+ * state frames are always executed, possibly without their delay.</p>
+ *
  * <p>Future work:
  * <ul>
  *   <li>Consider migrating to {@code record} (Java&nbsp;16+) for conciseness.</li>
@@ -23,13 +29,21 @@ public final class Frame {
     /** Preferred display duration in milliseconds. */
     private final int delayMs;
 
-    /** Default constructor. */
+    /** Transient effect only; may be skipped. */
+    private final boolean visual;
+
+    /** Default constructor, creating a state frame. */
     public Frame(Runnable task, int delayMs) {
+        this(task, delayMs, false);
+    }
+
+    public Frame(Runnable task, int delayMs, boolean visual) {
         this.task = Objects.requireNonNull(task, "task");
         if (delayMs < 0) {
             throw new IllegalArgumentException("delayMs must be non-negative");
         }
         this.delayMs = delayMs;
+        this.visual = visual;
     }
 
     // Accessors
@@ -42,14 +56,24 @@ public final class Frame {
         return delayMs;
     }
 
+    /** @return {@code true} if the frame only draws a transient effect */
+    public boolean isVisual() {
+        return visual;
+    }
+
     // Static factory helpers
 
     /**
-     * Convenience factory that returns a frame with a 200&nbsp;ms duration,
-     * suitable for simple blink effects.
+     * Convenience factory that returns a visual frame with a 200&nbsp;ms
+     * duration, suitable for simple blink effects.
      */
     public static Frame blink(Runnable task) {
-        return new Frame(task, 200);
+        return new Frame(task, 200, true);
+    }
+
+    /** Returns a visual frame, see {@link #isVisual()}. */
+    public static Frame visual(Runnable task, int delayMs) {
+        return new Frame(task, delayMs, true);
     }
 
     // Object overrides
@@ -58,18 +82,19 @@ public final class Frame {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Frame other)) return false;
-        return delayMs == other.delayMs && task.equals(other.task);
+        return delayMs == other.delayMs && visual == other.visual && task.equals(other.task);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(task, delayMs);
+        return Objects.hash(task, delayMs, visual);
     }
 
     @Override
     public String toString() {
         return "Frame{" +
                 "delayMs=" + delayMs +
+                ", visual=" + visual +
                 ", task=" + task +
                 '}';
     }
@@ -0,0 +1,255 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact, append-only storage for the frames of a {@link Timeline}.
+ *
+ * <p>Each frame takes three ints (12 bytes), interleaved in fixed-size
+ * segments, so growing the log never copies frame data:</p>
+ * <pre>
+ * header : opcode (bits 24-31) | visual (bit 23) | tag (bits 16-22) | delay ms (bits 0-15)
+ * a, b   : operands, interpreted by the dispatcher selected by tag
+ * </pre>
+ * <p>Opcode {@link #OP_RUNNABLE} is reserved for {@link Frame}s added as
+ * plain {@link Runnable}s; operand {@code a} then indexes a side table.</p>
+ *
+ * <p>When the resident segments exceed the memory budget, full segments are
+ * spilled to one file each through {@link SpillFiles}. A spilled segment
+ * never changes again, so its file doubles as a backing store: reading a
+ * frame of a non-resident segment pages the whole segment back in and
+ * evicts the resident segment farthest from it, which keeps sequential
+ * playback and seeks cheap. The segment being appended to always stays
+ * resident.</p>
+ *
+ * <p>Not thread-safe; {@link Timeline} serialises access.</p>
+ */
+final class FrameLog {
+
+    static final int OP_RUNNABLE = 0;
+    static final int MAX_TAG = 0x7F;
+    static final int MAX_DELAY_MS = 0xFFFF;
+
+    static final int DEFAULT_SEGMENT_FRAMES = 1 << 16;
+
+    private static final int VISUAL_BIT = 1 << 23;
+    private static final int INTS_PER_FRAME = 3;
+
+    private int segmentBits = Integer.numberOfTrailingZeros(DEFAULT_SEGMENT_FRAMES);
+    private int segmentMask = DEFAULT_SEGMENT_FRAMES - 1;
+
+    private int[][] segments = new int[4][];     // null when not resident
+    private Path[] spillFiles = new Path[4];     // null until spilled
+    private long[] lastUse = new long[4];
+    private int segmentCount = 0;
+    private int residentCount = 0;
+    private long useClock = 0;
+    private int size = 0;
+
+    // Spill configuration
+    private long memoryBudget = Long.MAX_VALUE;
+    private final SpillFiles files;
+    private long pageIns = 0;
+
+    private final List<Runnable> runnables = new ArrayList<>();
+
+    FrameLog(SpillFiles files) {
+        this.files = Objects.requireNonNull(files, "files");
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Appends an encoded frame. Delays above {@link #MAX_DELAY_MS} are
+     * clamped.
+     */
+    void add(int opcode, int tag, int a, int b, int delayMs, boolean visual) {
+        int seg = size >>> segmentBits;
+        if (seg == segmentCount) grow();
+        int[] data = segments[seg];
+        int i = (size & segmentMask) * INTS_PER_FRAME;
+        data[i] = (opcode & 0xFF) << 24 | (visual ? VISUAL_BIT : 0) | (tag & MAX_TAG) << 16
+                | Math.min(delayMs, MAX_DELAY_MS);
+        data[i + 1] = a;
+        data[i + 2] = b;
+        size++;
+    }
+
+    /** Appends a {@link Frame} through the runnable side table. */
+    void add(Frame frame) {
+        runnables.add(frame.getTask());
+        add(OP_RUNNABLE, 0, runnables.size() - 1, 0, frame.getDelayMs(), frame.isVisual());
+    }
+
+    /** @return the packed header of frame {@code index}; decode with the static helpers */
+    int header(int index) {
+        return field(index, 0);
+    }
+
+    static int opcodeOf(int header) {
+        return header >>> 24;
+    }
+
+    static int tagOf(int header) {
+        return (header >>> 16) & MAX_TAG;
+    }
+
+    static int delayOf(int header) {
+        return header & 0xFFFF;
+    }
+
+    static boolean isVisual(int header) {
+        return (header & VISUAL_BIT) != 0;
+    }
+
+    int a(int index) {
+        return field(index, 1);
+    }
+
+    int b(int index) {
+        return field(index, 2);
+    }
+
+    Runnable runnable(int sideIndex) {
+        return runnables.get(sideIndex);
+    }
+
+    // Spill configuration
+
+    /** @param frames frames per segment, a power of two; only while empty */
+    void setSegmentFrames(int frames) {
+        if (frames < 1024 || Integer.bitCount(frames) != 1) {
+            throw new IllegalArgumentException("segment size must be a power of two >= 1024");
+        }
+        if (segmentCount > 0) throw new IllegalStateException("segment size can only change while the log is empty");
+        segmentBits = Integer.numberOfTrailingZeros(frames);
+        segmentMask = frames - 1;
+    }
+
+    int getSegmentFrames() {
+        return segmentMask + 1;
+    }
+
+    /** @param bytes heap budget for resident segments; at least two segments stay resident */
+    void setMemoryBudget(long bytes) {
+        if (bytes <= 0) throw new IllegalArgumentException("budget must be positive");
+        memoryBudget = bytes;
+        evictOverBudget(-1);
+    }
+
+    long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Spills segments until at most {@code bytes} stay resident (two always
+     * do), without changing the budget; used while attached stores share it.
+     */
+    void trimTo(long bytes) {
+        long budget = memoryBudget;
+        memoryBudget = Math.min(budget, Math.max(bytes, 1));
+        evictOverBudget(-1);
+        memoryBudget = budget;
+    }
+
+    // Statistics
+
+    /** @return heap held by resident segments in bytes */
+    long residentBytes() {
+        return (long) residentCount * segmentBytes();
+    }
+
+    /** @return segments read back from disk so far */
+    long pageIns() {
+        return pageIns;
+    }
+
+    void clear() {
+        Arrays.fill(segments, null);
+        Arrays.fill(lastUse, 0);
+        Arrays.fill(spillFiles, null);
+        segmentCount = 0;
+        residentCount = 0;
+        size = 0;
+        runnables.clear();
+    }
+
+    // Internal helpers
+
+    private int field(int index, int offset) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("frame " + index + " of " + size);
+        int seg = index >>> segmentBits;
+        int[] data = segments[seg];
+        if (data == null) data = pageIn(seg);
+        lastUse[seg] = ++useClock;
+        return data[(index & segmentMask) * INTS_PER_FRAME + offset];
+    }
+
+    private int segmentBytes() {
+        return (segmentMask + 1) * INTS_PER_FRAME * Integer.BYTES;
+    }
+
+    private void grow() {
+        if (segmentCount == segments.length) {
+            int n = segmentCount * 2;
+            segments = Arrays.copyOf(segments, n);
+            spillFiles = Arrays.copyOf(spillFiles, n);
+            lastUse = Arrays.copyOf(lastUse, n);
+        }
+        segments[segmentCount] = new int[(segmentMask + 1) * INTS_PER_FRAME];
+        lastUse[segmentCount] = ++useClock;
+        segmentCount++;
+        residentCount++;
+        evictOverBudget(segmentCount - 1);
+    }
+
+    /**
+     * Drops resident segments other than the tail and {@code keep}, farthest
+     * from {@code keep} first (least recently used when {@code keep} is
+     * negative), until the budget holds.
+     */
+    private void evictOverBudget(int keep) {
+        int tail = segmentCount - 1;
+        while (residentCount > 2 && residentBytes() > memoryBudget) {
+            int victim = -1;
+            long best = -1;
+            for (int s = 0; s < tail; s++) {
+                if (segments[s] == null || s == keep) continue;
+                long score = keep >= 0 ? Math.abs(s - keep) : useClock - lastUse[s];
+                if (score > best) {
+                    best = score;
+                    victim = s;
+                }
+            }
+            if (victim < 0) return;
+            if (spillFiles[victim] == null) spill(victim);
+            segments[victim] = null;
+            residentCount--;
+        }
+    }
+
+    private void spill(int seg) {
+        int[] data = segments[seg];
+        ByteBuffer raw = ByteBuffer.allocate(data.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        raw.asIntBuffer().put(data);
+        spillFiles[seg] = files.write("segment-" + seg, raw);
+    }
+
+    private int[] pageIn(int seg) {
+        int[] data = new int[(segmentMask + 1) * INTS_PER_FRAME];
+        files.read(spillFiles[seg], data.length * Integer.BYTES).asIntBuffer().get(data);
+        segments[seg] = data;
+        residentCount++;
+        pageIns++;
+        evictOverBudget(seg);
+        return data;
+    }
+}
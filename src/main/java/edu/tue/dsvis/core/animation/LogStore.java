@@ -0,0 +1,22 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * Heap held for the frames of a run outside the frame log, e.g. the event
+ * tape a model's opcode frames point into. A store
+ * {@linkplain Timeline#attachLogStore(LogStore) attached} to a timeline
+ * counts against its {@linkplain Timeline#setLogMemoryBudget(long) log
+ * memory budget} and spills through the same {@link SpillFiles}.
+ */
+public interface LogStore {
+
+    /** @return heap held by the resident part of the store in bytes */
+    long residentBytes();
+
+    /**
+     * Spills resident data until at most {@code bytes} stay resident, or as
+     * close to it as the part still being written allows. The store keeps to
+     * the new limit when it pages data back in later. Called by the
+     * timeline while producers add frames.
+     */
+    void trimTo(long bytes, SpillFiles files);
+}
@@ -0,0 +1,32 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * {@link Clock} that only advances explicitly. Thread-safe.
+ */
+public final class ManualClock implements Clock {
+
+    private volatile long now;
+
+    public ManualClock() {
+        this(0);
+    }
+
+    public ManualClock(long startNanos) {
+        this.now = startNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /** Moves the clock forward by {@code nanos} (&ge;0). */
+    public synchronized void advance(long nanos) {
+        if (nanos < 0) throw new IllegalArgumentException("nanos must be non-negative");
+        now += nanos;
+    }
+
+    public void advanceMillis(long millis) {
+        advance(millis * 1_000_000L);
+    }
+}
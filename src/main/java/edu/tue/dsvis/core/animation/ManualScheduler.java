@@ -0,0 +1,67 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import java.util.Objects;
+
+/**
+ * {@link Scheduler} for tests and headless runs: ticks happen synchronously
+ * on the caller's thread inside {@link #advance(long)}, which also moves the
+ * paired {@link ManualClock}. Playback is fully deterministic.
+ */
+public final class ManualScheduler implements Scheduler {
+
+    private final ManualClock clock;
+    private Runnable tick;
+    private long period;
+    private boolean running = false;
+
+    public ManualScheduler(ManualClock clock) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    public ManualClock getClock() {
+        return clock;
+    }
+
+    @Override
+    public void start(Runnable tick, long periodNanos) {
+        if (running) return;
+        this.tick = Objects.requireNonNull(tick, "tick");
+        this.period = periodNanos;
+        this.running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Advances the clock by {@code nanos} in steps of one period, ticking
+     * after each step. Returns early once playback stops.
+     */
+    public void advance(long nanos) {
+        long remaining = nanos;
+        while (running && remaining > 0) {
+            long step = Math.min(period, remaining);
+            clock.advance(step);
+            remaining -= step;
+            tick.run();
+        }
+    }
+
+    /**
+     * Ticks until playback stops by itself (end of the frames).
+     *
+     * @param maxNanos simulated-time limit guarding against endless playback
+     * @return {@code true} if playback stopped within the limit
+     */
+    public boolean runToEnd(long maxNanos) {
+        advance(maxNanos);
+        return !running;
+    }
+}
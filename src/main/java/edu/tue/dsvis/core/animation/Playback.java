@@ -0,0 +1,51 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import java.beans.PropertyChangeListener;
+
+/**
+ * Transport controls shared by a single {@link Timeline} and a
+ * {@link SynchronizedTimelineGroup}, so the same playback bar can drive
+ * either. Listeners receive {@code "running"} and {@code "position"}
+ * property changes.
+ */
+public interface Playback {
+
+    void start();
+
+    void pause();
+
+    boolean isRunning();
+
+    /** Executes one visible step. */
+    void stepForward();
+
+    /** Moves to frame {@code target}, clamped to {@code [0, getLength()]}. */
+    void seek(int target);
+
+    /** Applies the remaining state changes without animating them. */
+    void jumpToEnd();
+
+    /** Discards all frames. */
+    void reset();
+
+    void setSpeed(double factor);
+
+    /** @param millis wall-clock budget for the rest of the run; &lt;= 0 to switch back to the speed factor */
+    void setTargetDuration(long millis);
+
+    int getPosition();
+
+    int getLength();
+
+    long getDroppedFrames();
+
+    /** @return frame log and event tape bytes held on the heap */
+    long getLogBytes();
+
+    /** @return frame log and event tape bytes spilled to disk */
+    long getLogSpilledBytes();
+
+    void addPropertyChangeListener(PropertyChangeListener l);
+
+    void removePropertyChangeListener(PropertyChangeListener l);
+}
@@ -0,0 +1,23 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+/**
+ * Drives a {@link Timeline} by invoking its tick periodically while playing.
+ *
+ * <p>The scheduler decides on which thread ticks run; frame tasks run inside
+ * the tick, so for Swing views that must be the EDT. Implementations never
+ * run two ticks concurrently.</p>
+ */
+public interface Scheduler {
+
+    /**
+     * Starts calling {@code tick} every {@code periodNanos}. Ignored while
+     * already started.
+     */
+    void start(Runnable tick, long periodNanos);
+
+    /** Stops ticking; may be called from within a tick. */
+    void stop();
+
+    /** @return {@code true} between {@link #start} and {@link #stop} */
+    boolean isRunning();
+}
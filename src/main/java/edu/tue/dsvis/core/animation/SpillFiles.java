@@ -0,0 +1,153 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Temporary files holding the spilled segments of one {@link Timeline} run:
+ * those of its frame log and of the {@link LogStore}s attached to it.
+ *
+ * <p>Each segment goes to its own file in a directory created on first use,
+ * written through a memory mapping or, with compression on, deflated. A
+ * spilled segment never changes again, so its file doubles as the backing
+ * store it is paged in from. The {@link Timeline.SpillCleanup} policy
+ * decides when the files are deleted.</p>
+ *
+ * <p>Thread-safe: the frame log spills under the timeline lock, attached
+ * stores under their own.</p>
+ */
+public final class SpillFiles {
+
+    private boolean compress = false;
+    private Timeline.SpillCleanup cleanup = Timeline.SpillCleanup.ON_RESET;
+    private Path parent; // null: system temp directory
+    private Path dir;    // created lazily
+    private final List<Path> files = new ArrayList<>();
+    private long bytes = 0;
+
+    SpillFiles() {
+    }
+
+    /**
+     * Writes {@code raw} (from its position to its limit) to a new file.
+     *
+     * @param name prefix of the file name, e.g. {@code "segment-12"}
+     * @return the file, to pass to {@link #read(Path, int)}
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public synchronized Path write(String name, ByteBuffer raw) {
+        try {
+            Path file = directory().resolve(name + "-" + files.size() + (compress ? ".z" : ".bin"));
+            if (compress) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteBuffer out = ByteBuffer.allocate(raw.remaining() / 2 + 64);
+                while (!deflater.finished()) {
+                    if (!out.hasRemaining()) out = ByteBuffer.allocate(out.capacity() * 2).put(out.flip());
+                    deflater.deflate(out);
+                }
+                deflater.end();
+                out.flip();
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    while (out.hasRemaining()) ch.write(out);
+                }
+            } else {
+                try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, raw.remaining());
+                    map.put(raw);
+                }
+            }
+            if (cleanup != Timeline.SpillCleanup.KEEP) file.toFile().deleteOnExit();
+            files.add(file);
+            bytes += Files.size(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot spill " + name, e);
+        }
+    }
+
+    /**
+     * Reads a file written by {@link #write(String, ByteBuffer)}.
+     *
+     * @param rawBytes length of the data originally written
+     * @return the data, little-endian, positioned at 0
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public ByteBuffer read(Path file, int rawBytes) {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (!file.getFileName().toString().endsWith(".z")) {
+                return map.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            ByteBuffer raw = ByteBuffer.allocate(rawBytes);
+            Inflater inflater = new Inflater();
+            inflater.setInput(map);
+            while (!inflater.finished() && raw.hasRemaining()) {
+                if (inflater.inflate(raw) == 0 && inflater.needsInput()) break;
+            }
+            inflater.end();
+            return raw.flip().order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read spilled segment " + file.getFileName(), e);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupt spilled segment " + file.getFileName(), e);
+        }
+    }
+
+    /** @return bytes written to spill files in this run */
+    public synchronized long spilledBytes() {
+        return bytes;
+    }
+
+    synchronized void setCompression(boolean on) {
+        compress = on;
+    }
+
+    synchronized void setCleanup(Timeline.SpillCleanup policy) {
+        cleanup = policy;
+    }
+
+    synchronized void setDirectory(Path parent) {
+        this.parent = parent;
+    }
+
+    /** Ends the run: deletes its files if the policy says so, and the next run spills into a fresh directory. */
+    synchronized void clear() {
+        if (cleanup == Timeline.SpillCleanup.ON_RESET) {
+            try {
+                for (Path f : files) Files.deleteIfExists(f);
+                if (dir != null) Files.deleteIfExists(dir);
+            } catch (IOException ignored) {
+                // deleteOnExit will retry
+            }
+        }
+        files.clear();
+        dir = null;
+        bytes = 0;
+    }
+
+    private Path directory() throws IOException {
+        if (dir == null || !Files.isDirectory(dir)) {
+            dir = parent == null
+                    ? Files.createTempDirectory("dsvis-frames")
+                    : Files.createTempDirectory(parent, "dsvis-frames");
+            if (cleanup != Timeline.SpillCleanup.KEEP) dir.toFile().deleteOnExit();
+        }
+        return dir;
+    }
+}
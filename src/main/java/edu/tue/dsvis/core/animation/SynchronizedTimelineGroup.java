@@ -0,0 +1,283 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Plays several {@link Timeline}s ("lanes") side by side on one clock, e.g.
+ * to race algorithms on the same input.
+ *
+ * <p>Every lane is created by {@link #newLane()} with the group's clock and
+ * a lane scheduler that only registers the lane's tick. A single pulse
+ * scheduler then ticks all running lanes back to back, so each lane gets
+ * the same elapsed clock time per pulse, and N lanes cost one render pulse
+ * instead of N timers. The per-tick batch limit is split among the lanes so
+ * a pulse stays within one frame budget however many lanes there are.</p>
+ *
+ * <p>As a {@link Playback} the group forwards transport commands to every
+ * lane. Its position is the furthest lane position and its length the
+ * longest lane; {@link #seek(int)} moves all lanes to the same frame index
+ * (clamped per lane). Listeners get one {@code "position"} event per pulse.
+ * {@link #setTargetDuration(long)} fits the slowest lane into the budget
+ * and scales the others' budgets by their remaining delay, so the lanes keep
+ * their relative pace.</p>
+ */
+public final class SynchronizedTimelineGroup implements Playback {
+
+    private final int fps;
+    private final long periodNanos;
+    private final Clock clock;
+    private final Scheduler pulse;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+    private final PropertyChangeListener laneListener = this::onLaneChange;
+
+    private boolean running = false;
+    private boolean inPulse = false;
+    private boolean moved = false;
+    private double speedFactor = 1.0;
+
+    /** Pulses on the EDT at {@code fps} using the system clock. */
+    public SynchronizedTimelineGroup(int fps) {
+        this(fps, Clock.SYSTEM, new ThreadScheduler());
+    }
+
+    /**
+     * @param fps   pulse rate (&gt;0), also the tick rate of every lane
+     * @param clock shared time source of all lanes
+     * @param pulse the single scheduler driving all lanes
+     */
+    public SynchronizedTimelineGroup(int fps, Clock clock, Scheduler pulse) {
+        if (fps <= 0) throw new IllegalArgumentException("fps must be positive");
+        this.fps = fps;
+        this.periodNanos = 1_000_000_000L / fps;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.pulse = Objects.requireNonNull(pulse, "pulse");
+    }
+
+    /** Creates a timeline driven by this group's clock and pulse. */
+    public Timeline newLane() {
+        Lane lane = new Lane();
+        lane.timeline = new Timeline(fps, clock, lane);
+        lane.timeline.setSpeed(speedFactor);
+        lane.timeline.addPropertyChangeListener(laneListener);
+        lanes.add(lane);
+        rebalance();
+        return lane.timeline;
+    }
+
+    /** Detaches a lane; it stops playing. */
+    public void removeLane(Timeline timeline) {
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
+            if (lane.timeline == timeline) {
+                timeline.pause();
+                timeline.removePropertyChangeListener(laneListener);
+                lanes.remove(i);
+                rebalance();
+                updateRunning();
+                return;
+            }
+        }
+    }
+
+    /** @return the lanes in creation order */
+    public List<Timeline> getLanes() {
+        List<Timeline> out = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes) out.add(lane.timeline);
+        return Collections.unmodifiableList(out);
+    }
+
+    // Playback
+
+    /** Starts every lane that has frames left, all at the same clock instant. */
+    @Override
+    public void start() {
+        for (Lane lane : lanes.toArray(new Lane[0])) {
+            if (lane.timeline.getRemaining() > 0 || lane.timeline.isStreaming()) lane.timeline.start();
+        }
+    }
+
+    @Override
+    public void pause() {
+        for (Lane lane : lanes.toArray(new Lane[0])) lane.timeline.pause();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void stepForward() {
+        batch(() -> {
+            for (Lane lane : lanes.toArray(new Lane[0])) lane.timeline.stepForward();
+        });
+    }
+
+    @Override
+    public void seek(int target) {
+        batch(() -> {
+            for (Lane lane : lanes.toArray(new Lane[0])) lane.timeline.seek(target);
+        });
+    }
+
+    @Override
+    public void jumpToEnd() {
+        batch(() -> {
+            for (Lane lane : lanes.toArray(new Lane[0])) lane.timeline.jumpToEnd();
+        });
+    }
+
+    @Override
+    public void reset() {
+        batch(() -> {
+            for (Lane lane : lanes.toArray(new Lane[0])) lane.timeline.reset();
+        });
+    }
+
+    @Override
+    public void setSpeed(double factor) {
+        for (Lane lane : lanes) lane.timeline.setSpeed(factor);
+        speedFactor = factor;
+    }
+
+    @Override
+    public void setTargetDuration(long millis) {
+        long slowest = 0;
+        long[] remaining = new long[lanes.size()];
+        for (int i = 0; i < remaining.length; i++) {
+            remaining[i] = lanes.get(i).timeline.getRemainingDelayMillis();
+            slowest = Math.max(slowest, remaining[i]);
+        }
+        for (int i = 0; i < remaining.length; i++) {
+            Timeline t = lanes.get(i).timeline;
+            if (millis <= 0 || slowest == 0) t.setTargetDuration(millis);
+            else t.setTargetDuration(Math.max(1, Math.round((double) millis * remaining[i] / slowest)));
+        }
+    }
+
+    @Override
+    public int getPosition() {
+        int max = 0;
+        for (Lane lane : lanes) max = Math.max(max, lane.timeline.getPosition());
+        return max;
+    }
+
+    @Override
+    public int getLength() {
+        int max = 0;
+        for (Lane lane : lanes) max = Math.max(max, lane.timeline.getLength());
+        return max;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        long sum = 0;
+        for (Lane lane : lanes) sum += lane.timeline.getDroppedFrames();
+        return sum;
+    }
+
+    @Override
+    public long getLogBytes() {
+        long sum = 0;
+        for (Lane lane : lanes) sum += lane.timeline.getLogBytes();
+        return sum;
+    }
+
+    @Override
+    public long getLogSpilledBytes() {
+        long sum = 0;
+        for (Lane lane : lanes) sum += lane.timeline.getLogSpilledBytes();
+        return sum;
+    }
+
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener l) {
+        pcs.addPropertyChangeListener(l);
+    }
+
+    @Override
+    public void removePropertyChangeListener(PropertyChangeListener l) {
+        pcs.removePropertyChangeListener(l);
+    }
+
+    // Internal helpers
+
+    /** One pulse: ticks every running lane with the same clock. */
+    private void pulse() {
+        batch(() -> {
+            for (Lane lane : lanes.toArray(new Lane[0])) {
+                if (lane.active) lane.tick.run();
+            }
+        });
+    }
+
+    /** Runs {@code r} and then fires at most one group position event. */
+    private void batch(Runnable r) {
+        int oldPos = getPosition();
+        inPulse = true;
+        try {
+            r.run();
+        } finally {
+            inPulse = false;
+        }
+        if (moved) {
+            moved = false;
+            pcs.firePropertyChange("position", oldPos, getPosition());
+        }
+    }
+
+    private void onLaneChange(PropertyChangeEvent evt) {
+        if ("running".equals(evt.getPropertyName())) {
+            updateRunning();
+        } else if ("position".equals(evt.getPropertyName())) {
+            if (inPulse) moved = true;
+            else pcs.firePropertyChange("position", null, getPosition());
+        }
+    }
+
+    private void updateRunning() {
+        boolean any = false;
+        for (Lane lane : lanes) any |= lane.active;
+        if (any == running) return;
+        running = any;
+        if (any) pulse.start(this::pulse, periodNanos);
+        else pulse.stop();
+        pcs.firePropertyChange("running", !any, any);
+    }
+
+    private void rebalance() {
+        long share = Timeline.MAX_BATCH_NANOS / Math.max(1, lanes.size());
+        for (Lane lane : lanes) lane.timeline.setMaxBatchNanos(share);
+    }
+
+    /** Scheduler handed to a lane: records its tick and defers to the group pulse. */
+    private final class Lane implements Scheduler {
+        Timeline timeline;
+        Runnable tick;
+        boolean active;
+
+        @Override
+        public void start(Runnable tick, long periodNanos) {
+            if (active) return;
+            this.tick = Objects.requireNonNull(tick, "tick");
+            active = true;
+        }
+
+        @Override
+        public void stop() {
+            active = false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return active;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package main.java.edu.tue.dsvis.core.animation;
+
+import javax.swing.SwingUtilities;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Default {@link Scheduler}: a dedicated daemon thread that waits for
+ * absolute deadlines on a {@link Clock} and hands each tick to an
+ * {@link Executor} (the EDT unless configured otherwise).
+ *
+ * <p>Deadlines are computed as {@code start + k * period} rather than
+ * "sleep one period after the last tick", so oversleeping in one period
+ * does not shift all later ticks (no cumulative drift). If the thread falls
+ * more than a period behind, missed slots are skipped instead of being
+ * fired in a burst.</p>
+ *
+ * <p>At most one tick is queued on the executor at any time: while the
+ * previous tick has not finished, new ones are coalesced and counted in
+ * {@link #getCoalescedTicks()}, so a slow EDT is never flooded. The
+ * {@link Timeline} notices the longer gap between ticks and applies its
+ * {@link Timeline.LagPolicy}.</p>
+ *
+ * <p>The thread exists only while playing.</p>
+ */
+public final class ThreadScheduler implements Scheduler {
+
+    private final Clock clock;
+    private final Executor executor;
+
+    private volatile Thread thread;
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+
+    /** Paces on {@link Clock#SYSTEM} and ticks on the EDT. */
+    public ThreadScheduler() {
+        this(Clock.SYSTEM, SwingUtilities::invokeLater);
+    }
+
+    public ThreadScheduler(Clock clock, Executor executor) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.executor = Objects.requireNonNull(executor, "executor");
+    }
+
+    @Override
+    public synchronized void start(Runnable tick, long periodNanos) {
+        Objects.requireNonNull(tick, "tick");
+        if (periodNanos <= 0) throw new IllegalArgumentException("period must be positive");
+        if (thread != null) return;
+        Thread t = new Thread(() -> loop(tick, periodNanos), "timeline-scheduler");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /** @return ticks not handed over because the previous one was still pending */
+    public long getCoalescedTicks() {
+        return coalesced.get();
+    }
+
+    /** @return deadline slots skipped because the scheduler thread itself was late */
+    public long getMissedSlots() {
+        return missed.get();
+    }
+
+    private void loop(Runnable tick, long period) {
+        Thread self = Thread.currentThread();
+        long next = clock.nanoTime() + period;
+        while (thread == self) {
+            long wait = next - clock.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue; // re-check deadline and stop flag (spurious wake-ups, unpark)
+            }
+            long late = -wait;
+            if (late > period) {
+                long skip = late / period;
+                missed.addAndGet(skip);
+                next += skip * period;
+            }
+            next += period;
+            if (pending.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    try {
+                        if (thread == self) tick.run();
+                    } finally {
+                        pending.set(false);
+                    }
+                });
+            } else {
+                coalesced.incrementAndGet();
+            }
+        }
+    }
+}
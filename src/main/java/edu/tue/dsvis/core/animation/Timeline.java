@@ -1,61 +1,215 @@
 package main.java.edu.tue.dsvis.core.animation;
 
-import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * A very small animation timeline that owns a queue of {@link Frame}s and
- * drives them using a {@link javax.swing.Timer}. The timer fires on the AWT
- * event-dispatch thread (EDT), ensuring that frame tasks which mutate Swing
- * UI components run on the correct thread.
+ * A very small animation timeline that owns a log of {@link Frame}s and
+ * plays them back through a pluggable {@link Scheduler}. The default
+ * {@link ThreadScheduler} paces on {@link System#nanoTime()} and runs ticks
+ * on the AWT event-dispatch thread (EDT), ensuring that frame tasks which
+ * mutate Swing UI components run on the correct thread; a
+ * {@link ManualScheduler} with a {@link ManualClock} drives playback
+ * deterministically on the caller's thread for tests and headless runs.
  *
  * <p>Minimal responsibilities:
  * <ul>
  *   <li>Play / pause / reset / single-step control</li>
- *   <li>Speed scaling between 0.25× and 4× real-time</li>
+ *   <li>Speed scaling between 0.05× and 4× real-time</li>
+ *   <li>Seeking to any position, forwards and backwards</li>
  *   <li>Property change notifications for the current playback position so
- *       UI widgets such as a scrubber can react</li>
+ *       UI widgets such as a scrubber can react, and a {@code "reset"}
+ *       notification when {@link #reset()} discarded the frames</li>
  * </ul></p>
  *
+ * <p>Frames are stored compactly in a {@link FrameLog}: an opcode, a tag
+ * selecting a registered {@link Dispatcher}, two int operands, the delay and
+ * the visual flag, 12 bytes in total. Models add frames with
+ * {@link #addOp(int, int, int, int, int, boolean)} and interpret them in
+ * their dispatcher at play time, so no closure is kept per frame;
+ * {@link #addFrame(Frame)} remains for arbitrary {@link Runnable}s. Once
+ * the log outgrows its {@linkplain #setLogMemoryBudget(long) memory budget},
+ * older segments are spilled to temporary files and paged back in when
+ * playback or a seek reaches them. {@link LogStore}s attached for the run,
+ * such as a model's event tape, share that budget and the spill files.</p>
+ *
+ * <p>Executed frames are kept, not consumed. While playing (or seeking) the
+ * timeline captures the state of every registered {@link Checkpointable}
+ * every {@code checkpointInterval} frames. {@link #seek(int)} restores the
+ * nearest checkpoint at or before the target (binary search) and re-runs
+ * at most one interval of frames, so scrubbing costs the same at frame ten
+ * and at frame ten million. When the checkpoints outgrow the byte budget,
+ * every second one is dropped and the interval doubles, which keeps memory
+ * bounded at the price of longer re-runs.</p>
+ *
+ * <p>Pacing follows each frame's {@link Frame#getDelayMs() delay}: the scheduler
+ * only wakes the timeline up, while a playhead advances by the clock time
+ * elapsed (scaled by the speed factor). Every tick runs all frames that are
+ * due, so a run of zero-delay frames (line highlights, step counters)
+ * executes as one batch instead of costing a timer period each, and a frame
+ * that asks for 200&nbsp;ms is shown for 200&nbsp;ms at 1×. Listeners get
+ * one {@code "position"} event per batch.</p>
+ *
+ * <p>{@link #setTargetDuration(long)} replaces the speed factor by a
+ * wall-clock budget for the rest of the run. The timeline then decimates:
+ * if the remaining delays exceed the budget, {@linkplain Frame#isVisual()
+ * visual} frames are skipped first (evenly spread, as many as needed), and
+ * only when the state frames alone are still too slow do some of them run
+ * without their delay. {@link #jumpToEnd()} applies all remaining state
+ * frames in one batch and skips the visual ones. {@link #reset()} and a
+ * {@linkplain #seek(int) seek} back to the start re-arm the full budget.</p>
+ *
+ * <p>Frames may also be produced while playing. A producer on another
+ * thread opens a stream ({@link #openStream()}) and calls
+ * {@link #awaitRoom(int)} before each frame; it blocks while
+ * {@link #setLookahead(int) lookahead} frames are queued ahead of the
+ * playback position, so a paused timeline stalls the producer instead of
+ * letting it run ahead. While a stream is open, running out of frames
+ * keeps playback waiting rather than pausing it. {@link #reset()} cancels
+ * the producer: its next frame throws {@link CancellationException}.</p>
+ *
+ * <p>When ticks arrive late because the playback thread is overloaded, the
+ * {@link LagPolicy} decides whether visual frames are dropped to catch up
+ * (counted in {@link #getDroppedFrames()}) or the clock is slowed down.</p>
+ *
  * <p>Future improvements:
  * <ul>
- *   <li>Add rewind / seek ability by storing executed frames</li>
  *   <li>Relay {@link main.java.edu.tue.dsvis.core.event.EventBus} events so
  *       that views can redraw by event rather than immediately mutating
  *       Swing components</li>
  * </ul></p>
  */
-public class Timeline {
+public class Timeline implements Playback {
+
+    /** What to do when ticks arrive later than one period. */
+    public enum LagPolicy {
+        /** Keep to the clock; skip due visual frames while behind. */
+        DROP_VISUAL,
+        /** Never skip; let playback run slower than the clock. */
+        SLOW_CLOCK
+    }
+
+    /** What happens to spilled frame log segments. */
+    public enum SpillCleanup {
+        /** Delete a run's files when the timeline is reset (and at exit). */
+        ON_RESET,
+        /** Keep files of earlier runs until the JVM exits. */
+        ON_EXIT,
+        /** Never delete, e.g. to inspect the files. */
+        KEEP
+    }
+
+    /** Frames between checkpoints until the budget forces thinning. */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 256;
+
+    /** Default cap on the summed size of all checkpoints. */
+    public static final long DEFAULT_CHECKPOINT_BUDGET = 32L << 20;
+
+    /** Default heap budget for resident frame log segments. */
+    public static final long DEFAULT_LOG_MEMORY_BUDGET = 256L << 20;
+
+    /** Default for {@link #setLookahead(int)}: 768&nbsp;KB of encoded frames. */
+    public static final int DEFAULT_LOOKAHEAD = 1 << 16;
 
-    private final ConcurrentLinkedQueue<Frame> queue = new ConcurrentLinkedQueue<>();
+    /** Longest backlog (scaled ms) the playhead catches up on after a stall. */
+    private static final double MAX_CATCH_UP_MS = 250;
+
+    /** Low bits of a dispatcher tag hold the slot, the rest the generation. */
+    private static final int TAG_BITS = 8;
+    private static final int GENERATION_MASK = -1 >>> TAG_BITS;
+
+    /** Time one tick may spend running frames before yielding the playback thread. */
+    static final long MAX_BATCH_NANOS = 8_000_000L;
+
+    /** Frames between checks of the log budget against attached stores. */
+    private static final int STORE_CHECK_MASK = 1023;
+
+    /** Spill files of the frame log and the attached stores. */
+    private final SpillFiles spillFiles = new SpillFiles();
+    /** Frame log; only appended to, guarded by {@code this}. */
+    private final FrameLog log = new FrameLog(spillFiles);
+    /** Stores sharing the log budget until the next reset; guarded by {@code this}. */
+    private final List<LogStore> stores = new ArrayList<>();
+    /** Dispatchers by tag, guarded by {@code this}; cleared by {@link #reset()}. */
+    private Dispatcher[] dispatchers = new Dispatcher[FrameLog.MAX_TAG + 1];
+    private int dispatcherCount = 1; // tag 0 belongs to runnable frames
+    private int generation = 0;
+    // Streaming producers, guarded by this
+    private int lookahead = DEFAULT_LOOKAHEAD;
+    private int openStreams = 0;
+    private int waitingProducers = 0;
+    private final List<Checkpointable> checkpointables = new CopyOnWriteArrayList<>();
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
-    private final int basePeriodMs; // base period derived from fps
+    private final long periodNanos; // tick period derived from fps
     private double speedFactor = 1.0;
-    private final Timer timer;
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private LagPolicy lagPolicy = LagPolicy.DROP_VISUAL;
+    private long maxBatchNanos = MAX_BATCH_NANOS; // shared among lanes of a group
+    private long droppedFrames = 0;
 
-    private int position = 0; // number of executed frames, used for UI scrubber
+    private volatile int position = 0; // executed frames; read by producers under the lock
     private boolean running = false;
 
+    // Pacing, in speed-scaled milliseconds (playback thread only)
+    private long lastTickNanos;
+    private double playheadMs = 0;
+    private double dueMs = 0;      // playhead time at which the next frame may run
+
+    // Duration-targeted playback (playback thread only, except the totals)
+    private long targetMs = -1;              // requested budget, re-armed on a rewind to the start
+    private double targetRemainingMs = -1;   // wall-clock budget left; negative when off
+    private int plannedLength = -1;          // log length the keep ratios were computed for
+    private double visualKeep = 1, stateKeep = 1, delayScale = 1;
+    private double visualAcc = 0, stateAcc = 0;
+    private long totalStateDelay = 0, totalVisualDelay = 0;   // whole log, guarded by this
+    private long passedStateDelay = 0, passedVisualDelay = 0; // frames before position
+    private boolean passedValid = true;
+
+    // Checkpoints, sorted by position (playback thread only)
+    private int baseCheckpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private long checkpointBudget = DEFAULT_CHECKPOINT_BUDGET;
+    private int[] cpPosition = new int[16];
+    private Object[][] cpState = new Object[16][];
+    private long[] cpBytes = new long[16];
+    private int cpCount = 0;
+    private long cpTotalBytes = 0;
+
     // Construction
 
     /**
-     * Creates a new {@code Timeline} with a desired frames-per-second rate.
+     * Creates a new {@code Timeline} with a desired frames-per-second rate,
+     * paced by a {@link ThreadScheduler} that ticks on the EDT.
      *
      * @param fps desired frames per second (>0)
      */
     public Timeline(int fps) {
+        this(fps, Clock.SYSTEM, new ThreadScheduler());
+    }
+
+    /**
+     * @param fps       tick rate (>0)
+     * @param clock     time source for pacing; should be the one the
+     *                  scheduler waits on
+     * @param scheduler drives the ticks and decides the playback thread
+     */
+    public Timeline(int fps, Clock clock, Scheduler scheduler) {
         if (fps <= 0) {
             throw new IllegalArgumentException("fps must be positive");
         }
-        this.basePeriodMs = 1000 / fps;
-        // The timer will be (re)configured when speed changes.
-        this.timer = new Timer(basePeriodMs, e -> tick());
-        this.timer.setRepeats(true);
+        this.periodNanos = 1_000_000_000L / fps;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
+        log.setMemoryBudget(DEFAULT_LOG_MEMORY_BUDGET);
     }
 
     // Public control API
@@ -65,15 +219,17 @@ public class Timeline {
         if (!running) {
             boolean old = running;
             running = true;
-            timer.start();
+            lastTickNanos = clock.nanoTime();
+            dueMs = playheadMs;
+            scheduler.start(this::tick, periodNanos);
             pcs.firePropertyChange("running", old, running);
         }
     }
 
-    /** Pauses playback, keeping the current queue intact. */
+    /** Pauses playback, keeping the frame log intact. */
     public void pause() {
         if (running) {
-            timer.stop();
+            scheduler.stop();
             boolean old = running;
             running = false;
             pcs.firePropertyChange("running", old, running);
@@ -81,30 +237,140 @@ public class Timeline {
     }
 
     /**
-     * Clears all queued frames and resets playback position to zero.
-     * Does not automatically start playback.
+     * Discards all frames and checkpoints and resets playback position to
+     * zero. Does not automatically start playback. Open streams are closed
+     * and their producers cancelled.
      */
     public void reset() {
         pause();
-        queue.clear();
+        synchronized (this) {
+            log.clear();
+            stores.clear();
+            spillFiles.clear();
+            Arrays.fill(dispatchers, null);
+            dispatcherCount = 1;
+            generation++;
+            openStreams = 0;
+            totalStateDelay = totalVisualDelay = 0;
+            notifyAll(); // blocked producers wake up and see the new generation
+        }
+        passedStateDelay = passedVisualDelay = 0;
+        passedValid = true;
+        droppedFrames = 0;
+        rearmTarget();
+        clearCheckpoints();
         int oldPos = position;
         position = 0;
         pcs.firePropertyChange("position", oldPos, position);
+        pcs.firePropertyChange("reset", false, true);
     }
 
     /**
-     * Executes exactly one frame if available, regardless of running state.
+     * Executes one visible step regardless of running state: the next frame
+     * with a non-zero delay together with the zero-delay frames before it.
      */
     public void stepForward() {
-        if (timer.isRunning()) {
+        if (running) {
             // Avoid double-running frames; pause first.
             pause();
         }
-        tick();
+        int length = getLength();
+        if (position >= length) return;
+        ensureFirstCheckpoint();
+        int oldPos = position;
+        int h;
+        do {
+            h = headerAt(position);
+            runFrame(h);
+        } while (FrameLog.delayOf(h) == 0 && position < length);
+        wakeProducers();
+        pcs.firePropertyChange("position", oldPos, position);
+    }
+
+    /**
+     * Moves playback to {@code target} (clamped to {@code [0, getLength()]})
+     * so that exactly the first {@code target} frames appear to have run.
+     * Must be called on the playback thread (the EDT by default); does not
+     * change the running state.
+     *
+     * <p>Going forward by less than one checkpoint interval simply runs the
+     * frames in between. Otherwise the nearest checkpoint at or before the
+     * target is restored and the remaining frames are re-run. Without any
+     * registered {@link Checkpointable}, seeking backwards only re-runs frames
+     * and therefore relies on the frames being idempotent. Positions before
+     * the first checkpoint (possible when a holder was registered mid-run)
+     * are clamped to it.</p>
+     */
+    public void seek(int target) {
+        target = Math.max(0, Math.min(target, getLength()));
+        if (target == position) return;
+        int oldPos = position;
+        ensureFirstCheckpoint();
+        int cp = Math.max(0, floorCheckpoint(target));
+        target = Math.max(target, cpPosition[cp]);
+        if (target < position || target - position > target - cpPosition[cp]) {
+            restore(cp);
+        }
+        while (position < target) {
+            runFrame(headerAt(position));
+        }
+        dueMs = playheadMs;
+        if (position == 0) rearmTarget();
+        else plannedLength = -1;
+        wakeProducers();
+        pcs.firePropertyChange("position", oldPos, position);
+    }
+
+    /**
+     * Applies all remaining state frames at once and skips the visual ones,
+     * without rendering in between. Playback is paused. With an open stream
+     * this is the end of the frames produced so far.
+     */
+    public void jumpToEnd() {
+        pause();
+        int length = getLength();
+        if (position >= length) return;
+        ensureFirstCheckpoint();
+        int oldPos = position;
+        while (position < length) {
+            int h = headerAt(position);
+            if (FrameLog.isVisual(h)) skipFrame(h);
+            else runFrame(h);
+        }
+        dueMs = playheadMs;
+        wakeProducers();
+        pcs.firePropertyChange("position", oldPos, position);
+    }
+
+    /**
+     * Plays the remaining frames in roughly {@code millis} of wall-clock
+     * time, deciding which frames to render and which to apply silently.
+     * The budget counts down only while playing. Frames appended later are
+     * folded into the same budget.
+     *
+     * @param millis target duration; zero or negative switches back to the
+     *               speed factor
+     */
+    public void setTargetDuration(long millis) {
+        targetMs = millis > 0 ? millis : -1;
+        rearmTarget();
+    }
+
+    /** Restores the whole requested budget, as if it had just been set. */
+    private void rearmTarget() {
+        targetRemainingMs = targetMs;
+        plannedLength = -1;
+        visualAcc = stateAcc = 0;
+    }
+
+    /** @return {@code true} while a target duration is in effect */
+    public boolean isDurationTargeted() {
+        return targetRemainingMs >= 0;
     }
 
     /**
-     * Adjusts playback speed. Values are clamped to the range [0.25, 4.0].
+     * Adjusts playback speed, i.e. how fast the playhead advances relative to
+     * wall-clock time. Values are clamped to the range [0.05, 4.0].
      *
      * @param factor the desired speed multiplier
      */
@@ -112,11 +378,20 @@ public class Timeline {
         if (Double.isNaN(factor) || factor <= 0) {
             throw new IllegalArgumentException("factor must be positive");
         }
-        double clamped = Math.max(0.05, Math.min(4.0, factor));
-        if (this.speedFactor != clamped) {
-            this.speedFactor = clamped;
-            timer.setDelay((int) Math.round(basePeriodMs / speedFactor));
-        }
+        this.speedFactor = Math.max(0.05, Math.min(4.0, factor));
+    }
+
+    public void setLagPolicy(LagPolicy policy) {
+        this.lagPolicy = Objects.requireNonNull(policy, "policy");
+    }
+
+    public LagPolicy getLagPolicy() {
+        return lagPolicy;
+    }
+
+    /** @return visual frames skipped so far because playback lagged behind the clock */
+    public long getDroppedFrames() {
+        return droppedFrames;
     }
 
     /** @return {@code true} when the timeline is actively playing. */
@@ -124,20 +399,280 @@ public class Timeline {
         return running;
     }
 
-    // Queue management helpers
+    /** @return number of frames executed so far, i.e. the scrubber position */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return summed delays of the frames not played yet, in milliseconds at
+     *         1×; call on the playback thread
+     */
+    public long getRemainingDelayMillis() {
+        if (!passedValid) recomputePassedDelays();
+        synchronized (this) {
+            return totalStateDelay + totalVisualDelay - passedStateDelay - passedVisualDelay;
+        }
+    }
+
+    /** Caps the time one tick spends running zero-delay frames. */
+    void setMaxBatchNanos(long nanos) {
+        this.maxBatchNanos = nanos;
+    }
+
+    // Frame log management
 
     /**
-     * Enqueues a frame at the end of the timeline.
+     * Appends a frame to the end of the timeline. Safe to call from any
+     * thread. Prefer {@link #addOp} for bulk frames: a runnable frame keeps
+     * its closure alive for the lifetime of the run.
      *
      * @param frame non-null frame to add
      */
     public void addFrame(Frame frame) {
-        queue.add(Objects.requireNonNull(frame));
+        Objects.requireNonNull(frame);
+        synchronized (this) {
+            log.add(frame);
+            countDelay(frame.getDelayMs(), frame.isVisual());
+        }
+    }
+
+    /**
+     * Registers a dispatcher for opcode frames until the next
+     * {@link #reset()}.
+     *
+     * @return the tag to pass to {@link #addOp}; it also identifies the
+     *         current generation, so a stale tag is rejected
+     * @throws IllegalStateException when all 127 tags
+     *                               are in use
+     */
+    public synchronized int registerDispatcher(Dispatcher d) {
+        Objects.requireNonNull(d, "dispatcher");
+        if (dispatcherCount > FrameLog.MAX_TAG) {
+            throw new IllegalStateException("too many dispatchers on one timeline run");
+        }
+        dispatchers[dispatcherCount] = d;
+        return (generation & GENERATION_MASK) << TAG_BITS | dispatcherCount++;
     }
 
-    /** @return number of frames remaining in the queue. */
+    /**
+     * @return counter incremented by every {@link #reset()}; dispatcher tags
+     *         obtained in an earlier generation are no longer valid
+     */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Appends an opcode frame, executed as {@code dispatcher.dispatch(opcode, a, b)}.
+     * Safe to call from any thread.
+     *
+     * @param tag     tag returned by {@link #registerDispatcher}
+     * @param opcode  dispatcher-defined opcode, 1-255
+     * @param delayMs display duration, clamped to 65535
+     * @param visual  see {@link Frame#isVisual()}
+     * @throws CancellationException if the timeline was reset since the tag
+     *                               was registered
+     */
+    public void addOp(int tag, int opcode, int a, int b, int delayMs, boolean visual) {
+        if (opcode <= FrameLog.OP_RUNNABLE || opcode > 0xFF) {
+            throw new IllegalArgumentException("opcode out of range: " + opcode);
+        }
+        if (delayMs < 0) {
+            throw new IllegalArgumentException("delayMs must be non-negative");
+        }
+        synchronized (this) {
+            int slot = checkTag(tag);
+            log.add(opcode, slot, a, b, delayMs, visual);
+            countDelay(Math.min(delayMs, FrameLog.MAX_DELAY_MS), visual);
+            if ((log.size() & STORE_CHECK_MASK) == 0 && !stores.isEmpty()) trimStores();
+        }
+    }
+
+    /**
+     * Lets {@code store} share the {@linkplain #setLogMemoryBudget(long) log
+     * memory budget} and the spill files until the next {@link #reset()}.
+     * Checked every 1024 frames; when over budget, the frame log and the
+     * stores are trimmed in proportion to their resident bytes.
+     */
+    public synchronized void attachLogStore(LogStore store) {
+        Objects.requireNonNull(store, "store");
+        if (!stores.contains(store)) stores.add(store);
+    }
+
+    // Streaming
+
+    /**
+     * Announces a producer that adds frames while the timeline plays. Until
+     * the stream is closed (or the timeline reset), playback that catches up
+     * with the log waits for more frames instead of pausing.
+     *
+     * @return the current generation, to pass to {@link #closeStream(int)}
+     */
+    public synchronized int openStream() {
+        openStreams++;
+        return generation;
+    }
+
+    /**
+     * Closes a stream opened in {@code generation}; ignored if the timeline
+     * has been reset since.
+     */
+    public synchronized void closeStream(int generation) {
+        if (generation == this.generation && openStreams > 0) openStreams--;
+    }
+
+    /** @return {@code true} while a producer may still add frames */
+    public synchronized boolean isStreaming() {
+        return openStreams > 0;
+    }
+
+    /**
+     * Back-pressure for streaming producers: blocks while at least
+     * {@code lookahead} frames are waiting to be played, then until half of
+     * them have been. Must not be called on the playback thread.
+     *
+     * @param tag the producer's dispatcher tag
+     * @throws CancellationException if the timeline was reset since the tag
+     *                               was registered
+     * @throws InterruptedException  if the producer was interrupted while
+     *                               waiting
+     */
+    public synchronized void awaitRoom(int tag) throws InterruptedException {
+        checkTag(tag);
+        if (log.size() - position < lookahead) return;
+        waitingProducers++;
+        try {
+            do {
+                wait();
+                checkTag(tag);
+            } while (log.size() - position > lookahead / 2);
+        } finally {
+            waitingProducers--;
+        }
+    }
+
+    /**
+     * @param frames unplayed frames a streaming producer may queue before
+     *               {@link #awaitRoom(int)} blocks (&gt;0)
+     */
+    public synchronized void setLookahead(int frames) {
+        if (frames <= 0) throw new IllegalArgumentException("lookahead must be positive");
+        this.lookahead = frames;
+        notifyAll();
+    }
+
+    public synchronized int getLookahead() {
+        return lookahead;
+    }
+
+    /** @return total number of frames in the log, executed or not */
+    public synchronized int getLength() {
+        return log.size();
+    }
+
+    /**
+     * @return heap held by the resident part of the encoded frame log and of
+     *         the attached {@link LogStore}s in bytes
+     */
+    public synchronized long getLogBytes() {
+        long bytes = log.residentBytes();
+        for (LogStore store : stores) bytes += store.residentBytes();
+        return bytes;
+    }
+
+    /** @return bytes of the frame log and the attached stores written to spill files */
+    public synchronized long getLogSpilledBytes() {
+        return spillFiles.spilledBytes();
+    }
+
+    /** @return spilled segments read back so far, over all runs */
+    public synchronized long getLogPageIns() {
+        return log.pageIns();
+    }
+
+    /**
+     * @param bytes heap budget for resident frame log segments and attached
+     *              {@link LogStore}s (&gt;0); two frame log segments always
+     *              stay resident
+     */
+    public synchronized void setLogMemoryBudget(long bytes) {
+        log.setMemoryBudget(bytes);
+        if (!stores.isEmpty()) trimStores();
+    }
+
+    /**
+     * @param frames frames per log segment, a power of two of at least 1024;
+     *               the unit of spilling and paging
+     * @throws IllegalStateException unless the log is empty
+     */
+    public synchronized void setLogSegmentFrames(int frames) {
+        log.setSegmentFrames(frames);
+    }
+
+    /** @param on deflate segments when spilling; applies to later spills */
+    public synchronized void setLogCompression(boolean on) {
+        spillFiles.setCompression(on);
+    }
+
+    public synchronized void setLogSpillCleanup(SpillCleanup policy) {
+        spillFiles.setCleanup(Objects.requireNonNull(policy, "policy"));
+    }
+
+    /**
+     * @param parent directory in which spill directories are created;
+     *               {@code null} for the system temp directory
+     */
+    public synchronized void setLogSpillDirectory(Path parent) {
+        spillFiles.setDirectory(parent);
+    }
+
+    /** @return number of frames not executed yet. */
     public int getRemaining() {
-        return queue.size();
+        return getLength() - position;
+    }
+
+    // Checkpoints
+
+    /**
+     * Registers a state holder whose state is captured at checkpoints.
+     * Registering while frames have already run drops existing checkpoints,
+     * since they lack the new holder's state.
+     */
+    public void addCheckpointable(Checkpointable c) {
+        checkpointables.add(Objects.requireNonNull(c));
+        clearCheckpoints();
+    }
+
+    public void removeCheckpointable(Checkpointable c) {
+        if (checkpointables.remove(c)) clearCheckpoints();
+    }
+
+    /**
+     * @param frames frames between checkpoints (&gt;0); applies to new
+     *               checkpoints only
+     */
+    public void setCheckpointInterval(int frames) {
+        if (frames <= 0) throw new IllegalArgumentException("interval must be positive");
+        this.baseCheckpointInterval = frames;
+        if (cpCount == 0) this.checkpointInterval = frames;
+    }
+
+    /** @param bytes cap on the summed size of all checkpoints (&gt;0) */
+    public void setCheckpointBudget(long bytes) {
+        if (bytes <= 0) throw new IllegalArgumentException("budget must be positive");
+        this.checkpointBudget = bytes;
+        thinCheckpoints();
+    }
+
+    /** @return number of checkpoints currently held */
+    public int getCheckpointCount() {
+        return cpCount;
+    }
+
+    /** @return summed size estimate of all checkpoints in bytes */
+    public long getCheckpointBytes() {
+        return cpTotalBytes;
     }
 
     // PropertyChangeSupport plumbing
@@ -153,23 +688,257 @@ public class Timeline {
     // Internal helpers
 
     private void tick() {
-        Frame frame = queue.poll();
-        if (frame == null) {
+        int length = getLength();
+        if (position >= length) {
+            if (isStreaming()) {
+                // Starved: wait for the producer without building up a backlog
+                lastTickNanos = clock.nanoTime();
+                return;
+            }
             // No more frames – pause and notify listeners.
             pause();
             return;
         }
-
-        // Execute the frame's task. It should run on EDT; Timer already runs on EDT,
-        // but guard against future call sites (e.g., stepForward from non-EDT).
-        if (SwingUtilities.isEventDispatchThread()) {
-            frame.getTask().run();
+        long now = clock.nanoTime();
+        double elapsedMs = (now - lastTickNanos) / 1e6;
+        lastTickNanos = now;
+        double periodMs = periodNanos / 1e6;
+        if (lagPolicy == LagPolicy.SLOW_CLOCK) {
+            elapsedMs = Math.min(elapsedMs, 2 * periodMs); // a late tick only counts as two periods
+        }
+        boolean targeted = targetRemainingMs >= 0;
+        if (targeted) {
+            targetRemainingMs = Math.max(0, targetRemainingMs - elapsedMs);
+            if (length != plannedLength) plan(length);
+            playheadMs += elapsedMs;
         } else {
-            SwingUtilities.invokeLater(frame.getTask());
+            playheadMs += elapsedMs * speedFactor;
+        }
+        if (playheadMs - dueMs > MAX_CATCH_UP_MS) {
+            dueMs = playheadMs - MAX_CATCH_UP_MS; // don't burst through a backlog after a stall
         }
 
+        ensureFirstCheckpoint();
         int oldPos = position;
+        long deadline = now + maxBatchNanos;
+        while (position < length && dueMs <= playheadMs) {
+            int h = headerAt(position);
+            double delay = targeted ? pacedDelay(h) : FrameLog.delayOf(h);
+            if (delay >= 0 && FrameLog.isVisual(h) && lagPolicy == LagPolicy.DROP_VISUAL
+                    && playheadMs - dueMs > periodMs) {
+                // More than a period behind: drop the highlight but keep its time slot
+                droppedFrames++;
+                skipFrame(h);
+                dueMs += delay;
+            } else if (delay < 0) {
+                skipFrame(h);
+            } else {
+                runFrame(h);
+                dueMs += delay;
+            }
+            if (delay <= 0 && clock.nanoTime() > deadline) break;
+        }
+        if (position != oldPos) {
+            wakeProducers();
+            pcs.firePropertyChange("position", oldPos, position);
+        }
+    }
+
+    /**
+     * Delay of {@code f} under the current decimation plan, 0 to apply it
+     * silently, or -1 to skip it. Kept frames are spread evenly by error
+     * accumulation.
+     */
+    private double pacedDelay(int h) {
+        if (FrameLog.isVisual(h)) {
+            visualAcc += visualKeep;
+            if (visualAcc < 1) return -1;
+            visualAcc -= 1;
+        } else {
+            stateAcc += stateKeep;
+            if (stateAcc < 1) return 0;
+            stateAcc -= 1;
+        }
+        return FrameLog.delayOf(h) * delayScale;
+    }
+
+    /** Splits the remaining budget between state and visual frames. */
+    private void plan(int length) {
+        if (!passedValid) recomputePassedDelays();
+        double state, visual;
+        synchronized (this) {
+            state = totalStateDelay - passedStateDelay;
+            visual = totalVisualDelay - passedVisualDelay;
+        }
+        double budget = Math.max(1, targetRemainingMs);
+        if (state + visual <= budget) {
+            // Everything fits: render all frames, stretched to the budget
+            visualKeep = stateKeep = 1;
+            delayScale = state + visual > 0 ? budget / (state + visual) : 1;
+        } else if (state <= budget) {
+            // Drop just enough highlights
+            stateKeep = 1;
+            visualKeep = visual > 0 ? (budget - state) / visual : 0;
+            delayScale = 1;
+        } else {
+            // No highlights at all, and only some state changes are shown
+            visualKeep = 0;
+            stateKeep = budget / state;
+            delayScale = 1;
+        }
+        plannedLength = length;
+    }
+
+    private void recomputePassedDelays() {
+        long state = 0, visual = 0;
+        synchronized (this) {
+            for (int i = 0; i < position; i++) {
+                int h = log.header(i);
+                if (FrameLog.isVisual(h)) visual += FrameLog.delayOf(h);
+                else state += FrameLog.delayOf(h);
+            }
+        }
+        passedStateDelay = state;
+        passedVisualDelay = visual;
+        passedValid = true;
+    }
+
+    /** Runs one frame, advances the position and checkpoints on interval boundaries. */
+    private void runFrame(int h) {
+        int index = position;
+        Runnable task = null;
+        Dispatcher d = null;
+        int a, b;
+        synchronized (this) {
+            a = log.a(index);
+            b = log.b(index);
+            if (FrameLog.opcodeOf(h) == FrameLog.OP_RUNNABLE) task = log.runnable(a);
+            else d = dispatchers[FrameLog.tagOf(h)];
+        }
+        // Runs on the playback thread chosen by the scheduler (the EDT by default)
+        if (task != null) task.run();
+        else d.dispatch(FrameLog.opcodeOf(h), a, b);
+        advance(h);
+    }
+
+    /** Passes over a visual frame without running it. */
+    private void skipFrame(int h) {
+        advance(h);
+    }
+
+    private void countDelay(int delayMs, boolean visual) {
+        if (visual) totalVisualDelay += delayMs;
+        else totalStateDelay += delayMs;
+    }
+
+    private void advance(int h) {
+        if (FrameLog.isVisual(h)) passedVisualDelay += FrameLog.delayOf(h);
+        else passedStateDelay += FrameLog.delayOf(h);
         position++;
-        pcs.firePropertyChange("position", oldPos, position);
+        if (position % checkpointInterval == 0 && position > cpPosition[cpCount - 1]) {
+            capture();
+        }
+    }
+
+    /** Validates a dispatcher tag under the lock and returns its slot. */
+    private int checkTag(int tag) {
+        if ((tag >>> TAG_BITS) != (generation & GENERATION_MASK)) {
+            throw new CancellationException("timeline was reset");
+        }
+        int slot = tag & ((1 << TAG_BITS) - 1);
+        if (slot == 0 || slot >= dispatcherCount) {
+            throw new IllegalArgumentException("unknown dispatcher tag " + tag);
+        }
+        return slot;
+    }
+
+    /** Splits the log budget between the frame log and the stores by their resident bytes. */
+    private void trimStores() {
+        long budget = log.getMemoryBudget();
+        long frames = log.residentBytes();
+        long[] held = new long[stores.size()];
+        long total = frames;
+        for (int i = 0; i < held.length; i++) total += held[i] = stores.get(i).residentBytes();
+        if (total <= budget) return;
+        double scale = (double) budget / total;
+        for (int i = 0; i < held.length; i++) stores.get(i).trimTo((long) (held[i] * scale), spillFiles);
+        log.trimTo((long) (frames * scale));
+    }
+
+    private synchronized void wakeProducers() {
+        if (waitingProducers > 0 && log.size() - position <= lookahead / 2) notifyAll();
+    }
+
+    private synchronized int headerAt(int index) {
+        return log.header(index);
+    }
+
+    /**
+     * The first checkpoint is taken lazily right before a frame runs, i.e.
+     * at position 0 unless the checkpoints were dropped mid-run.
+     */
+    private void ensureFirstCheckpoint() {
+        if (cpCount == 0) capture();
+    }
+
+    private void capture() {
+        Object[] states = new Object[checkpointables.size()];
+        long bytes = 0;
+        for (int i = 0; i < states.length; i++) {
+            Checkpointable c = checkpointables.get(i);
+            states[i] = c.capture();
+            bytes += c.sizeOf(states[i]);
+        }
+        if (cpCount == cpPosition.length) {
+            cpPosition = Arrays.copyOf(cpPosition, cpCount * 2);
+            cpState = Arrays.copyOf(cpState, cpCount * 2);
+            cpBytes = Arrays.copyOf(cpBytes, cpCount * 2);
+        }
+        cpPosition[cpCount] = position;
+        cpState[cpCount] = states;
+        cpBytes[cpCount] = bytes;
+        cpCount++;
+        cpTotalBytes += bytes;
+        thinCheckpoints();
+    }
+
+    private void restore(int cp) {
+        Object[] states = cpState[cp];
+        for (int i = 0; i < states.length && i < checkpointables.size(); i++) {
+            checkpointables.get(i).restore(states[i]);
+        }
+        position = cpPosition[cp];
+        passedValid = false;
+    }
+
+    /** @return index of the last checkpoint at or before {@code pos} */
+    private int floorCheckpoint(int pos) {
+        int i = Arrays.binarySearch(cpPosition, 0, cpCount, pos);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /** Drops every second checkpoint (keeping the first) until within budget. */
+    private void thinCheckpoints() {
+        while (cpTotalBytes > checkpointBudget && cpCount > 2) {
+            int kept = 1;
+            cpTotalBytes = cpBytes[0];
+            for (int i = 2; i < cpCount; i += 2) {
+                cpPosition[kept] = cpPosition[i];
+                cpState[kept] = cpState[i];
+                cpBytes[kept] = cpBytes[i];
+                cpTotalBytes += cpBytes[i];
+                kept++;
+            }
+            Arrays.fill(cpState, kept, cpCount, null);
+            cpCount = kept;
+            checkpointInterval *= 2;
+        }
+    }
+
+    private void clearCheckpoints() {
+        Arrays.fill(cpState, 0, cpCount, null);
+        cpCount = 0;
+        cpTotalBytes = 0;
+        checkpointInterval = baseCheckpointInterval;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,523 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import main.java.edu.tue.dsvis.core.mvc.View;
+
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous variant of {@link EventBus} backed by a preallocated ring
+ * buffer.
+ *
+ * <p>{@link #post(Event)} only publishes into the ring and returns; each
+ * listener owns a consumer sequence and reads the ring at its own pace:</p>
+ * <ul>
+ *   <li>{@link Delivery#EDT} listeners (Swing views) are drained in batches on
+ *       the event-dispatch thread. Posts are coalesced so at most one drain is
+ *       queued on the EDT at any time.</li>
+ *   <li>{@link Delivery#THREAD} listeners (loggers, metrics) each consume on
+ *       a dedicated daemon thread.</li>
+ * </ul>
+ *
+ * <p>The bus assumes a single producer: {@code post} must not be called
+ * concurrently from several threads. When the slowest consumer is a full ring
+ * behind, the configured {@link OverflowPolicy} decides what happens to the
+ * new event. Per-listener lag is available via {@link #getLag(EventListener)}
+ * and {@link #lagSnapshot()}.</p>
+ *
+ * <p>A tape entry travels through the ring as its tape and position, so
+ * {@link EventBus.TapeListener}s read it in place and an {@link Event} is
+ * only materialised for plain listeners. The producer must leave the
+ * entries it posted unchanged (no {@link EventTape#clear()}) while
+ * consumers may still lag behind.</p>
+ *
+ * <p>An exception thrown by a {@link Delivery#THREAD} listener is handed to
+ * its consumer thread's uncaught-exception handler; the thread then goes on
+ * with the next event.</p>
+ *
+ * <p>Scopes created from this bus (and their children) keep no listeners
+ * of their own: they register and post through this ring, each slot tagged
+ * with the scope it was posted to. A listener of a scope only sees what was
+ * posted to that scope or below it, a listener of this bus sees everything,
+ * as bubbling would deliver it.</p>
+ */
+public class AsyncEventBus extends EventBus {
+
+    /** Where a listener's callbacks run. */
+    public enum Delivery {
+        /** Batched on the Swing event-dispatch thread. */
+        EDT,
+        /** On a dedicated consumer thread owned by the bus. */
+        THREAD
+    }
+
+    /** What {@link #post(Event)} does when the ring is full. */
+    public enum OverflowPolicy {
+        /** Wait until the slowest consumer frees a slot. */
+        BLOCK,
+        /** Wait up to the back-pressure timeout, then drop the event. */
+        BACK_PRESSURE,
+        /** Drop the event immediately. */
+        DROP
+    }
+
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // Ring slots: an event, or a tape and the position of the entry on it
+    private final Event[] ring;
+    private final EventTape[] tapes;
+    private final int[] positions;
+    private final long[] createdAt; // latency origin of each slot while tracking is on, else 0
+    private final EventScope[] origins; // scope each slot was posted to; null for this bus
+    private final int mask;
+    private final OverflowPolicy policy;
+    private final long backPressureNanos;
+
+    /** Sequence of the last published slot; -1 before the first post. */
+    private volatile long published = -1;
+
+    private final CopyOnWriteArrayList<Consumer> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean edtDrainPending = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a bus that blocks the producer when the ring is full.
+     *
+     * @param capacity ring size; rounded up to the next power of two
+     */
+    public AsyncEventBus(int capacity) {
+        this(capacity, OverflowPolicy.BLOCK, 0);
+    }
+
+    /**
+     * Creates a bus with the given overflow behaviour.
+     *
+     * @param capacity            ring size; rounded up to the next power of two
+     * @param policy              what to do when the ring is full
+     * @param backPressureTimeoutMs maximum wait for {@link OverflowPolicy#BACK_PRESSURE}
+     */
+    public AsyncEventBus(int capacity, OverflowPolicy policy, long backPressureTimeoutMs) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (backPressureTimeoutMs < 0) {
+            throw new IllegalArgumentException("backPressureTimeoutMs must be non-negative");
+        }
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new Event[size];
+        this.tapes = new EventTape[size];
+        this.positions = new int[size];
+        this.createdAt = new long[size];
+        this.origins = new EventScope[size];
+        this.mask = size - 1;
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.backPressureNanos = TimeUnit.MILLISECONDS.toNanos(backPressureTimeoutMs);
+    }
+
+    // Registration API
+
+    /**
+     * Registers a listener for the given types, delivering on the EDT for
+     * Swing {@link View}s and {@link Component}s and on a dedicated thread
+     * otherwise.
+     */
+    @Override
+    public void register(EventListener listener, Event.EventType... types) {
+        Objects.requireNonNull(listener, "listener");
+        register(listener, deliveryOf(listener), types);
+    }
+
+    /**
+     * Registers a listener with an explicit delivery mode. The listener only
+     * sees events posted after this call. Re-registering a listener adds the
+     * new types to its subscription and keeps its original delivery mode.
+     *
+     * @param types the event types to deliver; empty means all types
+     */
+    public void register(EventListener listener, Delivery delivery, Event.EventType... types) {
+        Objects.requireNonNull(listener, "listener");
+        Objects.requireNonNull(delivery, "delivery");
+        subscribe(null, listener, delivery, toSet(types));
+    }
+
+    /** Registers a listener of {@code scope}, with the delivery {@link #register(EventListener, Event.EventType...)} picks. */
+    void register(EventScope scope, EventListener listener, Event.EventType... types) {
+        Objects.requireNonNull(listener, "listener");
+        subscribe(scope, listener, deliveryOf(listener), toSet(types));
+    }
+
+    private static Delivery deliveryOf(EventListener listener) {
+        return listener instanceof View || listener instanceof Component ? Delivery.EDT : Delivery.THREAD;
+    }
+
+    private void subscribe(EventScope scope, EventListener listener, Delivery delivery, EnumSet<Event.EventType> set) {
+        synchronized (consumers) {
+            Consumer existing = find(listener);
+            if (existing != null) {
+                existing.subscribe(set);
+                return;
+            }
+            Consumer c = new Consumer(listener, delivery, scope, published);
+            c.subscribe(set);
+            consumers.add(c);
+            if (delivery == Delivery.THREAD) {
+                c.start();
+            }
+        }
+    }
+
+    @Override
+    public void unregister(EventListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        synchronized (consumers) {
+            Consumer c = find(listener);
+            if (c != null) {
+                consumers.remove(c);
+                c.stop();
+            }
+        }
+    }
+
+    /** Removes the listener if {@code scope} registered it. */
+    void unregister(EventScope scope, EventListener listener) {
+        synchronized (consumers) {
+            Consumer c = find(listener);
+            if (c != null && c.owner == scope) {
+                consumers.remove(c);
+                c.stop();
+            }
+        }
+    }
+
+    /** Removes every listener registered through {@code scope}. */
+    void unregisterAll(EventScope scope) {
+        synchronized (consumers) {
+            for (Consumer c : consumers) {
+                if (c.owner == scope) {
+                    consumers.remove(c);
+                    c.stop();
+                }
+            }
+        }
+    }
+
+    /**
+     * Events are routed per consumer: a type wanted by one listener still
+     * occupies a ring slot for all of them, and the others skip it while
+     * draining.
+     */
+    @Override
+    public boolean hasSubscribers(Event.EventType type) {
+        int t = type.ordinal();
+        for (Consumer c : consumers) {
+            if (c.wanted[t] && c.owner == null) return true;
+        }
+        return false;
+    }
+
+    /** @return {@code true} if an event of {@code type} posted to {@code scope} would reach a listener */
+    boolean hasSubscribers(EventScope scope, Event.EventType type) {
+        int t = type.ordinal();
+        for (Consumer c : consumers) {
+            if (c.wanted[t] && c.sees(scope)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Not supported: consumers start at the ring head and catching up would
+     * race with the producer.
+     */
+    @Override
+    public void enableReplay(ReplayLog log) {
+        throw new UnsupportedOperationException("replay is not supported by AsyncEventBus");
+    }
+
+    /** Adds stale ring consumers to the report; registration sites are not tracked here. */
+    @Override
+    public List<String> leakReport() {
+        List<String> out = new ArrayList<>();
+        for (Consumer c : consumers) {
+            if (c.listener instanceof Component comp && !comp.isDisplayable()) {
+                String path = c.owner != null ? c.owner.getName() : scopePath();
+                out.add(path + ": " + LatencyRecorder.describe(c.listener));
+            }
+        }
+        out.addAll(super.leakReport());
+        return out;
+    }
+
+    /** Stops all consumer threads and removes every listener. */
+    public void shutdown() {
+        synchronized (consumers) {
+            for (Consumer c : consumers) c.stop();
+            consumers.clear();
+        }
+    }
+
+    // Event dispatching
+
+    /**
+     * Publishes the event into the ring and returns without running any
+     * listener. May block or drop according to the {@link OverflowPolicy}.
+     * Events of a type nobody subscribed to are discarded up front.
+     */
+    @Override
+    public void post(Event event) {
+        Objects.requireNonNull(event, "event");
+        if (!hasSubscribers(event.getType())) return;
+        publish(event, null, 0, null);
+    }
+
+    /**
+     * Publishes the tape position without materialising the entry; see the
+     * class comment for how long the entry must stay unchanged.
+     */
+    @Override
+    public void post(EventTape tape, int pos) {
+        Objects.requireNonNull(tape, "tape");
+        if (!hasSubscribers(tape.type(pos))) return;
+        publish(null, tape, pos, null);
+    }
+
+    /** {@link #post(Event)} on behalf of {@code scope}: reaches its listeners and those above it. */
+    void post(EventScope scope, Event event) {
+        if (!hasSubscribers(scope, event.getType())) return;
+        publish(event, null, 0, scope);
+    }
+
+    /** Tape form of {@link #post(EventScope, Event)}. */
+    void post(EventScope scope, EventTape tape, int pos) {
+        if (!hasSubscribers(scope, tape.type(pos))) return;
+        publish(null, tape, pos, scope);
+    }
+
+    // Metrics
+
+    /** @return number of published events the listener has not consumed yet, or -1 if unknown */
+    public long getLag(EventListener listener) {
+        Consumer c = find(listener);
+        return c == null ? -1 : published - c.sequence;
+    }
+
+    /** @return lag per registered listener, in registration order */
+    public Map<EventListener, Long> lagSnapshot() {
+        long head = published;
+        Map<EventListener, Long> out = new LinkedHashMap<>();
+        for (Consumer c : consumers) {
+            out.put(c.listener, head - c.sequence);
+        }
+        return out;
+    }
+
+    /** @return number of events dropped by the overflow policy so far */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** @return ring capacity (a power of two) */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    // Internal helpers
+
+    private void publish(Event event, EventTape tape, int pos, EventScope origin) {
+        long next = published + 1;
+        if (!awaitCapacity(next)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        int slot = (int) (next & mask);
+        ring[slot] = event;
+        tapes[slot] = tape;
+        positions[slot] = pos;
+        origins[slot] = origin;
+        createdAt[slot] = getLatencyRecorder() != null ? latencyOrigin(event, tape, pos) : 0;
+        published = next; // volatile write publishes the slot
+        signalConsumers();
+    }
+
+    /** Creation stamp of the entry, or now if it has none; see {@link EventBus#setLatencyTracking}. */
+    private static long latencyOrigin(Event event, EventTape tape, int pos) {
+        long created;
+        if (tape != null) {
+            if (!tape.isStamping()) tape.setStamping(true);
+            created = tape.stamp(pos);
+        } else {
+            created = event.getTimeStampNanos();
+        }
+        return created != 0 ? created : System.nanoTime();
+    }
+
+    private boolean awaitCapacity(long next) {
+        long deadline = 0;
+        while (next - minConsumerSequence() > ring.length) {
+            if (policy == OverflowPolicy.DROP) return false;
+            if (SwingUtilities.isEventDispatchThread()) {
+                // The EDT cannot wait for itself: drain UI consumers inline.
+                drainEdt();
+                if (next - minConsumerSequence() <= ring.length) break;
+            }
+            if (policy == OverflowPolicy.BACK_PRESSURE) {
+                long now = System.nanoTime();
+                if (deadline == 0) deadline = now + backPressureNanos;
+                else if (now - deadline >= 0) return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return true;
+    }
+
+    private long minConsumerSequence() {
+        long min = published;
+        for (Consumer c : consumers) {
+            min = Math.min(min, c.sequence);
+        }
+        return min;
+    }
+
+    private void signalConsumers() {
+        boolean edt = false;
+        for (Consumer c : consumers) {
+            if (c.delivery == Delivery.EDT) edt = true;
+            else LockSupport.unpark(c.thread);
+        }
+        if (edt && edtDrainPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drainEdtPulse);
+        }
+    }
+
+    private void drainEdtPulse() {
+        edtDrainPending.set(false);
+        drainEdt();
+    }
+
+    /** Delivers everything published so far to the EDT consumers. */
+    private void drainEdt() {
+        for (Consumer c : consumers) {
+            if (c.delivery == Delivery.EDT) {
+                c.drainTo(published);
+            }
+        }
+    }
+
+    private Consumer find(EventListener listener) {
+        for (Consumer c : consumers) {
+            if (c.listener.equals(listener)) return c;
+        }
+        return null;
+    }
+
+    /** Per-listener cursor into the ring. */
+    private final class Consumer implements Runnable {
+        final EventListener listener;
+        final Delivery delivery;
+        /** Scope the listener was registered on; null for the bus itself. */
+        final EventScope owner;
+        /** Subscribed types indexed by ordinal; replaced, never mutated. */
+        volatile boolean[] wanted = new boolean[Event.EventType.values().length];
+        /** Sequence of the last consumed slot. */
+        volatile long sequence;
+        volatile boolean active = true;
+        Thread thread;
+
+        Consumer(EventListener listener, Delivery delivery, EventScope owner, long start) {
+            this.listener = listener;
+            this.delivery = delivery;
+            this.owner = owner;
+            this.sequence = start;
+        }
+
+        /** @return {@code true} if events posted to {@code origin} reach this listener */
+        boolean sees(EventScope origin) {
+            if (owner == null) return true;
+            EventBus b = origin;
+            while (b instanceof EventScope s) {
+                if (s == owner) return true;
+                b = s.getParent();
+            }
+            return false;
+        }
+
+        void subscribe(EnumSet<Event.EventType> types) {
+            boolean[] next = wanted.clone();
+            for (Event.EventType t : types) next[t.ordinal()] = true;
+            wanted = next;
+        }
+
+        void start() {
+            thread = new Thread(this, "event-bus-" + listener.getClass().getSimpleName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() {
+            active = false;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void drainTo(long head) {
+            long s = sequence;
+            boolean[] types = wanted;
+            while (active && s < head) {
+                s++;
+                int slot = (int) (s & mask);
+                EventTape tape = tapes[slot];
+                Event e = ring[slot];
+                int pos = positions[slot];
+                try {
+                    Event.EventType type = tape != null ? tape.type(pos) : e.getType();
+                    if (types[type.ordinal()] && sees(origins[slot])) deliver(type, e, tape, pos, createdAt[slot]);
+                } finally {
+                    sequence = s;
+                }
+            }
+        }
+
+        private void deliver(Event.EventType type, Event e, EventTape tape, int pos, long created) {
+            LatencyRecorder rec = getLatencyRecorder();
+            long start = rec == null ? 0 : System.nanoTime();
+            if (tape != null && listener instanceof TapeListener tl) {
+                tl.onTapeEvent(tape, pos);
+            } else {
+                if (e == null) e = tape.toEvent(pos);
+                listener.onEvent(e);
+            }
+            if (rec != null && created != 0) {
+                rec.record(type, listener, start - created, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (active) {
+                long head = published;
+                if (head > sequence) {
+                    try {
+                        drainTo(head);
+                    } catch (RuntimeException ex) {
+                        // A failing logger must not kill its consumer thread
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                    }
+                } else {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+        }
+    }
+}
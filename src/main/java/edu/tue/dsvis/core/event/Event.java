@@ -10,11 +10,18 @@ import java.util.Objects;
  * <p>The class is {@link Serializable} so that sequences of {@code Event}s can
  * later be streamed as JSON or through other serialization formats.</p>
  *
- * <p>TODO: add {@code timeStampNanos} for performance analysis.</p>
+ * <p>For bulk recording prefer {@link EventTape}, which stores the same
+ * information column-wise without a per-event allocation; an {@code Event} is
+ * then only materialised for listeners that ask for one.</p>
+ *
+ * <p>An event materialised from a stamped {@link EventTape} entry carries
+ * the entry's creation time, so the bus can measure creation-to-delivery
+ * latency (see {@link LatencyRecorder}); other events are unstamped and
+ * measured from the moment they are posted.</p>
  */
 public final class Event implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     /**
      * Different kinds of events that can occur during a visualization.
@@ -42,9 +49,12 @@ public final class Event implements Serializable {
         CUSTOM
     }
 
+    private static final int[] NO_INDICES = new int[0];
+
     private final EventType type;
     private final int[] indices;   // affected array indices, may be empty
     private final Object payload;  // optional extra data (e.g. newKey for SET_VALUE)
+    private final long timeStampNanos; // System.nanoTime() at creation, 0 if unstamped
 
     /**
      * Constructs a new {@code Event}.
@@ -56,8 +66,30 @@ public final class Event implements Serializable {
     public Event(EventType type, int[] indices, Object payload) {
         this.type = Objects.requireNonNull(type, "type");
         // Defensive copy; treat null as an empty array for convenience
-        this.indices = indices == null ? new int[0] : Arrays.copyOf(indices, indices.length);
+        this.indices = indices == null || indices.length == 0 ? NO_INDICES : Arrays.copyOf(indices, indices.length);
         this.payload = payload; // may be null
+        this.timeStampNanos = 0;
+    }
+
+    /** Trusted constructor: takes ownership of {@code indices}. */
+    private Event(EventType type, int[] indices, Object payload, long timeStampNanos) {
+        this.type = type;
+        this.indices = indices;
+        this.payload = payload;
+        this.timeStampNanos = timeStampNanos;
+    }
+
+    /** Used by {@link EventTape#toEvent(int)}; takes ownership of {@code indices}. */
+    static Event stamped(EventType type, int[] indices, Object payload, long timeStampNanos) {
+        return new Event(type, indices.length == 0 ? NO_INDICES : indices, payload, timeStampNanos);
+    }
+
+    /**
+     * Used by the static factories below; skips the defensive copy because the
+     * varargs array is freshly allocated and never escapes.
+     */
+    private static Event of(EventType type, Object payload, int... indices) {
+        return new Event(type, indices, payload, 0L);
     }
 
     // Getters
@@ -73,30 +105,66 @@ public final class Event implements Serializable {
         return Arrays.copyOf(indices, indices.length);
     }
 
+    /** @return number of indices carried by this event, without copying */
+    public int getIndexCount() {
+        return indices.length;
+    }
+
+    /** @return the {@code k}-th affected index, without copying */
+    public int getIndex(int k) {
+        return indices[k];
+    }
+
     public Object getPayload() {
         return payload;
     }
 
+    /**
+     * @return {@link System#nanoTime()} at which the tape entry behind this
+     *         event was created, or 0 if the event is unstamped
+     */
+    public long getTimeStampNanos() {
+        return timeStampNanos;
+    }
+
     // Static helper factories
 
     public static Event compare(int i) {
-        return new Event(EventType.COMPARE, new int[]{i}, null);
+        return of(EventType.COMPARE, null, i);
     }
 
     public static Event swap(int i, int j) {
-        return new Event(EventType.SWAP, new int[]{i, j}, null);
+        return of(EventType.SWAP, null, i, j);
+    }
+
+    /**
+     * Sets array slot {@code idx} to {@code value}; the value travels as an
+     * {@code Integer} payload.
+     */
+    public static Event setValue(int idx, int value) {
+        return of(EventType.SET_VALUE, value, idx);
+    }
+
+    /**
+     * Bulk form of {@link #setValue}: slots {@code from} to
+     * {@code from + values.length - 1} take {@code values}, which travel as
+     * an {@code int[]} payload and are not copied. One event per range keeps
+     * large inputs from producing an event per element.
+     */
+    public static Event setRange(int from, int[] values) {
+        return of(EventType.SET_VALUE, values, from, from + values.length - 1);
     }
 
     public static Event visit(int i) {
-        return new Event(EventType.VISIT, new int[]{i}, null);
+        return of(EventType.VISIT, null, i);
     }
 
     public static Event split(int left, int right) {
-        return new Event(EventType.SPLIT, new int[]{left, right}, null);
+        return of(EventType.SPLIT, null, left, right);
     }
 
     public static Event merge(int left, int right) {
-        return new Event(EventType.MERGE, new int[]{left, right}, null);
+        return of(EventType.MERGE, null, left, right);
     }
 
     /**
@@ -106,7 +174,7 @@ public final class Event implements Serializable {
      * @param ln the 1-based line number to highlight
      */
     public static Event line(int ln) {
-        return new Event(EventType.LINE, new int[]{ln}, null);
+        return of(EventType.LINE, null, ln);
     }
 
     /**
@@ -114,7 +182,7 @@ public final class Event implements Serializable {
      * visualisation.
      */
     public static Event highlightRange(int left, int right) {
-        return new Event(EventType.HIGHLIGHT_RANGE, new int[]{left, right}, null);
+        return of(EventType.HIGHLIGHT_RANGE, null, left, right);
     }
 
     /* -------------------------------------------------------------------
@@ -123,11 +191,11 @@ public final class Event implements Serializable {
      */
 
     public static Event heapifyStart() {
-        return new Event(EventType.HEAPIFY_START, null, null);
+        return of(EventType.HEAPIFY_START, null, NO_INDICES);
     }
 
     public static Event heapifyEnd() {
-        return new Event(EventType.HEAPIFY_END, null, null);
+        return of(EventType.HEAPIFY_END, null, NO_INDICES);
     }
 
     /**
@@ -135,7 +203,7 @@ public final class Event implements Serializable {
      * position in the heap structure, allowing views to highlight that node.
      */
     public static Event insertKey(int idx) {
-        return new Event(EventType.INSERT_KEY, new int[]{idx}, null);
+        return of(EventType.INSERT_KEY, null, idx);
     }
 
     /**
@@ -144,7 +212,7 @@ public final class Event implements Serializable {
      * the structural change.
      */
     public static Event extractKey(int idx) {
-        return new Event(EventType.EXTRACT_KEY, new int[]{idx}, null);
+        return of(EventType.EXTRACT_KEY, null, idx);
     }
 
     /**
@@ -152,7 +220,7 @@ public final class Event implements Serializable {
      * Index refers to the node location **after** the update is applied.
      */
     public static Event keyUpdate(int idx) {
-        return new Event(EventType.KEY_UPDATE, new int[]{idx}, null);
+        return of(EventType.KEY_UPDATE, null, idx);
     }
 
 
@@ -1,5 +1,12 @@
 package main.java.edu.tue.dsvis.core.event;
 
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -7,16 +14,32 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * Very light pub-sub so that {@code Model}s emit events and any {@code View}
  * (or logger) can listen without a heavy framework dependency.
  *
- * <p>The bus is intentionally minimal: a thread-safe listener list and a
- * blocking {@link #post(Event)} method that delivers events to registered
- * listeners in registration order.</p>
+ * <p>The bus is intentionally minimal: listeners subscribe to a set of
+ * {@link Event.EventType}s and a blocking {@link #post(Event)} delivers each
+ * event only to the listeners of its type, in registration order. Publishers
+ * can ask {@link #hasSubscribers(Event.EventType)} and skip building events
+ * nobody consumes.</p>
  *
- * <p>Thread safety is provided via {@link CopyOnWriteArrayList}, allowing the
- * UI thread to subscribe/unsubscribe while the animation/model thread is
- * posting events.</p>
+ * <p>Routes live in an {@link EnumMap} of listener arrays that is rebuilt on
+ * every (rare) registration change and swapped in atomically, so the UI
+ * thread can subscribe/unsubscribe while the animation/model thread is
+ * posting events without any locking on the post path.</p>
  *
- * <p>TODO: when Timeline rewind is implemented, add ability to “replay” events
- * to new listeners.</p>
+ * <p>{@link AsyncEventBus} offers a non-blocking alternative where listeners
+ * consume from a ring buffer on the EDT or on their own threads.</p>
+ *
+ * <p>With {@link #enableReplay(int)} the bus keeps a bounded
+ * {@link ReplayLog}; listeners registered mid-run then receive a compacted
+ * snapshot plus the recent tail before any live event, so views added late
+ * (e.g. a toggled recursion tree) do not start blank. Only events posted
+ * while somebody listens are recorded; the log never keeps publishers
+ * producing for it.</p>
+ *
+ * <p>{@link #createScope(String)} derives child buses whose listeners are
+ * removed together when the scope is closed; the main window gives each
+ * module its own scope. Running with {@code -Ddsvis.bus.debug=true} records
+ * where every listener was registered, and {@link #leakReport()} lists
+ * listeners that look dead.</p>
  */
 public class EventBus {
 
@@ -29,7 +52,37 @@ public class EventBus {
         void onEvent(Event e);
     }
 
-    private final CopyOnWriteArrayList<EventListener> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Listener that can consume {@link EventTape} entries in place. Entries
+     * posted via {@link #post(EventTape, int)} are handed over by position, so
+     * no {@link Event} object is materialised for this listener.
+     */
+    public interface TapeListener extends EventListener {
+        void onTapeEvent(EventTape tape, int pos);
+    }
+
+    private static final EventListener[] NONE = new EventListener[0];
+
+    /** Capture registration sites for {@link #leakReport()}. */
+    private static final boolean DEBUG = Boolean.getBoolean("dsvis.bus.debug");
+
+    /** Registered listeners and their types, in registration order; guarded by {@code this}. */
+    private final Map<EventListener, EnumSet<Event.EventType>> registrations = new LinkedHashMap<>();
+
+    /** Registration stack traces, only filled in debug mode; guarded by {@code this}. */
+    private final Map<EventListener, Throwable> sites = new LinkedHashMap<>();
+
+    /** Open child scopes. */
+    private final List<EventScope> scopes = new CopyOnWriteArrayList<>();
+
+    /** Non-null while replay is enabled; also the lock ordering post vs. register. */
+    private volatile ReplayLog replay;
+
+    /** Non-null while latency tracking is enabled. */
+    private volatile LatencyRecorder latency;
+
+    /** Immutable snapshot of {@link #registrations} indexed by event type. */
+    private volatile EnumMap<Event.EventType, EventListener[]> routes = buildRoutes(Map.of());
 
     private static final EventBus GLOBAL = new EventBus();
 
@@ -43,13 +96,37 @@ public class EventBus {
     // Registration API
 
     /**
-     * Registers a listener if it is not already present.
+     * Registers a listener for every event type. Registering a listener that
+     * is already present is a no-op.
      *
      * @param listener the listener to add – must not be {@code null}
      */
     public void register(EventListener listener) {
+        register(listener, Event.EventType.values());
+    }
+
+    /**
+     * Registers a listener for the given event types only. Registering an
+     * already present listener adds the new types to its subscription.
+     *
+     * @param listener the listener to add – must not be {@code null}
+     * @param types    the event types to deliver; empty means all types
+     */
+    public void register(EventListener listener, Event.EventType... types) {
         Objects.requireNonNull(listener, "listener");
-        listeners.addIfAbsent(listener);
+        EnumSet<Event.EventType> set = toSet(types);
+        ReplayLog log = replay;
+        if (log == null) {
+            addRoute(listener, set);
+            return;
+        }
+        // Holding the log lock keeps posts out until the catch-up is complete,
+        // so the listener sees neither gaps nor duplicates.
+        synchronized (log) {
+            if (addRoute(listener, set)) {
+                log.replayTo(listener, set);
+            }
+        }
     }
 
     /**
@@ -59,20 +136,298 @@ public class EventBus {
      */
     public void unregister(EventListener listener) {
         Objects.requireNonNull(listener, "listener");
-        listeners.remove(listener);
+        synchronized (this) {
+            if (registrations.remove(listener) != null) {
+                sites.remove(listener);
+                routes = buildRoutes(registrations);
+            }
+        }
+    }
+
+    // Scopes
+
+    /**
+     * Creates a child bus. Events posted to the scope reach its own listeners
+     * and then bubble up to this bus; closing the scope unregisters all its
+     * listeners at once. A scope inherits replay if this bus keeps a log with
+     * the default compactor. Events are recorded by the bus they are posted
+     * to only, not again by the buses they bubble up to.
+     *
+     * @param name label used in {@link #leakReport()}
+     */
+    public EventScope createScope(String name) {
+        EventScope scope = new EventScope(this, name);
+        ReplayLog log = replay;
+        ReplayLog inherited = log == null ? null : log.emptyCopy();
+        if (inherited != null) scope.enableReplay(inherited);
+        scopes.add(scope);
+        return scope;
+    }
+
+    void removeScope(EventScope scope) {
+        scopes.remove(scope);
+    }
+
+    /** Drops every listener, closes all child scopes and stops replay. */
+    void clear() {
+        for (EventScope s : scopes) s.close();
+        synchronized (this) {
+            registrations.clear();
+            sites.clear();
+            routes = buildRoutes(registrations);
+        }
+        replay = null;
+    }
+
+    /** @return label of this bus in {@link #leakReport()} */
+    String scopePath() {
+        return "root";
+    }
+
+    /**
+     * Lists listeners of this bus and its open scopes that look stale: Swing
+     * components that are no longer displayable (removed from every window).
+     * Panels that were never shown are reported too. Each entry names the
+     * scope and, when running with {@code -Ddsvis.bus.debug=true}, the
+     * registration site.
+     */
+    public List<String> leakReport() {
+        List<String> out = new ArrayList<>();
+        synchronized (this) {
+            for (EventListener l : registrations.keySet()) {
+                if (l instanceof Component c && !c.isDisplayable()) {
+                    StringBuilder sb = new StringBuilder(scopePath()).append(": ")
+                            .append(LatencyRecorder.describe(l));
+                    Throwable site = sites.get(l);
+                    if (site != null) {
+                        for (StackTraceElement f : site.getStackTrace()) {
+                            if (f.getClassName().startsWith(EventBus.class.getPackageName())) continue;
+                            sb.append(System.lineSeparator()).append("    at ").append(f);
+                        }
+                    }
+                    out.add(sb.toString());
+                }
+            }
+        }
+        for (EventScope s : scopes) out.addAll(s.leakReport());
+        return out;
+    }
+
+    /**
+     * Cheap check (one array lookup) whether any listener would receive an
+     * event of the given type. Models use it to skip building events and
+     * frames that nobody consumes.
+     */
+    public boolean hasSubscribers(Event.EventType type) {
+        return routes.get(type).length > 0;
+    }
+
+    // Replay
+
+    /**
+     * Starts keeping a {@link ReplayLog} with the default compactor.
+     *
+     * @param tailLength most transient events replayed after the snapshot
+     */
+    public void enableReplay(int tailLength) {
+        enableReplay(new ReplayLog(tailLength));
+    }
+
+    /** Starts keeping the given replay log, replacing any previous one. */
+    public void enableReplay(ReplayLog log) {
+        replay = Objects.requireNonNull(log, "log");
+    }
+
+    /** Stops recording and drops the replay history. */
+    public void disableReplay() {
+        replay = null;
+    }
+
+    /**
+     * @return the replay log, or {@code null} while replay is off; a
+     *         timeline playing into this bus checkpoints and restores it
+     *         along with its views
+     */
+    public ReplayLog getReplayLog() {
+        return replay;
+    }
+
+    // Diagnostics
+
+    /**
+     * Enables or disables latency tracking. While enabled every delivery costs
+     * two extra {@link System#nanoTime()} calls, and tapes posted to this bus
+     * are switched to {@linkplain EventTape#setStamping(boolean) stamping} so
+     * that latency counts from an entry's creation; an entry appended before
+     * that, or a plain {@link Event}, counts from its post. Disabling drops
+     * the collected histograms.
+     */
+    public void setLatencyTracking(boolean enabled) {
+        synchronized (this) {
+            if (enabled && latency == null) latency = new LatencyRecorder();
+            else if (!enabled) latency = null;
+        }
+    }
+
+    /** @return the active recorder, or {@code null} when tracking is disabled */
+    public LatencyRecorder getLatencyRecorder() {
+        return latency;
     }
 
     // Event dispatching
 
     /**
-     * Posts an event to all registered listeners in their registration order.
+     * Posts an event to the listeners subscribed to its type, in their
+     * registration order.
      *
      * @param event the event to be delivered – must not be {@code null}
      */
     public void post(Event event) {
         Objects.requireNonNull(event, "event");
-        for (EventListener listener : listeners) {
+        EventListener[] targets;
+        ReplayLog log = replay;
+        if (log == null) {
+            targets = routes.get(event.getType());
+        } else {
+            synchronized (log) {
+                log.record(event);
+                targets = routes.get(event.getType());
+            }
+        }
+        deliver(targets, event);
+        bubble(event);
+    }
+
+    /**
+     * Posts the tape entry at {@code pos}. {@link TapeListener}s read it in
+     * place; an {@link Event} is materialised once, and only if at least one
+     * plain listener is subscribed to the entry's type.
+     *
+     * @param tape the tape holding the entry – must not be {@code null}
+     * @param pos  position of the entry on the tape
+     */
+    public void post(EventTape tape, int pos) {
+        Objects.requireNonNull(tape, "tape");
+        EventListener[] targets;
+        ReplayLog log = replay;
+        if (log == null) {
+            targets = routes.get(tape.type(pos));
+        } else {
+            synchronized (log) {
+                log.record(tape, pos);
+                targets = routes.get(tape.type(pos));
+            }
+        }
+        deliver(targets, tape, pos);
+        bubble(tape, pos);
+    }
+
+    /** Delivers an event bubbled up from a child scope; it is not recorded again. */
+    void forward(Event event) {
+        deliver(routes.get(event.getType()), event);
+        bubble(event);
+    }
+
+    /** Tape form of {@link #forward(Event)}. */
+    void forward(EventTape tape, int pos) {
+        deliver(routes.get(tape.type(pos)), tape, pos);
+        bubble(tape, pos);
+    }
+
+    /** Hands a delivered event on to the parent bus; the root has none. */
+    void bubble(Event event) {
+    }
+
+    /** Tape form of {@link #bubble(Event)}. */
+    void bubble(EventTape tape, int pos) {
+    }
+
+    // Internal helpers
+
+    /** @return {@code true} if the listener was not registered before */
+    private synchronized boolean addRoute(EventListener listener, EnumSet<Event.EventType> set) {
+        boolean added = !registrations.containsKey(listener);
+        if (added && DEBUG) sites.put(listener, new Throwable("registered here"));
+        registrations.computeIfAbsent(listener, k -> EnumSet.noneOf(Event.EventType.class)).addAll(set);
+        routes = buildRoutes(registrations);
+        return added;
+    }
+
+    private void deliver(EventListener[] targets, Event event) {
+        LatencyRecorder rec = latency;
+        if (rec != null) {
+            long created = event.getTimeStampNanos();
+            postTimed(rec, targets, event.getType(), created != 0 ? created : System.nanoTime(), null, 0, event);
+            return;
+        }
+        for (EventListener listener : targets) {
             listener.onEvent(event);
         }
     }
-} 
\ No newline at end of file
+
+    private void deliver(EventListener[] targets, EventTape tape, int pos) {
+        if (targets.length == 0) return;
+        LatencyRecorder rec = latency;
+        if (rec != null) {
+            if (!tape.isStamping()) tape.setStamping(true); // stays on for the tape's run
+            long created = tape.stamp(pos);
+            postTimed(rec, targets, tape.type(pos), created != 0 ? created : System.nanoTime(), tape, pos, null);
+            return;
+        }
+        Event materialised = null;
+        for (EventListener listener : targets) {
+            if (listener instanceof TapeListener tl) {
+                tl.onTapeEvent(tape, pos);
+            } else {
+                if (materialised == null) {
+                    materialised = tape.toEvent(pos);
+                }
+                listener.onEvent(materialised);
+            }
+        }
+    }
+
+    /**
+     * Slow path of both {@code post} variants while latency tracking is on.
+     * {@code event} may be {@code null} when a tape entry has not been
+     * materialised yet.
+     */
+    private void postTimed(LatencyRecorder rec, EventListener[] targets, Event.EventType type, long createdAt,
+                           EventTape tape, int pos, Event event) {
+        for (EventListener listener : targets) {
+            long start = System.nanoTime();
+            if (tape != null && listener instanceof TapeListener tl) {
+                tl.onTapeEvent(tape, pos);
+            } else {
+                if (event == null) event = tape.toEvent(pos);
+                listener.onEvent(event);
+            }
+            rec.record(type, listener, start - createdAt, System.nanoTime() - start);
+        }
+    }
+
+    /** Converts a varargs type list to a set; empty means every type. */
+    static EnumSet<Event.EventType> toSet(Event.EventType... types) {
+        if (types == null || types.length == 0) {
+            return EnumSet.allOf(Event.EventType.class);
+        }
+        EnumSet<Event.EventType> set = EnumSet.noneOf(Event.EventType.class);
+        for (Event.EventType t : types) {
+            set.add(Objects.requireNonNull(t, "type"));
+        }
+        return set;
+    }
+
+    private static EnumMap<Event.EventType, EventListener[]> buildRoutes(
+            Map<EventListener, EnumSet<Event.EventType>> regs) {
+        EnumMap<Event.EventType, EventListener[]> map = new EnumMap<>(Event.EventType.class);
+        for (Event.EventType t : Event.EventType.values()) {
+            List<EventListener> list = new ArrayList<>();
+            for (Map.Entry<EventListener, EnumSet<Event.EventType>> e : regs.entrySet()) {
+                if (e.getValue().contains(t)) list.add(e.getKey());
+            }
+            map.put(t, list.isEmpty() ? NONE : list.toArray(NONE));
+        }
+        return map;
+    }
+}
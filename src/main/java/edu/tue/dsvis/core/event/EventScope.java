@@ -0,0 +1,126 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import java.util.Objects;
+
+/**
+ * Child bus created by {@link EventBus#createScope(String)}.
+ *
+ * <p>A scope routes events to its own listeners first and then bubbles them
+ * up to its parent, so bus-wide listeners (diagnostics, trace writers) still
+ * see everything while sibling scopes stay isolated from each other. With
+ * replay on, only the scope an event is posted to records it.</p>
+ *
+ * <p>Below an {@link AsyncEventBus} a scope keeps no routes of its own: its
+ * listeners become consumers of that bus's ring and its posts are published
+ * there, tagged with the scope, so scope listeners are decoupled from the
+ * model like the bus's own.</p>
+ *
+ * <p>{@link #close()} unregisters every listener of the scope and of its
+ * child scopes and detaches it from the parent. Afterwards posts are ignored
+ * and registrations are dropped, so late animation frames of a swapped-out
+ * module cannot reach, or re-attach, dead views.</p>
+ */
+public class EventScope extends EventBus implements AutoCloseable {
+
+    private final EventBus parent;
+    private final String name;
+    private final AsyncEventBus ring; // root of the scope tree, if asynchronous
+    private volatile boolean closed = false;
+
+    EventScope(EventBus parent, String name) {
+        this.parent = Objects.requireNonNull(parent, "parent");
+        this.name = Objects.requireNonNull(name, "name");
+        this.ring = parent instanceof EventScope p ? p.ring : parent instanceof AsyncEventBus a ? a : null;
+    }
+
+    /** @return path of this scope, e.g. {@code "Arrays/lane-1"} */
+    public String getName() {
+        return parent instanceof EventScope p ? p.getName() + "/" + name : name;
+    }
+
+    public EventBus getParent() {
+        return parent;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Ignored once the scope is closed. */
+    @Override
+    public void register(EventListener listener, Event.EventType... types) {
+        if (closed) return;
+        if (ring != null) ring.register(this, listener, types);
+        else super.register(listener, types);
+    }
+
+    @Override
+    public void unregister(EventListener listener) {
+        if (ring != null) ring.unregister(this, Objects.requireNonNull(listener, "listener"));
+        else super.unregister(listener);
+    }
+
+    @Override
+    public boolean hasSubscribers(Event.EventType type) {
+        if (closed) return false;
+        if (ring != null) return ring.hasSubscribers(this, type);
+        return super.hasSubscribers(type) || parent.hasSubscribers(type);
+    }
+
+    @Override
+    public EventScope createScope(String name) {
+        if (closed) throw new IllegalStateException("scope closed: " + getName());
+        return super.createScope(name);
+    }
+
+    @Override
+    public void post(Event event) {
+        if (closed) return;
+        if (ring != null) ring.post(this, Objects.requireNonNull(event, "event"));
+        else super.post(event);
+    }
+
+    @Override
+    public void post(EventTape tape, int pos) {
+        if (closed) return;
+        if (ring != null) ring.post(this, Objects.requireNonNull(tape, "tape"), pos);
+        else super.post(tape, pos);
+    }
+
+    @Override
+    void forward(Event event) {
+        if (closed) return;
+        super.forward(event);
+    }
+
+    @Override
+    void forward(EventTape tape, int pos) {
+        if (closed) return;
+        super.forward(tape, pos);
+    }
+
+    @Override
+    void bubble(Event event) {
+        parent.forward(event);
+    }
+
+    @Override
+    void bubble(EventTape tape, int pos) {
+        parent.forward(tape, pos);
+    }
+
+    /** Unregisters all listeners, closes child scopes and detaches from the parent. Idempotent. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        clear();
+        if (ring != null) ring.unregisterAll(this);
+        parent.removeScope(this);
+    }
+
+    @Override
+    String scopePath() {
+        return getName();
+    }
+}
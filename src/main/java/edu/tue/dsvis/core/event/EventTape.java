@@ -0,0 +1,578 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Append-only, columnar log of events stored as a struct of primitive arrays.
+ *
+ * <p>Where an {@link Event} costs one object, one defensive {@code int[]} and
+ * usually a boxed payload, a tape entry costs a handful of array slots: the
+ * type ordinal, up to two index columns and a primitive payload column. Models
+ * append to a tape and listeners read entries back by position through the
+ * zero-copy accessors ({@link #type(int)}, {@link #index(int, int)},
+ * {@link #intPayload(int)} …). {@link #toEvent(int)} materialises a classic
+ * {@code Event} for code that still needs one.</p>
+ *
+ * <p>Rare non-primitive payloads (strings, {@code int[]} windows) and events
+ * with more than two indices are kept in a small side table of references.</p>
+ *
+ * <p>While {@linkplain #setStamping(boolean) stamping} is on, every append
+ * also records {@link System#nanoTime()} in a {@code long} column; a bus
+ * with latency tracking turns it on for the tapes posted to it and measures
+ * delivery latency from these stamps.</p>
+ *
+ * <p>The columns are split into segments of {@value #SEGMENT_SIZE} entries,
+ * so a long run never copies them. {@link #trimTo(long, Pager)} writes full
+ * segments out through a {@link Pager} until the resident ones fit a byte
+ * budget; reading an entry of a paged-out segment reads the segment back in
+ * and evicts the one loaded longest ago. The segment being appended to
+ * always stays resident. Reference payloads stay on the heap.</p>
+ *
+ * <p>The tape is not thread-safe: a single producer appends, and readers must
+ * only access positions that were published to them (e.g. via
+ * {@link EventBus#post(EventTape, int)}) from the same thread or after a
+ * proper hand-off. Readers may do so while the producer keeps appending:
+ * a segment is stored into the segment table with release semantics once
+ * its columns are filled and loaded with acquire semantics, a grown table
+ * is published through a volatile field, and paging is done under the
+ * tape's lock.</p>
+ */
+public final class EventTape {
+
+    /** Payload column holds nothing. */
+    public static final byte PAYLOAD_NONE = 0;
+    /** Payload column holds an {@code int}. */
+    public static final byte PAYLOAD_INT = 1;
+    /** Payload column holds a {@code long}. */
+    public static final byte PAYLOAD_LONG = 2;
+    /** Payload column holds a slot in the reference side table. */
+    public static final byte PAYLOAD_REF = 3;
+
+    /** Arity marker for entries whose indices live in the side table. */
+    private static final byte ARITY_SPILLED = -1;
+
+    private static final Event.EventType[] TYPES = Event.EventType.values();
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private static final int SEGMENT_BITS = 16;
+    /** Entries per segment, the unit of paging. */
+    public static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /** Segments kept resident whatever the budget, the tail included. */
+    private static final int MIN_RESIDENT = 3;
+
+    /** Storage for segments written out by {@link #trimTo(long, Pager)}. */
+    public interface Pager {
+        /**
+         * Stores the data between position and limit of {@code data}.
+         *
+         * @return handle to pass to {@link #pageIn}
+         */
+        Object pageOut(ByteBuffer data);
+
+        /** @return the {@code bytes} stored under {@code handle}, little-endian, positioned at 0 */
+        ByteBuffer pageIn(Object handle, int bytes);
+    }
+
+    /** Columns of up to {@link #SEGMENT_SIZE} entries; only the tail segment changes. */
+    private static final class Segment {
+        final byte[] types;
+        final byte[] arity;
+        final int[] idx0;
+        final int[] idx1;
+        final byte[] payloadKind;
+        final long[] payload;
+        volatile long[] stamps; // allocated when stamping is first turned on
+        long loaded;            // load order, for eviction; guarded by the tape
+
+        Segment(int capacity) {
+            types = new byte[capacity];
+            arity = new byte[capacity];
+            idx0 = new int[capacity];
+            idx1 = new int[capacity];
+            payloadKind = new byte[capacity];
+            payload = new long[capacity];
+        }
+
+        /** Copy of {@code s} with room for {@code capacity} entries. */
+        Segment(Segment s, int capacity) {
+            types = Arrays.copyOf(s.types, capacity);
+            arity = Arrays.copyOf(s.arity, capacity);
+            idx0 = Arrays.copyOf(s.idx0, capacity);
+            idx1 = Arrays.copyOf(s.idx1, capacity);
+            payloadKind = Arrays.copyOf(s.payloadKind, capacity);
+            payload = Arrays.copyOf(s.payload, capacity);
+            long[] st = s.stamps;
+            stamps = st == null ? null : Arrays.copyOf(st, capacity);
+            loaded = s.loaded;
+        }
+
+        int capacity() {
+            return types.length;
+        }
+
+        long bytes() {
+            long[] st = stamps;
+            return (long) capacity() * ENTRY_BYTES + (st == null ? 0 : (long) st.length * Long.BYTES);
+        }
+    }
+
+    /** Column bytes per entry, without the stamp. */
+    private static final int ENTRY_BYTES = 3 + 2 * Integer.BYTES + Long.BYTES;
+
+    // Segments; null while paged out. The array is replaced under the lock,
+    // its elements are written through SEGMENT only.
+    private volatile Segment[] segments = new Segment[4];
+    private static final VarHandle SEGMENT = MethodHandles.arrayElementVarHandle(Segment[].class);
+    private int segmentCount = 0;
+    private Segment tail;         // producer only
+    private int tailBase = 0;     // position of the tail's first entry
+    private volatile boolean stamping = false;
+
+    // Paging, guarded by this
+    private Object[] handles = new Object[4]; // null until paged out
+    private Pager pager;
+    private long residentLimit = Long.MAX_VALUE;
+    private long residentBytes = 0;
+    private int residentCount = 0;
+    private long loadClock = 0;
+    private long pageIns = 0;
+
+    // Side table for reference payloads / long index lists
+    private volatile Object[] refs = new Object[16];
+    private int refCount = 0;
+
+    private int size = 0;
+    private volatile int generation = 0;
+
+    /** Creates an empty tape with a small default capacity. */
+    public EventTape() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty tape able to hold {@code initialCapacity} entries before
+     * its columns have to grow.
+     */
+    public EventTape(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("initialCapacity must be positive");
+        }
+        addSegment(new Segment(Math.min(initialCapacity, SEGMENT_SIZE)));
+    }
+
+    // ---------------------------------------------------------------------
+    // Append API – every method returns the position of the new entry
+    // ---------------------------------------------------------------------
+
+    /** Appends an entry without indices or payload. */
+    public int append(Event.EventType type) {
+        return add(type, 0, 0, 0, PAYLOAD_NONE, 0L);
+    }
+
+    /** Appends an entry with a single index. */
+    public int append(Event.EventType type, int i) {
+        return add(type, 1, i, 0, PAYLOAD_NONE, 0L);
+    }
+
+    /** Appends an entry with two indices (swap pairs, ranges …). */
+    public int append(Event.EventType type, int i, int j) {
+        return add(type, 2, i, j, PAYLOAD_NONE, 0L);
+    }
+
+    /**
+     * Appends a single-index entry carrying an {@code int} payload, e.g. the
+     * new key of a {@link Event.EventType#SET_VALUE} event.
+     */
+    public int appendInt(Event.EventType type, int i, int value) {
+        return add(type, 1, i, 0, PAYLOAD_INT, value);
+    }
+
+    /**
+     * Appends a two-index entry carrying an {@code int} payload, e.g. a
+     * range tagged with the worker that produced it.
+     */
+    public int appendInt(Event.EventType type, int i, int j, int value) {
+        return add(type, 2, i, j, PAYLOAD_INT, value);
+    }
+
+    /** Appends an index-less entry carrying an {@code int} payload. */
+    public int appendInt(Event.EventType type, int value) {
+        return add(type, 0, 0, 0, PAYLOAD_INT, value);
+    }
+
+    /** Appends an index-less entry carrying a {@code long} payload. */
+    public int appendLong(Event.EventType type, long value) {
+        return add(type, 0, 0, 0, PAYLOAD_LONG, value);
+    }
+
+    /**
+     * Appends an entry with an arbitrary reference payload. Prefer the
+     * primitive variants on hot paths.
+     */
+    public int appendRef(Event.EventType type, Object value) {
+        if (value == null) return append(type);
+        return add(type, 0, 0, 0, PAYLOAD_REF, addRef(value));
+    }
+
+    /**
+     * Appends a two-index entry with a reference payload, e.g. a bulk
+     * {@link Event.EventType#SET_VALUE} of the range {@code [i, j]}.
+     */
+    public int appendRef(Event.EventType type, int i, int j, Object value) {
+        if (value == null) return append(type, i, j);
+        return add(type, 2, i, j, PAYLOAD_REF, addRef(value));
+    }
+
+    /**
+     * Copies a materialised {@link Event} onto the tape, unboxing
+     * {@code Integer}/{@code Long} payloads into the primitive column.
+     */
+    public int append(Event e) {
+        Objects.requireNonNull(e, "e");
+        int n = e.getIndexCount();
+        int a = n > 0 ? e.getIndex(0) : 0;
+        int b = n > 1 ? e.getIndex(1) : 0;
+        byte kind;
+        long value;
+        Object p = e.getPayload();
+        if (p == null) {
+            kind = PAYLOAD_NONE;
+            value = 0L;
+        } else if (p instanceof Integer v) {
+            kind = PAYLOAD_INT;
+            value = v;
+        } else if (p instanceof Long v) {
+            kind = PAYLOAD_LONG;
+            value = v;
+        } else {
+            kind = PAYLOAD_REF;
+            value = addRef(p);
+        }
+        if (n > 2) {
+            return add(e.getType(), ARITY_SPILLED, addRef(e.getIndices()), 0, kind, value);
+        }
+        return add(e.getType(), n, a, b, kind, value);
+    }
+
+    // ---------------------------------------------------------------------
+    // Zero-copy accessors
+    // ---------------------------------------------------------------------
+
+    /** @return number of entries on the tape */
+    public int size() {
+        return size;
+    }
+
+    public Event.EventType type(int pos) {
+        return TYPES[typeOrdinal(pos)];
+    }
+
+    /** @return the {@link Event.EventType} ordinal of the entry */
+    public int typeOrdinal(int pos) {
+        return segment(pos).types[pos & SEGMENT_MASK];
+    }
+
+    /** @return number of indices carried by the entry */
+    public int indexCount(int pos) {
+        Segment s = segment(pos);
+        int i = pos & SEGMENT_MASK;
+        byte n = s.arity[i];
+        return n == ARITY_SPILLED ? ((int[]) refs[s.idx0[i]]).length : n;
+    }
+
+    /** @return the {@code k}-th index of the entry, without copying */
+    public int index(int pos, int k) {
+        Segment s = segment(pos);
+        int i = pos & SEGMENT_MASK;
+        byte n = s.arity[i];
+        if (n == ARITY_SPILLED) {
+            return ((int[]) refs[s.idx0[i]])[k];
+        }
+        if (k < 0 || k >= n) {
+            throw new IndexOutOfBoundsException("index " + k + " of " + n);
+        }
+        return k == 0 ? s.idx0[i] : s.idx1[i];
+    }
+
+    /** @return one of the {@code PAYLOAD_*} constants */
+    public byte payloadKind(int pos) {
+        return segment(pos).payloadKind[pos & SEGMENT_MASK];
+    }
+
+    /** @return {@code true} if the entry carries an {@code int} payload */
+    public boolean hasIntPayload(int pos) {
+        return payloadKind(pos) == PAYLOAD_INT;
+    }
+
+    public int intPayload(int pos) {
+        return (int) longPayload(pos);
+    }
+
+    public long longPayload(int pos) {
+        return segment(pos).payload[pos & SEGMENT_MASK];
+    }
+
+    /**
+     * @return {@link System#nanoTime()} at which the entry was appended, or
+     *         0 if stamping was off at the time
+     */
+    public long stamp(int pos) {
+        long[] s = segment(pos).stamps;
+        int i = pos & SEGMENT_MASK;
+        return s == null || i >= s.length ? 0 : s[i];
+    }
+
+    /**
+     * Returns the payload as an object, boxing primitives. Allocates for
+     * primitive payloads; intended for compatibility paths only.
+     */
+    public Object payload(int pos) {
+        Segment s = segment(pos);
+        int i = pos & SEGMENT_MASK;
+        return switch (s.payloadKind[i]) {
+            case PAYLOAD_INT -> (int) s.payload[i];
+            case PAYLOAD_LONG -> s.payload[i];
+            case PAYLOAD_REF -> refs[(int) s.payload[i]];
+            default -> null;
+        };
+    }
+
+    /** Materialises the entry at {@code pos} as an immutable {@link Event}. */
+    public Event toEvent(int pos) {
+        int n = indexCount(pos);
+        int[] idx = new int[n];
+        for (int k = 0; k < n; k++) {
+            idx[k] = index(pos, k);
+        }
+        return Event.stamped(type(pos), idx, payload(pos), stamp(pos));
+    }
+
+    /**
+     * Turns creation stamps on or off for entries appended from now on. May
+     * be called from any thread; the producer picks the change up with its
+     * next append.
+     */
+    public void setStamping(boolean on) {
+        stamping = on;
+    }
+
+    /** @return {@code true} while appends are stamped */
+    public boolean isStamping() {
+        return stamping;
+    }
+
+    /**
+     * @return number of {@link #clear()} calls so far; a position read
+     *         after the generation changed may name a different entry
+     */
+    public int generation() {
+        return generation;
+    }
+
+    /**
+     * Forgets all entries but keeps the allocated columns for reuse, so a
+     * tape can serve as an allocation-free scratch buffer.
+     */
+    public void clear() {
+        Arrays.fill(refs, 0, refCount, null);
+        refCount = 0;
+        Segment first = segments[0];
+        if (first == null) first = new Segment(SEGMENT_SIZE);
+        first.stamps = null;
+        synchronized (this) {
+            Arrays.fill(segments, null);
+            Arrays.fill(handles, null);
+            segmentCount = 0;
+            residentCount = 0;
+            residentBytes = 0;
+        }
+        addSegment(first);
+        tailBase = 0;
+        size = 0;
+        generation++;
+    }
+
+    // ---------------------------------------------------------------------
+    // Paging
+    // ---------------------------------------------------------------------
+
+    /**
+     * Pages full segments out through {@code pager}, those loaded longest ago
+     * first, until at most {@code bytes} stay resident; at least
+     * {@value #MIN_RESIDENT} segments, the tail among them, always do.
+     * Segments paged back in later keep to the same limit. Safe to call from
+     * any thread.
+     */
+    public synchronized void trimTo(long bytes, Pager pager) {
+        this.pager = Objects.requireNonNull(pager, "pager");
+        residentLimit = Math.max(bytes, 0);
+        evictOverLimit(-1);
+    }
+
+    /** @return heap held by the resident segments in bytes, reference payloads not counted */
+    public synchronized long residentBytes() {
+        return residentBytes;
+    }
+
+    /** @return segments read back through the pager so far */
+    public synchronized long pageIns() {
+        return pageIns;
+    }
+
+    // ---------------------------------------------------------------------
+    // Internal helpers
+    // ---------------------------------------------------------------------
+
+    private int add(Event.EventType type, int n, int a, int b, byte kind, long value) {
+        Objects.requireNonNull(type, "type");
+        int pos = size;
+        int i = pos - tailBase;
+        if (i == tail.capacity()) {
+            grow();
+            i = pos - tailBase;
+        }
+        Segment t = tail;
+        t.types[i] = (byte) type.ordinal();
+        t.arity[i] = (byte) n;
+        t.idx0[i] = a;
+        t.idx1[i] = b;
+        t.payloadKind[i] = kind;
+        t.payload[i] = value;
+        if (stamping) stamp(t, i, System.nanoTime());
+        size = pos + 1;
+        return pos;
+    }
+
+    private void stamp(Segment t, int i, long now) {
+        long[] s = t.stamps;
+        if (s == null) {
+            s = new long[t.capacity()];
+            synchronized (this) {
+                t.stamps = s;
+                residentBytes += (long) s.length * Long.BYTES;
+            }
+        }
+        s[i] = now;
+    }
+
+    private int addRef(Object o) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount] = o;
+        return refCount++;
+    }
+
+    /** Makes room in the tail: a larger copy below the segment size, else a new segment. */
+    private void grow() {
+        int cap = tail.capacity();
+        if (cap < SEGMENT_SIZE) {
+            Segment bigger = new Segment(tail, Math.min(cap + (cap >> 1) + 1, SEGMENT_SIZE));
+            synchronized (this) {
+                residentBytes += bigger.bytes() - tail.bytes();
+                SEGMENT.setRelease(segments, segmentCount - 1, bigger);
+            }
+            tail = bigger;
+        } else {
+            tailBase += cap;
+            addSegment(new Segment(SEGMENT_SIZE));
+        }
+    }
+
+    private synchronized void addSegment(Segment s) {
+        Segment[] segs = segments;
+        if (segmentCount == segs.length) {
+            segs = Arrays.copyOf(segs, segmentCount * 2);
+            handles = Arrays.copyOf(handles, segmentCount * 2);
+        }
+        s.loaded = ++loadClock;
+        SEGMENT.setRelease(segs, segmentCount++, s);
+        segments = segs;
+        residentCount++;
+        residentBytes += s.bytes();
+        tail = s;
+        evictOverLimit(-1);
+    }
+
+    /** @return the segment holding {@code pos}, paged in if needed */
+    private Segment segment(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("pos " + pos + " of " + size);
+        }
+        Segment s = (Segment) SEGMENT.getAcquire(segments, pos >>> SEGMENT_BITS);
+        return s != null ? s : pageIn(pos >>> SEGMENT_BITS);
+    }
+
+    private synchronized Segment pageIn(int seg) {
+        Segment s = segments[seg];
+        if (s != null) return s; // paged in by another reader meanwhile
+        ByteBuffer in = pager.pageIn(handles[seg], SEGMENT_SIZE * ENTRY_BYTES + 1 + SEGMENT_SIZE * Long.BYTES);
+        s = new Segment(SEGMENT_SIZE);
+        in.get(s.types).get(s.arity).get(s.payloadKind);
+        in.asIntBuffer().get(s.idx0);
+        in.position(in.position() + SEGMENT_SIZE * Integer.BYTES);
+        in.asIntBuffer().get(s.idx1);
+        in.position(in.position() + SEGMENT_SIZE * Integer.BYTES);
+        in.asLongBuffer().get(s.payload);
+        in.position(in.position() + SEGMENT_SIZE * Long.BYTES);
+        if (in.get() != 0) {
+            long[] st = new long[SEGMENT_SIZE];
+            in.asLongBuffer().get(st);
+            s.stamps = st;
+        }
+        s.loaded = ++loadClock;
+        SEGMENT.setRelease(segments, seg, s);
+        residentCount++;
+        residentBytes += s.bytes();
+        pageIns++;
+        evictOverLimit(seg);
+        return s;
+    }
+
+    /** Pages out full segments other than the tail and {@code keep}, loaded longest ago first. */
+    private void evictOverLimit(int keep) {
+        if (pager == null) return;
+        Segment[] segs = segments;
+        while (residentBytes > residentLimit && residentCount > MIN_RESIDENT) {
+            int victim = -1;
+            for (int i = 0; i < segmentCount - 1; i++) {
+                if (segs[i] == null || i == keep) continue;
+                if (victim < 0 || segs[i].loaded < segs[victim].loaded) victim = i;
+            }
+            if (victim < 0) return;
+            if (handles[victim] == null) handles[victim] = pager.pageOut(serialise(segs[victim]));
+            residentBytes -= segs[victim].bytes();
+            residentCount--;
+            SEGMENT.setRelease(segs, victim, null);
+        }
+    }
+
+    private static ByteBuffer serialise(Segment s) {
+        long[] st = s.stamps;
+        int n = s.capacity();
+        ByteBuffer out = ByteBuffer.allocate(n * ENTRY_BYTES + 1 + (st == null ? 0 : n * Long.BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.put(s.types).put(s.arity).put(s.payloadKind);
+        out.asIntBuffer().put(s.idx0);
+        out.position(out.position() + n * Integer.BYTES);
+        out.asIntBuffer().put(s.idx1);
+        out.position(out.position() + n * Integer.BYTES);
+        out.asLongBuffer().put(s.payload);
+        out.position(out.position() + n * Long.BYTES);
+        out.put((byte) (st == null ? 0 : 1));
+        if (st != null) out.asLongBuffer().put(st);
+        return out.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "EventTape{size=" + size + ", refs=" + refCount + '}';
+    }
+}
@@ -0,0 +1,116 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, log-linear histogram of nanosecond durations in the spirit of
+ * HdrHistogram.
+ *
+ * <p>Values below {@code 2^SUB_BITS} get exact buckets; larger values share a
+ * bucket with neighbours that agree in their {@code SUB_BITS} most significant
+ * bits, bounding the relative error to about 3&nbsp;%. The whole {@code long}
+ * range fits in under two thousand buckets, so recording is a couple of bit
+ * operations plus one atomic increment and never allocates. Recording is
+ * thread-safe; reads are not atomic with respect to concurrent writers but
+ * are good enough for diagnostics.</p>
+ */
+public final class LatencyHistogram {
+
+    /** Precision: 2^5 = 32 sub-buckets per power of two. */
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    /**
+     * Summary of a histogram at one point in time; all values in nanoseconds.
+     */
+    public record Summary(long count, long p50, long p99, long max, double mean) {
+    }
+
+    /** Records one sample; negative values are clamped to zero. */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // retry until max reflects v or a larger value
+        }
+    }
+
+    /** @return number of recorded samples */
+    public long getCount() {
+        return total.get();
+    }
+
+    /** @return the largest recorded sample (exact, not bucketed) */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** @return arithmetic mean of all samples, 0 when empty */
+    public double getMean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile,
+     * i.e. a value that at least {@code percentile} % of samples do not exceed.
+     *
+     * @param percentile value in [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in [0,100]");
+        }
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /** @return count, p50, p99, max and mean captured together */
+    public Summary summary() {
+        return new Summary(getCount(), getValueAtPercentile(50), getValueAtPercentile(99), getMax(), getMean());
+    }
+
+    /** Clears all samples. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // Bucket arithmetic
+
+    static int bucketOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS;
+        int sub = (int) ((v >>> shift) & (SUB_COUNT - 1));
+        return (shift + 1) * SUB_COUNT + sub;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int shift = bucket / SUB_COUNT - 1;
+        long sub = bucket % SUB_COUNT;
+        long lowest = ((long) SUB_COUNT + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,85 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects event-path timings for an {@link EventBus}.
+ *
+ * <p>Two families of {@link LatencyHistogram}s are kept:</p>
+ * <ul>
+ *   <li><em>delivery latency</em> – time from an event's creation (its tape
+ *       stamp; the post for unstamped events) until a listener's
+ *       {@code onEvent} starts, per {@link Event.EventType} and per
+ *       listener;</li>
+ *   <li><em>service time</em> – how long each listener's {@code onEvent}
+ *       took, which is what eats the EDT budget on slow runs.</li>
+ * </ul>
+ *
+ * <p>Instances are created by {@link EventBus#setLatencyTracking(boolean)};
+ * read them through {@link EventBus#getLatencyRecorder()}.</p>
+ */
+public final class LatencyRecorder {
+
+    private final EnumMap<Event.EventType, LatencyHistogram> byType = new EnumMap<>(Event.EventType.class);
+    private final Map<EventBus.EventListener, LatencyHistogram> deliveryByListener = new ConcurrentHashMap<>();
+    private final Map<EventBus.EventListener, LatencyHistogram> serviceByListener = new ConcurrentHashMap<>();
+
+    LatencyRecorder() {
+        for (Event.EventType t : Event.EventType.values()) {
+            byType.put(t, new LatencyHistogram());
+        }
+    }
+
+    /** Records one delivery: queueing latency and listener service time. */
+    void record(Event.EventType type, EventBus.EventListener listener, long latencyNanos, long serviceNanos) {
+        byType.get(type).record(latencyNanos);
+        deliveryByListener.computeIfAbsent(listener, k -> new LatencyHistogram()).record(latencyNanos);
+        serviceByListener.computeIfAbsent(listener, k -> new LatencyHistogram()).record(serviceNanos);
+    }
+
+    // Programmatic API
+
+    /** @return delivery-latency summaries for every type that saw traffic */
+    public Map<Event.EventType, LatencyHistogram.Summary> latencyByType() {
+        Map<Event.EventType, LatencyHistogram.Summary> out = new EnumMap<>(Event.EventType.class);
+        byType.forEach((t, h) -> {
+            if (h.getCount() > 0) out.put(t, h.summary());
+        });
+        return out;
+    }
+
+    /** @return delivery-latency summaries keyed by listener description */
+    public Map<String, LatencyHistogram.Summary> latencyByListener() {
+        return summarise(deliveryByListener);
+    }
+
+    /** @return {@code onEvent} service-time summaries keyed by listener description */
+    public Map<String, LatencyHistogram.Summary> serviceTimeByListener() {
+        return summarise(serviceByListener);
+    }
+
+    /** Clears all histograms. */
+    public void reset() {
+        byType.values().forEach(LatencyHistogram::reset);
+        deliveryByListener.clear();
+        serviceByListener.clear();
+    }
+
+    /** Human-readable name for a listener: its class plus identity hash. */
+    public static String describe(EventBus.EventListener l) {
+        String name = l.getClass().getSimpleName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda > 0) name = name.substring(0, lambda) + "::lambda";
+        return name + "@" + Integer.toHexString(System.identityHashCode(l));
+    }
+
+    private static Map<String, LatencyHistogram.Summary> summarise(
+            Map<EventBus.EventListener, LatencyHistogram> src) {
+        Map<String, LatencyHistogram.Summary> out = new LinkedHashMap<>();
+        src.forEach((l, h) -> out.put(describe(l), h.summary()));
+        return out;
+    }
+}
@@ -0,0 +1,540 @@
+package main.java.edu.tue.dsvis.core.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Bounded history kept by an {@link EventBus} so that listeners registered
+ * mid-run can catch up.
+ *
+ * <p>Each post is folded into a {@link Compactor} as it is recorded, O(1)
+ * and, for tape entries, without materialising an {@link Event}. Events the
+ * compactor does not keep (highlights) are referenced from a tail of the
+ * most recent {@code tailLength} such events. A late subscriber receives the
+ * compactor's current state, built only then, followed by that tail, i.e.
+ * catching up costs O(snapshot + tail) instead of O(run length).</p>
+ *
+ * <p>Tape entries are referenced by tape and position, as long as the tape
+ * is not {@linkplain EventTape#clear() cleared}; entries of an earlier
+ * {@linkplain EventTape#generation() generation} are skipped.</p>
+ *
+ * <p>When playback jumps back, the events posted so far no longer describe
+ * the state. {@link #capture()} and {@link #restore(Object)} let the log
+ * follow the timeline's checkpoints instead: the state at the checkpoint is
+ * restored and only the frames after it are posted, and folded, again.</p>
+ *
+ * <p>Access is serialised on the instance; its bus holds the same lock
+ * while it records and catches listeners up.</p>
+ */
+public final class ReplayLog {
+
+    /**
+     * Folds a stream of events into a compact state.
+     */
+    public interface Compactor {
+        /**
+         * Updates the state with {@code e}.
+         *
+         * @return {@code false} if {@code e} is transient: it leaves the state
+         *         unchanged and is only replayed from the tail
+         */
+        boolean accept(Event e);
+
+        /**
+         * Tape form of {@link #accept(Event)}. An implementation may keep the
+         * position and materialise the entry in {@link #snapshot()} (see
+         * {@link #materialise}); the default materialises right away.
+         */
+        default boolean accept(EventTape tape, int pos) {
+            return accept(tape.toEvent(pos));
+        }
+
+        /** @return events that rebuild the current state on a fresh listener */
+        List<Event> snapshot();
+
+        /** Forgets the state. */
+        void clear();
+
+        /**
+         * @return an immutable copy of the state for {@link #restore(Object)};
+         *         by default the {@link #snapshot()}
+         */
+        default Object capture() {
+            return List.copyOf(snapshot());
+        }
+
+        /** Returns to a state from {@link #capture()}; by default folds the snapshot into a cleared state. */
+        @SuppressWarnings("unchecked")
+        default void restore(Object state) {
+            clear();
+            for (Event e : (List<Event>) state) accept(e);
+        }
+
+        /** @return approximate heap footprint of a captured {@code state} in bytes */
+        default long sizeOf(Object state) {
+            return 64L * ((List<?>) state).size();
+        }
+
+        /**
+         * @return the entry {@code pos} of {@code tape} as recorded in
+         *         generation {@code gen}, or null if the tape was cleared since
+         */
+        static Event materialise(EventTape tape, int pos, int gen) {
+            return tape.generation() == gen && pos < tape.size() ? tape.toEvent(pos) : null;
+        }
+    }
+
+    private final int tailLength;
+    private final Compactor compactor;
+
+    // Ring of the most recent transient posts: an Event, or a tape with position and generation
+    private final Object[] tailSrc;
+    private final int[] tailPos;
+    private final int[] tailGen;
+    private int tailStart = 0;
+    private int tailCount = 0;
+
+    /** A captured log: the compactor's state and a copy of the tail. */
+    private record State(Object compacted, Object[] tailSrc, int[] tailPos, int[] tailGen, int tailStart,
+                         int tailCount) {}
+
+    /** Creates a log using the default {@link StateCompactor}. */
+    public ReplayLog(int tailLength) {
+        this(tailLength, new StateCompactor());
+    }
+
+    public ReplayLog(int tailLength, Compactor compactor) {
+        if (tailLength <= 0) {
+            throw new IllegalArgumentException("tailLength must be positive");
+        }
+        this.tailLength = tailLength;
+        this.compactor = Objects.requireNonNull(compactor, "compactor");
+        this.tailSrc = new Object[tailLength];
+        this.tailPos = new int[tailLength];
+        this.tailGen = new int[tailLength];
+    }
+
+    /** Folds {@code e} into the compactor, or into the tail if it is transient. */
+    synchronized void record(Event e) {
+        if (!compactor.accept(e)) addTail(e, 0, 0);
+    }
+
+    /** Tape form of {@link #record(Event)}. */
+    synchronized void record(EventTape tape, int pos) {
+        if (!compactor.accept(tape, pos)) addTail(tape, pos, tape.generation());
+    }
+
+    /** Empties the log, e.g. when its timeline was reset. */
+    public synchronized void clear() {
+        Arrays.fill(tailSrc, null);
+        tailCount = 0;
+        compactor.clear();
+    }
+
+    /** @return an immutable copy of the log for {@link #restore(Object)}, e.g. at a timeline checkpoint */
+    public synchronized Object capture() {
+        return new State(compactor.capture(), tailSrc.clone(), tailPos.clone(), tailGen.clone(), tailStart,
+                tailCount);
+    }
+
+    /**
+     * Returns to a copy from {@link #capture()}; the events posted after it
+     * must be posted again to bring the log up to date.
+     */
+    public synchronized void restore(Object state) {
+        State s = (State) state;
+        compactor.restore(s.compacted());
+        System.arraycopy(s.tailSrc(), 0, tailSrc, 0, tailLength);
+        System.arraycopy(s.tailPos(), 0, tailPos, 0, tailLength);
+        System.arraycopy(s.tailGen(), 0, tailGen, 0, tailLength);
+        tailStart = s.tailStart();
+        tailCount = s.tailCount();
+    }
+
+    /** @return approximate heap footprint of a copy from {@link #capture()} in bytes */
+    public long sizeOf(Object state) {
+        return compactor.sizeOf(((State) state).compacted()) + 16L * tailLength;
+    }
+
+    /**
+     * @return a fresh log with the same tail length for a child scope, or
+     *         {@code null} if the compactor is custom and cannot be copied
+     */
+    ReplayLog emptyCopy() {
+        return compactor instanceof StateCompactor ? new ReplayLog(tailLength) : null;
+    }
+
+    /** Delivers the current state and the tail to {@code listener}, filtered by {@code types}. */
+    synchronized void replayTo(EventBus.EventListener listener, Set<Event.EventType> types) {
+        for (Event e : compactor.snapshot()) {
+            if (types.contains(e.getType())) listener.onEvent(e);
+        }
+        for (int k = 0; k < tailCount; k++) {
+            int slot = (tailStart + k) % tailLength;
+            Object src = tailSrc[slot];
+            if (src instanceof EventTape tape) {
+                int pos = tailPos[slot];
+                if (tape.generation() != tailGen[slot] || !types.contains(tape.type(pos))) continue;
+                if (listener instanceof EventBus.TapeListener tl) tl.onTapeEvent(tape, pos);
+                else listener.onEvent(tape.toEvent(pos));
+            } else if (types.contains(((Event) src).getType())) {
+                listener.onEvent((Event) src);
+            }
+        }
+    }
+
+    /**
+     * @return number of events a new subscriber would currently receive
+     *         (before type filtering); builds the snapshot to count it
+     */
+    public synchronized int catchUpSize() {
+        return compactor.snapshot().size() + tailCount;
+    }
+
+    // Internal helpers
+
+    private void addTail(Object src, int pos, int gen) {
+        int slot;
+        if (tailCount < tailLength) {
+            slot = (tailStart + tailCount++) % tailLength;
+        } else {
+            slot = tailStart;
+            tailStart = (tailStart + 1) % tailLength;
+        }
+        tailSrc[slot] = src;
+        tailPos[slot] = pos;
+        tailGen[slot] = gen;
+    }
+
+    /**
+     * Default compactor covering the event vocabulary of the array and heap
+     * modules:
+     * <ul>
+     *   <li>{@code CUSTOM "start"} and {@code HEAPIFY_START} begin a new run
+     *       and discard the state;</li>
+     *   <li>{@code SPLIT}/{@code MERGE} ranges are kept once each, in order,
+     *       with their payload (the worker of a parallel model);</li>
+     *   <li>{@code SWAP}/{@code SET_VALUE} are folded into an array image
+     *       held in primitive arrays: positions holding a known value become
+     *       one {@code SET_VALUE}, positions holding a moved original element
+     *       are restored with at most one {@code SWAP} each; range writes
+     *       ({@code SET_VALUE} with an {@code int[]}) are kept in order,
+     *       minus those a later range write covers right away;</li>
+     *   <li>the latest {@code LINE}, pseudocode-line {@code CUSTOM}, search
+     *       window {@code CUSTOM}, running-cost {@code CUSTOM} and heapify
+     *       marker are kept by reference and materialised in
+     *       {@link #snapshot()};</li>
+     *   <li>highlights (compare, visit, insert/extract/update flashes) and
+     *       other {@code CUSTOM} events are transient and only live in the
+     *       tail.</li>
+     * </ul>
+     */
+    public static final class StateCompactor implements Compactor {
+
+        // Array image states; LISTED marks positions in touched[]
+        private static final byte IDENTITY = 0;
+        private static final byte KNOWN = 1;
+        private static final byte MOVED = 2;
+        private static final byte KIND = 3;
+        private static final byte LISTED = 4;
+
+        // Latest-event slots, in snapshot order
+        private static final int HEAPIFY = 0;
+        private static final int LINE = 1;
+        private static final int CUSTOM_LINE = 2;
+        private static final int WINDOW = 3;
+        private static final int COST = 4;
+
+        private final Map<Long, Event> splits = new LinkedHashMap<>();
+        private final Map<Long, Event> merges = new LinkedHashMap<>();
+        private final List<Event> prefix = new ArrayList<>(); // range writes, swaps before them
+
+        private byte[] state = new byte[64];
+        private int[] value = new int[64];   // KNOWN: the value
+        private int[] origin = new int[64];  // MOVED: original index of the element
+        private int[] touched = new int[64]; // positions that may not be IDENTITY
+        private int touchedCount = 0;
+
+        private final Object[] latestSrc = new Object[5]; // an Event, or a tape with position and generation
+        private final int[] latestPos = new int[5];
+        private final int[] latestGen = new int[5];
+
+        /** Single-entry tape through which plain events are read. */
+        private final EventTape scratch = new EventTape(1);
+
+        /**
+         * Copy of the state. Events are immutable and shared with the live
+         * state; the image is kept for the touched positions only.
+         */
+        private record Captured(long[] splitKeys, Event[] splits, long[] mergeKeys, Event[] merges,
+                                Event[] prefix, int[] touched, byte[] state, int[] value, int[] origin,
+                                Object[] latestSrc, int[] latestPos, int[] latestGen) {}
+
+        @Override
+        public boolean accept(Event e) {
+            scratch.clear();
+            scratch.append(e);
+            return fold(scratch, 0, e, -1);
+        }
+
+        @Override
+        public boolean accept(EventTape tape, int pos) {
+            return fold(tape, pos, tape, pos);
+        }
+
+        @Override
+        public List<Event> snapshot() {
+            List<Event> out = new ArrayList<>();
+            addLatest(out, HEAPIFY);
+            out.addAll(splits.values());
+            out.addAll(merges.values());
+            out.addAll(prefix);
+            permutationSwaps(out);
+            for (int k = 0; k < touchedCount; k++) {
+                int p = touched[k];
+                if ((state[p] & KIND) == KNOWN) out.add(Event.setValue(p, value[p]));
+            }
+            for (int slot = LINE; slot <= COST; slot++) addLatest(out, slot);
+            return out;
+        }
+
+        @Override
+        public void clear() {
+            splits.clear();
+            merges.clear();
+            prefix.clear();
+            for (int k = 0; k < touchedCount; k++) state[touched[k]] = IDENTITY;
+            touchedCount = 0;
+            Arrays.fill(latestSrc, null);
+        }
+
+        @Override
+        public Object capture() {
+            int n = touchedCount;
+            int[] pos = Arrays.copyOf(touched, n);
+            byte[] st = new byte[n];
+            int[] val = new int[n];
+            int[] org = new int[n];
+            for (int k = 0; k < n; k++) {
+                int p = pos[k];
+                st[k] = state[p];
+                val[k] = value[p];
+                org[k] = origin[p];
+            }
+            return new Captured(keys(splits), splits.values().toArray(new Event[0]), keys(merges),
+                    merges.values().toArray(new Event[0]), prefix.toArray(new Event[0]), pos, st, val, org,
+                    latestSrc.clone(), latestPos.clone(), latestGen.clone());
+        }
+
+        @Override
+        public void restore(Object captured) {
+            Captured c = (Captured) captured;
+            clear();
+            for (int k = 0; k < c.splits().length; k++) splits.put(c.splitKeys()[k], c.splits()[k]);
+            for (int k = 0; k < c.merges().length; k++) merges.put(c.mergeKeys()[k], c.merges()[k]);
+            prefix.addAll(Arrays.asList(c.prefix()));
+            int[] pos = c.touched();
+            for (int k = 0; k < pos.length; k++) {
+                int p = pos[k];
+                ensure(p);
+                state[p] = c.state()[k];
+                value[p] = c.value()[k];
+                origin[p] = c.origin()[k];
+            }
+            if (pos.length > touched.length) touched = Arrays.copyOf(pos, pos.length);
+            else System.arraycopy(pos, 0, touched, 0, pos.length);
+            touchedCount = pos.length;
+            System.arraycopy(c.latestSrc(), 0, latestSrc, 0, latestSrc.length);
+            System.arraycopy(c.latestPos(), 0, latestPos, 0, latestPos.length);
+            System.arraycopy(c.latestGen(), 0, latestGen, 0, latestGen.length);
+        }
+
+        @Override
+        public long sizeOf(Object captured) {
+            Captured c = (Captured) captured;
+            return 256 + 13L * c.touched().length + 16L * (c.splits().length + c.merges().length)
+                    + 8L * c.prefix().length;
+        }
+
+        private static long[] keys(Map<Long, Event> ranges) {
+            long[] out = new long[ranges.size()];
+            int k = 0;
+            for (long key : ranges.keySet()) out[k++] = key;
+            return out;
+        }
+
+        /**
+         * Reads the entry at {@code pos} of {@code t}; {@code src}/{@code srcPos}
+         * is what gets kept for later materialisation.
+         */
+        private boolean fold(EventTape t, int pos, Object src, int srcPos) {
+            int n = t.indexCount(pos);
+            switch (t.type(pos)) {
+                case SPLIT -> {
+                    Long key = range(t, pos);
+                    if (!splits.containsKey(key)) splits.put(key, materialise(src, srcPos));
+                }
+                case MERGE -> merges.put(range(t, pos), materialise(src, srcPos));
+                case SET_VALUE -> {
+                    byte kind = t.payloadKind(pos);
+                    if (n >= 1 && kind == EventTape.PAYLOAD_INT && t.index(pos, 0) >= 0) {
+                        place(t.index(pos, 0), true, t.intPayload(pos), 0);
+                    } else if (n >= 2 && kind == EventTape.PAYLOAD_REF && t.payload(pos) instanceof int[]) {
+                        rangeWrite(materialise(src, srcPos));
+                    } else {
+                        return false;
+                    }
+                }
+                case SWAP -> {
+                    if (n < 2 || t.index(pos, 0) < 0 || t.index(pos, 1) < 0) return false;
+                    swap(t.index(pos, 0), t.index(pos, 1));
+                }
+                case LINE -> keep(LINE, src, srcPos);
+                case HEAPIFY_START -> {
+                    clear();
+                    keep(HEAPIFY, src, srcPos);
+                }
+                case HEAPIFY_END -> keep(HEAPIFY, src, srcPos);
+                case CUSTOM -> {
+                    switch (t.payloadKind(pos)) {
+                        case EventTape.PAYLOAD_INT -> keep(CUSTOM_LINE, src, srcPos);
+                        case EventTape.PAYLOAD_LONG -> keep(COST, src, srcPos);
+                        case EventTape.PAYLOAD_REF -> {
+                            Object p = t.payload(pos);
+                            if ("start".equals(p)) clear();
+                            else if (p instanceof int[] w && w.length == 2) keep(WINDOW, src, srcPos);
+                            else return false;
+                        }
+                        default -> {
+                            return false;
+                        }
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void keep(int slot, Object src, int srcPos) {
+            latestSrc[slot] = src;
+            latestPos[slot] = srcPos;
+            latestGen[slot] = src instanceof EventTape tape ? tape.generation() : 0;
+        }
+
+        private void addLatest(List<Event> out, int slot) {
+            Object src = latestSrc[slot];
+            Event e = src instanceof EventTape tape
+                    ? Compactor.materialise(tape, latestPos[slot], latestGen[slot]) : (Event) src;
+            if (e != null) out.add(e);
+        }
+
+        private static Event materialise(Object src, int pos) {
+            return src instanceof EventTape tape ? tape.toEvent(pos) : (Event) src;
+        }
+
+        /**
+         * A range write starts a new epoch: the swaps so far are flushed
+         * ahead of it, so later swaps move the written values, and single
+         * writes it covers are dropped. Trailing range writes that it covers
+         * are replaced.
+         */
+        private void rangeWrite(Event e) {
+            int l = e.getIndex(0), r = e.getIndex(1);
+            permutationSwaps(prefix);
+            int kept = 0;
+            for (int k = 0; k < touchedCount; k++) {
+                int p = touched[k];
+                if ((state[p] & KIND) == KNOWN && (p < l || p > r)) {
+                    touched[kept++] = p;
+                } else {
+                    state[p] = IDENTITY;
+                }
+            }
+            touchedCount = kept;
+            while (!prefix.isEmpty()) {
+                Event last = prefix.get(prefix.size() - 1);
+                if (last.getType() != Event.EventType.SET_VALUE
+                        || last.getIndex(0) < l || last.getIndex(1) > r) break;
+                prefix.remove(prefix.size() - 1);
+            }
+            prefix.add(e);
+        }
+
+        private void swap(int i, int j) {
+            ensure(Math.max(i, j));
+            int si = state[i] & KIND, sj = state[j] & KIND;
+            int vi = value[i], vj = value[j];
+            int oi = si == MOVED ? origin[i] : i;
+            int oj = sj == MOVED ? origin[j] : j;
+            place(i, sj == KNOWN, vj, oj);
+            place(j, si == KNOWN, vi, oi);
+        }
+
+        /** Puts a known {@code v}, or else the original element {@code from}, at {@code pos}. */
+        private void place(int pos, boolean known, int v, int from) {
+            ensure(pos);
+            byte kind;
+            if (known) {
+                kind = KNOWN;
+                value[pos] = v;
+            } else if (from == pos) {
+                kind = IDENTITY;
+            } else {
+                kind = MOVED;
+                origin[pos] = from;
+            }
+            if (kind != IDENTITY && (state[pos] & LISTED) == 0) {
+                if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                touched[touchedCount++] = pos;
+                state[pos] = (byte) (kind | LISTED);
+            } else {
+                state[pos] = (byte) (kind | (state[pos] & LISTED));
+            }
+        }
+
+        private void ensure(int pos) {
+            if (pos < state.length) return;
+            int cap = Math.max(pos + 1, state.length * 2);
+            state = Arrays.copyOf(state, cap);
+            value = Arrays.copyOf(value, cap);
+            origin = Arrays.copyOf(origin, cap);
+        }
+
+        /**
+         * Emits swaps that move every displaced original element to its
+         * current position, starting from the identity arrangement.
+         */
+        private void permutationSwaps(List<Event> out) {
+            Map<Integer, Integer> at = new HashMap<>();     // position -> original index currently there
+            Map<Integer, Integer> where = new HashMap<>();  // original index -> current position
+            for (int k = 0; k < touchedCount; k++) {
+                int p = touched[k];
+                if ((state[p] & KIND) != MOVED) continue;
+                int o = origin[p];
+                int cur = at.getOrDefault(p, p);
+                if (cur == o) continue;
+                int q = where.getOrDefault(o, o);
+                out.add(Event.swap(p, q));
+                at.put(q, cur);
+                where.put(cur, q);
+                at.put(p, o);
+                where.put(o, p);
+            }
+        }
+
+        private static long range(EventTape t, int pos) {
+            int n = t.indexCount(pos);
+            int l = n > 0 ? t.index(pos, 0) : 0;
+            int r = n > 1 ? t.index(pos, 1) : l;
+            return ((long) l << 32) | (r & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package main.java.edu.tue.dsvis.core.mvc;
+
+/**
+ * Weights of the primitive array operations counted by an
+ * {@link OperationCounter}, e.g. to model memory where writes cost more than
+ * reads, or to count comparisons only.
+ *
+ * @param read    cost of one element read
+ * @param write   cost of one element write
+ * @param compare cost of one comparison
+ * @param swap    cost of one swap
+ */
+public record CostModel(long read, long write, long compare, long swap) {
+
+    /** Every operation costs 1. */
+    public static final CostModel UNIT = new CostModel(1, 1, 1, 1);
+
+    /** Only comparisons count, the classic measure for comparison sorts. */
+    public static final CostModel COMPARISONS = new CostModel(0, 0, 1, 0);
+
+    /** Writes cost 10 reads; a swap is two writes and two reads. */
+    public static final CostModel WRITE_HEAVY = new CostModel(1, 10, 1, 22);
+
+    public CostModel {
+        if (read < 0 || write < 0 || compare < 0 || swap < 0) {
+            throw new IllegalArgumentException("weights must be non-negative");
+        }
+    }
+
+    /** @return the weighted sum of the given counts */
+    public long cost(long reads, long writes, long compares, long swaps) {
+        return reads * read + writes * write + compares * compare + swaps * swap;
+    }
+}
@@ -1,22 +1,71 @@
 package main.java.edu.tue.dsvis.core.mvc;
 
 import main.java.edu.tue.dsvis.core.animation.Frame;
+import main.java.edu.tue.dsvis.core.animation.LogStore;
+import main.java.edu.tue.dsvis.core.animation.SpillFiles;
 import main.java.edu.tue.dsvis.core.animation.Timeline;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 
 /**
  * Abstract base class for algorithm models. Provides convenience access to the
  * global {@link EventBus} and {@link Timeline}, plus small helper methods for
  * emitting common events while enqueuing animation {@link Frame}s.
+ *
+ * <p>A model either runs to completion before playback starts
+ * ({@link #run()}) or streams: a {@link ModelExecutor} runs it on a worker
+ * thread that the timeline throttles, so the first frames play while the
+ * algorithm is still working and a paused timeline pauses the algorithm
+ * too.</p>
  */
 public abstract class Model {
 
     protected final EventBus bus;
     protected final Timeline timeline;
 
+    /**
+     * Columnar record of the events this model schedules. Frames refer to
+     * entries by position, so no {@link Event} is allocated per step. The
+     * tape shares the timeline's log memory budget and spill files.
+     */
+    protected final EventTape tape = new EventTape();
+    private final TapeStore tapeStore = new TapeStore();
+
+    /** Reads, writes, compares and swaps of this model, weighted by its cost model. */
+    protected final OperationCounter ops = new OperationCounter();
+
+    /**
+     * Running cost for {@code CUSTOM} subscribers: played with the next frame
+     * once {@link #COST_INTERVAL_MS} of playback or {@link #COST_STRIDE}
+     * frames have passed since it was last shown.
+     */
+    private static final int COST_INTERVAL_MS = 100;
+    private static final int COST_STRIDE = 256;
+    private boolean showCost;
+    private long shownCost;
+    private int costDelayMs;
+    private int costFrames;
+
+    // Opcodes interpreted by dispatch()
+    private static final int OP_POST = 1;
+    private static final int OP_POST_PAIR = 2;
+
+    /** Dispatcher tag on {@link #timeline}, valid for {@link #tagGeneration}. */
+    private int tag = -1;
+    private int tagGeneration = -1;
+
+    // Streaming state
+    private volatile ModelExecutor.Execution execution;
+    private volatile Thread producer;
+    private volatile boolean cancelled = false;
+    private int streamGeneration = -1; // written before the producer starts
+
     /**
      * Constructs a model using the supplied execution context.
      */
@@ -30,39 +79,256 @@ public abstract class Model {
      * Implementations should enqueue ALL frames needed for the visualization
      * and return. The controller will subsequently invoke
      * {@link Timeline#start()} to play them back.
+     *
+     * <p>When streamed, frame helpers may block for back-pressure and throw
+     * {@link CancellationException} once the model is cancelled or the
+     * timeline reset. Long stretches without frames should call
+     * {@link #checkCancelled()}. Implementations must not reset the
+     * timeline themselves.</p>
      */
     public abstract void run();
 
+    /**
+     * Runs {@link #run()} on a worker of {@link ModelExecutor#getDefault()}
+     * and returns immediately; the caller starts the timeline. The worker
+     * blocks whenever {@link Timeline#getLookahead()} frames are waiting to
+     * be played, and ends quietly on {@link #cancel()} or
+     * {@link Timeline#reset()}. The tape shares the timeline's log budget
+     * from the start of the stream, so however long the worker runs, only
+     * the segments around the producer and the playhead stay on the heap.
+     *
+     * @param onFinished runs on the worker after {@code run()} completed
+     *                   normally, e.g. to append a closing frame; may be null
+     * @return the execution handle
+     * @throws IllegalStateException if this model is already streaming
+     */
+    public ModelExecutor.Execution stream(Runnable onFinished) {
+        return ModelExecutor.getDefault().submit(this, onFinished, ModelExecutor.Listener.NONE);
+    }
+
+    /** Claims this model for {@code ex} and opens a stream on the timeline. */
+    synchronized void beginExecution(ModelExecutor.Execution ex) {
+        if (execution != null) throw new IllegalStateException("model is already streaming");
+        cancelled = false;
+        ex.generation = timeline.openStream();
+        streamGeneration = ex.generation;
+        timeline.attachLogStore(tapeStore); // before the worker appends its first entry
+        execution = ex;
+    }
+
+    /** Marks the calling thread as the producer; first thing on the worker. */
+    void enterProducer() {
+        producer = Thread.currentThread();
+    }
+
+    synchronized void endExecution(ModelExecutor.Execution ex) {
+        producer = null;
+        execution = null;
+        timeline.closeStream(ex.generation);
+    }
+
+    /** @return {@code true} while a {@link ModelExecutor} worker runs this model */
+    public boolean isStreaming() {
+        return execution != null;
+    }
+
+    /** @return the operations counted so far; live while the model runs */
+    public OperationCounter getOperations() {
+        return ops;
+    }
+
     // Convenience helpers for subclasses
 
     /**
-     * Emits a COMPARE event for the given index and enqueues a tiny frame to
+     * Wraps {@code values} (not copied) so that its accesses count into
+     * {@link #ops} and play their own COMPARE, SET_VALUE and SWAP frames.
+     * With a {@code CUSTOM} subscriber, {@link #play(int, int)} then shows
+     * the running cost now and then. Subscriptions are looked up once, here.
+     */
+    protected TrackedIntArray track(int[] values) {
+        showCost = wants(Event.EventType.CUSTOM);
+        shownCost = -1;
+        costDelayMs = costFrames = 0;
+        return new TrackedIntArray(values, ops, this);
+    }
+
+    /**
+     * @return {@code true} if some listener consumes events of {@code type};
+     *         models skip building events and frames otherwise
+     */
+    protected boolean wants(Event.EventType type) {
+        return bus.hasSubscribers(type);
+    }
+
+    /**
+     * Enqueues a frame that posts the {@link #tape} entry at {@code pos} when
+     * played back. Highlight-only entries become visual frames that the
+     * timeline may skip when compressing playback.
+     *
+     * <p>The frame is an opcode frame (12 bytes, no closure) interpreted by
+     * this model's dispatcher. Once a tracked array exists it also carries
+     * the running cost when that is due.</p>
+     */
+    protected void play(int pos, int delayMs) {
+        if (showCost && costDue(delayMs)) {
+            long cost = ops.getCost();
+            if (cost != shownCost) {
+                shownCost = cost;
+                play(tape.appendLong(Event.EventType.CUSTOM, cost), pos, delayMs);
+                return;
+            }
+        }
+        timeline.addOp(throttledTag(), OP_POST, pos, 0, delayMs, isHighlight(tape.type(pos)));
+        produced();
+    }
+
+    /**
+     * Enqueues one frame that posts the entries at {@code first} and
+     * {@code second}, typically a pseudocode line and the step it describes.
+     * The frame is visual if {@code second} is a highlight.
+     */
+    protected void play(int first, int second, int delayMs) {
+        timeline.addOp(throttledTag(), OP_POST_PAIR, first, second, delayMs, isHighlight(tape.type(second)));
+        produced();
+    }
+
+    private boolean costDue(int delayMs) {
+        costDelayMs += delayMs;
+        if (costDelayMs < COST_INTERVAL_MS && ++costFrames < COST_STRIDE) return false;
+        costDelayMs = costFrames = 0;
+        return true;
+    }
+
+    /** Closes a run with the final cost if its last frames did not show it. */
+    void playFinalCost() {
+        if (!showCost) return;
+        long cost = ops.getCost();
+        if (cost == shownCost) return;
+        shownCost = cost;
+        timeline.addOp(throttledTag(), OP_POST, tape.appendLong(Event.EventType.CUSTOM, cost), 0, 0, false);
+        produced();
+    }
+
+    /** Reports a frame to the execution, if this is its worker. */
+    private void produced() {
+        ModelExecutor.Execution ex = execution;
+        if (ex != null && Thread.currentThread() == producer) ex.frameAdded();
+    }
+
+    private void dispatch(int opcode, int a, int b) {
+        switch (opcode) {
+            case OP_POST -> bus.post(tape, a);
+            case OP_POST_PAIR -> {
+                bus.post(tape, a);
+                bus.post(tape, b);
+            }
+            default -> throw new IllegalStateException("unknown opcode " + opcode);
+        }
+    }
+
+    /**
+     * Registers the dispatcher lazily, again after every timeline reset,
+     * except on a streaming worker: a reset cancels its stream.
+     */
+    private int tag() {
+        int gen = timeline.getGeneration();
+        if (tag < 0 || tagGeneration != gen) {
+            if (Thread.currentThread() == producer && gen != streamGeneration) {
+                throw new CancellationException("timeline was reset");
+            }
+            tag = timeline.registerDispatcher(this::dispatch);
+            tagGeneration = gen;
+            timeline.attachLogStore(tapeStore);
+        }
+        return tag;
+    }
+
+    /** Pages {@link #tape} out through the timeline's spill files when the log budget asks for it. */
+    private final class TapeStore implements LogStore, EventTape.Pager {
+        private volatile SpillFiles files;
+
+        @Override
+        public long residentBytes() {
+            return tape.residentBytes();
+        }
+
+        @Override
+        public void trimTo(long bytes, SpillFiles files) {
+            this.files = files;
+            tape.trimTo(bytes, this);
+        }
+
+        @Override
+        public Object pageOut(ByteBuffer data) {
+            return files.write("tape", data);
+        }
+
+        @Override
+        public ByteBuffer pageIn(Object handle, int bytes) {
+            return files.read((Path) handle, bytes);
+        }
+    }
+
+    /** {@link #tag()}, after waiting for room when called on the streaming worker. */
+    private int throttledTag() {
+        int t = tag();
+        if (Thread.currentThread() == producer) {
+            checkCancelled();
+            try {
+                timeline.awaitRoom(t);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("model cancelled");
+            }
+        }
+        return t;
+    }
+
+    /** @return {@code true} for event types that views only flash */
+    protected static boolean isHighlight(Event.EventType type) {
+        return switch (type) {
+            case COMPARE, VISIT, HIGHLIGHT_RANGE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Records a COMPARE event for the given index and enqueues a tiny frame to
      * visually highlight it.
      */
     protected void flash(int index) {
-        bus.post(Event.compare(index));
-        timeline.addFrame(new Frame(() -> {
-            /* no-op placeholder – real visualisation handled in view */
-        }, 16)); // ~60 FPS
+        play(tape.append(Event.EventType.COMPARE, index), 16); // ~60 FPS
     }
 
     /**
-     * Emits a SWAP event for the two indices and enqueues a frame placeholder.
+     * Records a SWAP event for the two indices and enqueues a frame for it.
      */
     protected void swap(int i, int j) {
-        bus.post(Event.swap(i, j));
-        timeline.addFrame(new Frame(() -> {
-            /* no-op placeholder – real visualisation handled in view */
-        }, 16));
+        play(tape.append(Event.EventType.SWAP, i, j), 16);
     }
 
     // Optional extension points
 
     /**
-     * Cancels a long-running computation. Default implementation is a no-op.
+     * Cancels a long-running computation: a streaming worker is interrupted
+     * and stops at its next frame or {@link #checkCancelled()}, which
+     * algorithm loops call once per outer iteration. Frames already queued
+     * remain on the timeline. Overrides must call super.
      */
     public void cancel() {
-        // TODO subclasses may override when needed
+        cancelled = true;
+        Thread p = producer;
+        if (p != null) p.interrupt();
+    }
+
+    /**
+     * @throws CancellationException if {@link #cancel()} was called or the
+     *                               current thread was interrupted
+     */
+    protected void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("model cancelled");
+        }
     }
 
     /**
@@ -0,0 +1,225 @@
+package main.java.edu.tue.dsvis.core.mvc;
+
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link Model}s off the calling thread, one worker per model, while
+ * their timeline already plays the frames produced so far.
+ *
+ * <p>Workers are virtual threads where the runtime has them (Java 21+) and
+ * daemon platform threads otherwise. A worker spends most of its life
+ * blocked in {@link Timeline#awaitRoom(int)}, so cheap threads matter when
+ * many models stream at once.</p>
+ *
+ * <p>{@link Listener} callbacks run on the executor's callback thread, the
+ * EDT for {@link #getDefault()}: first frames (by default this starts the
+ * timeline), progress at most every {@value #PROGRESS_INTERVAL_MS} ms, and
+ * the end of the execution. {@link Execution#cancel()} interrupts the
+ * worker; the model stops at its next frame or
+ * {@link Model#checkCancelled()}.</p>
+ */
+public final class ModelExecutor {
+
+    /** Minimum time between two progress callbacks. */
+    public static final long PROGRESS_INTERVAL_MS = 100;
+
+    /** Frames between two looks at the clock for progress. */
+    private static final int PROGRESS_STRIDE = 1 << 10;
+
+    private static final ModelExecutor DEFAULT =
+            new ModelExecutor(defaultThreads(), r -> java.awt.EventQueue.invokeLater(r));
+
+    /** Outcome of an execution. */
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    /** Callbacks about one execution; all optional. */
+    public interface Listener {
+
+        /** Does not start the timeline and ignores progress. */
+        Listener NONE = new Listener() {
+            @Override
+            public void firstFrames(Execution execution) {
+            }
+        };
+
+        /** The first frame is on the timeline. Starts playback by default. */
+        default void firstFrames(Execution execution) {
+            execution.getTimeline().start();
+        }
+
+        /** @param frames frames produced so far */
+        default void progress(Execution execution, int frames) {
+        }
+
+        /** The worker has ended; see {@link Execution#getState()}. */
+        default void finished(Execution execution) {
+        }
+    }
+
+    private final ThreadFactory threads;
+    private final Executor callbacks;
+
+    /**
+     * @param threads   creates one worker per execution
+     * @param callbacks thread on which {@link Listener}s are called
+     */
+    public ModelExecutor(ThreadFactory threads, Executor callbacks) {
+        this.threads = Objects.requireNonNull(threads, "threads");
+        this.callbacks = Objects.requireNonNull(callbacks, "callbacks");
+    }
+
+    /** @return the shared executor, calling listeners on the EDT */
+    public static ModelExecutor getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Starts {@code model} on a new worker.
+     *
+     * @param epilogue runs on the worker after {@code run()} completed
+     *                 normally, while the stream is still open, e.g. to
+     *                 append a closing frame; may be null
+     * @param listener callbacks, {@link Listener#NONE} for none
+     * @throws IllegalStateException if the model is already executing
+     */
+    public Execution submit(Model model, Runnable epilogue, Listener listener) {
+        Execution execution = new Execution(model, epilogue, Objects.requireNonNull(listener, "listener"));
+        model.beginExecution(execution);
+        Thread worker = threads.newThread(execution::work);
+        worker.setName("model-" + model.getClass().getSimpleName());
+        worker.start();
+        return execution;
+    }
+
+    /** Starts {@code model} and starts its timeline once frames arrive. */
+    public Execution submit(Model model, Listener listener) {
+        return submit(model, null, listener);
+    }
+
+    private static ThreadFactory defaultThreads() {
+        try {
+            // Thread.ofVirtual().factory(), looked up so the tree still builds on 17
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return r -> {
+                Thread t = new Thread(r);
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    /** Handle of one running (or finished) model. */
+    public final class Execution {
+
+        private final Model model;
+        private final Runnable epilogue;
+        private final Listener listener;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile State state = State.RUNNING;
+        private volatile Throwable failure;
+        private volatile int frames;
+        private long lastProgressNanos;
+        int generation; // of the timeline stream, set by Model.beginExecution
+
+        private Execution(Model model, Runnable epilogue, Listener listener) {
+            this.model = model;
+            this.epilogue = epilogue;
+            this.listener = listener;
+        }
+
+        public Model getModel() {
+            return model;
+        }
+
+        public Timeline getTimeline() {
+            return model.timeline;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public boolean isDone() {
+            return state != State.RUNNING;
+        }
+
+        /** @return what {@code run()} threw, if {@link State#FAILED} */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        /** @return frames the model has produced through its frame helpers */
+        public int getFrames() {
+            return frames;
+        }
+
+        /** Interrupts the worker; frames already produced stay playable. */
+        public void cancel() {
+            model.cancel();
+        }
+
+        /** Blocks until the worker has ended. */
+        public void await() throws InterruptedException {
+            done.await();
+        }
+
+        /** @return {@code false} if the worker was still running after the timeout */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        /** Worker body. */
+        private void work() {
+            model.enterProducer();
+            try {
+                model.checkCancelled(); // cancelled before the worker got going
+                model.run();
+                model.playFinalCost();
+                if (epilogue != null) epilogue.run();
+                state = State.COMPLETED;
+            } catch (CancellationException e) {
+                state = State.CANCELLED;
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                state = State.FAILED;
+            } finally {
+                model.endExecution(this);
+                done.countDown();
+                notifyListener(() -> listener.finished(this));
+                // Still reach the uncaught-exception handler, as a plain thread would
+                if (failure instanceof RuntimeException re) throw re;
+                if (failure instanceof Error err) throw err;
+            }
+        }
+
+        /** Called by the model on the worker after each frame. */
+        void frameAdded() {
+            int n = ++frames; // single writer
+            if (n == 1) {
+                lastProgressNanos = System.nanoTime();
+                notifyListener(() -> {
+                    if (state != State.CANCELLED) listener.firstFrames(this);
+                });
+            } else if ((n & (PROGRESS_STRIDE - 1)) == 0) {
+                long now = System.nanoTime();
+                if (now - lastProgressNanos >= TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS)) {
+                    lastProgressNanos = now;
+                    notifyListener(() -> listener.progress(this, frames));
+                }
+            }
+        }
+
+        private void notifyListener(Runnable r) {
+            if (listener != Listener.NONE) callbacks.execute(r);
+        }
+    }
+}
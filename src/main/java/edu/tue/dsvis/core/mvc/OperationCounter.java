@@ -0,0 +1,94 @@
+package main.java.edu.tue.dsvis.core.mvc;
+
+import java.util.Objects;
+
+/**
+ * Exact counts of the array operations of one model run, in plain
+ * {@code long} fields so counting never allocates. {@link TrackedIntArray}s
+ * of the same model share one counter; code working on raw arrays calls
+ * {@link #read()}, {@link #write()}, {@link #compare()} and {@link #swap()}
+ * itself.
+ *
+ * <p>Not thread-safe: counted on the model's thread, read afterwards or
+ * through the cost entries models play.</p>
+ */
+public final class OperationCounter {
+
+    long reads;
+    long writes;
+    long compares;
+    long swaps;
+    private CostModel costModel;
+
+    public OperationCounter() {
+        this(CostModel.UNIT);
+    }
+
+    public OperationCounter(CostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel, "costModel");
+    }
+
+    public void read() {
+        reads++;
+    }
+
+    public void write() {
+        writes++;
+    }
+
+    public void compare() {
+        compares++;
+    }
+
+    public void swap() {
+        swaps++;
+    }
+
+    /** Adds counts taken elsewhere, e.g. by the worker threads of a parallel model. */
+    public void add(long reads, long writes, long compares, long swaps) {
+        this.reads += reads;
+        this.writes += writes;
+        this.compares += compares;
+        this.swaps += swaps;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getCompares() {
+        return compares;
+    }
+
+    public long getSwaps() {
+        return swaps;
+    }
+
+    /** @return the counts weighted by the current {@link CostModel} */
+    public long getCost() {
+        return costModel.cost(reads, writes, compares, swaps);
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    /** Changes the weights; the counts are kept, so the cost is re-priced. */
+    public void setCostModel(CostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel, "costModel");
+    }
+
+    public void reset() {
+        reads = writes = compares = swaps = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "reads=" + reads + " writes=" + writes + " compares=" + compares + " swaps=" + swaps
+                + " cost=" + getCost();
+    }
+}
@@ -0,0 +1,50 @@
+package main.java.edu.tue.dsvis.core.mvc;
+
+import main.java.edu.tue.dsvis.core.animation.Checkpointable;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.ReplayLog;
+
+/**
+ * Keeps the {@link ReplayLog} of a bus in step with the timeline playing
+ * into it. The log is captured at the timeline's checkpoints like a view;
+ * a seek backwards restores it with the views and re-posts only the frames
+ * between the checkpoint and the target, and a reset empties it.
+ */
+public final class ReplayCheckpoint implements Checkpointable {
+
+    private final EventBus bus;
+
+    private ReplayCheckpoint(EventBus bus) {
+        this.bus = bus;
+    }
+
+    /** Registers the replay log of {@code bus}, if it keeps one, with {@code timeline}. */
+    public static void attach(EventBus bus, Timeline timeline) {
+        timeline.addCheckpointable(new ReplayCheckpoint(bus));
+        timeline.addPropertyChangeListener(e -> {
+            ReplayLog log = bus.getReplayLog();
+            if ("reset".equals(e.getPropertyName()) && log != null) log.clear();
+        });
+    }
+
+    @Override
+    public Object capture() {
+        ReplayLog log = bus.getReplayLog();
+        return log == null ? null : log.capture();
+    }
+
+    @Override
+    public void restore(Object state) {
+        ReplayLog log = bus.getReplayLog();
+        if (log == null) return;
+        if (state == null) log.clear();
+        else log.restore(state);
+    }
+
+    @Override
+    public long sizeOf(Object state) {
+        ReplayLog log = bus.getReplayLog();
+        return log == null || state == null ? 0 : log.sizeOf(state);
+    }
+}
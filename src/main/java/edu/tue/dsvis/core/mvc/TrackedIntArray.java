@@ -0,0 +1,172 @@
+package main.java.edu.tue.dsvis.core.mvc;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An {@code int[]} that counts every access into an {@link OperationCounter}
+ * and, when created by {@link Model#track(int[])}, plays the matching
+ * frames itself: COMPARE for comparisons, SET_VALUE for writes, SWAP for
+ * swaps. Reads and bulk copies are counted but not shown.
+ *
+ * <p>The model adds the running cost to some of these frames (see
+ * {@link Model#play(int, int)}). Events nobody subscribes to when the
+ * array is created are only counted.</p>
+ *
+ * <p>Each counted access is a memory increment. A model's inner loops
+ * therefore check {@link #isEmitting()} and, when neither the array nor the
+ * loop itself plays a frame, run on {@link #peek(int)} and
+ * {@link #poke(int, int)}, count in local variables and add the counts
+ * once per pass with {@link #count(long, long, long, long)}.</p>
+ *
+ * <p>The element values are accessed by index only; a comparison counts as
+ * one compare, its operand reads are part of the compare weight.</p>
+ */
+public final class TrackedIntArray {
+
+    private final int[] values;
+    private final OperationCounter counter;
+    private final Model owner; // null: count only
+
+    private boolean emitCompare;
+    private boolean emitWrite;
+    private boolean emitSwap;
+
+    private int compareDelayMs = 200;
+    private int writeDelayMs = 16;
+    private int swapDelayMs = 16;
+
+    /** A counting array that plays no frames; wraps {@code values} without copying. */
+    public TrackedIntArray(int[] values, OperationCounter counter) {
+        this(values, counter, null);
+    }
+
+    TrackedIntArray(int[] values, OperationCounter counter, Model owner) {
+        this.values = Objects.requireNonNull(values, "values");
+        this.counter = Objects.requireNonNull(counter, "counter");
+        this.owner = owner;
+        setEmitting(true);
+    }
+
+    public int length() {
+        return values.length;
+    }
+
+    public int get(int i) {
+        counter.reads++;
+        return values[i];
+    }
+
+    public void set(int i, int value) {
+        set(i, value, writeDelayMs);
+    }
+
+    /** Writes {@code value} at {@code i}, shown for {@code delayMs}. */
+    public void set(int i, int value, int delayMs) {
+        counter.writes++;
+        values[i] = value;
+        if (emitWrite) emit(owner.tape.appendInt(Event.EventType.SET_VALUE, i, value), delayMs);
+    }
+
+    /** @return {@code Integer.compare(get(i), get(j))}, counted as one compare */
+    public int compare(int i, int j) {
+        return compare(i, j, compareDelayMs);
+    }
+
+    /** {@link #compare(int, int)} with the second highlight shown for {@code delayMs}. */
+    public int compare(int i, int j, int delayMs) {
+        counter.compares++;
+        if (emitCompare) {
+            emit(owner.tape.append(Event.EventType.COMPARE, i), 0);
+            emit(owner.tape.append(Event.EventType.COMPARE, j), delayMs);
+        }
+        return Integer.compare(values[i], values[j]);
+    }
+
+    /** @return {@code Integer.compare(get(i), value)}, counted as one compare */
+    public int compareTo(int i, int value) {
+        return compareTo(i, value, compareDelayMs);
+    }
+
+    public int compareTo(int i, int value, int delayMs) {
+        counter.compares++;
+        if (emitCompare) emit(owner.tape.append(Event.EventType.COMPARE, i), delayMs);
+        return Integer.compare(values[i], value);
+    }
+
+    public void swap(int i, int j) {
+        swap(i, j, swapDelayMs);
+    }
+
+    public void swap(int i, int j, int delayMs) {
+        counter.swaps++;
+        int t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+        if (emitSwap) emit(owner.tape.append(Event.EventType.SWAP, i, j), delayMs);
+    }
+
+    /**
+     * Copies {@code length} elements to {@code dst}, counted as that many
+     * reads and writes. Not shown: bulk copies go to scratch buffers.
+     */
+    public void copyTo(int srcPos, TrackedIntArray dst, int dstPos, int length) {
+        System.arraycopy(values, srcPos, dst.values, dstPos, length);
+        counter.reads += length;
+        dst.counter.writes += length;
+    }
+
+    /** @return the element at {@code i}, neither counted nor shown */
+    public int peek(int i) {
+        return values[i];
+    }
+
+    /** Writes {@code value} at {@code i}, neither counted nor shown. */
+    public void poke(int i, int value) {
+        values[i] = value;
+    }
+
+    /** Adds the accesses a loop made through {@link #peek(int)} and {@link #poke(int, int)}. */
+    public void count(long reads, long writes, long compares, long swaps) {
+        counter.add(reads, writes, compares, swaps);
+    }
+
+    /** @return a copy of the elements, not counted */
+    public int[] toArray() {
+        return Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * @param on {@code false} to only count; {@code true} to play frames for
+     *           the event types that have subscribers right now
+     */
+    public void setEmitting(boolean on) {
+        boolean live = on && owner != null;
+        emitCompare = live && owner.wants(Event.EventType.COMPARE);
+        emitWrite = live && owner.wants(Event.EventType.SET_VALUE);
+        emitSwap = live && owner.wants(Event.EventType.SWAP);
+    }
+
+    /** @return {@code true} if some access plays a frame; {@code false} if it is only counted */
+    public boolean isEmitting() {
+        return emitCompare || emitWrite || emitSwap;
+    }
+
+    /** Default display times of the frames played by the short-form methods. */
+    public void setDelays(int compareMs, int writeMs, int swapMs) {
+        if (compareMs < 0 || writeMs < 0 || swapMs < 0) throw new IllegalArgumentException("negative delay");
+        this.compareDelayMs = compareMs;
+        this.writeDelayMs = writeMs;
+        this.swapDelayMs = swapMs;
+    }
+
+    public OperationCounter getCounter() {
+        return counter;
+    }
+
+    private void emit(int pos, int delayMs) {
+        owner.play(pos, delayMs);
+    }
+}
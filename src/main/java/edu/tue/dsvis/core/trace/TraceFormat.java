@@ -0,0 +1,82 @@
+package main.java.edu.tue.dsvis.core.trace;
+
+/**
+ * Constants describing the on-disk layout of a recorded event trace.
+ *
+ * <p>Version&nbsp;2 layout (all fixed-width numbers big-endian):</p>
+ * <pre>
+ * header   : magic "DSVT" (int) | version (short) | flags (short)
+ *            | blockSize (int)  | reserved (int)
+ * records  : tag (byte)          type ordinal in bits 0-4, payload kind in bits 5-7
+ *            arity (varint)
+ *            indices (varints)   first index zig-zag delta to the previous
+ *                                record's first index, further indices
+ *                                zig-zag delta to the index before them
+ *            payload             INT: zig-zag varint, LONG: zig-zag varlong,
+ *                                STRING: varint length + UTF-8 bytes,
+ *                                INT_ARRAY: varint length + zig-zag varints,
+ *                                LONG_ARRAY: varint length + zig-zag varlongs,
+ *                                RECORD: class name as a STRING, varint
+ *                                component count, then per component a
+ *                                kind byte and its value in the same forms
+ * footer   : magic "DSVI" (int) | blockSize (int) | recordCount (long)
+ *            | blockCount (int) | blockOffsets (long × blockCount)
+ * trailer  : footerOffset (long) | magic "DSVE" (int)
+ * </pre>
+ *
+ * <p>Version&nbsp;1 lacks the LONG_ARRAY and RECORD kinds and is otherwise
+ * identical, so version-1 traces still read. A record payload is kept when
+ * every component is an {@code int}, {@code long}, {@code String},
+ * {@code int[]}, {@code long[]} or such a record; the reader rebuilds it
+ * through its canonical constructor. Other objects are stored as their
+ * {@code toString()}.</p>
+ *
+ * <p>The index delta chain restarts at every block of {@code blockSize}
+ * records, so decoding can start at any block offset; this is what makes
+ * random access by record number O(blockSize).</p>
+ */
+public final class TraceFormat {
+
+    private TraceFormat() {}
+
+    public static final int MAGIC = 0x44535654;         // "DSVT"
+    public static final int FOOTER_MAGIC = 0x44535649;  // "DSVI"
+    public static final int TRAILER_MAGIC = 0x44535645; // "DSVE"
+    public static final short VERSION = 2;
+
+    public static final int HEADER_BYTES = 16;
+    public static final int TRAILER_BYTES = 12;
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    /** Highest event-type ordinal representable in the tag byte. */
+    public static final int MAX_TYPE_ORDINAL = 0x1F;
+
+    // Payload kinds stored in the upper three tag bits
+    public static final int PAYLOAD_NONE = 0;
+    public static final int PAYLOAD_INT = 1;
+    public static final int PAYLOAD_LONG = 2;
+    public static final int PAYLOAD_STRING = 3;
+    public static final int PAYLOAD_INT_ARRAY = 4;
+    public static final int PAYLOAD_RECORD = 5;
+    public static final int PAYLOAD_LONG_ARRAY = 6;
+
+    static int tag(int typeOrdinal, int payloadKind) {
+        return (payloadKind << 5) | typeOrdinal;
+    }
+
+    static int zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    static int unZigZag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
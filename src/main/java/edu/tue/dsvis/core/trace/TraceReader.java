@@ -0,0 +1,395 @@
+package main.java.edu.tue.dsvis.core.trace;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Reads a trace written by {@link TraceWriter} through memory-mapped windows,
+ * so multi-gigabyte traces can be replayed without loading them onto the heap.
+ *
+ * <p>The reader is a cursor: {@link #next()} decodes one record into reusable
+ * fields that are exposed via {@link #type()}, {@link #index(int)},
+ * {@link #intPayload()} and friends, without allocating for index/primitive
+ * payloads. {@link #seek(long)} jumps to any record number using the block
+ * index stored in the footer. {@link #iterator()} offers a materialising
+ * streaming view for convenience.</p>
+ *
+ * <p>Not thread-safe; open one reader per consumer.</p>
+ */
+public final class TraceReader implements Iterable<Event>, AutoCloseable {
+
+    /** Size of one mapped window; records may straddle windows. */
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    private static final Event.EventType[] TYPES = Event.EventType.values();
+
+    /** Only records of this application are rebuilt from a trace. */
+    private static final String APP_PACKAGE = "main.java.edu.tue.dsvis.";
+
+    private final FileChannel channel;
+    private final long dataEnd;          // offset of the footer
+    private final int blockSize;
+    private final long recordCount;
+    private final long[] blockOffsets;
+
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long windowEnd = 0;
+
+    // Cursor state
+    private long offset;                 // file offset of the next byte to decode
+    private long nextRecord = 0;         // record number that next() will decode
+    private int prevFirstIndex = 0;
+
+    // Current record
+    private int typeOrdinal = -1;
+    private int payloadKind;
+    private int indexCount;
+    private int[] indices = new int[4];
+    private long primitivePayload;
+    private Object refPayload;
+
+    /** Canonical constructors of the record payloads seen so far, by class name. */
+    private final Map<String, Constructor<?>> recordTypes = new HashMap<>();
+
+    /** Opens {@code file} and validates header and footer. */
+    public TraceReader(Path file) throws IOException {
+        Objects.requireNonNull(file, "file");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < TraceFormat.HEADER_BYTES + TraceFormat.TRAILER_BYTES) {
+                throw new IOException("not a trace file (too short): " + file);
+            }
+            ByteBuffer header = readFully(0, TraceFormat.HEADER_BYTES);
+            if (header.getInt() != TraceFormat.MAGIC) {
+                throw new IOException("not a trace file (bad magic): " + file);
+            }
+            short version = header.getShort();
+            if (version < 1 || version > TraceFormat.VERSION) {
+                throw new IOException("unsupported trace version " + version + ": " + file);
+            }
+            ByteBuffer trailer = readFully(size - TraceFormat.TRAILER_BYTES, TraceFormat.TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != TraceFormat.TRAILER_MAGIC) {
+                throw new IOException("truncated trace (writer not closed?): " + file);
+            }
+            ByteBuffer footerHead = readFully(footerOffset, 20);
+            if (footerHead.getInt() != TraceFormat.FOOTER_MAGIC) {
+                throw new IOException("corrupt trace footer: " + file);
+            }
+            this.blockSize = footerHead.getInt();
+            this.recordCount = footerHead.getLong();
+            int blocks = footerHead.getInt();
+            ByteBuffer idx = readFully(footerOffset + 20, blocks * 8);
+            this.blockOffsets = new long[blocks];
+            for (int i = 0; i < blocks; i++) blockOffsets[i] = idx.getLong();
+            this.dataEnd = footerOffset;
+            this.offset = TraceFormat.HEADER_BYTES;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    // Navigation
+
+    /** @return total number of records in the trace */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** @return number of the record that the next {@link #next()} call decodes */
+    public long getPosition() {
+        return nextRecord;
+    }
+
+    /**
+     * Decodes the next record into the cursor.
+     *
+     * @return {@code false} when the end of the trace has been reached
+     */
+    public boolean next() {
+        if (nextRecord >= recordCount) return false;
+        if (nextRecord % blockSize == 0) prevFirstIndex = 0;
+        int tag = readByte() & 0xFF;
+        typeOrdinal = tag & TraceFormat.MAX_TYPE_ORDINAL;
+        payloadKind = tag >>> 5;
+        if (typeOrdinal >= TYPES.length) {
+            throw new IllegalStateException("unknown event type ordinal " + typeOrdinal + " at record " + nextRecord);
+        }
+        indexCount = readVarInt();
+        if (indexCount > indices.length) indices = new int[Math.max(indexCount, indices.length * 2)];
+        for (int k = 0; k < indexCount; k++) {
+            int delta = TraceFormat.unZigZag(readVarInt());
+            if (k == 0) {
+                prevFirstIndex += delta;
+                indices[0] = prevFirstIndex;
+            } else {
+                indices[k] = indices[k - 1] + delta;
+            }
+        }
+        refPayload = null;
+        primitivePayload = 0;
+        switch (payloadKind) {
+            case TraceFormat.PAYLOAD_INT -> primitivePayload = TraceFormat.unZigZag(readVarInt());
+            case TraceFormat.PAYLOAD_LONG -> primitivePayload = TraceFormat.unZigZag(readVarLong());
+            default -> refPayload = readValue(payloadKind);
+        }
+        nextRecord++;
+        return true;
+    }
+
+    /**
+     * Positions the cursor so that the next {@link #next()} call decodes record
+     * {@code record}. Costs one index lookup plus at most {@code blockSize}
+     * skipped records.
+     */
+    public void seek(long record) {
+        if (record < 0 || record > recordCount) {
+            throw new IndexOutOfBoundsException("record " + record + " of " + recordCount);
+        }
+        if (record == recordCount) {
+            nextRecord = recordCount;
+            return;
+        }
+        int block = (int) (record / blockSize);
+        offset = blockOffsets[block];
+        nextRecord = (long) block * blockSize;
+        prevFirstIndex = 0;
+        while (nextRecord < record) next();
+    }
+
+    // Current record accessors
+
+    public Event.EventType type() {
+        return TYPES[current()];
+    }
+
+    public int indexCount() {
+        current();
+        return indexCount;
+    }
+
+    public int index(int k) {
+        current();
+        if (k < 0 || k >= indexCount) throw new IndexOutOfBoundsException("index " + k + " of " + indexCount);
+        return indices[k];
+    }
+
+    public boolean hasIntPayload() {
+        current();
+        return payloadKind == TraceFormat.PAYLOAD_INT;
+    }
+
+    public int intPayload() {
+        current();
+        return (int) primitivePayload;
+    }
+
+    public long longPayload() {
+        current();
+        return primitivePayload;
+    }
+
+    /** @return the payload as an object (boxing primitives), or {@code null} */
+    public Object payload() {
+        current();
+        return switch (payloadKind) {
+            case TraceFormat.PAYLOAD_INT -> (int) primitivePayload;
+            case TraceFormat.PAYLOAD_LONG -> primitivePayload;
+            default -> refPayload;
+        };
+    }
+
+    /** Materialises the current record. */
+    public Event toEvent() {
+        return new Event(type(), Arrays.copyOf(indices, indexCount), payload());
+    }
+
+    /** Appends the current record to {@code tape} and returns its position. */
+    public int appendTo(EventTape tape) {
+        Event.EventType t = type();
+        if (indexCount > 2) return tape.append(toEvent());
+        return switch (payloadKind) {
+            case TraceFormat.PAYLOAD_NONE -> switch (indexCount) {
+                case 0 -> tape.append(t);
+                case 1 -> tape.append(t, indices[0]);
+                default -> tape.append(t, indices[0], indices[1]);
+            };
+            case TraceFormat.PAYLOAD_INT -> indexCount == 0
+                    ? tape.appendInt(t, (int) primitivePayload)
+                    : indexCount == 1 ? tape.appendInt(t, indices[0], (int) primitivePayload) : tape.append(toEvent());
+            default -> tape.append(toEvent());
+        };
+    }
+
+    // Replay
+
+    /**
+     * Replays records {@code [from, to)} into {@code bus}. Entries go through
+     * a single reused scratch tape, so tape-aware listeners see no per-record
+     * allocation.
+     */
+    public void replay(EventBus bus, long from, long to) {
+        Objects.requireNonNull(bus, "bus");
+        if (from > to) throw new IllegalArgumentException("from > to");
+        EventTape scratch = new EventTape(1);
+        seek(from);
+        while (nextRecord < to && next()) {
+            scratch.clear();
+            bus.post(scratch, appendTo(scratch));
+        }
+    }
+
+    /** Replays the whole trace into {@code bus}. */
+    public void replay(EventBus bus) {
+        replay(bus, 0, recordCount);
+    }
+
+    /**
+     * Streaming, materialising iterator starting at the current cursor
+     * position. Shares the cursor with this reader.
+     */
+    @Override
+    public Iterator<Event> iterator() {
+        return new Iterator<>() {
+            @Override public boolean hasNext() { return nextRecord < recordCount; }
+            @Override public Event next() {
+                if (!TraceReader.this.next()) throw new NoSuchElementException();
+                return toEvent();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    // Decoding helpers
+
+    private int current() {
+        if (typeOrdinal < 0) throw new IllegalStateException("call next() first");
+        return typeOrdinal;
+    }
+
+    private byte readByte() {
+        if (offset >= dataEnd) {
+            throw new IllegalStateException("record runs past end of data at offset " + offset);
+        }
+        if (offset < windowStart || offset >= windowEnd) remap(offset);
+        return window.get((int) (offset++ - windowStart));
+    }
+
+    private int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) return result;
+        }
+        throw new IllegalStateException("malformed varint at offset " + offset);
+    }
+
+    private long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return result;
+        }
+        throw new IllegalStateException("malformed varlong at offset " + offset);
+    }
+
+    /** Decodes a payload of {@code kind}; primitives are boxed. */
+    private Object readValue(int kind) {
+        return switch (kind) {
+            case TraceFormat.PAYLOAD_NONE -> null;
+            case TraceFormat.PAYLOAD_INT -> TraceFormat.unZigZag(readVarInt());
+            case TraceFormat.PAYLOAD_LONG -> TraceFormat.unZigZag(readVarLong());
+            case TraceFormat.PAYLOAD_STRING -> readString();
+            case TraceFormat.PAYLOAD_INT_ARRAY -> {
+                int[] arr = new int[readVarInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = TraceFormat.unZigZag(readVarInt());
+                yield arr;
+            }
+            case TraceFormat.PAYLOAD_LONG_ARRAY -> {
+                long[] arr = new long[readVarInt()];
+                for (int i = 0; i < arr.length; i++) arr[i] = TraceFormat.unZigZag(readVarLong());
+                yield arr;
+            }
+            case TraceFormat.PAYLOAD_RECORD -> readRecord();
+            default -> throw new IllegalStateException("unknown payload kind " + kind + " at record " + nextRecord);
+        };
+    }
+
+    private String readString() {
+        byte[] bytes = new byte[readVarInt()];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = readByte();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Object readRecord() {
+        String name = readString();
+        Object[] args = new Object[readVarInt()];
+        for (int i = 0; i < args.length; i++) args[i] = readValue(readByte() & 0xFF);
+        try {
+            return recordConstructor(name).newInstance(args);
+        } catch (ReflectiveOperationException | IllegalArgumentException ex) {
+            throw new IllegalStateException("cannot rebuild payload " + name + " at record " + nextRecord, ex);
+        }
+    }
+
+    private Constructor<?> recordConstructor(String name) throws ReflectiveOperationException {
+        Constructor<?> c = recordTypes.get(name);
+        if (c != null) return c;
+        if (!name.startsWith(APP_PACKAGE)) throw new ClassNotFoundException("not an application record: " + name);
+        Class<?> type = Class.forName(name, false, TraceReader.class.getClassLoader());
+        if (!type.isRecord()) throw new ClassNotFoundException("not a record: " + name);
+        Class<?>[] params = Arrays.stream(type.getRecordComponents()).map(RecordComponent::getType)
+                .toArray(Class<?>[]::new);
+        c = type.getDeclaredConstructor(params);
+        recordTypes.put(name, c);
+        return c;
+    }
+
+    private void remap(long at) {
+        try {
+            long len = Math.min(WINDOW_BYTES, dataEnd - at);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, at, len);
+            windowStart = at;
+            windowEnd = at + len;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private ByteBuffer readFully(long at, int len) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(len);
+        while (b.hasRemaining()) {
+            if (channel.read(b, at + b.position()) < 0) throw new IOException("unexpected end of trace");
+        }
+        b.flip();
+        return b;
+    }
+}
@@ -0,0 +1,306 @@
+package main.java.edu.tue.dsvis.core.trace;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
+
+import java.io.IOException;
+import java.lang.reflect.RecordComponent;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Writes events to a compact binary trace (see {@link TraceFormat}) through a
+ * {@link FileChannel} and a reusable direct buffer.
+ *
+ * <p>The writer is also a {@link EventBus.TapeListener}, so a live run can be
+ * recorded by simply registering it on the bus; I/O failures on that path are
+ * rethrown as {@link UncheckedIOException}. {@link #close()} must be called to
+ * write the block index – a trace without it is rejected by
+ * {@link TraceReader}.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public final class TraceWriter implements EventBus.TapeListener, AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** Whether a record class has only components the format can keep. */
+    private static final ClassValue<Boolean> ENCODABLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (RecordComponent c : type.getRecordComponents()) {
+                if (!encodable(c.getType())) return false;
+            }
+            return true;
+        }
+    };
+
+    private final FileChannel channel;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final int blockSize;
+
+    private long written = 0;          // bytes handed to the channel
+    private long recordCount = 0;
+    private long[] blockOffsets = new long[64];
+    private int blockCount = 0;
+    private int prevFirstIndex = 0;
+    private boolean closed = false;
+
+    /** Opens (and truncates) {@code file} with the default block size. */
+    public TraceWriter(Path file) throws IOException {
+        this(file, TraceFormat.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param file      target file, created or truncated
+     * @param blockSize records per random-access block (&gt;0)
+     */
+    public TraceWriter(Path file, int blockSize) throws IOException {
+        Objects.requireNonNull(file, "file");
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.blockSize = blockSize;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buf.putInt(TraceFormat.MAGIC);
+        buf.putShort(TraceFormat.VERSION);
+        buf.putShort((short) 0);
+        buf.putInt(blockSize);
+        buf.putInt(0);
+    }
+
+    // Recording API
+
+    /** Appends a materialised event. */
+    public void write(Event e) throws IOException {
+        Objects.requireNonNull(e, "e");
+        int n = e.getIndexCount();
+        Object p = e.getPayload();
+        int kind = kindOf(p);
+        beginRecord(e.getType(), kind, n);
+        for (int k = 0; k < n; k++) {
+            putIndex(k, e.getIndex(k), k == 0 ? 0 : e.getIndex(k - 1));
+        }
+        putPayload(kind, p);
+    }
+
+    /** Appends the tape entry at {@code pos} without materialising it. */
+    public void write(EventTape tape, int pos) throws IOException {
+        int n = tape.indexCount(pos);
+        int kind;
+        Object ref = null;
+        switch (tape.payloadKind(pos)) {
+            case EventTape.PAYLOAD_INT -> kind = TraceFormat.PAYLOAD_INT;
+            case EventTape.PAYLOAD_LONG -> kind = TraceFormat.PAYLOAD_LONG;
+            case EventTape.PAYLOAD_REF -> {
+                ref = tape.payload(pos);
+                kind = kindOf(ref);
+            }
+            default -> kind = TraceFormat.PAYLOAD_NONE;
+        }
+        beginRecord(tape.type(pos), kind, n);
+        for (int k = 0; k < n; k++) {
+            putIndex(k, tape.index(pos, k), k == 0 ? 0 : tape.index(pos, k - 1));
+        }
+        switch (kind) {
+            case TraceFormat.PAYLOAD_INT -> putVarInt(TraceFormat.zigZag(tape.intPayload(pos)));
+            case TraceFormat.PAYLOAD_LONG -> putVarLong(TraceFormat.zigZag(tape.longPayload(pos)));
+            default -> putPayload(kind, ref);
+        }
+    }
+
+    /** Appends every entry of {@code tape} in order. */
+    public void writeAll(EventTape tape) throws IOException {
+        for (int pos = 0; pos < tape.size(); pos++) {
+            write(tape, pos);
+        }
+    }
+
+    /** @return number of records written so far */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    // Listener adapter
+
+    @Override
+    public void onEvent(Event e) {
+        try {
+            write(e);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void onTapeEvent(EventTape tape, int pos) {
+        try {
+            write(tape, pos);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** Writes the block index and trailer, then closes the channel. */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            long footerOffset = position();
+            ensure(20);
+            buf.putInt(TraceFormat.FOOTER_MAGIC);
+            buf.putInt(blockSize);
+            buf.putLong(recordCount);
+            buf.putInt(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                ensure(8);
+                buf.putLong(blockOffsets[i]);
+            }
+            ensure(TraceFormat.TRAILER_BYTES);
+            buf.putLong(footerOffset);
+            buf.putInt(TraceFormat.TRAILER_MAGIC);
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Encoding helpers
+
+    private void beginRecord(Event.EventType type, int kind, int arity) throws IOException {
+        if (closed) throw new IOException("trace writer closed");
+        if (type.ordinal() > TraceFormat.MAX_TYPE_ORDINAL) {
+            throw new IOException("event type does not fit trace format v" + TraceFormat.VERSION + ": " + type);
+        }
+        if (recordCount % blockSize == 0) {
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+            }
+            blockOffsets[blockCount++] = position();
+            prevFirstIndex = 0; // delta chain restarts per block
+        }
+        recordCount++;
+        putByte(TraceFormat.tag(type.ordinal(), kind));
+        putVarInt(arity);
+    }
+
+    private void putIndex(int k, int value, int previousInRecord) throws IOException {
+        if (k == 0) {
+            putVarInt(TraceFormat.zigZag(value - prevFirstIndex));
+            prevFirstIndex = value;
+        } else {
+            putVarInt(TraceFormat.zigZag(value - previousInRecord));
+        }
+    }
+
+    private void putPayload(int kind, Object p) throws IOException {
+        switch (kind) {
+            case TraceFormat.PAYLOAD_INT -> putVarInt(TraceFormat.zigZag((Integer) p));
+            case TraceFormat.PAYLOAD_LONG -> putVarLong(TraceFormat.zigZag((Long) p));
+            case TraceFormat.PAYLOAD_STRING -> putString(p.toString());
+            case TraceFormat.PAYLOAD_INT_ARRAY -> {
+                int[] arr = (int[]) p;
+                putVarInt(arr.length);
+                for (int v : arr) putVarInt(TraceFormat.zigZag(v));
+            }
+            case TraceFormat.PAYLOAD_LONG_ARRAY -> {
+                long[] arr = (long[]) p;
+                putVarInt(arr.length);
+                for (long v : arr) putVarLong(TraceFormat.zigZag(v));
+            }
+            case TraceFormat.PAYLOAD_RECORD -> putRecord((Record) p);
+            default -> { }
+        }
+    }
+
+    /** Class name, then each component as a kind byte and its value. */
+    private void putRecord(Record r) throws IOException {
+        RecordComponent[] components = r.getClass().getRecordComponents();
+        putString(r.getClass().getName());
+        putVarInt(components.length);
+        for (RecordComponent c : components) {
+            Object v;
+            try {
+                v = c.getAccessor().invoke(r);
+            } catch (ReflectiveOperationException ex) {
+                throw new IOException("cannot read " + c.getName() + " of payload " + r.getClass().getName(), ex);
+            }
+            int kind = kindOf(v);
+            putByte(kind);
+            putPayload(kind, v);
+        }
+    }
+
+    private void putString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarInt(bytes.length);
+        for (byte b : bytes) putByte(b);
+    }
+
+    /**
+     * Integers and longs stay primitive; int and long arrays and records
+     * made of such values are kept; anything else becomes a string.
+     */
+    private static int kindOf(Object p) {
+        if (p == null) return TraceFormat.PAYLOAD_NONE;
+        if (p instanceof Integer) return TraceFormat.PAYLOAD_INT;
+        if (p instanceof Long) return TraceFormat.PAYLOAD_LONG;
+        if (p instanceof int[]) return TraceFormat.PAYLOAD_INT_ARRAY;
+        if (p instanceof long[]) return TraceFormat.PAYLOAD_LONG_ARRAY;
+        if (p instanceof Record && ENCODABLE.get(p.getClass())) return TraceFormat.PAYLOAD_RECORD;
+        return TraceFormat.PAYLOAD_STRING;
+    }
+
+    private static boolean encodable(Class<?> type) {
+        return type == int.class || type == long.class || type == Integer.class || type == Long.class
+                || type == String.class || type == int[].class || type == long[].class
+                || type.isRecord() && ENCODABLE.get(type);
+    }
+
+    private void putVarInt(int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            putByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        putByte(v);
+    }
+
+    private void putVarLong(long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            putByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        putByte((int) v);
+    }
+
+    private void putByte(int b) throws IOException {
+        if (!buf.hasRemaining()) flush();
+        buf.put((byte) b);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+
+    private long position() {
+        return written + buf.position();
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            written += channel.write(buf);
+        }
+        buf.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package main.java.edu.tue.dsvis.gui;
+
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.LatencyHistogram;
+import main.java.edu.tue.dsvis.core.event.LatencyRecorder;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live table of event-path latencies for an {@link EventBus}: delivery
+ * latency per event type and per listener, and {@code onEvent} service time
+ * per listener, each as p50 / p99 / max in microseconds.
+ *
+ * <p>Latency tracking is switched on while the panel is showing and off again
+ * when it is hidden, so the measurement cost is only paid on demand.</p>
+ */
+public class DiagnosticsPanel extends JPanel {
+
+    private static final int REFRESH_MS = 500;
+
+    private final EventBus bus;
+    private final StatsTableModel tableModel = new StatsTableModel();
+    private final Timer refresh = new Timer(REFRESH_MS, e -> refresh());
+
+    public DiagnosticsPanel(EventBus bus) {
+        super(new BorderLayout(4, 4));
+        this.bus = bus;
+
+        JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton resetBtn = new JButton("Reset");
+        resetBtn.addActionListener(e -> {
+            LatencyRecorder rec = bus.getLatencyRecorder();
+            if (rec != null) rec.reset();
+            refresh();
+        });
+        JPanel south = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        south.add(resetBtn);
+        add(south, BorderLayout.SOUTH);
+
+        setPreferredSize(new Dimension(640, 360));
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        bus.setLatencyTracking(true);
+        refresh.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refresh.stop();
+        bus.setLatencyTracking(false);
+        super.removeNotify();
+    }
+
+    /** Opens the panel in a non-modal dialog owned by {@code owner}. */
+    public static void showDialog(Component owner, EventBus bus) {
+        Window w = owner == null ? null : SwingUtilities.getWindowAncestor(owner);
+        JDialog dlg = new JDialog(w, "Event-path diagnostics", Dialog.ModalityType.MODELESS);
+        dlg.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dlg.setContentPane(new DiagnosticsPanel(bus));
+        dlg.pack();
+        dlg.setLocationRelativeTo(owner);
+        dlg.setVisible(true);
+    }
+
+    private void refresh() {
+        LatencyRecorder rec = bus.getLatencyRecorder();
+        List<Object[]> rows = new ArrayList<>();
+        if (rec != null) {
+            rec.latencyByType().forEach((t, s) -> rows.add(row("latency / type", t.name(), s)));
+            addAll(rows, "latency / listener", rec.latencyByListener());
+            addAll(rows, "onEvent / listener", rec.serviceTimeByListener());
+        }
+        tableModel.setRows(rows);
+    }
+
+    private static void addAll(List<Object[]> rows, String kind, Map<String, LatencyHistogram.Summary> src) {
+        src.forEach((name, s) -> rows.add(row(kind, name, s)));
+    }
+
+    private static Object[] row(String kind, String name, LatencyHistogram.Summary s) {
+        return new Object[]{kind, name, s.count(), micros(s.p50()), micros(s.p99()), micros(s.max())};
+    }
+
+    private static double micros(long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    // --------------------------------------------------
+    private static class StatsTableModel extends AbstractTableModel {
+        private static final String[] COLS = {"Metric", "Name", "Count", "p50 µs", "p99 µs", "max µs"};
+        private List<Object[]> rows = List.of();
+
+        void setRows(List<Object[]> r) { rows = r; fireTableDataChanged(); }
+
+        @Override public int getRowCount() { return rows.size(); }
+        @Override public int getColumnCount() { return COLS.length; }
+        @Override public String getColumnName(int c) { return COLS[c]; }
+        @Override public Object getValueAt(int r, int c) { return rows.get(r)[c]; }
+        @Override public Class<?> getColumnClass(int c) {
+            return switch (c) {
+                case 2 -> Long.class;
+                case 3, 4, 5 -> Double.class;
+                default -> String.class;
+            };
+        }
+    }
+}
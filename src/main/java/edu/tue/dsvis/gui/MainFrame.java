@@ -1,68 +1,126 @@
 package main.java.edu.tue.dsvis.gui;
 
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventScope;
+import main.java.edu.tue.dsvis.core.mvc.ReplayCheckpoint;
 import main.java.edu.tue.dsvis.modules.ModuleDescriptor;
+import main.java.edu.tue.dsvis.modules.arrays.ArraysModule;
+import main.java.edu.tue.dsvis.modules.heaps.HeapsModule;
+import main.java.edu.tue.dsvis.modules.race.RaceModule;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * Top-level application window hosting a module’s main panel and playback bar.
+ *
+ * <p>Every module runs on its own {@link EventScope} of the application bus.
+ * Switching modules stops the old timeline and closes its scope, which
+ * unregisters all of the old module's listeners.</p>
  */
 public class MainFrame extends JFrame {
 
+    private static final boolean BUS_DEBUG = Boolean.getBoolean("dsvis.bus.debug");
+
+    private final EventBus bus;
+    private final JPanel content = new JPanel(new BorderLayout());
+
+    private ModuleDescriptor module;
+    private EventScope moduleScope;
+    private PlaybackBar playbackBar;
+
     /**
-     * Constructs a main frame for the given module.
+     * Constructs the main frame and opens the arrays module.
      *
-     * @param module an instance of {@link main.java.edu.tue.dsvis.Main.MainModule}
+     * @param bus application-wide bus; modules get child scopes of it
      */
-    public MainFrame(ModuleDescriptor module) {
-        super("DS-Vis – " + module.name());
+    public MainFrame(EventBus bus) {
+        super("DS-Vis");
+        this.bus = bus;
         setLayout(new BorderLayout());
 
         // Center area placeholder to allow swapping
-        JPanel content = new JPanel(new BorderLayout());
         add(content, BorderLayout.CENTER);
-        content.add(module.getRootPanel(), BorderLayout.CENTER);
-        add(new PlaybackBar(module.getTimeline()), BorderLayout.SOUTH);
 
         // Menu bar
         JMenuBar menuBar = new JMenuBar();
         JMenu mModule = new JMenu("Module");
 
         JMenuItem arraysItem = new JMenuItem("Arrays & Simple Sorts");
-        arraysItem.addActionListener(e -> {
-            main.java.edu.tue.dsvis.modules.arrays.ArraysModule am =
-                    new main.java.edu.tue.dsvis.modules.arrays.ArraysModule(
-                            main.java.edu.tue.dsvis.core.event.EventBus.getGlobal(), new main.java.edu.tue.dsvis.core.animation.Timeline(60));
-            swapModule(content, am);
-        });
+        arraysItem.addActionListener(e -> openModule("Arrays", ArraysModule::new));
 
         JMenuItem heapsItem = new JMenuItem("Heaps & Priority-Queues");
-        heapsItem.addActionListener(e -> {
-            main.java.edu.tue.dsvis.modules.heaps.HeapsModule hm =
-                    new main.java.edu.tue.dsvis.modules.heaps.HeapsModule(
-                            main.java.edu.tue.dsvis.core.event.EventBus.getGlobal(), new main.java.edu.tue.dsvis.core.animation.Timeline(60));
-            swapModule(content, hm);
-        });
+        heapsItem.addActionListener(e -> openModule("Heaps", HeapsModule::new));
+
+        JMenuItem raceItem = new JMenuItem("Algorithm Race");
+        raceItem.addActionListener(e -> openModule("Race", RaceModule::new));
 
         mModule.add(arraysItem);
         mModule.add(heapsItem);
+        mModule.add(raceItem);
         menuBar.add(mModule);
+
+        JMenu mView = new JMenu("View");
+        JMenuItem diagnosticsItem = new JMenuItem("Event diagnostics…");
+        diagnosticsItem.addActionListener(e -> DiagnosticsPanel.showDialog(this, bus));
+        mView.add(diagnosticsItem);
+        menuBar.add(mView);
         setJMenuBar(menuBar);
 
+        openModule("Arrays", ArraysModule::new);
+
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         pack();
         setLocationRelativeTo(null);
         setVisible(true);
     }
 
-    private void swapModule(JPanel content, main.java.edu.tue.dsvis.modules.ModuleDescriptor mod) {
-        content.removeAll();
-        content.add(mod.getRootPanel(), BorderLayout.CENTER);
-        getContentPane().remove(1); // remove old playback bar component (south)
-        getContentPane().add(new main.java.edu.tue.dsvis.gui.PlaybackBar(mod.getTimeline()), BorderLayout.SOUTH);
-        setTitle("DS-Vis – " + mod.name());
+    /** @return the module currently shown */
+    public ModuleDescriptor getModule() {
+        return module;
+    }
+
+    /**
+     * Replaces the current module by one built on a fresh scope and timeline.
+     *
+     * @param scopeName label of the new module's bus scope
+     * @param factory   module constructor taking (bus, timeline)
+     */
+    private void openModule(String scopeName, BiFunction<EventBus, Timeline, ModuleDescriptor> factory) {
+        closeModule();
+        moduleScope = bus.createScope(scopeName);
+        Timeline timeline = new Timeline(60);
+        ReplayCheckpoint.attach(moduleScope, timeline);
+        module = factory.apply(moduleScope, timeline);
+
+        content.add(module.getRootPanel(), BorderLayout.CENTER);
+        playbackBar = new PlaybackBar(module.getPlayback());
+        add(playbackBar, BorderLayout.SOUTH);
+        setTitle("DS-Vis – " + module.name());
         validate();
         repaint();
     }
-} 
\ No newline at end of file
+
+    private void closeModule() {
+        if (module == null) return;
+        module.getPlayback().pause();
+        module.reset();
+        moduleScope.close();
+        content.removeAll();
+        remove(playbackBar);
+        module = null;
+        moduleScope = null;
+        playbackBar = null;
+        if (BUS_DEBUG) reportLeaks();
+    }
+
+    private void reportLeaks() {
+        List<String> stale = bus.leakReport();
+        if (stale.isEmpty()) return;
+        System.err.println("[dsvis.bus.debug] " + stale.size() + " stale listener(s):");
+        stale.forEach(s -> System.err.println("  " + s));
+    }
+}
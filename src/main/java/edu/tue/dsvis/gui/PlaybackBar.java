@@ -1,6 +1,6 @@
 package main.java.edu.tue.dsvis.gui;
 
-import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.animation.Playback;
 
 import javax.swing.*;
 import java.awt.*;
@@ -8,59 +8,113 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 
 /**
- * Control strip providing play/pause, step, reset, and speed controls for a
- * {@link Timeline} instance.
+ * Control strip providing play/pause, step, rewind, jump-to-end, speed or
+ * target-duration controls and a position scrubber for a {@link Playback},
+ * i.e. a single timeline or a group of racing lanes.
  */
 public class PlaybackBar extends JPanel {
 
-    private final Timeline timeline;
+    private final Playback playback;
 
     private final JButton playPauseBtn = new JButton("▶");
     private final JButton stepBtn = new JButton("▸▸");
     private final JButton resetBtn = new JButton("⟲");
+    private final JButton endBtn = new JButton("⏭");
+    private final JComboBox<String> durationBox = new JComboBox<>(new String[]{"Speed", "5 s", "10 s", "30 s", "60 s"});
     private final JSlider speedSlider = new JSlider(5, 400, 100); // 1x default (5==0.05x)
+    private final JSlider scrubber = new JSlider(0, 0, 0);
+    private final JLabel positionLabel = new JLabel("0 / 0");
+    private final JLabel droppedLabel = new JLabel();
+    private final JLabel logLabel = new JLabel();
 
-    public PlaybackBar(Timeline timeline) {
-        this.timeline = timeline;
+    /** Set while the scrubber is moved programmatically, to avoid seeking back. */
+    private boolean syncing = false;
+
+    public PlaybackBar(Playback playback) {
+        this.playback = playback;
         setLayout(new FlowLayout(FlowLayout.LEFT));
 
         add(playPauseBtn);
         add(stepBtn);
         add(resetBtn);
-        add(new JLabel("Speed:"));
+        add(endBtn);
+        add(new JLabel("Pace:"));
+        add(durationBox);
         add(speedSlider);
+        add(scrubber);
+        add(positionLabel);
+        add(droppedLabel);
+        add(logLabel);
+        logLabel.setToolTipText("Frame log held in memory / spilled to disk");
 
         // Button actions
         playPauseBtn.addActionListener(e -> togglePlayPause());
-        stepBtn.addActionListener(e -> { timeline.stepForward(); updatePlayPauseIcon(); });
-        resetBtn.addActionListener(e -> { timeline.reset(); updatePlayPauseIcon(); });
+        stepBtn.addActionListener(e -> { playback.stepForward(); updatePlayPauseIcon(); });
+        resetBtn.setToolTipText("Rewind to start");
+        resetBtn.addActionListener(e -> { playback.pause(); playback.seek(0); updatePlayPauseIcon(); });
+        endBtn.setToolTipText("Apply remaining steps without animation");
+        endBtn.addActionListener(e -> { playback.jumpToEnd(); updatePlayPauseIcon(); });
+        durationBox.setToolTipText("Fit the rest of the run into a fixed duration");
+        durationBox.addActionListener(e -> {
+            int idx = durationBox.getSelectedIndex();
+            long ms = idx <= 0 ? 0 : Long.parseLong(((String) durationBox.getSelectedItem()).split(" ")[0]) * 1000;
+            playback.setTargetDuration(ms);
+            speedSlider.setEnabled(ms == 0);
+        });
         speedSlider.addChangeListener(e -> {
             double factor = speedSlider.getValue() / 100.0;
-            timeline.setSpeed(factor);
+            playback.setSpeed(factor);
+        });
+        scrubber.addChangeListener(e -> {
+            if (!syncing) playback.seek(scrubber.getValue());
         });
 
         // Reflect external state changes (position property used as indicator)
-        timeline.addPropertyChangeListener(new PropertyChangeListener() {
+        playback.addPropertyChangeListener(new PropertyChangeListener() {
             @Override public void propertyChange(PropertyChangeEvent evt) {
                 if ("running".equals(evt.getPropertyName())) {
                     updatePlayPauseIcon();
                 }
+                syncScrubber();
             }
         });
 
         updatePlayPauseIcon();
+        syncScrubber();
+    }
+
+    private void syncScrubber() {
+        syncing = true;
+        try {
+            int length = playback.getLength();
+            int pos = playback.getPosition();
+            if (scrubber.getMaximum() != length) scrubber.setMaximum(length);
+            scrubber.setValue(pos);
+            positionLabel.setText(pos + " / " + length);
+            long dropped = playback.getDroppedFrames();
+            droppedLabel.setText(dropped == 0 ? "" : "dropped " + dropped);
+            long spilled = playback.getLogSpilledBytes();
+            logLabel.setText(length == 0 ? "" : "log " + megabytes(playback.getLogBytes())
+                    + " / " + megabytes(spilled) + " on disk");
+        } finally {
+            syncing = false;
+        }
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
     }
 
     private void togglePlayPause() {
-        if (timeline.isRunning()) {
-            timeline.pause();
+        if (playback.isRunning()) {
+            playback.pause();
         } else {
-            timeline.start();
+            playback.start();
         }
         updatePlayPauseIcon();
     }
 
     private void updatePlayPauseIcon() {
-        playPauseBtn.setText(timeline.isRunning() ? "❚❚" : "▶");
+        playPauseBtn.setText(playback.isRunning() ? "❚❚" : "▶");
     }
 } 
\ No newline at end of file
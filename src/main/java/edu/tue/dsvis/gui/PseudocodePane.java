@@ -99,6 +99,11 @@ public class PseudocodePane extends JScrollPane {
     /** Backward-compat alias. */
     public void reload(String path) { loadResource(path); }
 
+    /** @return the highlighted 1-based line, or -1 when none */
+    public int getHighlightedLine() {
+        return currentLine;
+    }
+
     /** Clears any existing line highlight. */
     public void clearHighlight() {
         if (currentHighlight != null) {
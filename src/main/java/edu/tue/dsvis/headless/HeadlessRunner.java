@@ -0,0 +1,308 @@
+package main.java.edu.tue.dsvis.headless;
+
+import main.java.edu.tue.dsvis.core.animation.ManualClock;
+import main.java.edu.tue.dsvis.core.animation.ManualScheduler;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.ModelExecutor;
+import main.java.edu.tue.dsvis.core.mvc.OperationCounter;
+import main.java.edu.tue.dsvis.modules.arrays.model.BinarySearchModel;
+import main.java.edu.tue.dsvis.modules.arrays.model.LinearSearchModel;
+import main.java.edu.tue.dsvis.modules.arrays.model.SortModels;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Runs a {@link Model} without any display: frames go to a plain
+ * {@link EventBus} and a {@link Timeline} driven by a {@link ManualScheduler},
+ * so neither Swing nor AWT is loaded.
+ *
+ * <p>Usage: {@code --headless [--algo NAME] [--n N] [--seed S] [--target T]
+ * [--sink count|noop] [--stream]}. The counting sink tallies events per
+ * type and applies SWAP / SET_VALUE to a copy of the input, which yields the
+ * final array a view would show; the no-op sink only receives events, to
+ * measure the pipeline itself. With {@code --stream} the model runs on a
+ * worker thread while this thread plays the frames.</p>
+ *
+ * <p>Exit code 0 on success, 1 if a streamed model failed or was cancelled,
+ * 2 on bad arguments.</p>
+ */
+public final class HeadlessRunner {
+
+    private static final Map<String, BiFunction<Model.ModelContext, Config, Model>> MODELS = new LinkedHashMap<>();
+
+    static {
+        SortModels.all().forEach((name, f) -> MODELS.put(name, (ctx, c) -> f.apply(ctx, c.input().clone())));
+        MODELS.put("Linear Search", (ctx, c) -> new LinearSearchModel(c.input(), c.target(), ctx));
+        MODELS.put("Binary Search", (ctx, c) -> new BinarySearchModel(c.input(), c.target(), ctx));
+    }
+
+    /** Parsed command line. */
+    record Config(String algorithm, int[] input, int target, boolean counting, boolean streaming) {}
+
+    private HeadlessRunner() {
+    }
+
+    /**
+     * Parses {@code args} (the {@code --headless} flag itself is ignored),
+     * runs the model and prints a report to {@code out}.
+     *
+     * @return process exit code
+     */
+    public static int run(String[] args, PrintStream out) {
+        Config config;
+        try {
+            config = parse(args);
+        } catch (IllegalArgumentException e) {
+            out.println("error: " + e.getMessage());
+            out.println("usage: --headless [--algo NAME] [--n N] [--seed S] [--target T] [--sink count|noop] [--stream]");
+            out.println("algorithms: " + String.join(", ", MODELS.keySet()));
+            return 2;
+        }
+        Result result = execute(config);
+        if (result.state() != ModelExecutor.State.COMPLETED) {
+            out.println("error: " + config.algorithm() + " " + result.state().name().toLowerCase()
+                    + " after " + result.frames() + " frames");
+            if (result.failure() != null) result.failure().printStackTrace(out);
+            return 1;
+        }
+        report(config, result, out);
+        return 0;
+    }
+
+    // Execution
+
+    /** Figures gathered by {@link #execute}; only meaningful if {@code state} is COMPLETED. */
+    record Result(ModelExecutor.State state, Throwable failure, CountingSink sink, OperationCounter operations,
+                  long frames, long logBytes, long spilledBytes,
+                  long produceNanos, long playNanos, long produceAlloc, long playAlloc) {}
+
+    static Result execute(Config config) {
+        ManualClock clock = new ManualClock();
+        Timeline timeline = new Timeline(60, clock, new ManualScheduler(clock));
+        EventBus bus = new EventBus();
+        CountingSink sink = new CountingSink(config.counting() ? config.input().clone() : null);
+        bus.register(sink, Event.EventType.values());
+        Model model = MODELS.get(config.algorithm()).apply(new Model.ModelContext(bus, timeline), config);
+
+        long[] produceAlloc = {-1};
+        long produceNanos;
+        long playNanos;
+        long playAlloc;
+        ModelExecutor.State state = ModelExecutor.State.COMPLETED;
+        Throwable failure = null;
+        if (config.streaming()) {
+            long start = System.nanoTime();
+            long alloc0 = allocatedBytes();
+            long[] producedAt = {0};
+            ModelExecutor.Execution worker = model.stream(() -> {
+                producedAt[0] = System.nanoTime();
+                produceAlloc[0] = allocatedBytes();
+            });
+            // This thread is the playback thread: drain whatever has been produced
+            while (!worker.isDone() || timeline.getRemaining() > 0) {
+                if (timeline.getRemaining() > 0) timeline.seek(timeline.getLength());
+                else LockSupport.parkNanos(50_000);
+            }
+            playNanos = System.nanoTime() - start;
+            playAlloc = allocatedBytes() - alloc0;
+            state = worker.getState();
+            failure = worker.getFailure();
+            produceNanos = state == ModelExecutor.State.COMPLETED ? producedAt[0] - start : 0;
+        } else {
+            long alloc0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            model.run();
+            long t1 = System.nanoTime();
+            long alloc1 = allocatedBytes();
+            timeline.seek(timeline.getLength());
+            playNanos = System.nanoTime() - t1;
+            playAlloc = allocatedBytes() - alloc1;
+            produceNanos = t1 - t0;
+            produceAlloc[0] = alloc1 - alloc0;
+        }
+        return new Result(state, failure, sink, model.getOperations(), timeline.getLength(), timeline.getLogBytes(),
+                timeline.getLogSpilledBytes(), produceNanos, playNanos, produceAlloc[0], playAlloc);
+    }
+
+    /** @return bytes allocated by the current thread, or -1 if the JVM cannot tell */
+    private static long allocatedBytes() {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    // Report
+
+    private static void report(Config c, Result r, PrintStream out) {
+        CountingSink sink = r.sink();
+        out.printf("algorithm    %s%n", c.algorithm());
+        out.printf("elements     %d%s%n", c.input().length, c.streaming() ? " (streamed)" : "");
+        out.printf("frames       %d (log %s resident, %s spilled)%n", r.frames(), mb(r.logBytes()), mb(r.spilledBytes()));
+        out.printf("operations   %s%n", r.operations());
+        out.printf("events       %d%n", sink.total());
+        for (Event.EventType t : Event.EventType.values()) {
+            long n = sink.count(t);
+            if (n > 0) out.printf("  %-14s %d%n", t, n);
+        }
+        if (c.counting()) {
+            int[] a = sink.array();
+            out.printf("final array  %s%s%n", preview(a), isSorted(a) ? " (sorted)" : "");
+        } else {
+            out.println("final array  not tracked by the no-op sink");
+        }
+        out.printf("produce      %.1f ms, %s%n", r.produceNanos() / 1e6, alloc(r.produceAlloc(), r.frames(), "frame"));
+        double seconds = r.playNanos() / 1e9;
+        out.printf("play         %.1f ms, %.0f events/s, %s%n", r.playNanos() / 1e6,
+                seconds > 0 ? sink.total() / seconds : 0, alloc(r.playAlloc(), sink.total(), "event"));
+    }
+
+    private static String alloc(long bytes, long per, String unit) {
+        if (bytes < 0) return "allocation n/a";
+        return String.format("%s allocated (%.1f B/%s)", mb(bytes), per > 0 ? (double) bytes / per : 0, unit);
+    }
+
+    private static String mb(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String preview(int[] a) {
+        if (a.length <= 20) return Arrays.toString(a);
+        return Arrays.toString(Arrays.copyOf(a, 20)).replace("]", ", ... " + (a.length - 20) + " more]");
+    }
+
+    private static boolean isSorted(int[] a) {
+        for (int i = 1; i < a.length; i++) if (a[i - 1] > a[i]) return false;
+        return true;
+    }
+
+    // Arguments
+
+    static Config parse(String[] args) {
+        String algo = "Merge Sort";
+        int n = 1000;
+        long seed = 42;
+        Integer target = null;
+        boolean counting = true;
+        boolean streaming = false;
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            switch (a.toLowerCase()) {
+                case "--headless" -> { }
+                case "--algo" -> algo = value(args, ++i, a);
+                case "--n" -> n = intValue(args, ++i, a);
+                case "--seed" -> seed = intValue(args, ++i, a);
+                case "--target" -> target = intValue(args, ++i, a);
+                case "--sink" -> {
+                    String s = value(args, ++i, a);
+                    if (!s.equals("count") && !s.equals("noop")) throw new IllegalArgumentException("--sink must be count or noop");
+                    counting = s.equals("count");
+                }
+                case "--stream" -> streaming = true;
+                default -> throw new IllegalArgumentException("unknown option " + a);
+            }
+        }
+        if (!MODELS.containsKey(algo)) throw new IllegalArgumentException("unknown algorithm '" + algo + "'");
+        if (n <= 0) throw new IllegalArgumentException("--n must be positive");
+        int[] input = new Random(seed).ints(n, 0, Math.max(1000, n)).toArray();
+        if (algo.equals("Binary Search")) Arrays.sort(input); // its precondition
+        return new Config(algo, input, target != null ? target : input[n / 2], counting, streaming);
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static int intValue(String[] args, int i, String option) {
+        try {
+            return Integer.parseInt(value(args, i, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(option + " needs an integer");
+        }
+    }
+
+    // Sink
+
+    /**
+     * Listener for every event type. Counts per type and, when given an
+     * array, applies the state-changing events to it.
+     */
+    static final class CountingSink implements EventBus.TapeListener {
+
+        private final long[] counts = new long[Event.EventType.values().length];
+        private final int[] array;
+
+        CountingSink(int[] array) {
+            this.array = array;
+        }
+
+        long count(Event.EventType type) {
+            return counts[type.ordinal()];
+        }
+
+        long total() {
+            long sum = 0;
+            for (long c : counts) sum += c;
+            return sum;
+        }
+
+        int[] array() {
+            return array;
+        }
+
+        @Override
+        public void onTapeEvent(EventTape tape, int pos) {
+            counts[tape.typeOrdinal(pos)]++;
+            if (array == null) return;
+            switch (tape.type(pos)) {
+                case SWAP -> swap(tape.index(pos, 0), tape.index(pos, 1));
+                case SET_VALUE -> {
+                    if (tape.hasIntPayload(pos)) array[tape.index(pos, 0)] = tape.intPayload(pos);
+                    else if (tape.payload(pos) instanceof int[] v) setRange(tape.index(pos, 0), v);
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void onEvent(Event e) {
+            counts[e.getType().ordinal()]++;
+            if (array == null) return;
+            int[] idx = e.getIndices();
+            switch (e.getType()) {
+                case SWAP -> swap(idx[0], idx[1]);
+                case SET_VALUE -> {
+                    if (e.getPayload() instanceof Integer v) array[idx[0]] = v;
+                    else if (e.getPayload() instanceof int[] v) setRange(idx[0], v);
+                }
+                default -> {
+                }
+            }
+        }
+
+        private void setRange(int from, int[] values) {
+            System.arraycopy(values, 0, array, from, values.length);
+        }
+
+        private void swap(int i, int j) {
+            int t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package main.java.edu.tue.dsvis.modules;
 
+import main.java.edu.tue.dsvis.core.animation.Playback;
 import main.java.edu.tue.dsvis.core.animation.Timeline;
 
 import javax.swing.*;
@@ -23,6 +24,14 @@ public interface ModuleDescriptor {
     /** @return the {@link Timeline} controlling this module’s animation */
     Timeline getTimeline();
 
+    /**
+     * @return what the playback bar controls; the module's timeline unless
+     *         the module plays several at once
+     */
+    default Playback getPlayback() {
+        return getTimeline();
+    }
+
     /** Resets the module’s internal state; no-op for simple modules. */
     void reset();
 } 
\ No newline at end of file
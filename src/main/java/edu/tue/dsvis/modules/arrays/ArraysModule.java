@@ -22,6 +22,7 @@ public class ArraysModule implements ModuleDescriptor {
         this.bus = bus;
         this.timeline = timeline;
         this.view = new ArraysView(bus);
+        timeline.addCheckpointable(view);
         this.ctrl = new ArraysController(bus, timeline, view);
     }
 
@@ -3,6 +3,7 @@ package main.java.edu.tue.dsvis.modules.arrays.controller;
 import main.java.edu.tue.dsvis.core.animation.Timeline;
 import main.java.edu.tue.dsvis.core.event.EventBus;
 import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.ModelExecutor;
 import main.java.edu.tue.dsvis.modules.arrays.view.ArraysView;
 
 import javax.swing.*;
@@ -10,7 +11,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiFunction;
 
-import main.java.edu.tue.dsvis.modules.arrays.model.MergeSortModel;
+import main.java.edu.tue.dsvis.modules.arrays.model.SortModels;
 
 /**
  * Controller that translates user input into algorithm model execution for the
@@ -23,6 +24,7 @@ public class ArraysController {
     private final ArraysView view;
 
     private final Map<String, BiFunction<int[], Integer, Model>> modelFactories = new HashMap<>();
+    private Model current; // last model started, possibly still streaming
 
     public ArraysController(EventBus bus, Timeline timeline, ArraysView view) {
         this.bus = bus;
@@ -42,8 +44,8 @@ public class ArraysController {
         modelFactories.put("Linear Search", (arr, target) -> new main.java.edu.tue.dsvis.modules.arrays.model.LinearSearchModel(arr, target,
                 new Model.ModelContext(bus, timeline)));
         modelFactories.put("Binary Search", (arr, target) -> new main.java.edu.tue.dsvis.modules.arrays.model.BinarySearchModel(arr, target, new Model.ModelContext(bus, timeline)));
-        modelFactories.put("Insertion Sort", (arr, t) -> new main.java.edu.tue.dsvis.modules.arrays.model.InsertionSortModel(arr, new Model.ModelContext(bus, timeline)));
-        modelFactories.put("Merge Sort", (arr, t) -> new MergeSortModel(new Model.ModelContext(bus, timeline), java.util.Arrays.copyOf(arr, arr.length)));
+        SortModels.all().forEach((name, factory) -> modelFactories.put(name,
+                (arr, t) -> factory.apply(new Model.ModelContext(bus, timeline), java.util.Arrays.copyOf(arr, arr.length))));
     }
 
     /** Parses the UI, builds the correct model and starts animation. */
@@ -75,6 +77,7 @@ public class ArraysController {
             return;
         }
 
+        if (current != null) current.cancel();
         timeline.pause();
         timeline.reset();
         view.resetView();
@@ -92,13 +95,31 @@ public class ArraysController {
             target = arr[target];
         }
 
-        Model model = factory.apply(arr, target);
-        model.run();
-        timeline.start();
-
-        // re-enable run button when finished (simple approach: schedule at end)
-        view.getRunButton().setEnabled(false);
-        timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() -> view.getRunButton().setEnabled(true), 0));
+        // Frames are produced on a worker and play as soon as the first one
+        // exists; re-enable the run button with a final frame once the model is done.
+        JButton run = view.getRunButton();
+        run.setEnabled(false);
+        current = factory.apply(arr, target);
+        Model started = current;
+        ModelExecutor.getDefault().submit(current, () -> timeline.addFrame(
+                new main.java.edu.tue.dsvis.core.animation.Frame(() -> run.setEnabled(true), 0)),
+                new ModelExecutor.Listener() {
+                    @Override
+                    public void progress(ModelExecutor.Execution ex, int frames) {
+                        if (current == started) run.setText("Generating… " + frames + " frames");
+                    }
+
+                    @Override
+                    public void finished(ModelExecutor.Execution ex) {
+                        if (current != started) return; // superseded by a newer run
+                        run.setText("Run");
+                        if (ex.getFrames() == 0) timeline.start(); // only the closing frame
+                        if (ex.getState() == ModelExecutor.State.FAILED) {
+                            run.setEnabled(true);
+                            showError("Algorithm failed: " + ex.getFailure());
+                        }
+                    }
+                });
 
         // ensure pseudocode visible for merge sort built programmatically
         if ("Merge Sort".equals(algo)) {
@@ -121,7 +142,10 @@ public class ArraysController {
 
     /** Clears UI-specific state so that another run can start fresh. */
     public void resetUI() {
+        if (current != null) current.cancel();
         timeline.reset();
+        view.getRunButton().setEnabled(true); // the closing frame was discarded
+        view.getRunButton().setText("Run");
         view.resetUI();
     }
 
@@ -0,0 +1,9 @@
+package main.java.edu.tue.dsvis.modules.arrays.event;
+
+/**
+ * {@code CUSTOM} payload of a counting or radix sort: bucket counts of a
+ * pass, with the keys scattered per bucket so far (null while counting)
+ * and the bucket of the current key (-1 for none). The arrays are not
+ * modified after the event is recorded.
+ */
+public record Histogram(String label, int[] counts, int[] placed, int active) {}
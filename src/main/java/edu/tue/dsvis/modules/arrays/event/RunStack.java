@@ -0,0 +1,14 @@
+package main.java.edu.tue.dsvis.modules.arrays.event;
+
+/**
+ * {@code CUSTOM} payload of Tim Sort: run lengths on the stack, bottom
+ * first, with {@code minrun} and the runs and gallops so far.
+ */
+public record RunStack(int[] lengths, int minRun, int runs, int gallops) {
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("minrun ").append(minRun).append(" | stack");
+        for (int len : lengths) sb.append(' ').append(len);
+        return sb.append(" | runs ").append(runs).append(", gallops ").append(gallops).toString();
+    }
+}
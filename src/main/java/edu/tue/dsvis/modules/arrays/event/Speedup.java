@@ -0,0 +1,24 @@
+package main.java.edu.tue.dsvis.modules.arrays.event;
+
+/**
+ * {@code CUSTOM} payload of a parallel sort: sort times by worker count;
+ * {@code workers[0]} is 1, the sequential sort.
+ */
+public record Speedup(int[] workers, long[] nanos) {
+
+    /** @return sequential time over the time of entry {@code k} */
+    public double factor(int k) {
+        return (double) nanos[0] / nanos[k];
+    }
+
+    @Override
+    public String toString() {
+        if (workers.length < 2) return "speedup: single worker";
+        StringBuilder sb = new StringBuilder("speedup vs sequential:");
+        for (int k = 1; k < workers.length; k++) {
+            sb.append(k == 1 ? " " : ", ").append(workers[k]).append(" workers ")
+                    .append(String.format("%.1fx", factor(k)));
+        }
+        return sb.toString();
+    }
+}
@@ -1,7 +1,7 @@
 package main.java.edu.tue.dsvis.modules.arrays.model;
 
-import main.java.edu.tue.dsvis.core.animation.Frame;
 import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
 import main.java.edu.tue.dsvis.core.event.Event;
 
 /**
@@ -21,40 +21,43 @@ public class BinarySearchModel extends Model {
 
     @Override
     public void run() {
+        int line4 = tape.appendInt(Event.EventType.CUSTOM, 4);
+        int line5 = tape.appendInt(Event.EventType.CUSTOM, 5);
+        int line7 = tape.appendInt(Event.EventType.CUSTOM, 7);
+        int line9 = tape.appendInt(Event.EventType.CUSTOM, 9);
+
+        TrackedIntArray arr = track(array);
         int low = 0;
-        int high = array.length - 1;
+        int high = arr.length() - 1;
         while (low <= high) {
+            checkCancelled();
             int mid = (low + high) / 2;
-            int m = mid; // effectively final for lambda
 
             // Post current search window first
-            int lowSnapshot = low;
-            int highSnapshot = high;
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], new int[]{lowSnapshot, highSnapshot})), 0));
+            play(tape.appendRef(Event.EventType.CUSTOM, new int[]{low, high}), 0);
 
             // Highlight mid computation line (4)
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 4)), 0));
-
-            // Compare frame
-            timeline.addFrame(Frame.blink(() -> bus.post(Event.compare(m))));
+            play(line4, 0);
 
-            if (array[mid] == target) {
+            // One three-way compare decides the branch
+            int c = arr.compareTo(mid, target, 200);
+            if (c == 0) {
                 // Highlight found line (5)
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 5)), 0));
+                play(line5, 0);
 
-                timeline.addFrame(new Frame(() -> bus.post(Event.visit(m)), 300));
+                play(tape.append(Event.EventType.VISIT, mid), 300);
                 // Clear window after found
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], new int[]{-1, -2})), 0));
+                play(tape.appendRef(Event.EventType.CUSTOM, new int[]{-1, -2}), 0);
                 break;
-            } else if (array[mid] < target) {
+            } else if (c < 0) {
                 // Highlight low update branch line (7-8)
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 7)), 0));
+                play(line7, 0);
                 low = mid + 1;
             } else {
                 // Highlight high update branch line (9-10)
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 9)), 0));
+                play(line9, 0);
                 high = mid - 1;
             }
         }
     }
-} 
\ No newline at end of file
+}
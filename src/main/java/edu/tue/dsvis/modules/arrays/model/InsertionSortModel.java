@@ -1,8 +1,8 @@
 package main.java.edu.tue.dsvis.modules.arrays.model;
 
-import main.java.edu.tue.dsvis.core.animation.Frame;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
 
 /**
  * Insertion sort algorithm model that schedules visualisation frames on the
@@ -19,46 +19,59 @@ public class InsertionSortModel extends Model {
 
     @Override
     public void run() {
-        int n = a.length;
+        // Constant entries are recorded once and replayed by position.
+        int line1 = tape.appendInt(Event.EventType.CUSTOM, 1);
+        int line2 = tape.appendInt(Event.EventType.CUSTOM, 2);
+        int line4 = tape.appendInt(Event.EventType.CUSTOM, 4);
+        int line7 = tape.appendInt(Event.EventType.CUSTOM, 7);
+
+        boolean showVisits = wants(Event.EventType.VISIT);
+        // Compares, swaps and the final write play their own frames
+        TrackedIntArray arr = track(a);
+
+        int n = arr.length();
+        if (!arr.isEmitting() && !showVisits && !wants(Event.EventType.CUSTOM)) {
+            sortSilently(arr);
+            return;
+        }
         for (int j = 1; j < n; j++) {
+            checkCancelled();
             // highlight outer loop line 1
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 1)), 0));
-            int key = a[j];
-            int indexKey = j;
+            play(line1, 0);
+            int key = arr.get(j);
 
             // Highlight the key element
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 2)), 0));
-            timeline.addFrame(Frame.blink(() -> bus.post(Event.visit(indexKey))));
-            // Custom cost metric increment – VISIT counts as a step
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], "STEP")), 0));
+            play(line2, 0);
+            if (showVisits) play(tape.append(Event.EventType.VISIT, j), 200);
 
+            // The key travels down by swaps: arr[i + 1] always holds it
             int i = j - 1;
-            while (i >= 0 && a[i] > key) {
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 4)), 0));
-                final int idxI = i;
-                final int idxIp1 = i + 1;
-
-                // Compare cost
-                timeline.addFrame(Frame.blink(() -> bus.post(Event.compare(idxI))));
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], "STEP")), 0));
-
-                // Swap elements in the internal array and emit SWAP event
-                int temp = a[idxI];
-                a[idxIp1] = temp;
-                a[idxI] = key; // temporarily place key to idxI until loop ends
+            while (i >= 0) {
+                play(line4, 0);
+                if (arr.compareTo(i, key) <= 0) break;
+                arr.swap(i, i + 1);
+                i--;
+            }
 
-                timeline.addFrame(new Frame(() -> bus.post(Event.swap(idxI, idxIp1)), 16));
-                timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], "STEP")), 0));
+            arr.set(i + 1, key);
+            play(line7, 0);
+        }
+    }
 
+    /** The same sort without frames: shifts instead of swaps, counted once per key. */
+    private void sortSilently(TrackedIntArray arr) {
+        int n = arr.length();
+        for (int j = 1; j < n; j++) {
+            checkCancelled();
+            int key = arr.peek(j);
+            int i = j - 1;
+            while (i >= 0 && arr.peek(i) > key) {
+                arr.poke(i + 1, arr.peek(i));
                 i--;
             }
-
-            int insertPos = i + 1;
-            a[insertPos] = key;
-            final int pos = insertPos;
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.SET_VALUE, new int[]{pos}, key)), 16));
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], 7)), 0));
-            timeline.addFrame(new Frame(() -> bus.post(new Event(Event.EventType.CUSTOM, new int[0], "STEP")), 0));
+            arr.poke(i + 1, key);
+            int shifts = j - 1 - i;
+            arr.count(1, 1, i >= 0 ? shifts + 1 : shifts, shifts);
         }
     }
-} 
\ No newline at end of file
+}
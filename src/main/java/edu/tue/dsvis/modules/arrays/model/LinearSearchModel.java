@@ -1,6 +1,7 @@
 package main.java.edu.tue.dsvis.modules.arrays.model;
 
 import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
 import main.java.edu.tue.dsvis.core.event.Event;
 
 /**
@@ -20,29 +21,24 @@ public class LinearSearchModel extends Model {
 
     @Override
     public void run() {
-        // Highlight loop header
-        timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() ->
-                bus.post(new main.java.edu.tue.dsvis.core.event.Event(main.java.edu.tue.dsvis.core.event.Event.EventType.CUSTOM, new int[0], 1)), 0));
+        int line2 = tape.appendInt(Event.EventType.CUSTOM, 2);
 
-        for (int i = 0; i < array.length; i++) {
-            int index = i;
+        // Highlight loop header
+        play(tape.appendInt(Event.EventType.CUSTOM, 1), 0);
 
+        TrackedIntArray arr = track(array);
+        for (int i = 0; i < arr.length(); i++) {
+            checkCancelled();
             // Highlight comparison line
-            timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() ->
-                    bus.post(new main.java.edu.tue.dsvis.core.event.Event(main.java.edu.tue.dsvis.core.event.Event.EventType.CUSTOM, new int[0], 2)), 0));
-
-            timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() ->
-                    bus.post(main.java.edu.tue.dsvis.core.event.Event.compare(index)), 16));
+            play(line2, 0);
 
-            if (array[i] == target) {
+            if (arr.compareTo(i, target, 16) == 0) {
                 // Highlight found line
-                timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() ->
-                        bus.post(new main.java.edu.tue.dsvis.core.event.Event(main.java.edu.tue.dsvis.core.event.Event.EventType.CUSTOM, new int[0], 3)), 0));
+                play(tape.appendInt(Event.EventType.CUSTOM, 3), 0);
 
-                timeline.addFrame(new main.java.edu.tue.dsvis.core.animation.Frame(() ->
-                        bus.post(main.java.edu.tue.dsvis.core.event.Event.visit(index)), 300));
+                play(tape.append(Event.EventType.VISIT, i), 300);
                 break;
             }
         }
     }
-} 
\ No newline at end of file
+}
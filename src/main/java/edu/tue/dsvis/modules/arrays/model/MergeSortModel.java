@@ -1,17 +1,22 @@
 package main.java.edu.tue.dsvis.modules.arrays.model;
 
-import main.java.edu.tue.dsvis.core.animation.Frame;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
 
 /**
- * Top-down recursive merge sort model. Emits SPLIT/MERGE events for the
- * recursion tree and SET_VALUE/COMPARE events for the array visualisation.
+ * Top-down recursive merge sort model. Schedules SPLIT/MERGE frames for the
+ * recursion tree and SET_VALUE/COMPARE frames for the array visualisation.
  */
 public final class MergeSortModel extends Model {
 
     private final int[] a;
     private final int[] aux;
+    private TrackedIntArray arr, scratch; // a and aux, counted; set by run()
+    private boolean showLines, silent; // set by run(); silent: merges play no frames
+
+    private static final int LINE_COUNT = 19; // lines in merge_sort.txt
+    private int[] lines;
 
     public MergeSortModel(ModelContext ctx, int[] array) {
         super(ctx);
@@ -21,99 +26,109 @@ public final class MergeSortModel extends Model {
 
     @Override
     public void run() {
-        timeline.reset();
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(1)), 0)); // header
+        // Pseudocode line entries are recorded once and replayed by position.
+        lines = new int[LINE_COUNT + 1];
+        for (int ln = 1; ln <= LINE_COUNT; ln++) {
+            lines[ln] = tape.append(Event.EventType.LINE, ln);
+        }
+        arr = track(a);
+        scratch = track(aux);
+        showLines = wants(Event.EventType.LINE);
+        silent = !arr.isEmitting() && !showLines;
+        play(lines[1], 0); // header
         mergeSort(0, a.length - 1);
         // final highlight
-        timeline.addFrame(new Frame(() -> bus.post(Event.highlightRange(0, a.length-1)), 100));
+        play(tape.append(Event.EventType.HIGHLIGHT_RANGE, 0, a.length - 1), 100);
     }
 
     private void mergeSort(int l, int r) {
         if (l >= r) return;
         int mid = (l + r) / 2;
 
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(2)), 0)); // if check
+        line(2, 0); // if check
 
         // SPLIT event for RecursionTreePanel
-        bus.post(Event.split(l, r));
+        if (wants(Event.EventType.SPLIT)) {
+            play(tape.append(Event.EventType.SPLIT, l, r), 0);
+        }
 
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(3)), 30)); // compute mid
+        line(3, 30); // compute mid
 
+        line(4, 0);
         mergeSort(l, mid);
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(4)), 0));
-        mergeSort(l, mid);
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(5)), 0));
+        line(5, 0);
         mergeSort(mid + 1, r);
 
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(6)), 0));
+        line(6, 0);
 
         merge(l, mid, r);
 
         // MERGE event
-        bus.post(Event.merge(l, r));
+        if (wants(Event.EventType.MERGE)) {
+            play(tape.append(Event.EventType.MERGE, l, r), 0);
+        }
     }
 
     private void merge(int l, int m, int r) {
+        checkCancelled();
         // line 8
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(8)), 0));
+        line(8, 0);
 
         // copy to aux
-        System.arraycopy(a, l, aux, l, r - l + 1);
+        arr.copyTo(l, scratch, l, r - l + 1);
 
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(10)), 0));
+        line(10, 0);
 
         int i = l, j = m + 1, k = l;
-        timeline.addFrame(new Frame(() -> bus.post(Event.line(11)), 0));
+        line(11, 0);
+        if (silent) {
+            mergeSilently(l, m, r);
+            return;
+        }
+        int pickDelay = (a.length > 64) ? 0 : 30;
+        int drainDelay = (a.length > 64) ? 0 : 20;
+        boolean showCompares = wants(Event.EventType.COMPARE);
         while (i <= m && j <= r) {
-            int ii = i, jj = j, kk = k; // effectively final for lambdas
-            timeline.addFrame(Frame.blink(() -> {
-                bus.post(Event.line(12));
-                bus.post(Event.compare(ii));
-                bus.post(Event.compare(jj));
-            }));
-
-            if (aux[i] <= aux[j]) {
-                int val = aux[i++];
-                int dst = k;
-                a[dst] = val; // mutate immediately
-                timeline.addFrame(new Frame(() -> {
-                    bus.post(Event.line(17));
-                    bus.post(new Event(Event.EventType.SET_VALUE, new int[]{dst}, val));
-                }, (a.length>64)?0:30));
+            if (showCompares) line(12, 0);
+            // scratch flashes i and j, then arr shows the pick
+            if (scratch.compare(i, j) <= 0) {
+                line(17, 0);
+                arr.set(k, scratch.get(i++), pickDelay);
             } else {
-                int val = aux[j++];
-                int dst = k;
-                a[dst] = val;
-                timeline.addFrame(new Frame(() -> {
-                    bus.post(Event.line(19));
-                    bus.post(new Event(Event.EventType.SET_VALUE, new int[]{dst}, val));
-                }, (a.length>64)?0:30));
+                line(19, 0);
+                arr.set(k, scratch.get(j++), pickDelay);
             }
             k++;
         }
 
         // copy remaining left side (lines 14-15)
         while (i <= m) {
-            int val = aux[i++];
-            int dst = k;
-            a[dst] = val;
-            timeline.addFrame(new Frame(() -> {
-                bus.post(Event.line(14));
-                bus.post(new Event(Event.EventType.SET_VALUE, new int[]{dst}, val));
-            }, (a.length>64)?0:20));
-            k++;
+            line(14, 0);
+            arr.set(k++, scratch.get(i++), drainDelay);
         }
 
         // copy remaining right side (lines 12-13 case)
         while (j <= r) {
-            int val = aux[j++];
-            int dst = k;
-            a[dst] = val;
-            timeline.addFrame(new Frame(() -> {
-                bus.post(Event.line(12));
-                bus.post(new Event(Event.EventType.SET_VALUE, new int[]{dst}, val));
-            }, (a.length>64)?0:20));
-            k++;
+            line(12, 0);
+            arr.set(k++, scratch.get(j++), drainDelay);
+        }
+    }
+
+    /** Plays pseudocode line {@code ln}; a line without delay only if someone shows lines. */
+    private void line(int ln, int delayMs) {
+        if (showLines || delayMs > 0) play(lines[ln], delayMs);
+    }
+
+    /** The merge loop without frames, counted once per merge. */
+    private void mergeSilently(int l, int m, int r) {
+        int i = l, j = m + 1, k = l;
+        long compares = 0;
+        while (i <= m && j <= r) {
+            compares++;
+            arr.poke(k++, scratch.peek(i) <= scratch.peek(j) ? scratch.peek(i++) : scratch.peek(j++));
         }
+        while (i <= m) arr.poke(k++, scratch.peek(i++));
+        while (j <= r) arr.poke(k++, scratch.peek(j++));
+        arr.count(r - l + 1, r - l + 1, compares, 0);
     }
-} 
\ No newline at end of file
+}
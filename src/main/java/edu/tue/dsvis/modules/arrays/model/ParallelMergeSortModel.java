@@ -0,0 +1,431 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.modules.arrays.event.Speedup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Merge sort on a {@link ForkJoinPool}: both halves are sorted in parallel
+ * and merged by a parallel merge that splits the larger run at its middle
+ * and the other run by binary search, so the merges do not serialise the
+ * top of the recursion. Ranges of at most {@code cutoff} elements are
+ * sorted or merged sequentially.
+ *
+ * <p>The sort runs at full speed on the pool while the workers trace what
+ * they did; the frames are played afterwards on the model thread, one
+ * SPLIT/MERGE per traced range and one worker-coloured range write per
+ * merge piece, never one frame per element. SPLIT, MERGE and
+ * HIGHLIGHT_RANGE carry the worker (numbered from 0 in order of
+ * appearance) as an {@code Integer} payload. Above
+ * {@link #SNAPSHOT_LIMIT} elements the values are shown once, at the end.</p>
+ *
+ * <p>When a {@code CUSTOM} subscriber is present the model finally times
+ * the same sort sequentially and on 2, 4, ... workers, and plays the
+ * result as a {@link Speedup} payload.</p>
+ */
+public final class ParallelMergeSortModel extends Model {
+
+    /** Largest input whose intermediate values are copied for playback. */
+    public static final int SNAPSHOT_LIMIT = 1 << 16;
+
+    /** Most ranges traced below the root; smaller ranges fold into their traced ancestor. */
+    private static final int MAX_TRACED = 1 << 10;
+
+    /** Most merge pieces shown across one level; smaller pieces fold into one. */
+    private static final int MAX_PIECES = 64;
+
+    private static final int SPLIT_DELAY_MS = 60;
+    private static final int PIECE_DELAY_MS = 120;
+    private static final int MERGE_DELAY_MS = 200;
+
+    private final int[] a;
+    private final ForkJoinPool pool;
+    private final int cutoff;
+    private volatile boolean aborted;
+    private boolean speedupSweep = true;
+    private Speedup speedup;
+
+    // Set by run()
+    private int[] aux;
+    private boolean snapshots;
+    private int traceGrain;
+    private int pieceGrain;
+    private final Map<Integer, Integer> workerIds = new HashMap<>(); // pool index -> shown worker
+
+    /** Sorts on the common pool with {@link #defaultCutoff(int, int)}. */
+    public ParallelMergeSortModel(ModelContext ctx, int[] array) {
+        this(ctx, array, ForkJoinPool.commonPool(),
+                defaultCutoff(array.length, ForkJoinPool.commonPool().getParallelism()));
+    }
+
+    /**
+     * @param pool   runs the sort; also the widest point of the speedup sweep
+     * @param cutoff ranges of at most this many elements are sorted and
+     *               merged sequentially
+     */
+    public ParallelMergeSortModel(ModelContext ctx, int[] array, ForkJoinPool pool, int cutoff) {
+        super(ctx);
+        if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive");
+        this.a = array;
+        this.pool = pool;
+        this.cutoff = cutoff;
+    }
+
+    /** About eight leaves per worker, and no fewer than four elements per leaf. */
+    public static int defaultCutoff(int n, int parallelism) {
+        return Math.max(4, n / (8 * Math.max(1, parallelism)));
+    }
+
+    public int getCutoff() {
+        return cutoff;
+    }
+
+    /** Whether {@link #run()} ends with the speedup sweep, if it has a {@code CUSTOM} subscriber. */
+    public void setSpeedupSweep(boolean on) {
+        this.speedupSweep = on;
+    }
+
+    /** @return the speedups measured by the last run, or null */
+    public Speedup getSpeedup() {
+        return speedup;
+    }
+
+    @Override
+    public void run() {
+        int n = a.length;
+        aborted = false;
+        workerIds.clear();
+        speedup = null;
+        if (n == 0) return;
+        aux = new int[n];
+        snapshots = n <= SNAPSHOT_LIMIT && wants(Event.EventType.SET_VALUE);
+        traceGrain = Math.max(1, n / MAX_TRACED);
+        pieceGrain = Math.max(1, n / MAX_PIECES);
+        int[] input = speedupSweep && wants(Event.EventType.CUSTOM) ? a.clone() : null;
+
+        SortTask root = new SortTask(0, n - 1, true, true);
+        invoke(pool, root);
+        replay(root.node);
+        if (!snapshots && wants(Event.EventType.SET_VALUE)) {
+            play(tape.appendRef(Event.EventType.SET_VALUE, 0, n - 1, a.clone()), MERGE_DELAY_MS);
+        }
+        if (input != null) {
+            speedup = measureSpeedup(input);
+            play(tape.appendRef(Event.EventType.CUSTOM, speedup), 0);
+        }
+        play(tape.append(Event.EventType.HIGHLIGHT_RANGE, 0, n - 1), 100);
+    }
+
+    /** Also stops the pool's tasks, which do not see the model thread's interrupt. */
+    @Override
+    public void cancel() {
+        aborted = true;
+        super.cancel();
+    }
+
+    private void invoke(ForkJoinPool p, RecursiveAction task) {
+        try {
+            p.invoke(task);
+        } catch (CancellationException e) {
+            checkCancelled();
+            throw e;
+        }
+    }
+
+    // Playback
+
+    private void replay(Node node) {
+        checkCancelled();
+        boolean tree = wants(Event.EventType.SPLIT);
+        if (node.left != null) {
+            if (tree) play(tape.appendInt(Event.EventType.SPLIT, node.l, node.r, worker(node.worker)), SPLIT_DELAY_MS);
+            replay(node.left);
+            replay(node.right);
+        }
+        ops.add(node.moves, node.moves, node.compares, 0);
+        if (node.pieces == null) {
+            show(node.l, node.r - node.l + 1, node.worker, node);
+        } else {
+            for (Piece p : node.pieces) show(p.to, p.length, p.worker, node);
+        }
+        if (wants(Event.EventType.MERGE)) {
+            int merge = tape.appendInt(Event.EventType.MERGE, node.l, node.r, worker(node.worker));
+            if (wants(Event.EventType.CUSTOM)) play(tape.appendLong(Event.EventType.CUSTOM, ops.getCost()), merge, MERGE_DELAY_MS);
+            else play(merge, MERGE_DELAY_MS);
+        }
+    }
+
+    /** Colours {@code [from, from + length)} and, with snapshots, writes its values in the same frame. */
+    private void show(int from, int length, int worker, Node node) {
+        int color = tape.appendInt(Event.EventType.HIGHLIGHT_RANGE, from, from + length - 1, worker(worker));
+        if (node.values == null) {
+            play(color, PIECE_DELAY_MS);
+            return;
+        }
+        int[] slice = Arrays.copyOfRange(node.values, from - node.l, from - node.l + length);
+        play(color, tape.appendRef(Event.EventType.SET_VALUE, from, from + length - 1, slice), PIECE_DELAY_MS);
+    }
+
+    /** Numbers pool workers 0, 1, ... in order of appearance; -1 stays unknown. */
+    private int worker(int poolIndex) {
+        if (poolIndex < 0) return -1;
+        return workerIds.computeIfAbsent(poolIndex, k -> workerIds.size());
+    }
+
+    private static int currentWorker() {
+        return Thread.currentThread() instanceof ForkJoinWorkerThread w ? w.getPoolIndex() : -1;
+    }
+
+    // Speedup
+
+    /**
+     * Best of a few runs of the whole sort per worker count, without
+     * tracing. One worker is the sequential merge sort.
+     */
+    private Speedup measureSpeedup(int[] input) {
+        int p = pool.getParallelism();
+        List<Integer> counts = new ArrayList<>();
+        counts.add(1);
+        for (int k = 2; k < p; k *= 2) counts.add(k);
+        if (p > 1) counts.add(p);
+        int repeats = input.length <= 1 << 20 ? 3 : 1;
+        int[] workers = new int[counts.size()];
+        long[] nanos = new long[counts.size()];
+        boolean savedSnapshots = snapshots;
+        snapshots = false;
+        try {
+            for (int c = 0; c < counts.size(); c++) {
+                int k = counts.get(c);
+                ForkJoinPool fj = k == 1 || k == p ? pool : new ForkJoinPool(k);
+                try {
+                    long best = Long.MAX_VALUE;
+                    for (int rep = 0; rep < repeats; rep++) {
+                        checkCancelled();
+                        System.arraycopy(input, 0, a, 0, input.length);
+                        long t0 = System.nanoTime();
+                        if (k == 1) new SortTask(0, a.length - 1, true, false).sequential();
+                        else invoke(fj, new SortTask(0, a.length - 1, true, false));
+                        best = Math.min(best, System.nanoTime() - t0);
+                    }
+                    workers[c] = k;
+                    nanos[c] = best;
+                } finally {
+                    if (fj != pool) fj.shutdown();
+                }
+            }
+        } finally {
+            snapshots = savedSnapshots;
+        }
+        return new Speedup(workers, nanos);
+    }
+
+    // Trace
+
+    /** A sorted range: traced children, or none if it was a leaf or its children were not traced. */
+    private static final class Node {
+        final int l, r;
+        int worker;              // pool index that split, or sorted the leaf
+        Node left, right;
+        long compares, moves;    // of this node's merge; of the whole range for a leaf
+        List<Piece> pieces;      // of the merge, in output order; null for a leaf
+        int[] values;            // sorted range, with snapshots
+
+        Node(int l, int r) {
+            this.l = l;
+            this.r = r;
+        }
+    }
+
+    /** {@code length} merged elements written from {@code to} on by one worker. */
+    private record Piece(int to, int length, int worker) {}
+
+    private void checkAborted() {
+        if (aborted) throw new CancellationException("model cancelled");
+    }
+
+    /** Sorts {@code a[l..r]} into {@code a} or, alternating by level, into {@code aux}. */
+    private final class SortTask extends RecursiveAction {
+        final int l, r;
+        final boolean intoA;
+        final boolean traced;
+        Node node;
+        long compares, moves;
+
+        SortTask(int l, int r, boolean intoA, boolean traced) {
+            this.l = l;
+            this.r = r;
+            this.intoA = intoA;
+            this.traced = traced;
+        }
+
+        @Override
+        protected void compute() {
+            checkAborted();
+            int worker = currentWorker();
+            if (r - l + 1 <= cutoff) {
+                sequential();
+                if (traced) node = node(worker);
+                return;
+            }
+            int mid = (l + r) / 2;
+            boolean traceChildren = traced && mid - l + 1 >= traceGrain;
+            SortTask left = new SortTask(l, mid, !intoA, traceChildren);
+            SortTask right = new SortTask(mid + 1, r, !intoA, traceChildren);
+            invokeAll(left, right);
+            int[] src = intoA ? aux : a;
+            MergeTask merge = new MergeTask(src, intoA ? a : aux, l, mid, mid + 1, r, l, traceChildren);
+            merge.invoke();
+            compares = left.compares + right.compares + merge.compares;
+            moves = left.moves + right.moves + merge.moves;
+            if (!traced) return;
+            node = node(worker);
+            if (traceChildren) {
+                node.left = left.node;
+                node.right = right.node;
+                node.compares = merge.compares;
+                node.moves = merge.moves;
+                node.pieces = merge.pieces;
+            }
+        }
+
+        private Node node(int worker) {
+            Node n = new Node(l, r);
+            n.worker = worker;
+            n.compares = compares;
+            n.moves = moves;
+            if (snapshots) n.values = Arrays.copyOfRange(intoA ? a : aux, l, r + 1);
+            return n;
+        }
+
+        /** Top-down merge sort of {@code a[l..r]} in this thread, then the copy to {@code aux} if needed. */
+        void sequential() {
+            sort(l, r);
+            if (!intoA) {
+                System.arraycopy(a, l, aux, l, r - l + 1);
+                moves += r - l + 1;
+            }
+        }
+
+        private void sort(int lo, int hi) {
+            if (lo >= hi) return;
+            int mid = (lo + hi) / 2;
+            sort(lo, mid);
+            sort(mid + 1, hi);
+            compares++;
+            if (a[mid] <= a[mid + 1]) return; // already in order
+            System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+            int i = lo, j = mid + 1;
+            for (int k = lo; k <= hi; k++) {
+                if (i > mid) a[k] = aux[j++];
+                else if (j > hi) a[k] = aux[i++];
+                else {
+                    compares++;
+                    a[k] = aux[i] <= aux[j] ? aux[i++] : aux[j++];
+                }
+            }
+            moves += 2L * (hi - lo + 1);
+        }
+    }
+
+    /**
+     * Merges {@code src[l1..r1]} and {@code src[l2..r2]} into {@code dst}
+     * from {@code to} on: the middle element of the longer run is placed
+     * directly, the runs are split around it and both sides merged in
+     * parallel.
+     */
+    private final class MergeTask extends RecursiveAction {
+        final int[] src, dst;
+        final int l1, r1, l2, r2, to;
+        final boolean traced;
+        List<Piece> pieces;
+        long compares, moves;
+
+        MergeTask(int[] src, int[] dst, int l1, int r1, int l2, int r2, int to, boolean traced) {
+            this.src = src;
+            this.dst = dst;
+            this.l1 = l1;
+            this.r1 = r1;
+            this.l2 = l2;
+            this.r2 = r2;
+            this.to = to;
+            this.traced = traced;
+            if (traced) pieces = new ArrayList<>();
+        }
+
+        @Override
+        protected void compute() {
+            checkAborted();
+            int n1 = r1 - l1 + 1, n2 = r2 - l2 + 1;
+            if (n1 < n2) {
+                MergeTask swapped = new MergeTask(src, dst, l2, r2, l1, r1, to, traced);
+                swapped.compute();
+                pieces = swapped.pieces;
+                compares = swapped.compares;
+                moves = swapped.moves;
+                return;
+            }
+            if (n1 == 0) return;
+            if (traced && n1 + n2 <= pieceGrain && n1 + n2 > cutoff) {
+                MergeTask whole = new MergeTask(src, dst, l1, r1, l2, r2, to, false);
+                whole.compute();
+                compares = whole.compares;
+                moves = whole.moves;
+                pieces.add(new Piece(to, n1 + n2, currentWorker()));
+                return;
+            }
+            if (n1 + n2 <= cutoff) {
+                sequential();
+                if (traced) pieces.add(new Piece(to, n1 + n2, currentWorker()));
+                return;
+            }
+            int q1 = (l1 + r1) >>> 1;
+            int q2 = lowerBound(src[q1]);
+            int q3 = to + (q1 - l1) + (q2 - l2);
+            dst[q3] = src[q1];
+            moves++;
+            MergeTask low = new MergeTask(src, dst, l1, q1 - 1, l2, q2 - 1, to, traced);
+            MergeTask high = new MergeTask(src, dst, q1 + 1, r1, q2, r2, q3 + 1, traced);
+            invokeAll(low, high);
+            compares += low.compares + high.compares;
+            moves += low.moves + high.moves;
+            if (traced) {
+                pieces.addAll(low.pieces);
+                pieces.add(new Piece(q3, 1, currentWorker()));
+                pieces.addAll(high.pieces);
+            }
+        }
+
+        /** @return the first index in {@code [l2, r2 + 1]} whose element is not below {@code key} */
+        private int lowerBound(int key) {
+            int lo = l2, hi = r2 + 1;
+            while (lo < hi) {
+                int m = (lo + hi) >>> 1;
+                compares++;
+                if (src[m] < key) lo = m + 1;
+                else hi = m;
+            }
+            return lo;
+        }
+
+        private void sequential() {
+            int i = l1, j = l2, k = to;
+            while (i <= r1 && j <= r2) {
+                compares++;
+                dst[k++] = src[i] <= src[j] ? src[i++] : src[j++];
+            }
+            while (i <= r1) dst[k++] = src[i++];
+            while (j <= r2) dst[k++] = src[j++];
+            moves += k - to;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Pivot choice of the {@link QuickSortModel}s. The comparisons made to
+ * choose count like any other.
+ */
+public enum PivotStrategy {
+
+    /** The first element: quadratic on sorted input without the depth limit. */
+    FIRST,
+    /** A uniformly random element, from the model's seeded generator. */
+    RANDOM,
+    /** The median of the first, middle and last element. */
+    MEDIAN_OF_3,
+    /**
+     * Tukey's ninther, the median of three medians of three over nine
+     * evenly spaced elements; {@link #MEDIAN_OF_3} below
+     * {@value #NINTHER_MIN} elements.
+     */
+    NINTHER;
+
+    static final int NINTHER_MIN = 40;
+
+    /** @return the index of the pivot within {@code [lo, hi]} */
+    int choose(TrackedIntArray a, int lo, int hi, Random random) {
+        int n = hi - lo + 1;
+        return switch (this) {
+            case FIRST -> lo;
+            case RANDOM -> lo + random.nextInt(n);
+            case MEDIAN_OF_3 -> median(a, lo, lo + n / 2, hi);
+            case NINTHER -> {
+                if (n < NINTHER_MIN) yield median(a, lo, lo + n / 2, hi);
+                int s = n / 8, mid = lo + n / 2;
+                yield median(a,
+                        median(a, lo, lo + s, lo + 2 * s),
+                        median(a, mid - s, mid, mid + s),
+                        median(a, hi - 2 * s, hi - s, hi));
+            }
+        };
+    }
+
+    /** @return the one of {@code i}, {@code j}, {@code k} holding the median value */
+    private static int median(TrackedIntArray a, int i, int j, int k) {
+        if (a.compare(i, j) < 0) {
+            if (a.compare(j, k) < 0) return j;
+            return a.compare(i, k) < 0 ? k : i;
+        }
+        if (a.compare(j, k) > 0) return j;
+        return a.compare(i, k) > 0 ? k : i;
+    }
+
+    /** @return the display spelling, e.g. {@code median-of-3} */
+    public String label() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,430 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
+
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Introsort-style quicksort with a choice of partition {@link Scheme} and
+ * {@link PivotStrategy}. Ranges of at most {@code cutoff} elements are left
+ * to insertion sort; a range still being partitioned after
+ * {@code 2 * floor(log2 n)} levels is heapsorted instead, so every scheme
+ * and strategy stays O(n log n). Only the smaller parts are sorted
+ * recursively and the largest is looped on, which bounds the recursion
+ * depth by {@code log2 n} on any input.
+ *
+ * <p>All accesses go through a {@link TrackedIntArray}: compares, swaps
+ * and writes are counted and played as their own frames. When the array
+ * plays none, the partition scans and the insertion sort run on the bare
+ * elements and are counted once per range. Each partition
+ * step flashes its range as a HIGHLIGHT_RANGE and the pivot as a VISIT;
+ * the driver's pseudocode lines are {@code CUSTOM} entries.</p>
+ */
+public final class QuickSortModel extends Model {
+
+    /** How a range is split around its pivot(s). */
+    public enum Scheme {
+        /** Pivot moved to the end, one scan from the left; two parts. */
+        LOMUTO("Lomuto"),
+        /** Two scans towards each other around the pivot value; two parts. */
+        HOARE("Hoare"),
+        /** Dijkstra's Dutch national flag: less, equal, greater; equal keys are done. */
+        THREE_WAY("3-way"),
+        /** Yaroslavskiy's two pivots as in the JDK: three parts. */
+        DUAL_PIVOT("Dual-Pivot");
+
+        private final String label;
+
+        Scheme(String label) {
+            this.label = label;
+        }
+
+        /** @return the name used in the model registries, e.g. {@code Quick Sort (Hoare)} */
+        public String displayName() {
+            return "Quick Sort (" + label + ")";
+        }
+    }
+
+    private static final int LINE_COUNT = 10; // lines in quick_sort.txt
+    private static final long DEFAULT_SEED = 42;
+
+    private final int[] a;
+    private final Scheme scheme;
+    private final PivotStrategy pivots;
+    private final int cutoff;
+    private final Random random;
+
+    // Set by run()
+    private TrackedIntArray arr;
+    private int[] lines;
+    private boolean showRanges, showPivots;
+    private boolean silent; // the array plays no frames
+    private final int[] parts = new int[6]; // lo, hi of up to three parts, from partition()
+    private int partCount;
+    // lo, hi of the parts still to recurse into, two per level; a recursed part
+    // is at most half its range, so there are fewer than 32 levels
+    private final int[] pending = new int[4 * 32];
+    private int pendingTop;
+
+    /** Median-of-3 pivots (ninthers from 40 elements) and {@link #defaultCutoff(int)}. */
+    public QuickSortModel(ModelContext ctx, int[] array, Scheme scheme) {
+        this(ctx, array, scheme, PivotStrategy.NINTHER, defaultCutoff(array.length));
+    }
+
+    /**
+     * @param cutoff ranges of at most this many elements are insertion
+     *               sorted; at least 1
+     */
+    public QuickSortModel(ModelContext ctx, int[] array, Scheme scheme, PivotStrategy pivots, int cutoff) {
+        super(ctx);
+        if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive");
+        this.a = array;
+        this.scheme = Objects.requireNonNull(scheme, "scheme");
+        this.pivots = Objects.requireNonNull(pivots, "pivots");
+        this.cutoff = cutoff;
+        this.random = new Random(DEFAULT_SEED);
+    }
+
+    /** 16, or 4 below 128 elements so that small arrays still show partitions. */
+    public static int defaultCutoff(int n) {
+        return n < 128 ? 4 : 16;
+    }
+
+    @Override
+    public void run() {
+        lines = new int[LINE_COUNT + 1];
+        for (int ln = 1; ln <= LINE_COUNT; ln++) lines[ln] = tape.appendInt(Event.EventType.CUSTOM, ln);
+        int n = a.length;
+        arr = track(a);
+        if (n > 64) arr.setDelays(16, 0, 0);
+        showRanges = wants(Event.EventType.HIGHLIGHT_RANGE);
+        showPivots = wants(Event.EventType.VISIT);
+        silent = !arr.isEmitting();
+        random.setSeed(DEFAULT_SEED); // the same counts on every run
+        pendingTop = 0;
+        if (n == 0) return;
+        sort(0, n - 1, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+        play(tape.append(Event.EventType.HIGHLIGHT_RANGE, 0, n - 1), 100);
+    }
+
+    /** Sorts {@code [lo, hi]}, heapsorting once {@code depth} more partitions would be needed. */
+    private void sort(int lo, int hi, int depth) {
+        play(lines[1], 0);
+        while (hi - lo + 1 > cutoff) {
+            checkCancelled();
+            play(lines[2], 0);
+            if (depth == 0) {
+                play(lines[4], 0);
+                heapSort(lo, hi);
+                return;
+            }
+            depth--;
+            if (showRanges) play(tape.append(Event.EventType.HIGHLIGHT_RANGE, lo, hi), 100);
+            play(lines[6], 0);
+            int pivot = pivots.choose(arr, lo, hi, random);
+            if (showPivots) play(tape.append(Event.EventType.VISIT, pivot), 200);
+            play(lines[7], 0);
+            partition(lo, hi, pivot);
+
+            int largest = 0;
+            for (int k = 1; k < partCount; k++) {
+                if (size(k) > size(largest)) largest = k;
+            }
+            int nextLo = parts[2 * largest], nextHi = parts[2 * largest + 1];
+            int base = pendingTop;
+            for (int k = 0; k < partCount; k++) {
+                if (k == largest) continue;
+                pending[pendingTop++] = parts[2 * k];
+                pending[pendingTop++] = parts[2 * k + 1];
+            }
+            int end = pendingTop;
+            for (int o = base; o < end; o += 2) {
+                if (pending[o] < pending[o + 1]) {
+                    play(lines[8], 0);
+                    sort(pending[o], pending[o + 1], depth);
+                }
+            }
+            pendingTop = base;
+            play(lines[9], 0);
+            lo = nextLo;
+            hi = nextHi;
+        }
+        play(lines[10], 0);
+        insertionSort(lo, hi);
+    }
+
+    private int size(int part) {
+        return parts[2 * part + 1] - parts[2 * part] + 1;
+    }
+
+    private void part(int lo, int hi) {
+        parts[2 * partCount] = lo;
+        parts[2 * partCount + 1] = hi;
+        partCount++;
+    }
+
+    // Partition schemes; each fills parts with the ranges still to sort
+
+    private void partition(int lo, int hi, int pivot) {
+        partCount = 0;
+        if (silent) {
+            switch (scheme) {
+                case LOMUTO -> lomutoSilently(lo, hi, pivot);
+                case HOARE -> hoareSilently(lo, hi, pivot);
+                case THREE_WAY -> threeWaySilently(lo, hi, pivot);
+                case DUAL_PIVOT -> dualPivotSilently(lo, hi, pivot);
+            }
+            return;
+        }
+        switch (scheme) {
+            case LOMUTO -> lomuto(lo, hi, pivot);
+            case HOARE -> hoare(lo, hi, pivot);
+            case THREE_WAY -> threeWay(lo, hi, pivot);
+            case DUAL_PIVOT -> dualPivot(lo, hi, pivot);
+        }
+    }
+
+    private void lomuto(int lo, int hi, int pivot) {
+        arr.swap(pivot, hi);
+        int i = lo;
+        for (int j = lo; j < hi; j++) {
+            if (arr.compare(j, hi) < 0) arr.swap(i++, j);
+        }
+        arr.swap(i, hi);
+        part(lo, i - 1);
+        part(i + 1, hi);
+    }
+
+    /** Hoare's original scans; the pivot value at {@code lo} keeps both scans in range. */
+    private void hoare(int lo, int hi, int pivot) {
+        arr.swap(pivot, lo);
+        int p = arr.get(lo);
+        int i = lo - 1, j = hi + 1;
+        while (true) {
+            do i++; while (arr.compareTo(i, p) < 0);
+            do j--; while (arr.compareTo(j, p) > 0);
+            if (i >= j) break;
+            arr.swap(i, j);
+        }
+        part(lo, j);
+        part(j + 1, hi);
+    }
+
+    private void threeWay(int lo, int hi, int pivot) {
+        arr.swap(pivot, lo);
+        int p = arr.get(lo);
+        int lt = lo, i = lo + 1, gt = hi;
+        while (i <= gt) {
+            int c = arr.compareTo(i, p);
+            if (c < 0) arr.swap(lt++, i++);
+            else if (c > 0) arr.swap(i, gt--);
+            else i++;
+        }
+        part(lo, lt - 1);
+        part(gt + 1, hi);
+    }
+
+    /**
+     * Yaroslavskiy's partition. The strategy picks one pivot in each half
+     * of the range, standing in for the JDK's second and fourth of five
+     * sorted samples; the smaller becomes P, the larger Q.
+     */
+    private void dualPivot(int lo, int hi, int pivot) {
+        int mid = (lo + hi) >>> 1;
+        int p1 = pivot <= mid ? pivot : pivots.choose(arr, lo, mid, random);
+        int p2 = pivot > mid ? pivot : pivots.choose(arr, mid + 1, hi, random);
+        arr.swap(p1, lo);
+        arr.swap(p2, hi);
+        if (arr.compare(lo, hi) > 0) arr.swap(lo, hi);
+        int p = arr.get(lo), q = arr.get(hi);
+
+        int lt = lo + 1, gt = hi - 1;
+        for (int k = lt; k <= gt; k++) {
+            if (arr.compareTo(k, p) < 0) {
+                arr.swap(k, lt++);
+            } else if (arr.compareTo(k, q) > 0) {
+                while (k < gt && arr.compareTo(gt, q) > 0) gt--;
+                arr.swap(k, gt--);
+                if (arr.compareTo(k, p) < 0) arr.swap(k, lt++);
+            }
+        }
+        lt--;
+        gt++;
+        arr.swap(lo, lt);
+        arr.swap(hi, gt);
+        part(lo, lt - 1);
+        if (p != q) part(lt + 1, gt - 1); // equal pivots: the middle holds only their value
+        part(gt + 1, hi);
+    }
+
+    // The same scans on the bare elements, counted once per partition
+
+    private void lomutoSilently(int lo, int hi, int pivot) {
+        arr.swap(pivot, hi);
+        int p = arr.peek(hi);
+        int i = lo;
+        long swaps = 0;
+        for (int j = lo; j < hi; j++) {
+            if (arr.peek(j) < p) {
+                exchange(i++, j);
+                swaps++;
+            }
+        }
+        arr.count(0, 0, hi - lo, swaps);
+        arr.swap(i, hi);
+        part(lo, i - 1);
+        part(i + 1, hi);
+    }
+
+    private void hoareSilently(int lo, int hi, int pivot) {
+        arr.swap(pivot, lo);
+        int p = arr.get(lo);
+        int i = lo - 1, j = hi + 1;
+        long compares = 0, swaps = 0;
+        while (true) {
+            do {
+                i++;
+                compares++;
+            } while (arr.peek(i) < p);
+            do {
+                j--;
+                compares++;
+            } while (arr.peek(j) > p);
+            if (i >= j) break;
+            exchange(i, j);
+            swaps++;
+        }
+        arr.count(0, 0, compares, swaps);
+        part(lo, j);
+        part(j + 1, hi);
+    }
+
+    private void threeWaySilently(int lo, int hi, int pivot) {
+        arr.swap(pivot, lo);
+        int p = arr.get(lo);
+        int lt = lo, i = lo + 1, gt = hi;
+        long compares = 0, swaps = 0;
+        while (i <= gt) {
+            int v = arr.peek(i);
+            compares++;
+            if (v < p) {
+                exchange(lt++, i++);
+                swaps++;
+            } else if (v > p) {
+                exchange(i, gt--);
+                swaps++;
+            } else {
+                i++;
+            }
+        }
+        arr.count(0, 0, compares, swaps);
+        part(lo, lt - 1);
+        part(gt + 1, hi);
+    }
+
+    private void dualPivotSilently(int lo, int hi, int pivot) {
+        int mid = (lo + hi) >>> 1;
+        int p1 = pivot <= mid ? pivot : pivots.choose(arr, lo, mid, random);
+        int p2 = pivot > mid ? pivot : pivots.choose(arr, mid + 1, hi, random);
+        arr.swap(p1, lo);
+        arr.swap(p2, hi);
+        if (arr.compare(lo, hi) > 0) arr.swap(lo, hi);
+        int p = arr.get(lo), q = arr.get(hi);
+
+        int lt = lo + 1, gt = hi - 1;
+        long compares = 0, swaps = 0;
+        for (int k = lt; k <= gt; k++) {
+            int v = arr.peek(k);
+            compares++;
+            if (v < p) {
+                exchange(k, lt++);
+                swaps++;
+            } else {
+                compares++;
+                if (v > q) {
+                    while (k < gt) {
+                        compares++;
+                        if (arr.peek(gt) <= q) break;
+                        gt--;
+                    }
+                    exchange(k, gt--);
+                    swaps++;
+                    compares++;
+                    if (arr.peek(k) < p) {
+                        exchange(k, lt++);
+                        swaps++;
+                    }
+                }
+            }
+        }
+        arr.count(0, 0, compares, swaps);
+        lt--;
+        gt++;
+        arr.swap(lo, lt);
+        arr.swap(hi, gt);
+        part(lo, lt - 1);
+        if (p != q) part(lt + 1, gt - 1);
+        part(gt + 1, hi);
+    }
+
+    /** Swaps two elements, neither counted nor shown. */
+    private void exchange(int i, int j) {
+        int t = arr.peek(i);
+        arr.poke(i, arr.peek(j));
+        arr.poke(j, t);
+    }
+
+    // Fallbacks
+
+    private void insertionSort(int lo, int hi) {
+        if (silent) {
+            insertionSortSilently(lo, hi);
+            return;
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && arr.compare(j - 1, j) > 0; j--) arr.swap(j - 1, j);
+        }
+    }
+
+    /** Shifts instead of swaps; counts the swaps the tracked version makes. */
+    private void insertionSortSilently(int lo, int hi) {
+        long compares = 0, swaps = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            int v = arr.peek(i);
+            int j = i;
+            while (j > lo && arr.peek(j - 1) > v) {
+                arr.poke(j, arr.peek(j - 1));
+                j--;
+            }
+            arr.poke(j, v);
+            compares += j > lo ? i - j + 1 : i - j;
+            swaps += i - j;
+        }
+        arr.count(0, 0, compares, swaps);
+    }
+
+    /** In-place heapsort of {@code [lo, hi]}, the introsort bail-out. */
+    private void heapSort(int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) siftDown(lo, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            checkCancelled();
+            arr.swap(lo, lo + end);
+            siftDown(lo, 0, end);
+        }
+    }
+
+    private void siftDown(int base, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) return;
+            if (child + 1 < n && arr.compare(base + child + 1, base + child) > 0) child++;
+            if (arr.compare(base + child, base + i) <= 0) return;
+            arr.swap(base + i, base + child);
+            i = child;
+        }
+    }
+}
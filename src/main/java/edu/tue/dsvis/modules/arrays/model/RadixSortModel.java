@@ -0,0 +1,325 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
+import main.java.edu.tue.dsvis.modules.arrays.event.Histogram;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Non-comparison sorts over {@code int} keys: counting sort, LSD radix sort
+ * and MSD radix sort with a configurable digit width. Radix digits are
+ * taken from {@code v ^ Integer.MIN_VALUE}, which orders signed keys as
+ * unsigned ones, so negative keys need no extra pass.
+ *
+ * <p>MSD levels narrow the digit to at most {@code log2} of the range
+ * length, so a level never has more buckets than keys.</p>
+ *
+ * <p>Every pass counts the digits of its range, turns the counts into
+ * bucket starts and scatters the keys stably into a buffer. A pass whose
+ * digit is the same for every key is skipped after counting. Work is
+ * counted per pass into {@link #ops}: key reads and writes, counter
+ * updates as writes; only MSD's insertion sort below the cutoff compares
+ * (and counting sort's min/max scan, two compares per key); it too is
+ * counted once per range when the array plays no frames.</p>
+ *
+ * <p>Each pass plays its bucket counts as a {@link Histogram}
+ * {@code CUSTOM} payload and its result as one range write (SET_VALUE with
+ * an {@code int[]}). Small passes also show every element: a VISIT of the
+ * key paired with the histogram, its bucket highlighted. Above
+ * {@link #SNAPSHOT_LIMIT} elements only the sorted array is written, once.</p>
+ */
+public final class RadixSortModel extends Model {
+
+    /** Which sort runs. */
+    public enum Variant {
+        COUNTING("Counting Sort", "/pseudocode/counting_sort.txt"),
+        LSD("LSD Radix Sort", "/pseudocode/lsd_radix_sort.txt"),
+        MSD("MSD Radix Sort", "/pseudocode/msd_radix_sort.txt");
+
+        private final String displayName;
+        private final String pseudocode;
+
+        Variant(String displayName, String pseudocode) {
+            this.displayName = displayName;
+            this.pseudocode = pseudocode;
+        }
+
+        /** @return the name used in the model registries */
+        public String displayName() {
+            return displayName;
+        }
+
+        /** @return the classpath resource of the pseudocode */
+        public String pseudocode() {
+            return pseudocode;
+        }
+    }
+
+    /** Largest input whose passes are written out for playback. */
+    public static final int SNAPSHOT_LIMIT = 1 << 16;
+
+    /** Counting sort over a wider key range falls back to LSD radix sort. */
+    public static final int MAX_COUNTING_RANGE = 1 << 24;
+
+    /** Most buckets sent in a {@link Histogram}; wider passes play none. */
+    private static final int HISTOGRAM_LIMIT = 1 << 16;
+
+    /** Largest {@code elements * buckets} of a pass that plays a frame per element. */
+    private static final int ELEMENT_FRAMES_LIMIT = 1 << 14;
+
+    private static final int ELEMENT_DELAY_MS = 120;
+    private static final int PASS_DELAY_MS = 400;
+
+    private final int[] a;
+    private final Variant variant;
+    private final int bits;
+    private final int cutoff;
+
+    // Set by run()
+    private int[] aux;
+    private TrackedIntArray arr; // MSD's insertion sort only
+    private boolean silent; // arr plays no frames
+    private boolean snapshots;
+    private boolean showHistograms;
+    private boolean showElements;
+    private int[] lines;
+
+    /** 8-bit digits and an MSD insertion-sort cutoff of 16. */
+    public RadixSortModel(ModelContext ctx, int[] array, Variant variant) {
+        this(ctx, array, variant, 8, 16);
+    }
+
+    /**
+     * @param bits   digit width of the radix sorts, 1 to 16 (8, 11 and 16
+     *               give 4, 3 and 2 passes)
+     * @param cutoff MSD ranges of at most this many keys are insertion sorted
+     */
+    public RadixSortModel(ModelContext ctx, int[] array, Variant variant, int bits, int cutoff) {
+        super(ctx);
+        if (bits < 1 || bits > 16) throw new IllegalArgumentException("bits must be between 1 and 16");
+        if (cutoff < 1) throw new IllegalArgumentException("cutoff must be positive");
+        this.a = array;
+        this.variant = Objects.requireNonNull(variant, "variant");
+        this.bits = bits;
+        this.cutoff = cutoff;
+    }
+
+    /** The signed-key transform: {@code Integer.compareUnsigned(key(x), key(y))} orders like {@code Integer.compare(x, y)}. */
+    public static int key(int v) {
+        return v ^ Integer.MIN_VALUE;
+    }
+
+    @Override
+    public void run() {
+        int n = a.length;
+        lines = new int[11];
+        for (int ln = 1; ln < lines.length; ln++) lines[ln] = tape.appendInt(Event.EventType.CUSTOM, ln);
+        if (n == 0) return;
+        aux = new int[n];
+        snapshots = n <= SNAPSHOT_LIMIT && wants(Event.EventType.SET_VALUE);
+        showHistograms = wants(Event.EventType.CUSTOM);
+        showElements = showHistograms && wants(Event.EventType.VISIT);
+        switch (variant) {
+            case COUNTING -> countingSort();
+            case LSD -> lsd();
+            case MSD -> {
+                arr = track(a);
+                silent = !arr.isEmitting();
+                msd(0, n - 1, 32);
+            }
+        }
+        if (!snapshots && wants(Event.EventType.SET_VALUE)) {
+            play(tape.appendRef(Event.EventType.SET_VALUE, 0, n - 1, a.clone()), PASS_DELAY_MS);
+        }
+        play(tape.append(Event.EventType.HIGHLIGHT_RANGE, 0, n - 1), 100);
+    }
+
+    // Variants
+
+    private void countingSort() {
+        int n = a.length;
+        play(lines[1], 0);
+        int min = a[0], max = a[0];
+        for (int v : a) {
+            if (v < min) min = v;
+            if (v > max) max = v;
+        }
+        ops.add(n, 0, 2L * n, 0);
+        long range = (long) max - min + 1;
+        if (range > MAX_COUNTING_RANGE) {
+            lsd();
+            return;
+        }
+        Digits d = new Digits(min, 0, 0, -1, (int) range, "keys " + min + ".." + max);
+        if (pass(a, aux, 0, n - 1, d, 2, -1, 3, 4) != null) {
+            play(lines[6], 0);
+            copy(aux, a, 0, n - 1);
+        }
+    }
+
+    private void lsd() {
+        int[] src = a, dst = aux;
+        int passes = (32 + bits - 1) / bits;
+        for (int p = 0; p < passes; p++) {
+            checkCancelled();
+            play(lines[1], 0);
+            int shift = p * bits;
+            int width = Math.min(bits, 32 - shift);
+            Digits d = new Digits(0, Integer.MIN_VALUE, shift, (1 << width) - 1, 1 << width,
+                    "pass " + (p + 1) + "/" + passes + ", bits " + shift + "-" + (shift + width - 1));
+            if (pass(src, dst, 0, a.length - 1, d, 2, 3, 4, 5) == null) continue;
+            play(lines[7], 0);
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        if (src != a) {
+            play(lines[8], 0);
+            copy(src, a, 0, a.length - 1);
+        }
+    }
+
+    /** Sorts {@code a[lo..hi]}, whose keys agree above bit {@code top}, on the digit just below it. */
+    private void msd(int lo, int hi, int top) {
+        checkCancelled();
+        play(lines[1], 0);
+        if (hi - lo + 1 <= cutoff) {
+            play(lines[3], 0);
+            insertionSort(lo, hi);
+            return;
+        }
+        // No more buckets than keys, so the counters stay linear in n
+        int width = Math.min(Math.min(bits, top), 31 - Integer.numberOfLeadingZeros(hi - lo + 1));
+        int shift = top - width;
+        Digits d = new Digits(0, Integer.MIN_VALUE, shift, (1 << width) - 1, 1 << width,
+                "[" + lo + ".." + hi + "], bits " + shift + "-" + (top - 1));
+        int[] count = pass(a, aux, lo, hi, d, 4, -1, 5, 6);
+        if (count != null) {
+            play(lines[8], 0);
+            copy(aux, a, lo, hi);
+        } else {
+            count = new int[d.buckets];
+            count[d.of(a[lo])] = hi - lo + 1;
+        }
+        if (shift == 0) return;
+        play(lines[9], 0);
+        for (int b = 0, start = lo; b < count.length; start += count[b++]) {
+            if (count[b] > 1) {
+                play(lines[10], 0);
+                msd(start, start + count[b] - 1, shift);
+            }
+        }
+    }
+
+    private void insertionSort(int lo, int hi) {
+        if (silent) {
+            insertionSortSilently(lo, hi);
+            return;
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && arr.compare(j - 1, j) > 0; j--) arr.swap(j - 1, j);
+        }
+    }
+
+    /** Shifts instead of swaps; counts the swaps the tracked version makes, once per range. */
+    private void insertionSortSilently(int lo, int hi) {
+        long compares = 0, swaps = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            int v = arr.peek(i);
+            int j = i;
+            while (j > lo && arr.peek(j - 1) > v) {
+                arr.poke(j, arr.peek(j - 1));
+                j--;
+            }
+            arr.poke(j, v);
+            compares += j > lo ? i - j + 1 : i - j;
+            swaps += i - j;
+        }
+        arr.count(0, 0, compares, swaps);
+    }
+
+    // Passes
+
+    /** {@code ((v - offset) ^ flip) >>> shift & mask}, one of {@code buckets} values. */
+    private record Digits(int offset, int flip, int shift, int mask, int buckets, String label) {
+        int of(int v) {
+            return ((v - offset) ^ flip) >>> shift & mask;
+        }
+    }
+
+    /**
+     * Counts, then scatters {@code src[lo..hi]} stably into {@code dst[lo..hi]}
+     * by digit. The line arguments are the pseudocode lines of the steps,
+     * -1 if the variant has none.
+     *
+     * @return the bucket counts, or null if every key fell into one bucket
+     *         and nothing was scattered
+     */
+    private int[] pass(int[] src, int[] dst, int lo, int hi, Digits d, int countLine, int skipLine,
+                       int prefixLine, int scatterLine) {
+        int len = hi - lo + 1;
+        int[] count = new int[d.buckets];
+        boolean histograms = showHistograms && d.buckets <= HISTOGRAM_LIMIT;
+        boolean elements = histograms && showElements && (long) len * d.buckets <= ELEMENT_FRAMES_LIMIT;
+
+        play(lines[countLine], 0);
+        for (int i = lo; i <= hi; i++) {
+            int b = d.of(src[i]);
+            count[b]++;
+            if (elements) showElement(i, d.label + ": count", count.clone(), null, b);
+        }
+        ops.add(len, len, 0, 0);
+        if (histograms) showHistogram(d.label + ": count", count.clone(), null, -1);
+        for (int c : count) {
+            if (c == len) {
+                if (skipLine > 0) play(lines[skipLine], 0);
+                return null;
+            }
+        }
+
+        play(lines[prefixLine], 0);
+        int[] next = new int[d.buckets];
+        for (int b = 0, sum = lo; b < d.buckets; b++) {
+            next[b] = sum;
+            sum += count[b];
+        }
+        ops.add(d.buckets, d.buckets, 0, 0);
+
+        play(lines[scatterLine], 0);
+        int[] placed = elements ? new int[d.buckets] : null;
+        for (int i = lo; i <= hi; i++) {
+            int v = src[i];
+            int b = d.of(v);
+            dst[next[b]++] = v;
+            if (elements) {
+                placed[b]++;
+                showElement(i, d.label + ": scatter", count, placed.clone(), b);
+            }
+        }
+        ops.add(len, 2L * len, 0, 0);
+        if (histograms) showHistogram(d.label + ": scattered", count, count, -1);
+        if (snapshots) {
+            int flash = tape.append(Event.EventType.HIGHLIGHT_RANGE, lo, hi);
+            play(flash, tape.appendRef(Event.EventType.SET_VALUE, lo, hi, Arrays.copyOfRange(dst, lo, hi + 1)),
+                    PASS_DELAY_MS);
+        }
+        return count;
+    }
+
+    private void copy(int[] src, int[] dst, int lo, int hi) {
+        System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+        ops.add(hi - lo + 1, hi - lo + 1, 0, 0);
+    }
+
+    private void showElement(int i, String label, int[] counts, int[] placed, int bucket) {
+        int histogram = tape.appendRef(Event.EventType.CUSTOM, new Histogram(label, counts, placed, bucket));
+        play(histogram, tape.append(Event.EventType.VISIT, i), ELEMENT_DELAY_MS);
+    }
+
+    private void showHistogram(String label, int[] counts, int[] placed, int bucket) {
+        play(tape.appendRef(Event.EventType.CUSTOM, new Histogram(label, counts, placed, bucket)), PASS_DELAY_MS);
+    }
+}
@@ -0,0 +1,39 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.mvc.Model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Registry of the sorting models, shared by the arrays module and the race
+ * module. Factories may sort the array they are given in place; callers
+ * pass a copy.
+ */
+public final class SortModels {
+
+    private static final Map<String, BiFunction<Model.ModelContext, int[], Model>> MODELS = new LinkedHashMap<>();
+
+    static {
+        MODELS.put("Insertion Sort", (ctx, arr) -> new InsertionSortModel(arr, ctx));
+        MODELS.put("Merge Sort", MergeSortModel::new);
+        MODELS.put("Parallel Merge Sort", ParallelMergeSortModel::new);
+        MODELS.put("Tim Sort", TimSortModel::new);
+        for (QuickSortModel.Scheme s : QuickSortModel.Scheme.values()) {
+            MODELS.put(s.displayName(), (ctx, arr) -> new QuickSortModel(ctx, arr, s));
+        }
+        for (RadixSortModel.Variant v : RadixSortModel.Variant.values()) {
+            MODELS.put(v.displayName(), (ctx, arr) -> new RadixSortModel(ctx, arr, v));
+        }
+    }
+
+    private SortModels() {
+    }
+
+    /** @return factories by display name, in menu order */
+    public static Map<String, BiFunction<Model.ModelContext, int[], Model>> all() {
+        return Collections.unmodifiableMap(MODELS);
+    }
+}
@@ -0,0 +1,474 @@
+package main.java.edu.tue.dsvis.modules.arrays.model;
+
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.TrackedIntArray;
+import main.java.edu.tue.dsvis.modules.arrays.event.RunStack;
+
+import java.util.Arrays;
+
+/**
+ * Adaptive merge sort after Tim Peters' listsort, as in
+ * {@code java.util.TimSort}: natural runs are found left to right,
+ * descending runs reversed, short runs extended to {@code minrun} by binary
+ * insertion, and a run stack merges neighbours while keeping
+ * {@code |Z| > |Y| + |X|} and {@code |Y| > |X|}. Merges skip what is
+ * already in place and switch to galloping once one side keeps winning.
+ *
+ * <p>Each run is coloured as a HIGHLIGHT_RANGE with its run number as an
+ * {@code Integer} payload; a merged run takes the colour of the lower one.
+ * Gallop probes flash as COMPARE frames and each gallop moves its block in
+ * one frame, a range write (SET_VALUE with an {@code int[]}) paired with a
+ * HIGHLIGHT_RANGE. The run stack is played as a {@link RunStack}
+ * {@code CUSTOM} payload after every push and merge.</p>
+ *
+ * <p>When the array plays no frames, the run scans, the binary insertion
+ * and the one-at-a-time merge loop work on the bare elements and are
+ * counted once per run or merge.</p>
+ *
+ * <p>Merges always buffer the left run, where the library also has a
+ * right-to-left variant for a shorter right run; the comparisons are the
+ * same, only the buffer is larger.</p>
+ */
+public final class TimSortModel extends Model {
+
+    /** Wins in a row that switch a merge to galloping, before adaptation. */
+    private static final int MIN_GALLOP = 7;
+
+    private static final int PROBE_DELAY_MS = 60;
+    private static final int BLOCK_DELAY_MS = 120;
+    private static final int RUN_DELAY_MS = 200;
+
+    private final int[] a;
+    private final int minMerge;
+
+    // Set by run()
+    private TrackedIntArray arr;
+    private int[] tmp = new int[0];
+    private TrackedIntArray tmpArr; // counted, not shown: its indices are not array positions
+    private boolean silent; // arr plays no frames
+    private int minGallop;
+    private int minRun;
+    private int[] runBase, runLen, runColor;
+    private int stackSize;
+    private int runs;
+    private int gallops;
+    private int[] lines;
+
+    private static final int LINE_COUNT = 14; // lines in tim_sort.txt
+
+    public TimSortModel(ModelContext ctx, int[] array) {
+        this(ctx, array, defaultMinMerge(array.length));
+    }
+
+    /**
+     * @param minMerge arrays shorter than this are one binary-insertion run;
+     *                 {@code minrun} lies between {@code minMerge / 2} and
+     *                 {@code minMerge}
+     */
+    public TimSortModel(ModelContext ctx, int[] array, int minMerge) {
+        super(ctx);
+        if (minMerge < 2) throw new IllegalArgumentException("minMerge must be at least 2");
+        this.a = array;
+        this.minMerge = minMerge;
+    }
+
+    /**
+     * The library's 32, or 8 below 128 elements so that the small arrays of
+     * the arrays module still show several runs and their merges.
+     */
+    public static int defaultMinMerge(int n) {
+        return n < 128 ? 8 : 32;
+    }
+
+    @Override
+    public void run() {
+        lines = new int[LINE_COUNT + 1];
+        for (int ln = 1; ln <= LINE_COUNT; ln++) lines[ln] = tape.appendInt(Event.EventType.CUSTOM, ln);
+        int n = a.length;
+        arr = track(a);
+        if (n > 64) arr.setDelays(16, 0, 0);
+        tmpArr = new TrackedIntArray(tmp, ops);
+        silent = !arr.isEmitting();
+        minGallop = MIN_GALLOP;
+        runBase = new int[64]; // the invariants keep the stack below log_phi(n) + 2
+        runLen = new int[64];
+        runColor = new int[64];
+        stackSize = runs = gallops = 0;
+
+        minRun = minRunLength(n);
+        play(lines[1], 0);
+        int lo = 0;
+        while (lo < n) {
+            checkCancelled();
+            play(lines[2], 0);
+            int len = countRunAndMakeAscending(lo, n);
+            if (len < minRun) {
+                int force = Math.min(n - lo, minRun);
+                play(lines[4], 0);
+                binarySort(lo, lo + force, lo + len);
+                len = force;
+            }
+            int color = runs++;
+            colorRun(lo, len, color);
+            pushRun(lo, len, color);
+            play(lines[5], 0);
+            showStack();
+            mergeCollapse();
+            lo += len;
+        }
+        play(lines[8], 0);
+        while (stackSize > 1) {
+            int i = stackSize - 2;
+            if (i > 0 && runLen[i - 1] < runLen[i + 1]) i--;
+            mergeAt(i);
+        }
+        if (n > 0) play(tape.append(Event.EventType.HIGHLIGHT_RANGE, 0, n - 1), 100);
+    }
+
+    /** @return {@code n} below {@code minMerge}; otherwise a length that splits {@code n} into about a power of two runs */
+    private int minRunLength(int n) {
+        int r = 0;
+        while (n >= minMerge) {
+            r |= n & 1;
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    // Runs
+
+    /** @return the length of the run starting at {@code lo}, reversed first if strictly descending */
+    private int countRunAndMakeAscending(int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) return 1;
+        if (silent) return countRunSilently(lo, hi);
+        if (arr.compare(runHi++, lo) < 0) {
+            while (runHi < hi && arr.compare(runHi, runHi - 1) < 0) runHi++;
+            play(lines[3], 0);
+            for (int i = lo, j = runHi - 1; i < j; i++, j--) arr.swap(i, j);
+        } else {
+            while (runHi < hi && arr.compare(runHi, runHi - 1) >= 0) runHi++;
+        }
+        return runHi - lo;
+    }
+
+    /** {@link #countRunAndMakeAscending} on the bare elements, counted once. */
+    private int countRunSilently(int lo, int hi) {
+        int runHi = lo + 1;
+        boolean descending = arr.peek(runHi++) < arr.peek(lo);
+        if (descending) {
+            while (runHi < hi && arr.peek(runHi) < arr.peek(runHi - 1)) runHi++;
+        } else {
+            while (runHi < hi && arr.peek(runHi) >= arr.peek(runHi - 1)) runHi++;
+        }
+        // The first compare, one per element added and the one that ended the run
+        arr.count(0, 0, runHi - lo - 1 + (runHi < hi ? 1 : 0), 0);
+        if (descending) {
+            play(lines[3], 0);
+            for (int i = lo, j = runHi - 1; i < j; i++, j--) {
+                int t = arr.peek(i);
+                arr.poke(i, arr.peek(j));
+                arr.poke(j, t);
+            }
+            arr.count(0, 0, 0, (runHi - lo) / 2);
+        }
+        return runHi - lo;
+    }
+
+    /** Binary insertion of {@code [start, hi)} into the sorted {@code [lo, start)}. */
+    private void binarySort(int lo, int hi, int start) {
+        if (silent) {
+            binarySortSilently(lo, hi, start);
+            return;
+        }
+        for (; start < hi; start++) {
+            checkCancelled();
+            int pivot = arr.get(start);
+            int left = lo, right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (arr.compareTo(mid, pivot) > 0) right = mid;
+                else left = mid + 1;
+            }
+            moveBlock(a, left, left + 1, start - left);
+            arr.set(left, pivot);
+        }
+    }
+
+    private void binarySortSilently(int lo, int hi, int start) {
+        long keys = hi - start, compares = 0;
+        for (; start < hi; start++) {
+            checkCancelled();
+            int pivot = arr.peek(start);
+            int left = lo, right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                compares++;
+                if (arr.peek(mid) > pivot) right = mid;
+                else left = mid + 1;
+            }
+            moveBlock(a, left, left + 1, start - left);
+            arr.poke(left, pivot);
+        }
+        arr.count(keys, keys, compares, 0);
+    }
+
+    private void pushRun(int base, int len, int color) {
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        runColor[stackSize] = color;
+        stackSize++;
+    }
+
+    /** Merges until the stack invariants hold again, with the library's check of the fourth run. */
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int i = stackSize - 2;
+            if (i > 0 && runLen[i - 1] <= runLen[i] + runLen[i + 1]
+                    || i > 1 && runLen[i - 2] <= runLen[i] + runLen[i - 1]) {
+                if (runLen[i - 1] < runLen[i + 1]) i--;
+            } else if (runLen[i] > runLen[i + 1]) {
+                break;
+            }
+            play(lines[6], 0);
+            mergeAt(i);
+        }
+    }
+
+    /** Merges the runs at stack positions {@code i} and {@code i + 1}. */
+    private void mergeAt(int i) {
+        checkCancelled();
+        play(lines[7], 0);
+        int base1 = runBase[i], len1 = runLen[i];
+        int base2 = runBase[i + 1], len2 = runLen[i + 1];
+        int color = runColor[i];
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+            runColor[i + 1] = runColor[i + 2];
+        }
+        stackSize--;
+
+        // Elements of run 1 below run 2's first, and of run 2 above run 1's last, stay put
+        play(lines[11], 0);
+        int k = gallopRight(arr.get(base2), arr, base1, len1, 0);
+        base1 += k;
+        len1 -= k;
+        if (len1 > 0) {
+            len2 = gallopLeft(arr.get(base1 + len1 - 1), arr, base2, len2, len2 - 1);
+            if (len2 > 0) mergeLo(base1, len1, base2, len2);
+        }
+        colorRun(runBase[i], runLen[i], color);
+        showStack();
+    }
+
+    // Merging
+
+    /** Merges the adjacent sorted runs {@code [base1, base1 + len1)} and {@code [base2, base2 + len2)}. */
+    private void mergeLo(int base1, int len1, int base2, int len2) {
+        play(lines[12], 0);
+        ensureCapacity(len1);
+        arr.copyTo(base1, tmpArr, 0, len1);
+        int cursor1 = 0, cursor2 = base2, dest = base1;
+
+        arr.set(dest++, arr.get(cursor2++));
+        if (--len2 == 0) {
+            moveBlock(tmp, cursor1, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            moveBlock(a, cursor2, dest, len2);
+            arr.set(dest + len2, tmpArr.get(cursor1));
+            return;
+        }
+
+        int gallopAfter = minGallop;
+        long steps = 0; // silent one-at-a-time steps, counted after the merge
+        outer:
+        while (true) {
+            int count1 = 0, count2 = 0; // wins in a row
+
+            // One element at a time until one side wins gallopAfter times
+            if (silent) {
+                do {
+                    steps++;
+                    int v = tmpArr.peek(cursor1);
+                    if (arr.peek(cursor2) < v) {
+                        arr.poke(dest++, arr.peek(cursor2++));
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) break outer;
+                    } else {
+                        arr.poke(dest++, v);
+                        cursor1++;
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 1) break outer;
+                    }
+                } while ((count1 | count2) < gallopAfter);
+            } else {
+                do {
+                    if (arr.compareTo(cursor2, tmpArr.get(cursor1)) < 0) {
+                        arr.set(dest++, arr.get(cursor2++));
+                        count2++;
+                        count1 = 0;
+                        if (--len2 == 0) break outer;
+                    } else {
+                        arr.set(dest++, tmpArr.get(cursor1++));
+                        count1++;
+                        count2 = 0;
+                        if (--len1 == 1) break outer;
+                    }
+                } while ((count1 | count2) < gallopAfter);
+            }
+
+            // Gallop while it pays: whole streaks found by exponential search
+            do {
+                play(lines[13], 0);
+                gallops++;
+                count1 = gallopRight(arr.get(cursor2), tmpArr, cursor1, len1, 0);
+                if (count1 != 0) {
+                    play(lines[14], 0);
+                    moveBlock(tmp, cursor1, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) break outer;
+                }
+                arr.set(dest++, arr.get(cursor2++));
+                if (--len2 == 0) break outer;
+
+                count2 = gallopLeft(tmpArr.get(cursor1), arr, cursor2, len2, 0);
+                if (count2 != 0) {
+                    play(lines[14], 0);
+                    moveBlock(a, cursor2, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) break outer;
+                }
+                arr.set(dest++, tmpArr.get(cursor1++));
+                if (--len1 == 1) break outer;
+                gallopAfter--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (gallopAfter < 0) gallopAfter = 0;
+            gallopAfter += 2; // penalty for leaving gallop mode
+        }
+        minGallop = Math.max(1, gallopAfter);
+        arr.count(2 * steps, steps, steps, 0); // a compare, both operands read, one write
+
+        if (len1 == 1) {
+            moveBlock(a, cursor2, dest, len2);
+            arr.set(dest + len2, tmpArr.get(cursor1));
+        } else {
+            moveBlock(tmp, cursor1, dest, len1);
+        }
+    }
+
+    /**
+     * @return the number of elements of {@code run[base, base + len)} below
+     *         {@code key}, searched from {@code base + hint} by offsets
+     *         1, 3, 7, ... and then by bisection
+     */
+    private static int gallopLeft(int key, TrackedIntArray run, int base, int len, int hint) {
+        int lastOfs = 0, ofs = 1;
+        if (run.compareTo(base + hint, key, PROBE_DELAY_MS) < 0) {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && run.compareTo(base + hint + ofs, key, PROBE_DELAY_MS) < 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && run.compareTo(base + hint - ofs, key, PROBE_DELAY_MS) >= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (run.compareTo(base + m, key, PROBE_DELAY_MS) < 0) lastOfs = m + 1;
+            else ofs = m;
+        }
+        return ofs;
+    }
+
+    /** Like {@link #gallopLeft}, counting the elements not above {@code key}. */
+    private static int gallopRight(int key, TrackedIntArray run, int base, int len, int hint) {
+        int lastOfs = 0, ofs = 1;
+        if (run.compareTo(base + hint, key, PROBE_DELAY_MS) > 0) {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && run.compareTo(base + hint - ofs, key, PROBE_DELAY_MS) > 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        } else {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && run.compareTo(base + hint + ofs, key, PROBE_DELAY_MS) <= 0) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) ofs = maxOfs;
+            }
+            if (ofs > maxOfs) ofs = maxOfs;
+            lastOfs += hint;
+            ofs += hint;
+        }
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (run.compareTo(base + m, key, PROBE_DELAY_MS) > 0) ofs = m;
+            else lastOfs = m + 1;
+        }
+        return ofs;
+    }
+
+    private void ensureCapacity(int len) {
+        if (tmp.length >= len) return;
+        tmp = new int[Math.max(len, Math.min(a.length, 2 * tmp.length))];
+        tmpArr = new TrackedIntArray(tmp, ops);
+    }
+
+    // Frames
+
+    /** Copies {@code len} elements into {@code a} from {@code dest} on, counted and shown as one frame. */
+    private void moveBlock(int[] src, int srcPos, int dest, int len) {
+        if (len <= 0) return;
+        System.arraycopy(src, srcPos, a, dest, len);
+        ops.add(len, len, 0, 0);
+        if (!wants(Event.EventType.SET_VALUE)) return;
+        int flash = tape.append(Event.EventType.HIGHLIGHT_RANGE, dest, dest + len - 1);
+        int write = tape.appendRef(Event.EventType.SET_VALUE, dest, dest + len - 1,
+                Arrays.copyOfRange(a, dest, dest + len));
+        play(flash, write, BLOCK_DELAY_MS);
+    }
+
+    private void colorRun(int base, int len, int color) {
+        if (wants(Event.EventType.HIGHLIGHT_RANGE)) {
+            play(tape.appendInt(Event.EventType.HIGHLIGHT_RANGE, base, base + len - 1, color), RUN_DELAY_MS);
+        }
+    }
+
+    private void showStack() {
+        if (wants(Event.EventType.CUSTOM)) {
+            play(tape.appendRef(Event.EventType.CUSTOM, new RunStack(Arrays.copyOf(runLen, stackSize), minRun,
+                    runs, gallops)), 0);
+        }
+    }
+}
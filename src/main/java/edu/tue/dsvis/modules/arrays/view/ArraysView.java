@@ -1,11 +1,17 @@
 package main.java.edu.tue.dsvis.modules.arrays.view;
 
+import main.java.edu.tue.dsvis.core.animation.Checkpointable;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
 import main.java.edu.tue.dsvis.core.mvc.View;
 import main.java.edu.tue.dsvis.gui.CostMeter;
 import main.java.edu.tue.dsvis.gui.PseudocodePane;
+import main.java.edu.tue.dsvis.modules.arrays.event.Histogram;
+import main.java.edu.tue.dsvis.modules.arrays.event.RunStack;
+import main.java.edu.tue.dsvis.modules.arrays.event.Speedup;
 import main.java.edu.tue.dsvis.widgets.ArrayStrip;
+import main.java.edu.tue.dsvis.widgets.HistogramPanel;
 import main.java.edu.tue.dsvis.widgets.RecursionTreePanel;
 import javax.swing.JSplitPane;
 import javax.swing.event.DocumentEvent;
@@ -19,7 +25,11 @@ import java.util.Collection;
  * Comprehensive view for array algorithms. Combines array visualisation,
  * pseudocode display, and user controls.
  */
-public class ArraysView implements View, EventBus.EventListener {
+public class ArraysView implements View, EventBus.TapeListener, Checkpointable {
+
+    /** Everything frames mutate, captured for timeline checkpoints. */
+    private record State(int[] data, byte[] workers, int windowLow, int windowHigh, int line, long cost,
+                         int[] tree, String caption, Histogram histogram) {}
 
     private final EventBus bus;
 
@@ -27,13 +37,24 @@ public class ArraysView implements View, EventBus.EventListener {
     private final ArrayStrip strip = new ArrayStrip();
     private final PseudocodePane pseudocode = new PseudocodePane("/pseudocode/linear_search.txt");
     private final RecursionTreePanel treePanel = new RecursionTreePanel();
+    private final HistogramPanel histogramPanel = new HistogramPanel();
+    private final JTabbedPane lowerTabs = new JTabbedPane();
     private final CostMeter costMeter = new CostMeter();
 
     private final java.util.Map<String,String> algoToCode = java.util.Map.ofEntries(
             java.util.Map.entry("Linear Search", "/pseudocode/linear_search.txt"),
             java.util.Map.entry("Binary Search", "/pseudocode/binary_search.txt"),
             java.util.Map.entry("Insertion Sort", "/pseudocode/insertion_sort.txt"),
-            java.util.Map.entry("Merge Sort", "/pseudocode/merge_sort.txt"));
+            java.util.Map.entry("Merge Sort", "/pseudocode/merge_sort.txt"),
+            java.util.Map.entry("Parallel Merge Sort", "/pseudocode/merge_sort.txt"),
+            java.util.Map.entry("Tim Sort", "/pseudocode/tim_sort.txt"),
+            java.util.Map.entry("Quick Sort (Lomuto)", "/pseudocode/quick_sort.txt"),
+            java.util.Map.entry("Quick Sort (Hoare)", "/pseudocode/quick_sort.txt"),
+            java.util.Map.entry("Quick Sort (3-way)", "/pseudocode/quick_sort.txt"),
+            java.util.Map.entry("Quick Sort (Dual-Pivot)", "/pseudocode/quick_sort.txt"),
+            java.util.Map.entry("Counting Sort", "/pseudocode/counting_sort.txt"),
+            java.util.Map.entry("LSD Radix Sort", "/pseudocode/lsd_radix_sort.txt"),
+            java.util.Map.entry("MSD Radix Sort", "/pseudocode/msd_radix_sort.txt"));
 
     // Simple input bar components
     private final JTextField arrayField = new JTextField(20);
@@ -41,14 +62,18 @@ public class ArraysView implements View, EventBus.EventListener {
     private final JComboBox<String> algoBox = new JComboBox<>();
     private final JButton runButton = new JButton("Run");
     private final JCheckBox indexModeCheck = new JCheckBox("Index mode");
+    private final JCheckBox treeCheck = new JCheckBox("Recursion tree", true);
 
-    private long steps = 0;  // cost metric counter
+    private long cost = 0;  // running cost from the model's tracked array
+    private Histogram histogram; // last bucket pass shown, or null
 
     public ArraysView(EventBus bus) {
         this.bus = bus;
         buildUI();
-        bus.register(this);
-        bus.register(treePanel);
+        bus.register(this, Event.EventType.COMPARE, Event.EventType.VISIT, Event.EventType.SWAP,
+                Event.EventType.SET_VALUE, Event.EventType.CUSTOM, Event.EventType.HIGHLIGHT_RANGE,
+                Event.EventType.LINE);
+        bus.register(treePanel, Event.EventType.SPLIT, Event.EventType.MERGE);
 
         // Live update visualization when user edits array text
         arrayField.getDocument().addDocumentListener(new DocumentListener() {
@@ -69,7 +94,9 @@ public class ArraysView implements View, EventBus.EventListener {
         inputBar.add(indexModeCheck);
         inputBar.add(algoBox);
         inputBar.add(runButton);
+        inputBar.add(treeCheck);
         root.add(inputBar, BorderLayout.NORTH);
+        treeCheck.addActionListener(e -> enableRecursionTree(treeCheck.isSelected()));
 
         // Show/hide target controls based on algorithm choice
         algoBox.addActionListener(e -> {
@@ -89,10 +116,12 @@ public class ArraysView implements View, EventBus.EventListener {
         targetField.setVisible(false);
         indexModeCheck.setVisible(false);
 
-        // CENTER visualisation split: array + recursion tree
+        // CENTER visualisation split: array + recursion tree / bucket histogram
+        lowerTabs.addTab("Recursion tree", new JScrollPane(treePanel));
+        lowerTabs.addTab("Buckets", histogramPanel);
         JSplitPane vizSplit = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
                 new JScrollPane(strip),
-                new JScrollPane(treePanel));
+                lowerTabs);
         vizSplit.setResizeWeight(0.8);
         root.add(vizSplit, BorderLayout.CENTER);
 
@@ -135,8 +164,21 @@ public class ArraysView implements View, EventBus.EventListener {
     // Recursion tree visibility
     // ------------------------------------------------------------------
 
+    /**
+     * Shows or hides the recursion tree. A hidden tree is unsubscribed; when
+     * shown again it re-registers and, if the bus keeps a replay log, catches
+     * up with the splits and merges of the current run.
+     */
     public void enableRecursionTree(boolean b) {
+        if (treeCheck.isSelected() != b) treeCheck.setSelected(b);
+        if (treePanel.isVisible() == b) return;
         treePanel.setVisible(b);
+        if (b) {
+            treePanel.onReset();
+            bus.register(treePanel, Event.EventType.SPLIT, Event.EventType.MERGE);
+        } else {
+            bus.unregister(treePanel);
+        }
     }
 
     // ------------------------------------------------------------------
@@ -146,7 +188,9 @@ public class ArraysView implements View, EventBus.EventListener {
     public void resetView() {
         strip.clearHighlights();
         strip.clearSearchWindow();
+        strip.clearWorkers();
         treePanel.onReset();
+        showHistogram(null);
         pseudocode.clearHighlight();
     }
 
@@ -178,8 +222,8 @@ public class ArraysView implements View, EventBus.EventListener {
     public void resetUI() {
         strip.repaint();
         strip.clearSearchWindow();
-        steps = 0;
-        costMeter.setMetric("Steps", steps);
+        cost = 0;
+        costMeter.setMetric("Cost", cost);
         highlightLine(0);
         updateArrayFieldFromStrip();
     }
@@ -204,37 +248,125 @@ public class ArraysView implements View, EventBus.EventListener {
             }
             case SET_VALUE -> {
                 int[] idx = e.getIndices();
-                if (idx.length >= 1 && e.getPayload() instanceof Integer val) {
+                if (idx.length == 2 && e.getPayload() instanceof int[] values) {
+                    strip.setRange(idx[0], values);
+                    updateArrayFieldFromStrip();
+                } else if (idx.length >= 1 && e.getPayload() instanceof Integer val) {
                     strip.setValue(idx[0], val);
                     updateArrayFieldFromStrip();
                 }
             }
             case CUSTOM -> {
                 Object p = e.getPayload();
-                if (p instanceof String str && "STEP".equals(str)) {
-                    steps++;
-                    costMeter.setMetric("Steps", steps);
+                if (p instanceof Long c) {
+                    setCost(c);
+                } else if (p instanceof Speedup speedup) {
+                    treePanel.setCaption(speedup.toString());
+                } else if (p instanceof RunStack stack) {
+                    treePanel.setCaption(stack.toString());
+                } else if (p instanceof Histogram h) {
+                    if (histogram == null) lowerTabs.setSelectedComponent(histogramPanel);
+                    showHistogram(h);
                 } else if (p instanceof int[] range && range.length==2) {
                     strip.setSearchWindow(range[0], range[1]);
                 } else if (p instanceof Integer line) {
                     pseudocode.highlight(line);
-                } else if (e.getType() == main.java.edu.tue.dsvis.core.event.Event.EventType.HIGHLIGHT_RANGE) {
-                    int[] idx = e.getIndices();
-                    if (idx.length==2) strip.flashRange(idx[0], idx[1]);
-                } else if (e.getType() == main.java.edu.tue.dsvis.core.event.Event.EventType.LINE) {
-                    int ln = e.getIndices()[0];
-                    pseudocode.highlight(ln);
                 }
             }
+            case HIGHLIGHT_RANGE -> {
+                int[] idx = e.getIndices();
+                if (idx.length==2 && e.getPayload() instanceof Integer worker) strip.colorRange(idx[0], idx[1], worker);
+                else if (idx.length==2) strip.flashRange(idx[0], idx[1]);
+            }
+            case LINE -> pseudocode.highlight(e.getIndices()[0]);
             default -> {
             }
         }
     }
 
+    /**
+     * Allocation-free path for tape entries: hot event types are read in place,
+     * everything else falls back to {@link #onEvent(Event)}.
+     */
+    @Override
+    public void onTapeEvent(EventTape tape, int pos) {
+        switch (tape.type(pos)) {
+            case COMPARE, VISIT -> {
+                if (tape.indexCount(pos) > 0) strip.flash(tape.index(pos, 0));
+            }
+            case SWAP -> {
+                if (tape.indexCount(pos) >= 2) {
+                    strip.swap(tape.index(pos, 0), tape.index(pos, 1));
+                    updateArrayFieldFromStrip();
+                }
+            }
+            case SET_VALUE -> {
+                if (tape.indexCount(pos) >= 1 && tape.hasIntPayload(pos)) {
+                    strip.setValue(tape.index(pos, 0), tape.intPayload(pos));
+                    updateArrayFieldFromStrip();
+                } else {
+                    onEvent(tape.toEvent(pos)); // bulk write
+                }
+            }
+            case LINE -> pseudocode.highlight(tape.index(pos, 0));
+            case CUSTOM -> {
+                if (tape.hasIntPayload(pos)) pseudocode.highlight(tape.intPayload(pos));
+                else if (tape.payloadKind(pos) == EventTape.PAYLOAD_LONG) setCost(tape.longPayload(pos));
+                else onEvent(tape.toEvent(pos));
+            }
+            default -> onEvent(tape.toEvent(pos));
+        }
+    }
+
+    /** CUSTOM entries with a {@code long} payload carry the model's running cost. */
+    private void setCost(long c) {
+        cost = c;
+        costMeter.setMetric("Cost", c);
+    }
+
+    // Checkpoints
+
+    @Override
+    public Object capture() {
+        return new State(strip.getData(), strip.getWorkers(), strip.getWindowLow(), strip.getWindowHigh(),
+                pseudocode.getHighlightedLine(), cost, treePanel.snapshot(), treePanel.getCaption(), histogram);
+    }
+
+    @Override
+    public void restore(Object state) {
+        State s = (State) state;
+        strip.clearHighlights();
+        strip.setData(s.data());
+        strip.setWorkers(s.workers());
+        if (s.windowLow() < 0) strip.clearSearchWindow();
+        else strip.setSearchWindow(s.windowLow(), s.windowHigh());
+        if (s.line() < 0) pseudocode.clearHighlight();
+        else pseudocode.highlight(s.line());
+        setCost(s.cost());
+        treePanel.restore(s.tree());
+        treePanel.setCaption(s.caption());
+        showHistogram(s.histogram());
+        updateArrayFieldFromStrip();
+    }
+
+    @Override
+    public long sizeOf(Object state) {
+        State s = (State) state;
+        long histogram = s.histogram() == null ? 0 : 4L * s.histogram().counts().length; // placed shares or matches it
+        return 64 + 4L * (s.data().length + s.tree().length) + (s.workers() == null ? 0 : s.workers().length)
+                + 2 * histogram;
+    }
+
     // ---------------------------------------------------------------------
     // Helpers
     // ---------------------------------------------------------------------
 
+    private void showHistogram(Histogram h) {
+        histogram = h;
+        if (h == null) histogramPanel.clear();
+        else histogramPanel.show(h.label(), h.counts(), h.placed(), h.active());
+    }
+
     private void updateStripFromText() {
         try {
             int[] arr = parseArray(arrayField.getText());
@@ -1,6 +1,5 @@
 package main.java.edu.tue.dsvis.modules.heaps;
 
-import main.java.edu.tue.dsvis.core.animation.Frame;
 import main.java.edu.tue.dsvis.core.animation.Timeline;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.event.EventBus;
@@ -34,8 +33,9 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
     private final boolean maxHeap = true; // future UI toggle
     private boolean fibonacciVisualMode = false;
 
-    private long compares = 0;
-    private long swaps = 0;
+    // Build performed by run(), see prepareBuild()
+    private int[] pendingBuild;
+    private boolean pendingBottomUp;
 
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
@@ -52,34 +52,57 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
         heap = new int[cap];
     }
 
-    @Override public void run() { /* not used – controller drives specific ops */ }
+    /**
+     * Performs the build set by {@link #prepareBuild}, if any, so builds can
+     * go through a {@link main.java.edu.tue.dsvis.core.mvc.ModelExecutor}.
+     * Single operations are driven directly by the controller.
+     */
+    @Override
+    public void run() {
+        int[] src = pendingBuild;
+        if (src == null) return;
+        pendingBuild = null;
+        if (pendingBottomUp) buildBottomUp(src);
+        else buildIncremental(src);
+    }
+
+    /** Sets up {@link #run()} to build from {@code src}. */
+    public HeapModel prepareBuild(int[] src, boolean bottomUp) {
+        pendingBuild = Arrays.copyOf(src, src.length);
+        pendingBottomUp = bottomUp;
+        return this;
+    }
 
     // ---------------------------------------------------------------------
     // Public API used by controller
     // ---------------------------------------------------------------------
 
+    /** Builds with sift-downs from the last parent. Expects a freshly reset timeline. */
     public void buildBottomUp(int[] src) {
-        timeline.reset();
-        bus.post(Event.heapifyStart());
+        tape.clear();
+        play(tape.append(Event.EventType.HEAPIFY_START), 0);
 
         heapSize = Math.min(src.length, MAX_HEAP_CAPACITY);
         System.arraycopy(src, 0, heap, 0, heapSize);
 
         for (int i = parent(heapSize - 1); i >= 0; i--) {
+            checkCancelled();
             siftDown(i, heapSize);
         }
         fireHeapChanged();
-        bus.post(Event.heapifyEnd());
+        play(tape.append(Event.EventType.HEAPIFY_END), 0);
     }
 
+    /** Builds by inserting the keys one by one. Expects a freshly reset timeline. */
     public void buildIncremental(int[] src) {
-        timeline.reset();
-        bus.post(Event.heapifyStart());
+        tape.clear();
+        play(tape.append(Event.EventType.HEAPIFY_START), 0);
         heapSize = 0;
         for (int key : src) {
+            checkCancelled();
             insert(key);
         }
-        bus.post(Event.heapifyEnd());
+        play(tape.append(Event.EventType.HEAPIFY_END), 0);
     }
 
     public void insert(int key) {
@@ -128,8 +151,8 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
         return Arrays.copyOf(heap, heapSize);
     }
 
-    public long getCompareCount() { return compares; }
-    public long getSwapCount() { return swaps; }
+    public long getCompareCount() { return ops.getCompares(); }
+    public long getSwapCount() { return ops.getSwaps(); }
 
     // ------------------------------------------------------------------
     // Internal helpers
@@ -139,7 +162,7 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
         if (fibonacciVisualMode) return; // skip structural
         while (i > 0) {
             int p = parent(i);
-            compares++;
+            ops.compare();
             emitCompare(i, p);
             if (compare(heap[i], heap[p])) {
                 doSwapAnim(i, p);
@@ -155,12 +178,12 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
             int r = right(i);
             int best = i;
             if (l < size) {
-                compares++;
+                ops.compare();
                 emitCompare(i, l);
                 if (compare(heap[l], heap[best])) best = l;
             }
             if (r < size) {
-                compares++;
+                ops.compare();
                 emitCompare(i, r);
                 if (compare(heap[r], heap[best])) best = r;
             }
@@ -172,9 +195,9 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
     }
 
     private void emitCompare(int i, int j) {
-        if (FULL_ANIMATION || heapSize <= 150) {
-            timeline.addFrame(new Frame(() -> bus.post(Event.compare(i)), DEFAULT_ANIM_DELAY));
-            timeline.addFrame(new Frame(() -> bus.post(Event.compare(j)), 0));
+        if ((FULL_ANIMATION || heapSize <= 150) && wants(Event.EventType.COMPARE)) {
+            play(tape.append(Event.EventType.COMPARE, i), DEFAULT_ANIM_DELAY);
+            play(tape.append(Event.EventType.COMPARE, j), 0);
         }
     }
 
@@ -183,9 +206,9 @@ public class HeapModel extends Model implements main.java.edu.tue.dsvis.widgets.
     }
 
     private void doSwapAnim(int i, int j) {
-        swaps++;
-        if (FULL_ANIMATION || heapSize <= 150) {
-            timeline.addFrame(new Frame(() -> bus.post(Event.swap(i, j)), DEFAULT_ANIM_DELAY));
+        ops.swap();
+        if ((FULL_ANIMATION || heapSize <= 150) && wants(Event.EventType.SWAP)) {
+            play(tape.append(Event.EventType.SWAP, i, j), DEFAULT_ANIM_DELAY);
         }
         swapInternal(i, j);
     }
@@ -18,7 +18,8 @@ public class HeapsModule implements ModuleDescriptor {
     public HeapsModule(EventBus bus, Timeline timeline) {
         this.bus = bus;
         this.timeline = timeline;
-        this.view = new HeapsView();
+        this.view = new HeapsView(bus);
+        timeline.addCheckpointable(view);
         this.ctrl = new HeapsController(bus, timeline, view);
         ctrl.initialise();
     }
@@ -1,10 +1,21 @@
 package main.java.edu.tue.dsvis.modules.heaps.controller;
 
+import main.java.edu.tue.dsvis.core.animation.SynchronizedTimelineGroup;
 import main.java.edu.tue.dsvis.core.animation.Timeline;
 import main.java.edu.tue.dsvis.core.event.EventBus;
 import main.java.edu.tue.dsvis.core.mvc.Controller;
+import main.java.edu.tue.dsvis.core.mvc.ModelExecutor;
+import main.java.edu.tue.dsvis.gui.PlaybackBar;
 import main.java.edu.tue.dsvis.modules.heaps.HeapModel;
 import main.java.edu.tue.dsvis.modules.heaps.view.HeapsView;
+import main.java.edu.tue.dsvis.widgets.HeapArrayStrip;
+import main.java.edu.tue.dsvis.widgets.RacePanel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.Arrays;
 
 public class HeapsController implements Controller {
 
@@ -21,25 +32,67 @@ public class HeapsController implements Controller {
     public void initialise() {
         view.addBuildListener(e -> buildHeap());
         view.addRunOpListener(e -> runOperation());
+        view.addCompareListener(e -> compareBuilds());
     }
 
+    /** Builds on a worker; playback starts with the first frame. */
     private void buildHeap() {
+        if (model != null) model.cancel();
         timeline.pause();
         timeline.reset();
         view.resetView();
 
         int[] arr = view.getInitialArray();
         if (arr.length == 0) return;
-        model = new HeapModel(new HeapModel.ModelContext(bus, timeline));
-        if (view.isBottomUpSelected()) model.buildBottomUp(arr);
-        else model.buildIncremental(arr);
-        view.bindPQModel(model);
-        view.refreshHeap(model.getSnapshot());
-        timeline.start();
+        HeapModel m = new HeapModel(new HeapModel.ModelContext(bus, timeline))
+                .prepareBuild(arr, view.isBottomUpSelected());
+        model = m;
+        ModelExecutor.getDefault().submit(m, new ModelExecutor.Listener() {
+            @Override
+            public void finished(ModelExecutor.Execution ex) {
+                if (model != m || ex.getState() != ModelExecutor.State.COMPLETED) return;
+                view.bindPQModel(m);
+                view.refreshHeap(m.getSnapshot());
+            }
+        });
+    }
+
+    /**
+     * Races both build strategies on the current input in a separate
+     * window. Each lane gets a private bus so the module's own views stay
+     * untouched.
+     */
+    private void compareBuilds() {
+        int[] arr = view.getInitialArray();
+        if (arr.length == 0) return;
+        int[] input = Arrays.copyOf(arr, Math.min(arr.length, HeapModel.MAX_HEAP_CAPACITY));
+
+        SynchronizedTimelineGroup group = new SynchronizedTimelineGroup(60);
+        RacePanel race = new RacePanel(group);
+        for (boolean bottomUp : new boolean[]{true, false}) {
+            EventBus laneBus = new EventBus();
+            Timeline lane = group.newLane();
+            race.addLane(bottomUp ? "Bottom-up build" : "Incremental build", laneBus, lane, new HeapArrayStrip(), input);
+            HeapModel m = new HeapModel(new HeapModel.ModelContext(laneBus, lane)).prepareBuild(input, bottomUp);
+            ModelExecutor.getDefault().submit(m, ModelExecutor.Listener.NONE); // the group starts both lanes
+        }
+
+        JDialog dialog = new JDialog(SwingUtilities.getWindowAncestor(view.getRoot()), "Compare builds");
+        dialog.setLayout(new BorderLayout());
+        dialog.add(new JScrollPane(race), BorderLayout.CENTER);
+        dialog.add(new PlaybackBar(group), BorderLayout.SOUTH);
+        dialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override public void windowClosed(WindowEvent e) { group.pause(); }
+        });
+        dialog.pack();
+        dialog.setLocationRelativeTo(view.getRoot());
+        dialog.setVisible(true);
+        group.start();
     }
 
     private void runOperation() {
-        if (model == null) return;
+        if (model == null || model.isStreaming()) return; // still building
         String op = view.getSelectedOperation();
         switch (op) {
             case "Insert k" -> {
@@ -1,5 +1,6 @@
 package main.java.edu.tue.dsvis.modules.heaps.view;
 
+import main.java.edu.tue.dsvis.core.animation.Checkpointable;
 import main.java.edu.tue.dsvis.core.event.Event;
 import main.java.edu.tue.dsvis.core.event.EventBus;
 import main.java.edu.tue.dsvis.core.mvc.View;
@@ -13,7 +14,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.Random;
 
-public class HeapsView implements View, EventBus.EventListener {
+public class HeapsView implements View, EventBus.EventListener, Checkpointable {
 
     private final JPanel root = new JPanel(new BorderLayout());
 
@@ -31,16 +32,17 @@ public class HeapsView implements View, EventBus.EventListener {
 
     // CENTER visual components
     private final HeapArrayStrip arrayStrip = new HeapArrayStrip();
-    private final HeapTreePanel treePanel = new HeapTreePanel(EventBus.getGlobal());
+    private final HeapTreePanel treePanel;
     private final PriorityQueuePanel pqPanel = new PriorityQueuePanel();
     private final PseudocodePane pseudocodePane = new PseudocodePane("/pseudocode/heap_intro.txt");
 
     // SOUTH cost
     private final CostMeter costMeter = new CostMeter();
 
-    public HeapsView() {
+    public HeapsView(EventBus bus) {
+        this.treePanel = new HeapTreePanel(bus);
         buildUI();
-        registerToBus();
+        registerToBus(bus);
     }
 
     private void buildUI() {
@@ -58,7 +60,7 @@ public class HeapsView implements View, EventBus.EventListener {
         bar.add(btnBuild);
         bar.add(cmbOperation);
         bar.add(btnRunOp);
-        btnCompare.setVisible(false);
+        btnCompare.setToolTipText("Race bottom-up against incremental build on this input");
         bar.add(btnCompare);
         root.add(bar, BorderLayout.NORTH);
 
@@ -85,10 +87,9 @@ public class HeapsView implements View, EventBus.EventListener {
         btnRandom.addActionListener(e -> fillRandom());
     }
 
-    private void registerToBus() {
-        EventBus bus = EventBus.getGlobal();
-        bus.register(this);
-        bus.register(treePanel);
+    private void registerToBus(EventBus bus) {
+        bus.register(this, Event.EventType.HIGHLIGHT_RANGE, Event.EventType.LINE);
+        // treePanel subscribes itself to the heap event types
     }
 
     private void fillRandom() {
@@ -106,6 +107,7 @@ public class HeapsView implements View, EventBus.EventListener {
 
     public void addBuildListener(java.awt.event.ActionListener l) { btnBuild.addActionListener(l); }
     public void addRunOpListener(java.awt.event.ActionListener l) { btnRunOp.addActionListener(l); }
+    public void addCompareListener(java.awt.event.ActionListener l) { btnCompare.addActionListener(l); }
 
     public void bindPQModel(main.java.edu.tue.dsvis.modules.heaps.HeapModel m) { pqPanel.bindModel(m); }
 
@@ -175,4 +177,16 @@ public class HeapsView implements View, EventBus.EventListener {
     }
 
     @Override public void onReset() { resetView(); }
+
+    // ---------------- Checkpoints -----------------
+    // The heap itself is refreshed eagerly by the controller; frames only
+    // move highlights and the pseudocode line.
+    @Override public Object capture() { return pseudocodePane.getHighlightedLine(); }
+
+    @Override public void restore(Object state) {
+        int line = (Integer) state;
+        arrayStrip.clearHighlights();
+        if (line < 0) pseudocodePane.clearHighlight();
+        else pseudocodePane.highlight(line);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package main.java.edu.tue.dsvis.modules.race;
+
+import main.java.edu.tue.dsvis.core.animation.Playback;
+import main.java.edu.tue.dsvis.core.animation.SynchronizedTimelineGroup;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventScope;
+import main.java.edu.tue.dsvis.core.mvc.Model;
+import main.java.edu.tue.dsvis.core.mvc.ReplayCheckpoint;
+import main.java.edu.tue.dsvis.modules.ModuleDescriptor;
+import main.java.edu.tue.dsvis.modules.arrays.model.SortModels;
+import main.java.edu.tue.dsvis.widgets.ArrayStrip;
+import main.java.edu.tue.dsvis.widgets.RacePanel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiFunction;
+
+/**
+ * Races the selected sorting algorithms on the same random input. Every
+ * lane has its own bus scope, its own timeline in a shared
+ * {@link SynchronizedTimelineGroup}, and a streaming model, so all lanes
+ * advance by the same clock time.
+ */
+public class RaceModule implements ModuleDescriptor {
+
+    /** Lanes beyond this make the strips too small to follow. */
+    private static final int MAX_LANES = 8;
+
+    private final EventBus bus;
+    private final Timeline idle;
+    private final SynchronizedTimelineGroup group = new SynchronizedTimelineGroup(60);
+    private final RacePanel racePanel = new RacePanel(group);
+    private final JPanel root = new JPanel(new BorderLayout());
+
+    private final JSpinner spnSize = new JSpinner(new SpinnerNumberModel(40, 2, 100_000, 10));
+    private final Map<String, JCheckBox> algorithms = new LinkedHashMap<>();
+    private final JButton btnRace = new JButton("Race");
+
+    private final List<EventScope> laneScopes = new ArrayList<>();
+    private final List<Model> laneModels = new ArrayList<>();
+
+    /**
+     * @param bus      module scope; lanes get child scopes of it
+     * @param timeline reported by {@link #getTimeline()} until the first
+     *                 race; lanes are created by the group
+     */
+    public RaceModule(EventBus bus, Timeline timeline) {
+        this.bus = bus;
+        this.idle = timeline;
+        buildUI();
+    }
+
+    private void buildUI() {
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bar.add(new JLabel("Elements:"));
+        bar.add(spnSize);
+        for (String name : SortModels.all().keySet()) {
+            JCheckBox box = new JCheckBox(name, true);
+            algorithms.put(name, box);
+            bar.add(box);
+        }
+        bar.add(btnRace);
+        btnRace.addActionListener(e -> race());
+        root.add(bar, BorderLayout.NORTH);
+        root.add(new JScrollPane(racePanel), BorderLayout.CENTER);
+    }
+
+    private void race() {
+        clearLanes();
+        int n = (Integer) spnSize.getValue();
+        int[] input = new Random().ints(n, 0, 1000).toArray();
+        for (Map.Entry<String, JCheckBox> entry : algorithms.entrySet()) {
+            if (!entry.getValue().isSelected() || laneScopes.size() == MAX_LANES) continue;
+            EventScope scope = bus.createScope("lane-" + laneScopes.size());
+            Timeline lane = group.newLane();
+            ReplayCheckpoint.attach(scope, lane);
+            racePanel.addLane(entry.getKey(), scope, lane, new ArrayStrip(), input);
+            BiFunction<Model.ModelContext, int[], Model> factory = SortModels.all().get(entry.getKey());
+            Model model = factory.apply(new Model.ModelContext(scope, lane), Arrays.copyOf(input, n));
+            laneScopes.add(scope);
+            laneModels.add(model);
+            model.stream(null);
+        }
+        group.start();
+    }
+
+    private void clearLanes() {
+        group.pause();
+        laneModels.forEach(Model::cancel);
+        for (Timeline lane : group.getLanes()) {
+            lane.reset();
+            group.removeLane(lane);
+        }
+        laneScopes.forEach(EventScope::close);
+        laneModels.clear();
+        laneScopes.clear();
+        racePanel.clearLanes();
+    }
+
+    @Override
+    public String name() {
+        return "Algorithm Race";
+    }
+
+    @Override
+    public JPanel getRootPanel() {
+        return root;
+    }
+
+    /** @return the first lane; {@link #getPlayback()} controls all of them */
+    @Override
+    public Timeline getTimeline() {
+        List<Timeline> lanes = group.getLanes();
+        return lanes.isEmpty() ? idle : lanes.get(0);
+    }
+
+    @Override
+    public Playback getPlayback() {
+        return group;
+    }
+
+    @Override
+    public void reset() {
+        clearLanes();
+    }
+}
@@ -8,13 +8,16 @@ import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Visualises an {@code int[]} as equal-width boxes laid out horizontally.
@@ -39,12 +42,25 @@ public class ArrayStrip extends JPanel {
 
     private int[] data = new int[0];
 
+    // Worker + 1 that last produced each slot, 0 for none; null until a
+    // parallel model colours a range
+    private byte[] workers;
+
     // Active window for search highlighting; when low>high window is disabled
     private int windowLow = -1;
     private int windowHigh = -1;
 
     // Map of index -> expiry time in nanos for flash effect
     private final Map<Integer, Long> flashUntil = new HashMap<>();
+    private long lastFlashExpiry;
+
+    /**
+     * Strips with pending flash expiries. One timer repaints them all, so
+     * many strips (race lanes) flashing at frame rate create no timers.
+     * EDT only.
+     */
+    private static final Set<ArrayStrip> FLASHING = new HashSet<>();
+    private static final Timer FLASH_SWEEP = new Timer(40, e -> sweepFlashes());
 
     public ArrayStrip() {
         // Placeholder listener for future drag-and-drop reordering support.
@@ -56,6 +72,7 @@ public class ArrayStrip extends JPanel {
     // Public API
 
     public void setData(int[] arr) {
+        if (arr.length != data.length) workers = null;
         this.data = Arrays.copyOf(arr, arr.length);
         revalidate();
         repaint();
@@ -69,12 +86,7 @@ public class ArrayStrip extends JPanel {
         long expiry = System.nanoTime() + 150_000_000L; // 150 ms
         flashUntil.put(index, expiry);
         repaint();
-
-        // Schedule a repaint after expiry to clear highlight.
-        new Timer(160, e -> {
-            ((Timer) e.getSource()).stop();
-            repaint();
-        }).start();
+        scheduleSweep(expiry); // repaint after expiry to clear highlight
     }
 
     /**
@@ -97,6 +109,7 @@ public class ArrayStrip extends JPanel {
             flashUntil.put(i, expiry);
         }
         repaint();
+        scheduleSweep(expiry);
     }
 
     /** Clears all flash highlights. */
@@ -134,6 +147,42 @@ public class ArrayStrip extends JPanel {
         repaint();
     }
 
+    /** Copies {@code values} into the slots from {@code from} on and repaints. */
+    public void setRange(int from, int[] values) {
+        if (from < 0 || from >= data.length) return;
+        System.arraycopy(values, 0, data, from, Math.min(values.length, data.length - from));
+        repaint();
+    }
+
+    /**
+     * Tints {@code [l, r]} with the colour of {@code worker} until the range
+     * is coloured again or {@link #clearWorkers()} is called.
+     */
+    public void colorRange(int l, int r, int worker) {
+        l = Math.max(0, l);
+        r = Math.min(data.length - 1, r);
+        if (l > r) return;
+        if (workers == null) workers = new byte[data.length];
+        Arrays.fill(workers, l, r + 1, (byte) (Math.floorMod(worker, 127) + 1));
+        repaint();
+    }
+
+    public void clearWorkers() {
+        workers = null;
+        repaint();
+    }
+
+    /** @return a copy of the worker tints, or null if none are set */
+    public byte[] getWorkers() {
+        return workers == null ? null : workers.clone();
+    }
+
+    /** Restores tints returned by {@link #getWorkers()}. */
+    public void setWorkers(byte[] tints) {
+        workers = tints == null || tints.length != data.length ? null : tints.clone();
+        repaint();
+    }
+
     /** Sets current active window for search visualisation. */
     public void setSearchWindow(int low, int high) {
         this.windowLow = low;
@@ -141,6 +190,16 @@ public class ArrayStrip extends JPanel {
         repaint();
     }
 
+    /** @return lower bound of the search window, or -1 when none is set */
+    public int getWindowLow() {
+        return windowLow;
+    }
+
+    /** @return upper bound of the search window, or -1 when none is set */
+    public int getWindowHigh() {
+        return windowHigh;
+    }
+
     /** Clears any active search window. */
     public void clearSearchWindow() {
         this.windowLow = -1;
@@ -148,6 +207,23 @@ public class ArrayStrip extends JPanel {
         repaint();
     }
 
+    private void scheduleSweep(long expiry) {
+        lastFlashExpiry = Math.max(lastFlashExpiry, expiry);
+        if (FLASHING.add(this) && !FLASH_SWEEP.isRunning()) FLASH_SWEEP.start();
+    }
+
+    private static void sweepFlashes() {
+        long now = System.nanoTime();
+        for (Iterator<ArrayStrip> it = FLASHING.iterator(); it.hasNext(); ) {
+            ArrayStrip strip = it.next();
+            if (strip.lastFlashExpiry <= now) {
+                it.remove();
+                strip.repaint();
+            }
+        }
+        if (FLASHING.isEmpty()) FLASH_SWEEP.stop();
+    }
+
     // Swing overrides
 
     @Override
@@ -176,12 +252,16 @@ public class ArrayStrip extends JPanel {
 
         int indexBaseline = PAD_Y + BOX_H + INDEX_H - 2;
 
-        for (int i = 0; i < data.length; i++) {
+        // Only the boxes inside the clip; large arrays are mostly off-screen
+        Rectangle clip = g2.getClipBounds();
+        int first = clip == null ? 0 : Math.max(0, clip.x / BOX_W);
+        int last = clip == null ? data.length - 1 : Math.min(data.length - 1, (clip.x + clip.width) / BOX_W);
+        for (int i = first; i <= last; i++) {
             int x = i * BOX_W;
             int y = PAD_Y;
 
             // Determine colour
-            Color fill = BASE;
+            Color fill = workers != null && workers[i] != 0 ? WorkerPalette.of(workers[i] - 1) : BASE;
             if (windowLow >= 0 && windowHigh >= windowLow) {
                 if (i < windowLow || i > windowHigh) {
                     fill = DIMMED;
@@ -27,8 +27,12 @@ public class HeapTreePanel extends JPanel implements View, EventBus.EventListene
 
     private boolean showIndexes = false;
 
+    private final EventBus bus;
+
     public HeapTreePanel(EventBus bus) {
-        bus.register(this);
+        this.bus = bus;
+        bus.register(this, Event.EventType.COMPARE, Event.EventType.KEY_UPDATE, Event.EventType.SWAP,
+                Event.EventType.INSERT_KEY, Event.EventType.EXTRACT_KEY);
 
         addMouseMotionListener(new MouseMotionAdapter() {
             @Override public void mouseMoved(MouseEvent e) { handleHover(e.getX(), e.getY()); }
@@ -69,7 +73,7 @@ public class HeapTreePanel extends JPanel implements View, EventBus.EventListene
     private void handleHover(int x, int y) {
         int idx = locateNode(x, y);
         if (idx >= 0 && idx < heap.length) {
-            EventBus.getGlobal().post(Event.highlightRange(idx, idx));
+            bus.post(Event.highlightRange(idx, idx));
         }
     }
 
@@ -0,0 +1,99 @@
+package main.java.edu.tue.dsvis.widgets;
+
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+
+/**
+ * Bar chart of the buckets of a counting or radix pass: one bar per bucket
+ * count, the part already scattered drawn darker and the bucket of the
+ * current element highlighted. More buckets than pixels are binned, each
+ * column showing the largest bucket it covers.
+ */
+public class HistogramPanel extends JPanel {
+
+    private static final Color BAR = new Color(0x90CAF9);    // light blue
+    private static final Color PLACED = new Color(0x1976D2); // dark blue
+    private static final Color ACTIVE = new Color(0xFFB300); // amber
+    private static final int PAD = 8;
+    private static final int LABEL_H = 16;
+
+    private String label;
+    private int[] counts;
+    private int[] placed;
+    private int active = -1;
+
+    public HistogramPanel() {
+        setPreferredSize(new Dimension(400, 160));
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Shows {@code counts}; the arrays are kept, not copied.
+     *
+     * @param placed elements scattered per bucket so far, or null while counting
+     * @param active bucket to highlight, or -1
+     */
+    public void show(String label, int[] counts, int[] placed, int active) {
+        this.label = label;
+        this.counts = counts;
+        this.placed = placed;
+        this.active = active;
+        repaint();
+    }
+
+    public void clear() {
+        label = null;
+        counts = placed = null;
+        active = -1;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (counts == null || counts.length == 0) return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        int w = getWidth() - 2 * PAD;
+        int h = getHeight() - 2 * PAD - LABEL_H;
+        if (label != null) {
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(label, PAD, PAD + 12);
+        }
+        if (w <= 0 || h <= 0) {
+            g2.dispose();
+            return;
+        }
+
+        int columns = Math.min(counts.length, w);
+        int max = 1;
+        for (int c : counts) max = Math.max(max, c);
+        int baseY = PAD + LABEL_H + h;
+        for (int col = 0; col < columns; col++) {
+            int from = (int) ((long) col * counts.length / columns);
+            int to = (int) ((long) (col + 1) * counts.length / columns);
+            int count = 0, done = 0;
+            boolean hit = false;
+            for (int b = from; b < to; b++) {
+                if (counts[b] > count) {
+                    count = counts[b];
+                    done = placed == null ? 0 : placed[b];
+                }
+                hit |= b == active;
+            }
+            int x = PAD + col * w / columns;
+            int bw = Math.max(1, (col + 1) * w / columns - col * w / columns - (columns < w / 2 ? 1 : 0));
+            int bh = (int) ((long) count * h / max);
+            g2.setColor(hit ? ACTIVE : BAR);
+            g2.fillRect(x, baseY - bh, bw, bh);
+            if (done > 0) {
+                int dh = (int) ((long) done * h / max);
+                g2.setColor(PLACED);
+                g2.fillRect(x, baseY - dh, bw, dh);
+            }
+        }
+        g2.dispose();
+    }
+}
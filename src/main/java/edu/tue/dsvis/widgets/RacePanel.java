@@ -0,0 +1,180 @@
+package main.java.edu.tue.dsvis.widgets;
+
+import main.java.edu.tue.dsvis.core.animation.Checkpointable;
+import main.java.edu.tue.dsvis.core.animation.Playback;
+import main.java.edu.tue.dsvis.core.animation.Timeline;
+import main.java.edu.tue.dsvis.core.event.Event;
+import main.java.edu.tue.dsvis.core.event.EventBus;
+import main.java.edu.tue.dsvis.core.event.EventTape;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split-screen view of racing lanes, one strip per algorithm stacked
+ * vertically, each with live compare / write counters.
+ *
+ * <p>Strips repaint per event (Swing coalesces those), while the counters
+ * are refreshed once per {@code "position"} event of the shared
+ * {@link Playback}, i.e. once per render pulse rather than once per
+ * event.</p>
+ */
+public class RacePanel extends JPanel {
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    /** @param playback the group driving all lanes; its events refresh the counters */
+    public RacePanel(Playback playback) {
+        super(new GridLayout(0, 1, 0, 6));
+        playback.addPropertyChangeListener(e -> refresh());
+    }
+
+    /**
+     * Adds a lane showing {@code data} in {@code strip}. The lane listens on
+     * {@code bus} and is checkpointed by {@code timeline}.
+     */
+    public Lane addLane(String title, EventBus bus, Timeline timeline, ArrayStrip strip, int[] data) {
+        Lane lane = new Lane(title, timeline, strip);
+        strip.setData(data);
+        bus.register(lane, Event.EventType.COMPARE, Event.EventType.VISIT, Event.EventType.SWAP,
+                Event.EventType.SET_VALUE, Event.EventType.HIGHLIGHT_RANGE);
+        timeline.addCheckpointable(lane);
+        lanes.add(lane);
+        add(lane.panel);
+        revalidate();
+        return lane;
+    }
+
+    /** Removes all lanes; their buses and timelines are the caller's to dispose. */
+    public void clearLanes() {
+        lanes.clear();
+        removeAll();
+        revalidate();
+        repaint();
+    }
+
+    private void refresh() {
+        for (Lane lane : lanes) {
+            Timeline t = lane.timeline;
+            boolean done = t.getLength() > 0 && t.getRemaining() == 0 && !t.isStreaming();
+            if (!done) lane.place = 0; // also after seeking back
+            else if (lane.place == 0) lane.place = 1 + (int) lanes.stream().filter(l -> l.place > 0).count();
+            lane.updateLabel();
+        }
+    }
+
+    /** One racing algorithm: a header with counters above its strip. */
+    public static final class Lane implements EventBus.TapeListener, Checkpointable {
+
+        private record State(int[] data, byte[] workers, long compares, long writes) {}
+
+        private final String title;
+        private final Timeline timeline;
+        private final ArrayStrip strip;
+        private final JLabel header = new JLabel();
+        private final JPanel panel = new JPanel(new BorderLayout());
+        private long compares = 0;
+        private long writes = 0;
+        private int place = 0;
+
+        private Lane(String title, Timeline timeline, ArrayStrip strip) {
+            this.title = title;
+            this.timeline = timeline;
+            this.strip = strip;
+            panel.add(header, BorderLayout.NORTH);
+            panel.add(new JScrollPane(strip), BorderLayout.CENTER);
+            updateLabel();
+        }
+
+        public long getCompares() {
+            return compares;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        private void updateLabel() {
+            header.setText(title + "   compares " + compares + " · writes " + writes
+                    + " · frame " + timeline.getPosition() + " / " + timeline.getLength()
+                    + (place > 0 ? "   finished #" + place : ""));
+        }
+
+        @Override
+        public void onEvent(Event e) {
+            int[] idx = e.getIndices();
+            switch (e.getType()) {
+                case COMPARE, VISIT -> {
+                    compares++;
+                    if (idx.length > 0) strip.flash(idx[0]);
+                }
+                case SWAP -> {
+                    writes += 2;
+                    if (idx.length >= 2) strip.swap(idx[0], idx[1]);
+                }
+                case SET_VALUE -> {
+                    if (idx.length == 2 && e.getPayload() instanceof int[] values) {
+                        writes += values.length;
+                        strip.setRange(idx[0], values);
+                    } else {
+                        writes++;
+                        if (idx.length >= 1 && e.getPayload() instanceof Integer v) strip.setValue(idx[0], v);
+                    }
+                }
+                case HIGHLIGHT_RANGE -> {
+                    if (idx.length != 2) return;
+                    if (e.getPayload() instanceof Integer worker) strip.colorRange(idx[0], idx[1], worker);
+                    else strip.flashRange(idx[0], idx[1]);
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void onTapeEvent(EventTape tape, int pos) {
+            switch (tape.type(pos)) {
+                case COMPARE, VISIT -> {
+                    compares++;
+                    if (tape.indexCount(pos) > 0) strip.flash(tape.index(pos, 0));
+                }
+                case SWAP -> {
+                    writes += 2;
+                    strip.swap(tape.index(pos, 0), tape.index(pos, 1));
+                }
+                case SET_VALUE -> {
+                    if (!tape.hasIntPayload(pos)) {
+                        onEvent(tape.toEvent(pos)); // bulk write
+                        return;
+                    }
+                    writes++;
+                    strip.setValue(tape.index(pos, 0), tape.intPayload(pos));
+                }
+                default -> onEvent(tape.toEvent(pos));
+            }
+        }
+
+        @Override
+        public Object capture() {
+            return new State(strip.getData(), strip.getWorkers(), compares, writes);
+        }
+
+        @Override
+        public void restore(Object state) {
+            State s = (State) state;
+            strip.clearHighlights();
+            strip.setData(s.data());
+            strip.setWorkers(s.workers());
+            compares = s.compares();
+            writes = s.writes();
+        }
+
+        @Override
+        public long sizeOf(Object state) {
+            State s = (State) state;
+            return 64 + 4L * s.data().length + (s.workers() == null ? 0 : s.workers().length);
+        }
+    }
+}
@@ -9,12 +9,13 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Line2D;
-import java.util.Arrays;
 
 /**
  * Visualises the recursive structure of algorithms such as Merge Sort.
  * Nodes represent array slices {@code [left,right]}. SPLIT events add child
- * nodes, MERGE events mark nodes as completed (rendered in green).
+ * nodes, MERGE events mark nodes as completed (rendered in green). Events
+ * of parallel models carry the worker as an {@code Integer} payload; such
+ * nodes are drawn in the worker's {@link WorkerPalette} colour instead.
  */
 public class RecursionTreePanel extends JPanel implements View, EventBus.EventListener {
 
@@ -25,6 +26,7 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
 
     private Node root;
     private int[] liveArray;
+    private String caption; // drawn top left, e.g. a measured speedup
 
     // ---------------------------------------------------------------------
     // Node definition
@@ -35,6 +37,7 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
         Node leftChild;
         Node rightChild;
         boolean completed;
+        int worker = -1; // that split or merged the slice, -1 if unknown
 
         Node(int left, int right) {
             this.left = left;
@@ -54,6 +57,7 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
         if (idx.length < 2) return; // need a range
         int l = idx[0];
         int r = idx[1];
+        int worker = e.getPayload() instanceof Integer w ? w : -1;
         switch (e.getType()) {
             case SPLIT -> {
                 if (root == null) root = new Node(l, r);
@@ -62,11 +66,15 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
                     int mid = (l + r) / 2;
                     n.leftChild = new Node(l, mid);
                     n.rightChild = new Node(mid + 1, r);
+                    if (worker >= 0) n.worker = worker;
                 }
             }
             case MERGE -> {
                 Node n = findNode(root, l, r);
-                if (n != null) n.completed = true;
+                if (n != null) {
+                    n.completed = true;
+                    if (worker >= 0) n.worker = worker;
+                }
             }
             default -> {}
         }
@@ -89,12 +97,15 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (root == null) return;
+        if (root == null && caption == null) return;
         Graphics2D g2 = (Graphics2D) g.create();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        if (caption != null) {
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawString(caption, 8, getHeight() - 8);
+        }
 
-        int maxRight = root.right;
-        drawNode(g2, root, 0, maxRight);
+        if (root != null) drawNode(g2, root, 0, root.right);
         g2.dispose();
     }
 
@@ -108,9 +119,7 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
         // Compute label first to size box
         String label;
         if (liveArray != null) {
-            int[] slice = Arrays.copyOfRange(liveArray, n.left, n.right + 1);
-            label = Arrays.toString(slice);
-            if (label.length() > 18) label = label.substring(0, 17) + "…]";
+            label = sliceLabel(n.left, n.right);
         } else {
             label = "[" + n.left + "," + n.right + "]";
         }
@@ -136,16 +145,17 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
 
         // Node rectangle
         if (n.completed) {
-            g2.setColor(new Color(0xA5D6A7)); // greenish
+            g2.setColor(n.worker >= 0 ? WorkerPalette.light(n.worker) : new Color(0xA5D6A7)); // greenish
             g2.fillRect(x, y, nodeW, NODE_H);
             g2.setColor(Color.BLACK);
             g2.setStroke(new BasicStroke(2));
         } else {
             g2.setColor(Color.WHITE);
             g2.fillRect(x, y, nodeW, NODE_H);
-            g2.setColor(Color.BLACK);
+            g2.setColor(n.worker >= 0 ? WorkerPalette.of(n.worker) : Color.BLACK);
         }
         g2.drawRect(x, y, nodeW, NODE_H);
+        g2.setColor(Color.BLACK);
 
         // Label
         int tw = fm.stringWidth(label);
@@ -156,6 +166,17 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
         if (n.rightChild != null) drawNode(g2, n.rightChild, depth + 1, maxR);
     }
 
+    /** Label of {@code liveArray[l..r]}, at most 18 characters; reads only what it shows. */
+    private String sliceLabel(int l, int r) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = l; i <= r && i < liveArray.length; i++) {
+            if (i > l) sb.append(", ");
+            sb.append(liveArray[i]);
+            if (sb.length() > 17) return sb.substring(0, 17) + "…]";
+        }
+        return sb.append(']').toString();
+    }
+
     // ---------------------------------------------------------------------
     // Unused View default
     // ---------------------------------------------------------------------
@@ -163,11 +184,74 @@ public class RecursionTreePanel extends JPanel implements View, EventBus.EventLi
     @Override
     public void onReset() {
         root = null;
+        caption = null;
+        repaint();
+    }
+
+    /** Sets the text in the bottom-left corner; null for none. */
+    public void setCaption(String text) {
+        caption = text;
         repaint();
     }
 
+    public String getCaption() {
+        return caption;
+    }
+
     public void bindArray(int[] arr) { this.liveArray = arr; repaint(); }
 
+    // ---------------------------------------------------------------------
+    // Snapshots (timeline checkpoints)
+    // ---------------------------------------------------------------------
+
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_SPLIT = 2;
+    private static final int WORKER_SHIFT = 2; // flags above hold worker + 1
+
+    /**
+     * @return the tree as preorder {@code (left, right, flags)} triples;
+     *         children of a split node follow it directly
+     */
+    public int[] snapshot() {
+        int[] out = new int[3 * count(root)];
+        write(root, out, 0);
+        return out;
+    }
+
+    /** Rebuilds the tree from an array returned by {@link #snapshot()}. */
+    public void restore(int[] snapshot) {
+        int[] cursor = {0};
+        root = snapshot.length == 0 ? null : read(snapshot, cursor);
+        repaint();
+    }
+
+    private int count(Node n) {
+        return n == null ? 0 : 1 + count(n.leftChild) + count(n.rightChild);
+    }
+
+    private int write(Node n, int[] out, int at) {
+        if (n == null) return at;
+        out[at] = n.left;
+        out[at + 1] = n.right;
+        out[at + 2] = (n.completed ? FLAG_COMPLETED : 0) | (n.isLeaf() ? 0 : FLAG_SPLIT)
+                | (n.worker + 1) << WORKER_SHIFT;
+        at = write(n.leftChild, out, at + 3);
+        return write(n.rightChild, out, at);
+    }
+
+    private Node read(int[] in, int[] cursor) {
+        int at = cursor[0];
+        cursor[0] += 3;
+        Node n = new Node(in[at], in[at + 1]);
+        n.completed = (in[at + 2] & FLAG_COMPLETED) != 0;
+        n.worker = (in[at + 2] >>> WORKER_SHIFT) - 1;
+        if ((in[at + 2] & FLAG_SPLIT) != 0) {
+            n.leftChild = read(in, cursor);
+            n.rightChild = read(in, cursor);
+        }
+        return n;
+    }
+
     private Node findNearest(Node current, int x, int y, int depth, int maxR) {
         if (current == null) return null;
         double centerRatio = ((current.left + current.right) / 2.0) / (maxR + 1);
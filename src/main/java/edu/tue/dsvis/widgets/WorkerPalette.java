@@ -0,0 +1,35 @@
+package main.java.edu.tue.dsvis.widgets;
+
+import java.awt.Color;
+
+/**
+ * Colours for the worker threads of parallel models, shared by the widgets
+ * so one worker has the same colour in the array and in the tree.
+ */
+public final class WorkerPalette {
+
+    private static final Color[] COLORS = {
+            new Color(0x7E57C2), // purple
+            new Color(0xFF7043), // deep orange
+            new Color(0x26A69A), // teal
+            new Color(0xEC407A), // pink
+            new Color(0x9CCC65), // light green
+            new Color(0x5C6BC0), // indigo
+            new Color(0xFFCA28), // amber
+            new Color(0x8D6E63), // brown
+    };
+
+    private WorkerPalette() {
+    }
+
+    /** @return the colour of worker {@code worker}; colours repeat after eight workers */
+    public static Color of(int worker) {
+        return COLORS[Math.floorMod(worker, COLORS.length)];
+    }
+
+    /** @return a pale variant of {@link #of(int)}, for fills under black text */
+    public static Color light(int worker) {
+        Color c = of(worker);
+        return new Color((c.getRed() + 255) / 2, (c.getGreen() + 255) / 2, (c.getBlue() + 255) / 2);
+    }
+}